@@ -0,0 +1,155 @@
+package hello.proxy.config;
+
+import hello.proxy.config.v6_aop.AopConfig;
+import hello.proxy.timer.HashedTimerWheel;
+import hello.proxy.trace.logtrace.LogTrace;
+import hello.proxy.trace.logtrace.NoOpLogTrace;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * 같은 톰캣 스레드 수에서 동기(v3, 1초 sleep) vs 비동기(v4, 1초 타이머) 처리량 비교
+ * 동시 요청 clients 개를 계속 유지하는 closed-loop 부하. 동기 버전은 worker 스레드 수 / 1초 근처에서 막히고,
+ * 비동기 버전은 clients / 1초 까지 올라가야 함 (스레드는 요청 접수와 응답 작성에만 쓰임)
+ *
+ * LogTrace 는 NoOp (AopConfig 프록시 + 완료 시점 span 기록 경로는 그대로 탐)
+ *
+ * 네 번째 인자가 virtual 이면 VirtualThreadConfig 를 켜서 톰캣 요청을 가상 스레드로 처리 (Java 21)
+ * 이때는 동기 버전도 스레드 수 제한 없이 clients / 1초 까지 올라가야 함. 같은 인자로 플랫폼 스레드 결과와 비교
+ *
+ * ./gradlew loadTest --args='400 20 10'          (동시 요청 수, tomcat 최대 스레드 수, 측정 초)
+ * ./gradlew loadTest --args='400 20 10 virtual'
+ */
+public class AsyncLoadTest {
+
+  public static void main(String[] args) throws Exception {
+    int clients = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+    int tomcatThreads = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+    int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+    boolean virtual = args.length > 3 && args[3].equals("virtual");
+
+    SpringApplication application = new SpringApplication(LoadTestApplication.class, VirtualThreadConfig.class);
+    application.setDefaultProperties(Map.of(
+        "server.port", "0",
+        "server.tomcat.threads.max", String.valueOf(tomcatThreads),
+        "server.tomcat.threads.min-spare", String.valueOf(tomcatThreads),
+        "server.tomcat.max-connections", String.valueOf(clients * 2),
+        "server.tomcat.accept-count", String.valueOf(clients * 2),
+        "proxy.virtual-threads.enabled", String.valueOf(virtual),
+        "spring.main.banner-mode", "off",
+        "logging.level.root", "warn"));
+
+    // 연결을 재사용하도록 클라이언트는 하나만 (실행마다 만들면 keep-alive 연결이 남아 max-connections 를 채움)
+    // HttpClient 는 닫는 메서드가 없으므로 직접 만든 executor 를 종료해야 JVM 이 끝남
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try (ConfigurableApplicationContext context = application.run()) {
+      HttpClient client = HttpClient.newBuilder()
+          .executor(executor)
+          .connectTimeout(Duration.ofSeconds(5))
+          .build();
+      int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+      System.out.printf("clients=%d, tomcat threads=%s, %ds%n",
+          clients, virtual ? "virtual" : String.valueOf(tomcatThreads), seconds);
+      for (String path : new String[]{"/v3/request", "/v4/request"}) {
+        URI uri = URI.create("http://localhost:" + port + path + "?itemId=item");
+        // 워밍업 후 측정
+        run(client, uri, clients, 2);
+        Result result = run(client, uri, clients, seconds);
+        System.out.printf("%-12s %8.1f req/s  (실패 %d)%n", path, result.completed / (double) seconds, result.failed);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static Result run(HttpClient client, URI uri, int clients, int seconds) throws InterruptedException {
+    AtomicBoolean running = new AtomicBoolean(true);
+    LongAdder completed = new LongAdder();
+    LongAdder failed = new LongAdder();
+    LongAdder inFlight = new LongAdder();
+
+    for (int i = 0; i < clients; i++) {
+      send(client, uri, running, completed, failed, inFlight);
+    }
+    TimeUnit.SECONDS.sleep(seconds);
+    running.set(false);
+    // 남은 요청 정리
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+    while (inFlight.sum() > 0 && System.nanoTime() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(100);
+    }
+    return new Result(completed.sum(), failed.sum());
+  }
+
+  /**
+   * 응답이 오면 바로 다음 요청 (closed-loop)
+   */
+  private static void send(HttpClient client, URI uri, AtomicBoolean running,
+      LongAdder completed, LongAdder failed, LongAdder inFlight) {
+    inFlight.increment();
+    HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).build();
+    client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+        .whenComplete((response, e) -> {
+          inFlight.decrement();
+          if (!running.get()) {
+            return;
+          }
+          if (e == null && response.statusCode() == 200) {
+            completed.increment();
+          } else {
+            failed.increment();
+          }
+          send(client, uri, running, completed, failed, inFlight);
+        });
+  }
+
+  private static final class Result {
+
+    final long completed;
+    final long failed;
+
+    Result(long completed, long failed) {
+      this.completed = completed;
+      this.failed = failed;
+    }
+  }
+
+  @Configuration
+  @EnableAutoConfiguration
+  @ComponentScan({"hello.proxy.app.v3", "hello.proxy.app.v4"})
+  @Import(AopConfig.class)
+  static class LoadTestApplication {
+
+    @Bean
+    LogTrace logTrace() {
+      return new NoOpLogTrace();
+    }
+
+    // 운영 설정(ProxyApplication)과 같이 만료된 작업은 applicationTaskExecutor 에서 실행
+    @Bean
+    HashedTimerWheel timerWheel(@Qualifier("applicationTaskExecutor") Executor applicationTaskExecutor) {
+      HashedTimerWheel timerWheel = new HashedTimerWheel(10, TimeUnit.MILLISECONDS, 512);
+      timerWheel.setTaskExecutor(applicationTaskExecutor);
+      return timerWheel;
+    }
+  }
+}
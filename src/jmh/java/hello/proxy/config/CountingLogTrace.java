@@ -0,0 +1,49 @@
+package hello.proxy.config;
+
+import hello.proxy.trace.TraceStatus;
+import hello.proxy.trace.logtrace.LogTrace;
+import hello.proxy.trace.site.TraceSite;
+
+/**
+ * 벤치마크 전에 프록시가 실제로 몇 개의 span 을 여는지 확인하는 용도 (단일 스레드)
+ */
+class CountingLogTrace implements LogTrace {
+
+  private static final TraceStatus STATUS = new TraceStatus(null, 0L, "count");
+
+  int spans;
+
+  @Override
+  public TraceStatus begin(String message) {
+    spans++;
+    return STATUS;
+  }
+
+  @Override
+  public TraceStatus begin(TraceSite site) {
+    spans++;
+    return STATUS;
+  }
+
+  @Override
+  public void end(TraceStatus status) {
+  }
+
+  @Override
+  public void exception(TraceStatus status, Exception e) {
+  }
+
+  @Override
+  public int beginSpan(TraceSite site) {
+    spans++;
+    return 0;
+  }
+
+  @Override
+  public void endSpan(int handle) {
+  }
+
+  @Override
+  public void exceptionSpan(int handle, Exception e) {
+  }
+}
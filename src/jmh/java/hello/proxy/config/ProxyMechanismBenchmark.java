@@ -0,0 +1,75 @@
+package hello.proxy.config;
+
+import hello.proxy.trace.logtrace.NoOpLogTrace;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 프록시 방식별 호출 비용 (LogTrace 는 아무것도 하지 않음 -> 순수 프록시 비용)
+ * advised: controller.request() -> service -> repository, 3단 모두 프록시 + 로그 대상
+ * notAdvised: controller.noLog(), 프록시는 거치지만 로그 대상에서 제외 (jdkBasicHandler 는 필터가 없어서 로그 대상)
+ *
+ * 지연시간/처리량: ./gradlew jmh -Pjmh.includes=ProxyMechanismBenchmark
+ * 호출당 할당량: -Pjmh.profilers=gc 추가 후 gc.alloc.rate.norm
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public abstract class ProxyMechanismBenchmark {
+
+  @Param({"direct", "interfaceProxy", "concreteProxy", "jdkBasicHandler", "jdkFilterHandler",
+      "cglibFilterInterceptor", "cglibCallbackFilter", "proxyFactoryJdk", "proxyFactoryCglib", "autoProxyAdvisor", "aspect",
+      "staticInterfaceProxy", "staticClassProxy"})
+  private String mechanism;
+
+  private ProxyMechanisms.Target target;
+
+  @Setup
+  public void setUp() {
+    // 실제로 3단 모두 프록시가 적용됐는지 먼저 확인 (direct 는 0)
+    CountingLogTrace counting = new CountingLogTrace();
+    ProxyMechanisms.create(mechanism, counting).request.apply("itemId");
+    int expected = mechanism.equals("direct") ? 0 : 3;
+    if (counting.spans != expected) {
+      throw new IllegalStateException(mechanism + " span 개수: " + counting.spans + ", 기대값: " + expected);
+    }
+
+    target = ProxyMechanisms.create(mechanism, new NoOpLogTrace());
+  }
+
+  @Benchmark
+  public String advised() {
+    return target.request.apply("itemId");
+  }
+
+  @Benchmark
+  public String notAdvised() {
+    return target.noLog.get();
+  }
+
+  @Threads(1)
+  public static class SingleThread extends ProxyMechanismBenchmark {
+  }
+
+  @Threads(4)
+  public static class FourThreads extends ProxyMechanismBenchmark {
+  }
+
+  @Threads(Threads.MAX)
+  public static class MaxThreads extends ProxyMechanismBenchmark {
+  }
+}
@@ -0,0 +1,234 @@
+package hello.proxy.config;
+
+import hello.proxy.app.v1.OrderControllerV1;
+import hello.proxy.app.v1.OrderControllerV1Impl;
+import hello.proxy.app.v1.OrderControllerV1TraceProxy;
+import hello.proxy.app.v1.OrderRepositoryV1;
+import hello.proxy.app.v1.OrderRepositoryV1TraceProxy;
+import hello.proxy.app.v1.OrderServiceV1;
+import hello.proxy.app.v1.OrderServiceV1Impl;
+import hello.proxy.app.v1.OrderServiceV1TraceProxy;
+import hello.proxy.app.v2.OrderControllerV2;
+import hello.proxy.app.v2.OrderControllerV2TraceProxy;
+import hello.proxy.app.v2.OrderRepositoryV2;
+import hello.proxy.app.v2.OrderRepositoryV2TraceProxy;
+import hello.proxy.app.v2.OrderServiceV2;
+import hello.proxy.app.v2.OrderServiceV2TraceProxy;
+import hello.proxy.config.v1_proxy.concrete_proxy.OrderControllerConcreteProxy;
+import hello.proxy.config.v1_proxy.concrete_proxy.OrderRepositoryConcreteProxy;
+import hello.proxy.config.v1_proxy.concrete_proxy.OrderServiceConcreteProxy;
+import hello.proxy.config.v1_proxy.interface_proxy.OrderControllerInterfaceProxy;
+import hello.proxy.config.v1_proxy.interface_proxy.OrderRepositoryInterfaceProxy;
+import hello.proxy.config.v1_proxy.interface_proxy.OrderServiceInterfaceProxy;
+import hello.proxy.config.v2_dynamicproxy.handler.LogTraceBasicHandler;
+import hello.proxy.config.v2_dynamicproxy.handler.LogTraceFilterHandler;
+import hello.proxy.config.v2_dynamicproxy.interceptor.CglibTraceProxyBuilder;
+import hello.proxy.config.v2_dynamicproxy.interceptor.LogTraceFilterInterceptor;
+import hello.proxy.config.v3_proxyfactory.advice.LogTraceAdvice;
+import hello.proxy.config.v6_aop.aspect.LogTraceAspect;
+import hello.proxy.trace.logtrace.LogTrace;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.NameMatchMethodPointcut;
+import org.springframework.cglib.proxy.Enhancer;
+
+/**
+ * 프록시 방식별로 controller -> service -> repository 3단 구조를 만듦 (각 config 클래스와 같은 조립 방식)
+ * repository 는 sleep 하지 않는 구현으로 교체
+ */
+final class ProxyMechanisms {
+
+  private static final String[] PATTERNS = {"request*", "order*", "save*"};
+
+  private ProxyMechanisms() {
+  }
+
+  /**
+   * 벤치마크에서 호출할 두 메서드. advised: request (3단 모두 로그 대상), notAdvised: noLog
+   */
+  static final class Target {
+
+    final Function<String, String> request;
+    final Supplier<String> noLog;
+
+    Target(Function<String, String> request, Supplier<String> noLog) {
+      this.request = request;
+      this.noLog = noLog;
+    }
+  }
+
+  static Target create(String mechanism, LogTrace logTrace) {
+    switch (mechanism) {
+      case "direct":
+        return v1(new OrderControllerV1Impl(new OrderServiceV1Impl(new NoSleepOrderRepositoryV1())));
+      case "interfaceProxy":
+        return interfaceProxy(logTrace);
+      case "concreteProxy":
+        return concreteProxy(logTrace);
+      case "jdkBasicHandler":
+        return jdkProxy(logTrace, false);
+      case "jdkFilterHandler":
+        return jdkProxy(logTrace, true);
+      case "cglibFilterInterceptor":
+        return cglib(logTrace);
+      case "cglibCallbackFilter":
+        return cglibCallbackFilter(logTrace);
+      case "proxyFactoryJdk":
+        return proxyFactoryJdk(nameMatchAdvisor(logTrace));
+      case "proxyFactoryCglib":
+        return proxyFactoryCglib(nameMatchAdvisor(logTrace));
+      case "autoProxyAdvisor":
+        // AutoProxyConfig.advisor3 와 같은 advisor. 자동 프록시 생성기도 결국 ProxyFactory 로 이 프록시를 만듦
+        return proxyFactoryJdk(expressionAdvisor(logTrace));
+      case "aspect":
+        return aspect(logTrace);
+      case "staticInterfaceProxy":
+        return staticInterfaceProxy(logTrace);
+      case "staticClassProxy":
+        return staticClassProxy(logTrace);
+      default:
+        throw new IllegalArgumentException("알 수 없는 프록시 방식: " + mechanism);
+    }
+  }
+
+  private static Target v1(OrderControllerV1 controller) {
+    return new Target(controller::request, controller::noLog);
+  }
+
+  private static Target v2(OrderControllerV2 controller) {
+    return new Target(controller::request, controller::noLog);
+  }
+
+  private static Target interfaceProxy(LogTrace logTrace) {
+    OrderRepositoryV1 repository = new OrderRepositoryInterfaceProxy(new NoSleepOrderRepositoryV1(), logTrace);
+    OrderServiceV1 service = new OrderServiceInterfaceProxy(new OrderServiceV1Impl(repository), logTrace);
+    return v1(new OrderControllerInterfaceProxy(new OrderControllerV1Impl(service), logTrace));
+  }
+
+  private static Target concreteProxy(LogTrace logTrace) {
+    OrderRepositoryV2 repository = new OrderRepositoryConcreteProxy(new NoSleepOrderRepositoryV2(), logTrace);
+    OrderServiceV2 service = new OrderServiceConcreteProxy(new OrderServiceV2(repository), logTrace);
+    return v2(new OrderControllerConcreteProxy(new OrderControllerV2(service), logTrace));
+  }
+
+  // @TraceProxy 로 컴파일 시점에 생성된 프록시 (StaticProxyConfig)
+  private static Target staticInterfaceProxy(LogTrace logTrace) {
+    OrderRepositoryV1 repository = new OrderRepositoryV1TraceProxy(new NoSleepOrderRepositoryV1(), logTrace);
+    OrderServiceV1 service = new OrderServiceV1TraceProxy(new OrderServiceV1Impl(repository), logTrace);
+    return v1(new OrderControllerV1TraceProxy(new OrderControllerV1Impl(service), logTrace));
+  }
+
+  private static Target staticClassProxy(LogTrace logTrace) {
+    OrderRepositoryV2 repository = new OrderRepositoryV2TraceProxy(new NoSleepOrderRepositoryV2(), logTrace);
+    OrderServiceV2 service = new OrderServiceV2TraceProxy(new OrderServiceV2(repository), logTrace);
+    return v2(new OrderControllerV2TraceProxy(new OrderControllerV2(service), logTrace));
+  }
+
+  private static Target jdkProxy(LogTrace logTrace, boolean filter) {
+    OrderRepositoryV1 repository = jdkProxy(OrderRepositoryV1.class,
+        handler(new NoSleepOrderRepositoryV1(), logTrace, filter));
+    OrderServiceV1 service = jdkProxy(OrderServiceV1.class,
+        handler(new OrderServiceV1Impl(repository), logTrace, filter));
+    return v1(jdkProxy(OrderControllerV1.class, handler(new OrderControllerV1Impl(service), logTrace, filter)));
+  }
+
+  private static InvocationHandler handler(Object target, LogTrace logTrace, boolean filter) {
+    return filter ? new LogTraceFilterHandler(target, logTrace, PATTERNS) : new LogTraceBasicHandler(target, logTrace);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T jdkProxy(Class<T> type, InvocationHandler handler) {
+    return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class[]{type}, handler);
+  }
+
+  // 로그 대상이 아닌 메서드는 CallbackFilter 로 Dispatcher 에 연결 (DynamicCglibProxyFilterConfig)
+  private static Target cglibCallbackFilter(LogTrace logTrace) {
+    CglibTraceProxyBuilder builder = new CglibTraceProxyBuilder(logTrace, PATTERNS);
+    OrderRepositoryV2 repository = builder.create(OrderRepositoryV2.class, new NoSleepOrderRepositoryV2());
+    OrderServiceV2 service = builder.create(OrderServiceV2.class, new OrderServiceV2(repository),
+        new Class[]{OrderRepositoryV2.class}, new Object[]{repository});
+    return v2(builder.create(OrderControllerV2.class, new OrderControllerV2(service)));
+  }
+
+  private static Target cglib(LogTrace logTrace) {
+    Enhancer repositoryEnhancer = new Enhancer();
+    repositoryEnhancer.setSuperclass(OrderRepositoryV2.class);
+    repositoryEnhancer.setCallback(new LogTraceFilterInterceptor(new NoSleepOrderRepositoryV2(), logTrace, PATTERNS));
+    OrderRepositoryV2 repository = (OrderRepositoryV2) repositoryEnhancer.create();
+
+    Enhancer serviceEnhancer = new Enhancer();
+    serviceEnhancer.setSuperclass(OrderServiceV2.class);
+    serviceEnhancer.setCallback(new LogTraceFilterInterceptor(new OrderServiceV2(repository), logTrace, PATTERNS));
+    OrderServiceV2 service = (OrderServiceV2) serviceEnhancer.create(
+        new Class[]{OrderRepositoryV2.class}, new Object[]{repository});
+
+    Enhancer controllerEnhancer = new Enhancer();
+    controllerEnhancer.setSuperclass(OrderControllerV2.class);
+    controllerEnhancer.setCallback(new LogTraceFilterInterceptor(new OrderControllerV2(service), logTrace, PATTERNS));
+    return v2((OrderControllerV2) controllerEnhancer.create());
+  }
+
+  private static Target proxyFactoryJdk(Advisor advisor) {
+    OrderRepositoryV1 repository = (OrderRepositoryV1) proxy(new NoSleepOrderRepositoryV1(), advisor);
+    OrderServiceV1 service = (OrderServiceV1) proxy(new OrderServiceV1Impl(repository), advisor);
+    return v1((OrderControllerV1) proxy(new OrderControllerV1Impl(service), advisor));
+  }
+
+  private static Target proxyFactoryCglib(Advisor advisor) {
+    OrderRepositoryV2 repository = (OrderRepositoryV2) proxy(new NoSleepOrderRepositoryV2(), advisor);
+    OrderServiceV2 service = (OrderServiceV2) proxy(new OrderServiceV2(repository), advisor);
+    return v2((OrderControllerV2) proxy(new OrderControllerV2(service), advisor));
+  }
+
+  private static Object proxy(Object target, Advisor advisor) {
+    ProxyFactory factory = new ProxyFactory(target);
+    factory.addAdvisor(advisor);
+    return factory.getProxy();
+  }
+
+  private static Target aspect(LogTrace logTrace) {
+    LogTraceAspect aspect = new LogTraceAspect(logTrace);
+    OrderRepositoryV1 repository = (OrderRepositoryV1) aspectProxy(new NoSleepOrderRepositoryV1(), aspect);
+    OrderServiceV1 service = (OrderServiceV1) aspectProxy(new OrderServiceV1Impl(repository), aspect);
+    return v1((OrderControllerV1) aspectProxy(new OrderControllerV1Impl(service), aspect));
+  }
+
+  private static Object aspectProxy(Object target, LogTraceAspect aspect) {
+    AspectJProxyFactory factory = new AspectJProxyFactory(target);
+    factory.addAspect(aspect);
+    return factory.getProxy();
+  }
+
+  private static Advisor nameMatchAdvisor(LogTrace logTrace) {
+    NameMatchMethodPointcut pointcut = new NameMatchMethodPointcut();
+    pointcut.setMappedNames(PATTERNS);
+    return new DefaultPointcutAdvisor(pointcut, new LogTraceAdvice(logTrace));
+  }
+
+  private static Advisor expressionAdvisor(LogTrace logTrace) {
+    AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+    pointcut.setExpression("execution(* hello.proxy.app..*(..)) && !execution(* hello.proxy.app..noLog(..))");
+    return new DefaultPointcutAdvisor(pointcut, new LogTraceAdvice(logTrace));
+  }
+
+  static class NoSleepOrderRepositoryV1 implements OrderRepositoryV1 {
+
+    @Override
+    public void save(String itemId) {
+    }
+  }
+
+  static class NoSleepOrderRepositoryV2 extends OrderRepositoryV2 {
+
+    @Override
+    public void save(String itemId) {
+    }
+  }
+}
@@ -0,0 +1,218 @@
+package hello.proxy.config;
+
+import hello.proxy.config.v4_postprocessor.postprocessor.BeanPostProcessorConfig;
+import hello.proxy.config.v4_postprocessor.postprocessor.PreGeneratedBeanPostProcessorConfig;
+import hello.proxy.config.v5_autoproxy.AutoProxyConfig;
+import hello.proxy.config.v6_aop.AopConfig;
+import hello.proxy.trace.logtrace.LogTrace;
+import hello.proxy.trace.logtrace.NoOpLogTrace;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.reflect.Proxy;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.io.DefaultResourceLoader;
+
+/**
+ * 빈이 많을 때 config 별 컨텍스트 기동 비용 (포인트컷 매칭 + 프록시 클래스 생성)
+ * beans 개 묶음의 synthetic controller/service/repository (빈 3 * beans 개) + 기존 order 빈을 올리고 SpringApplication.run 시간을 측정
+ * 부팅마다 synthetic 클래스를 새 ClassLoader 로 다시 정의하므로 JDK/CGLIB 프록시 클래스 캐시를 타지 않음
+ *
+ * 시간 외에 부팅 한 번당 값 (AuxCounters, 마지막 부팅 기준)
+ * - proxyClasses: 만들어진 프록시 클래스 수 (synthetic 빈 기준)
+ * - loadedClasses: 기동 중 새로 로딩된 클래스 수
+ * - metaspaceKb: 기동 전후 Metaspace 사용량 차이 (직전 부팅의 클래스가 언로딩되면 작게 나올 수 있음)
+ *
+ * PreGeneratedBeanPostProcessorConfig 는 BeanPostProcessorConfig 와 같은 프록시를 만들되
+ * 프록시 클래스 생성을 빈 정의 단계에서 ForkJoinPool 로 병렬 진행 (ProxyClassPreGenerator)
+ *
+ * ./gradlew jmh -Pjmh.includes=ProxyStartupBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseParallelGC")
+@Threads(1)
+@State(Scope.Thread)
+public class ProxyStartupBenchmark {
+
+  @Param({"none", "BeanPostProcessorConfig", "PreGeneratedBeanPostProcessorConfig", "AutoProxyConfig", "AopConfig"})
+  private String config;
+
+  @Param({"100", "1000", "3000"})
+  private int beans;
+
+  private SyntheticBeans syntheticBeans;
+  private Map<String, Class<?>> beanClasses;
+  private ConfigurableApplicationContext context;
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Counters {
+
+    public long proxyClasses;
+    public long loadedClasses;
+    public long metaspaceKb;
+  }
+
+  @Setup(Level.Trial)
+  public void compile() {
+    syntheticBeans = SyntheticBeans.compile(beans);
+  }
+
+  @Setup(Level.Invocation)
+  public void defineClasses() {
+    beanClasses = syntheticBeans.define();
+  }
+
+  @TearDown(Level.Invocation)
+  public void close() {
+    if (context != null) {
+      context.close();
+      context = null;
+    }
+  }
+
+  @Benchmark
+  public ConfigurableApplicationContext boot(Counters counters) {
+    ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+    long loadedBefore = classLoading.getTotalLoadedClassCount();
+    long metaspaceBefore = metaspaceUsed();
+
+    SpringApplication application = new SpringApplication(applicationClass());
+    application.setWebApplicationType(WebApplicationType.NONE);
+    application.setResourceLoader(new DefaultResourceLoader(beanClasses.values().iterator().next().getClassLoader()));
+    application.setDefaultProperties(Map.of(
+        "spring.main.banner-mode", "off",
+        "spring.main.log-startup-info", "false",
+        "logging.level.root", "warn"));
+    application.addInitializers(ctx -> beanClasses.forEach(
+        (name, type) -> ((GenericApplicationContext) ctx).registerBean(name, type)));
+    context = application.run();
+
+    counters.proxyClasses = countProxyClasses();
+    counters.loadedClasses = classLoading.getTotalLoadedClassCount() - loadedBefore;
+    counters.metaspaceKb = (metaspaceUsed() - metaspaceBefore) / 1024;
+    return context;
+  }
+
+  private Class<?> applicationClass() {
+    switch (config) {
+      case "none":
+        return NoProxyApplication.class;
+      case "BeanPostProcessorConfig":
+        return BeanPostProcessorApplication.class;
+      case "PreGeneratedBeanPostProcessorConfig":
+        return PreGeneratedBeanPostProcessorApplication.class;
+      case "AutoProxyConfig":
+        return AutoProxyApplication.class;
+      case "AopConfig":
+        return AopApplication.class;
+      default:
+        throw new IllegalArgumentException("알 수 없는 config: " + config);
+    }
+  }
+
+  private long countProxyClasses() {
+    Set<Class<?>> proxyClasses = new HashSet<>();
+    for (String name : beanClasses.keySet()) {
+      Object bean = context.getBean(name);
+      if (AopUtils.isAopProxy(bean) || Proxy.isProxyClass(bean.getClass())) {
+        proxyClasses.add(bean.getClass());
+      }
+    }
+    return proxyClasses.size();
+  }
+
+  private static long metaspaceUsed() {
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getName().equals("Metaspace")) {
+        return pool.getUsage().getUsed();
+      }
+    }
+    return 0L;
+  }
+
+  @Configuration
+  @EnableAutoConfiguration
+  @Import({AppV1Config.class, AppV2Config.class})
+  static class NoProxyApplication {
+
+    @Bean
+    public LogTrace logTrace() {
+      return new NoOpLogTrace();
+    }
+  }
+
+  @Configuration
+  @EnableAutoConfiguration
+  @Import(BeanPostProcessorConfig.class)
+  static class BeanPostProcessorApplication {
+
+    @Bean
+    public LogTrace logTrace() {
+      return new NoOpLogTrace();
+    }
+  }
+
+  @Configuration
+  @EnableAutoConfiguration
+  @Import(PreGeneratedBeanPostProcessorConfig.class)
+  static class PreGeneratedBeanPostProcessorApplication {
+
+    @Bean
+    public LogTrace logTrace() {
+      return new NoOpLogTrace();
+    }
+  }
+
+  @Configuration
+  @EnableAutoConfiguration
+  @Import(AutoProxyConfig.class)
+  static class AutoProxyApplication {
+
+    @Bean
+    public LogTrace logTrace() {
+      return new NoOpLogTrace();
+    }
+  }
+
+  @Configuration
+  @EnableAutoConfiguration
+  @Import(AopConfig.class)
+  static class AopApplication {
+
+    @Bean
+    public LogTrace logTrace() {
+      return new NoOpLogTrace();
+    }
+  }
+}
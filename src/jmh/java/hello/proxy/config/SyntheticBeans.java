@@ -0,0 +1,188 @@
+package hello.proxy.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+/**
+ * 시작 시간 벤치마크용 controller/service/repository 클래스를 실행 중에 생성
+ * 짝수 번호는 app v1 처럼 인터페이스 + 구현체 (JDK 동적 프록시 대상), 홀수 번호는 app v2/v3 처럼 구체 클래스 (CGLIB 대상)
+ * 패키지가 hello.proxy.app 하위라서 각 config 의 포인트컷(패키지, execution 표현식, 메서드 이름)에 그대로 걸림
+ *
+ * 컴파일은 한 번만 하고, 매 부팅마다 새 ClassLoader 로 다시 정의해서 프록시 클래스 캐시를 타지 않게 함
+ */
+final class SyntheticBeans {
+
+  static final String PACKAGE = "hello.proxy.app.synthetic";
+
+  private final int count;
+  private final Map<String, byte[]> classes;
+
+  private SyntheticBeans(int count, Map<String, byte[]> classes) {
+    this.count = count;
+    this.classes = classes;
+  }
+
+  /**
+   * @param count controller/service/repository 묶음 개수 (빈 개수는 3 배)
+   */
+  static SyntheticBeans compile(int count) {
+    Map<String, String> sources = new LinkedHashMap<>();
+    for (int i = 0; i < count; i++) {
+      if (i % 2 == 0) {
+        addInterfaceBased(sources, i);
+      } else {
+        addClassBased(sources, i);
+      }
+    }
+    return new SyntheticBeans(count, compileAll(sources));
+  }
+
+  int getCount() {
+    return count;
+  }
+
+  /**
+   * 부팅마다 새로 만드는 ClassLoader. 이름 -> 빈 클래스 (의존 순서: repository, service, controller)
+   */
+  Map<String, Class<?>> define() {
+    Loader loader = new Loader(SyntheticBeans.class.getClassLoader(), classes);
+    Map<String, Class<?>> beans = new LinkedHashMap<>();
+    try {
+      for (int i = 0; i < count; i++) {
+        String suffix = i % 2 == 0 ? "Impl" : "";
+        String kind = i % 2 == 0 ? "" : "C";
+        for (String layer : new String[]{"Repository", "Service", "Controller"}) {
+          String simpleName = "Synthetic" + layer + kind + i + suffix;
+          beans.put("synthetic" + layer + kind + i, loader.loadClass(PACKAGE + "." + simpleName));
+        }
+      }
+    } catch (ClassNotFoundException e) {
+      throw new IllegalStateException(e);
+    }
+    return beans;
+  }
+
+  private static void addInterfaceBased(Map<String, String> sources, int i) {
+    put(sources, "SyntheticRepository" + i,
+        "public interface SyntheticRepository" + i + " { void save(String itemId); }");
+    put(sources, "SyntheticRepository" + i + "Impl",
+        "public class SyntheticRepository" + i + "Impl implements SyntheticRepository" + i + " {"
+            + " public void save(String itemId) {} }");
+    put(sources, "SyntheticService" + i,
+        "public interface SyntheticService" + i + " { void orderItem(String itemId); }");
+    put(sources, "SyntheticService" + i + "Impl",
+        "public class SyntheticService" + i + "Impl implements SyntheticService" + i + " {"
+            + " private final SyntheticRepository" + i + " repository;"
+            + " public SyntheticService" + i + "Impl(SyntheticRepository" + i + " repository) { this.repository = repository; }"
+            + " public void orderItem(String itemId) { repository.save(itemId); } }");
+    put(sources, "SyntheticController" + i,
+        "public interface SyntheticController" + i + " { String request(String itemId); String noLog(); }");
+    put(sources, "SyntheticController" + i + "Impl",
+        "public class SyntheticController" + i + "Impl implements SyntheticController" + i + " {"
+            + " private final SyntheticService" + i + " service;"
+            + " public SyntheticController" + i + "Impl(SyntheticService" + i + " service) { this.service = service; }"
+            + " public String request(String itemId) { service.orderItem(itemId); return \"ok\"; }"
+            + " public String noLog() { return \"ok\"; } }");
+  }
+
+  private static void addClassBased(Map<String, String> sources, int i) {
+    put(sources, "SyntheticRepositoryC" + i,
+        "public class SyntheticRepositoryC" + i + " { public void save(String itemId) {} }");
+    put(sources, "SyntheticServiceC" + i,
+        "public class SyntheticServiceC" + i + " {"
+            + " private final SyntheticRepositoryC" + i + " repository;"
+            + " public SyntheticServiceC" + i + "(SyntheticRepositoryC" + i + " repository) { this.repository = repository; }"
+            + " public void orderItem(String itemId) { repository.save(itemId); } }");
+    put(sources, "SyntheticControllerC" + i,
+        "public class SyntheticControllerC" + i + " {"
+            + " private final SyntheticServiceC" + i + " service;"
+            + " public SyntheticControllerC" + i + "(SyntheticServiceC" + i + " service) { this.service = service; }"
+            + " public String request(String itemId) { service.orderItem(itemId); return \"ok\"; }"
+            + " public String noLog() { return \"ok\"; } }");
+  }
+
+  private static void put(Map<String, String> sources, String simpleName, String body) {
+    sources.put(PACKAGE + "." + simpleName, "package " + PACKAGE + "; " + body);
+  }
+
+  private static Map<String, byte[]> compileAll(Map<String, String> sources) {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    if (compiler == null) {
+      throw new IllegalStateException("javax.tools 컴파일러 없음 (JRE 가 아닌 JDK 로 실행해야 함)");
+    }
+    List<JavaFileObject> units = new ArrayList<>();
+    sources.forEach((name, source) -> units.add(new Source(name, source)));
+
+    Map<String, byte[]> classes = new HashMap<>();
+    JavaFileManager fileManager = new ForwardingJavaFileManager<JavaFileManager>(
+        compiler.getStandardFileManager(null, null, null)) {
+      @Override
+      public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+          FileObject sibling) {
+        return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/') + ".class"), kind) {
+          @Override
+          public OutputStream openOutputStream() {
+            return new ByteArrayOutputStream() {
+              @Override
+              public void close() {
+                classes.put(className, toByteArray());
+              }
+            };
+          }
+        };
+      }
+    };
+    Boolean ok = compiler.getTask(null, fileManager, null, List.of("-proc:none"), null, units).call();
+    if (!Boolean.TRUE.equals(ok)) {
+      throw new IllegalStateException("synthetic 빈 컴파일 실패");
+    }
+    return classes;
+  }
+
+  private static final class Source extends SimpleJavaFileObject {
+
+    private final String source;
+
+    Source(String className, String source) {
+      super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+      this.source = source;
+    }
+
+    @Override
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+      return source;
+    }
+  }
+
+  private static final class Loader extends ClassLoader {
+
+    private final Map<String, byte[]> classes;
+
+    Loader(ClassLoader parent, Map<String, byte[]> classes) {
+      super(parent);
+      this.classes = classes;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+      byte[] bytes = classes.get(name);
+      if (bytes == null) {
+        throw new ClassNotFoundException(name);
+      }
+      return defineClass(name, bytes, 0, bytes.length);
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package hello.proxy.config.v2_dynamicproxy.handler;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * target 호출 방식 비교 (로그 추적 없이 호출 비용만)
+ * direct: 인터페이스 직접 호출
+ * reflective / methodHandle: Method 를 받아 호출하는 비용 (method.invoke vs TargetInvoker)
+ * reflectiveProxy / methodHandleProxy: JDK 동적 프록시를 통과하는 전체 비용 (기존 handler vs TargetInvoker 사용 handler)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TargetInvokerBenchmark {
+
+  private Target target;
+  private Method method;
+  private Object[] args;
+  private TargetInvoker invoker;
+  private Target reflectiveProxy;
+  private Target methodHandleProxy;
+
+  @Setup
+  public void setUp() throws NoSuchMethodException {
+    target = new TargetImpl();
+    method = Target.class.getMethod("orderItem", String.class);
+    args = new Object[]{"itemId"};
+    invoker = new TargetInvoker(target);
+
+    Target reflectiveTarget = new TargetImpl();
+    reflectiveProxy = (Target) Proxy.newProxyInstance(Target.class.getClassLoader(), new Class[]{Target.class},
+        (proxy, m, a) -> m.invoke(reflectiveTarget, a));
+
+    TargetInvoker proxyInvoker = new TargetInvoker(new TargetImpl());
+    methodHandleProxy = (Target) Proxy.newProxyInstance(Target.class.getClassLoader(), new Class[]{Target.class},
+        (proxy, m, a) -> proxyInvoker.invoke(m, a));
+  }
+
+  @Benchmark
+  public String direct() {
+    return target.orderItem("itemId");
+  }
+
+  @Benchmark
+  public Object reflective() throws Exception {
+    return method.invoke(target, args);
+  }
+
+  @Benchmark
+  public Object methodHandle() throws Throwable {
+    return invoker.invoke(method, args);
+  }
+
+  @Benchmark
+  public String reflectiveProxy() {
+    return reflectiveProxy.orderItem("itemId");
+  }
+
+  @Benchmark
+  public String methodHandleProxy() {
+    return methodHandleProxy.orderItem("itemId");
+  }
+
+  public interface Target {
+
+    String orderItem(String itemId);
+  }
+
+  static class TargetImpl implements Target {
+
+    @Override
+    public String orderItem(String itemId) {
+      return itemId;
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package hello.proxy.trace.filter;
+
+import hello.proxy.trace.site.TraceSite;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.PatternMatchUtils;
+
+/**
+ * 필터 프록시의 로그 대상 판단 비용 (로그 대상이 아닌 noLog 경로 기준)
+ * simpleMatch: 기존 방식, 호출마다 패턴 배열 전체를 비교
+ * matcher: 컴파일한 MethodNameMatcher (exact set + prefix/suffix trie)
+ * filter: MethodFilter, Method 별로 캐시된 결과 조회
+ * patterns: 3 = 기존 PATTERNS, 3000 = prefix/suffix/exact 가 1000 개씩
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MethodFilterBenchmark {
+
+  @Param({"3", "3000"})
+  private int patterns;
+
+  private String[] patternArray;
+  private MethodNameMatcher matcher;
+  private MethodFilter filter;
+  private Method noLog;
+
+  @Setup
+  public void setUp() throws NoSuchMethodException {
+    if (patterns == 3) {
+      patternArray = new String[]{"request*", "order*", "save*"};
+    } else {
+      patternArray = new String[patterns];
+      for (int i = 0; i < patterns / 3; i++) {
+        patternArray[i * 3] = "request" + i + "*";
+        patternArray[i * 3 + 1] = "*Item" + i;
+        patternArray[i * 3 + 2] = "save" + i;
+      }
+    }
+    matcher = MethodNameMatcher.compile(patternArray);
+    filter = new MethodFilter(matcher);
+    noLog = Target.class.getMethod("noLog");
+    filter.siteOf(noLog);
+  }
+
+  @Benchmark
+  public boolean simpleMatch() {
+    return PatternMatchUtils.simpleMatch(patternArray, noLog.getName());
+  }
+
+  @Benchmark
+  public boolean matcher() {
+    return matcher.matches(noLog.getName());
+  }
+
+  @Benchmark
+  public TraceSite filter() {
+    return filter.siteOf(noLog);
+  }
+
+  static class Target {
+
+    public String noLog() {
+      return "ok";
+    }
+  }
+}
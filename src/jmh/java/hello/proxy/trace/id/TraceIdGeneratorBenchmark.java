@@ -0,0 +1,70 @@
+package hello.proxy.trace.id;
+
+import hello.proxy.trace.TraceId;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 루트 TraceId 생성 처리량 비교 (1, 4, N 스레드)
+ * uuid: 기존 방식 UUID.randomUUID().toString().substring(0, 8) - 공유 SecureRandom 에서 경합
+ * xorShift / w3c: 스레드별 상태라서 스레드 수에 비례해 처리량이 늘어나야 함
+ * *Encoded: 로그를 실제로 찍을 때처럼 문자열 인코딩까지 포함
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public abstract class TraceIdGeneratorBenchmark {
+
+  private final TraceIdGenerator xorShift = new XorShiftTraceIdGenerator();
+  private final TraceIdGenerator w3c = new W3cTraceIdGenerator();
+
+  @Benchmark
+  public String uuid() {
+    return UUID.randomUUID().toString().substring(0, 8);
+  }
+
+  @Benchmark
+  public TraceId xorShift() {
+    return new TraceId(xorShift);
+  }
+
+  @Benchmark
+  public String xorShiftEncoded() {
+    return new TraceId(xorShift).getId();
+  }
+
+  @Benchmark
+  public TraceId w3c() {
+    return new TraceId(w3c);
+  }
+
+  @Benchmark
+  public String w3cEncoded() {
+    return new TraceId(w3c).getId();
+  }
+
+  @Threads(1)
+  public static class SingleThread extends TraceIdGeneratorBenchmark {
+  }
+
+  @Threads(4)
+  public static class FourThreads extends TraceIdGeneratorBenchmark {
+  }
+
+  @Threads(Threads.MAX)
+  public static class MaxThreads extends TraceIdGeneratorBenchmark {
+  }
+}
@@ -0,0 +1,117 @@
+package hello.proxy.trace.logtrace;
+
+import hello.proxy.metrics.LatencyHistograms;
+import hello.proxy.trace.TraceId;
+import hello.proxy.trace.TraceStatus;
+import hello.proxy.trace.sampling.RateTraceSampler;
+import hello.proxy.trace.site.TraceSite;
+import hello.proxy.trace.site.TraceSites;
+import hello.proxy.trace.sink.TraceSink;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 3 단계로 중첩된 호출(controller -> service -> repository) 한 번의 trace 비용
+ * threadLocal: 기존 ThreadLocalLogTrace (레벨마다 TraceId 2개 + TraceStatus)
+ * spanStack: SpanStackLogTrace handle API
+ * spanStackStatus: SpanStackLogTrace 의 TraceStatus 호환 API
+ *
+ * ./gradlew jmh -Pjmh.includes=SpanStackBenchmark -Pjmh.profilers=gc
+ * samplingRate=0 (히스토그램만 기록)에서 spanStack 의 gc.alloc.rate.norm 이 0 B/op 이어야 함
+ * samplingRate=1 에서는 sink 로 넘길 TraceId 를 trace 마다 레벨별로 하나씩 만듦
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SpanStackBenchmark {
+
+  @Param({"0.0", "1.0"})
+  private double samplingRate;
+
+  private ThreadLocalLogTrace threadLocal;
+  private SpanStackLogTrace spanStack;
+  private TraceSite controller;
+  private TraceSite service;
+  private TraceSite repository;
+
+  @Setup
+  public void setUp() throws NoSuchMethodException {
+    LatencyHistograms histograms = new LatencyHistograms();
+    threadLocal = new ThreadLocalLogTrace(new NoOpTraceSink());
+    threadLocal.setSampler(new RateTraceSampler(samplingRate));
+    threadLocal.setLatencyHistograms(histograms);
+    spanStack = new SpanStackLogTrace(new NoOpTraceSink());
+    spanStack.setSampler(new RateTraceSampler(samplingRate));
+    spanStack.setLatencyHistograms(histograms);
+
+    controller = TraceSites.of(Target.class.getMethod("request"));
+    service = TraceSites.of(Target.class.getMethod("orderItem"));
+    repository = TraceSites.of(Target.class.getMethod("save"));
+  }
+
+  @Benchmark
+  public void threadLocal() {
+    TraceStatus status1 = threadLocal.begin(controller);
+    TraceStatus status2 = threadLocal.begin(service);
+    TraceStatus status3 = threadLocal.begin(repository);
+    threadLocal.end(status3);
+    threadLocal.end(status2);
+    threadLocal.end(status1);
+  }
+
+  @Benchmark
+  public void spanStack() {
+    int span1 = spanStack.beginSpan(controller);
+    int span2 = spanStack.beginSpan(service);
+    int span3 = spanStack.beginSpan(repository);
+    spanStack.endSpan(span3);
+    spanStack.endSpan(span2);
+    spanStack.endSpan(span1);
+  }
+
+  @Benchmark
+  public void spanStackStatus() {
+    TraceStatus status1 = spanStack.begin(controller);
+    TraceStatus status2 = spanStack.begin(service);
+    TraceStatus status3 = spanStack.begin(repository);
+    spanStack.end(status3);
+    spanStack.end(status2);
+    spanStack.end(status1);
+  }
+
+  static class NoOpTraceSink implements TraceSink {
+
+    @Override
+    public void begin(TraceId traceId, String message) {
+    }
+
+    @Override
+    public void complete(TraceId traceId, String message, long resultTimeNanos, Exception e) {
+    }
+  }
+
+  public static class Target {
+
+    public void request() {
+    }
+
+    public void orderItem() {
+    }
+
+    public void save() {
+    }
+  }
+}
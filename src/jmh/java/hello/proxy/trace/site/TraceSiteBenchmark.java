@@ -0,0 +1,67 @@
+package hello.proxy.trace.site;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 호출마다 span 메시지를 만드는 비용 비교
+ * format: 기존 handler/advice 방식 String.format("%s.%s()", ...)
+ * shortString: @Aspect 의 toShortString() 과 같은 형태로 매번 문자열 조립
+ * site / siteShortString: TraceSites 조회 (Method 키로 CHM get 한 번, 문자열 생성 없음)
+ * -prof gc 로 돌리면 site* 쪽 gc.alloc.rate.norm 이 0 이어야 함
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TraceSiteBenchmark {
+
+  private Method method;
+
+  @Setup
+  public void setUp() throws NoSuchMethodException {
+    method = Target.class.getMethod("orderItem", String.class);
+    TraceSites.of(method);
+    TraceSites.ofShortString(method);
+  }
+
+  @Benchmark
+  public String format() {
+    return String.format("%s.%s()",
+        method.getDeclaringClass().getSimpleName(),
+        method.getName());
+  }
+
+  @Benchmark
+  public String shortString() {
+    return method.getDeclaringClass().getSimpleName() + "." + method.getName() + "(..)";
+  }
+
+  @Benchmark
+  public TraceSite site() {
+    return TraceSites.of(method);
+  }
+
+  @Benchmark
+  public TraceSite siteShortString() {
+    return TraceSites.ofShortString(method);
+  }
+
+  public static class Target {
+
+    public void orderItem(String itemId) {
+    }
+  }
+}
@@ -1,7 +1,14 @@
 package hello.proxy;
 
+import hello.proxy.batch.BatchMetrics;
+import hello.proxy.batch.Batched;
+import hello.proxy.batch.BatchingAdvice;
+import hello.proxy.cache.CacheMetrics;
+import hello.proxy.cache.CachedResult;
+import hello.proxy.cache.CachedResultAdvice;
 import hello.proxy.config.AppV1Config;
 import hello.proxy.config.AppV2Config;
+import hello.proxy.config.VirtualThreadConfig;
 import hello.proxy.config.v1_proxy.ConcreteProxyConfig;
 import hello.proxy.config.v1_proxy.InterfaceProxyConfig;
 import hello.proxy.config.v2_dynamicproxy.DynamicCglibProxyFilterConfig;
@@ -10,12 +17,55 @@ import hello.proxy.config.v2_dynamicproxy.DynamicProxyFilterConfig;
 import hello.proxy.config.v3_proxyfactory.ProxyFactoryConfigV1;
 import hello.proxy.config.v3_proxyfactory.ProxyFactoryConfigV2;
 import hello.proxy.config.v4_postprocessor.postprocessor.BeanPostProcessorConfig;
+import hello.proxy.config.v4_postprocessor.postprocessor.PreGeneratedBeanPostProcessorConfig;
 import hello.proxy.config.v5_autoproxy.AutoProxyConfig;
 import hello.proxy.config.v6_aop.AopConfig;
+import hello.proxy.config.v7_staticproxy.StaticProxyConfig;
+import hello.proxy.hedge.Hedged;
+import hello.proxy.hedge.HedgingAdvice;
+import hello.proxy.hedge.HedgingMetrics;
+import hello.proxy.hedge.Timeout;
+import hello.proxy.limit.ConcurrencyLimitAdvice;
+import hello.proxy.limit.ConcurrencyLimitMetrics;
+import hello.proxy.limit.ConcurrencyLimiter;
+import hello.proxy.limit.GradientLimit;
+import hello.proxy.metrics.LatencyHistograms;
+import hello.proxy.metrics.MetricsController;
+import hello.proxy.metrics.MetricsExporter;
+import hello.proxy.singleflight.SingleFlight;
+import hello.proxy.singleflight.SingleFlightAdvice;
+import hello.proxy.singleflight.SingleFlightMetrics;
+import hello.proxy.timer.HashedTimerWheel;
+import hello.proxy.trace.async.TracingExecutorService;
+import hello.proxy.trace.async.TracingTaskDecorator;
+import hello.proxy.trace.clock.SystemTraceClock;
+import hello.proxy.trace.id.XorShiftTraceIdGenerator;
 import hello.proxy.trace.logtrace.LogTrace;
-import hello.proxy.trace.logtrace.ThreadLocalLogTrace;
+import hello.proxy.trace.logtrace.SpanStackLogTrace;
+import hello.proxy.trace.sampling.RateTraceSampler;
+import hello.proxy.trace.sampling.TraceSamplingController;
+import hello.proxy.trace.sink.AsyncTraceSink;
+import hello.proxy.trace.sink.OverflowPolicy;
+import hello.proxy.trace.sink.Slf4jTraceSink;
+import hello.proxy.trace.sink.TraceSink;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 
@@ -29,16 +79,193 @@ import org.springframework.context.annotation.Import;
 //@Import(ProxyFactoryConfigV1.class)
 //@Import(ProxyFactoryConfigV2.class)
 //@Import(BeanPostProcessorConfig.class)
+//@Import(PreGeneratedBeanPostProcessorConfig.class) // 프록시 클래스를 빈 정의 단계에서 미리 생성
 //@Import(AutoProxyConfig.class)
 @Import(AopConfig.class)
-public class ProxyApplication {
+//@Import(StaticProxyConfig.class) // 컴파일 시점 생성 프록시. AopConfig 대신 사용
+public class ProxyApplication implements DisposableBean {
+
+	// 부가 기능 advisor 순서 (작을수록 바깥). 로그 추적(AopConfig 등)은 순서를 주지 않았으므로 가장 안쪽에서 실제 실행만 기록
+	//  cachedResult  : 캐시 적중이면 아래 단계를 모두 건너뜀
+	//  singleFlight  : 같은 인자 동시 호출을 합친 뒤 하나만 아래로 내려보냄 (추가 호출, 타임아웃은 합쳐진 실행 하나에만)
+	//  concurrencyLimit : save 호출마다 허가 하나. @Timeout 바깥에 있어야 제한 시간 초과를 과부하(onDropped)로 봄
+	//                     (안쪽이면 시간 초과된 시도는 취소/인터럽트로만 끝나서 onIgnored 로 빠짐)
+	//  hedging       : @Timeout 은 아래 전체 시간 제한, @Hedged 추가 호출도 아래 단계를 다시 거침
+	//  batching      : 동시 save 를 모음. 혼자면 proceed, 여럿이면 프록시의 saveAll 로 같은 advisor 를 거침
+	//                  saveAll 은 제한하지 않음 (합쳐진 save 호출자들이 이미 허가를 하나씩 잡고 있음)
+	private static final int CACHED_RESULT_ORDER = 100;
+	private static final int SINGLE_FLIGHT_ORDER = 200;
+	private static final int CONCURRENCY_LIMIT_ORDER = 300;
+	private static final int HEDGING_ORDER = 400;
+	private static final int BATCHING_ORDER = 500;
+
+	// @Hedged 추가 호출, @Timeout 동기 메서드 실행용. 스레드는 최대 64개, 넘치면 거절 (AbortPolicy)
+	// 호출 스레드에서 대신 실행하면 제한 시간이 적용되지 않고 취소가 요청 스레드를 인터럽트함. 거절된 첫 호출은 실패, 추가 호출은 건너뜀
+	// Executor 빈으로 등록하면 스프링 부트 기본 applicationTaskExecutor 가 만들어지지 않으므로 여기서 만들고 destroy() 에서 종료
+	private final ExecutorService hedgingExecutor = newHedgingExecutor(64);
 
 	public static void main(String[] args) {
-		SpringApplication.run(ProxyApplication.class, args);
+		// VirtualThreadConfig 는 위 @Import 선택과 무관하게 항상 등록. proxy.virtual-threads.enabled=true 일 때만 적용 (Java 21)
+		SpringApplication.run(new Class<?>[]{ProxyApplication.class, VirtualThreadConfig.class}, args);
+	}
+
+	// 로그 출력은 백그라운드 writer 스레드에서. 버퍼가 가득 차면 요청 스레드를 막지 않고 버림
+	@Bean
+	public TraceSink traceSink() {
+		return new AsyncTraceSink(new Slf4jTraceSink(), 8192, OverflowPolicy.DROP);
+	}
+
+	@Bean
+	public LatencyHistograms latencyHistograms() {
+		return new LatencyHistograms();
+	}
+
+	// GET /trace/metrics (Prometheus), GET /trace/metrics/interval, POST /trace/metrics/reset
+	@Bean
+	public MetricsController metricsController(LatencyHistograms latencyHistograms, List<MetricsExporter> exporters) {
+		return new MetricsController(latencyHistograms, exporters);
+	}
+
+	@Bean
+	public CacheMetrics cacheMetrics() {
+		return new CacheMetrics();
+	}
+
+	// @CachedResult 메서드 결과 캐싱. 자동 프록시 생성기가 Advisor 빈을 찾아서 해당 메서드가 있는 빈에만 프록시 적용
+	@Bean
+	public Advisor cachedResultAdvisor(CacheMetrics cacheMetrics) {
+		DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+				AnnotationMatchingPointcut.forMethodAnnotation(CachedResult.class), new CachedResultAdvice(cacheMetrics));
+		advisor.setOrder(CACHED_RESULT_ORDER);
+		return advisor;
+	}
+
+	@Bean
+	public SingleFlightMetrics singleFlightMetrics() {
+		return new SingleFlightMetrics();
+	}
+
+	// @SingleFlight 메서드의 같은 인자 동시 호출을 실행 하나로 합침
+	@Bean
+	public Advisor singleFlightAdvisor(SingleFlightMetrics singleFlightMetrics) {
+		DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+				AnnotationMatchingPointcut.forMethodAnnotation(SingleFlight.class), new SingleFlightAdvice(singleFlightMetrics));
+		advisor.setOrder(SINGLE_FLIGHT_ORDER);
+		return advisor;
+	}
+
+	@Bean
+	public BatchMetrics batchMetrics() {
+		return new BatchMetrics();
+	}
+
+	// @Batched 메서드(OrderRepository*.save)의 동시 호출을 모아서 배치 메서드(saveAll) 한 번으로 실행
+	// 배치 크기, 대기 시간은 @Batched(maxBatchSize, lingerMillis). 혼자 들어온 save 도 lingerMillis 만큼 늦어짐
+	// saveAll span 은 leader 요청의 trace 에 남고, 나머지 요청의 trace 에는 OrderRepository*.save().batch() 대기 구간만 남음
+	// V1 은 @Batched 가 인터페이스에 있으므로 checkInherited=true 로 인터페이스 메서드의 애노테이션도 찾음
+	// 기본은 꺼져 있음 (/v1 ~ /v3 기본 동작 유지). proxy.batching.enabled=true 일 때만 등록
+	@Bean
+	@ConditionalOnProperty(name = "proxy.batching.enabled", havingValue = "true")
+	public Advisor batchingAdvisor(BatchMetrics batchMetrics, LogTrace logTrace) {
+		DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+				new AnnotationMatchingPointcut(null, Batched.class, true), new BatchingAdvice(batchMetrics, logTrace));
+		advisor.setOrder(BATCHING_ORDER);
+		return advisor;
 	}
 
 	@Bean
-	public LogTrace logTrace() {
-		return new ThreadLocalLogTrace();
+	public ConcurrencyLimitMetrics concurrencyLimitMetrics() {
+		return new ConcurrencyLimitMetrics();
+	}
+
+	// 저장소 save 전체의 동시 실행 수 제한. 한도는 지연 시간을 보고 자동 조절(GradientLimit, 20 에서 시작해 1~200)
+	// 넘치면 최대 10ms 기다린 뒤 ConcurrencyLimitExceededException. save 가 느려져도 톰캣에 요청이 쌓이지 않고 바로 실패
+	// 기본은 꺼져 있음 (/v1 ~ /v3 기본 동작 유지). proxy.concurrency-limit.enabled=true 일 때만 등록
+	@Bean
+	@ConditionalOnProperty(name = "proxy.concurrency-limit.enabled", havingValue = "true")
+	public Advisor repositoryConcurrencyLimitAdvisor(ConcurrencyLimitMetrics concurrencyLimitMetrics) {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter("OrderRepository.save()", new GradientLimit(20, 1, 200));
+		limiter.setMaxWait(10, TimeUnit.MILLISECONDS);
+		concurrencyLimitMetrics.register(limiter);
+
+		AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+		pointcut.setExpression("execution(* hello.proxy.app..*Repository*.save(..))");
+		DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, new ConcurrencyLimitAdvice(limiter));
+		advisor.setOrder(CONCURRENCY_LIMIT_ORDER);
+		return advisor;
+	}
+
+	// trace.sampling.rate 로 시작, 실행 중에는 PUT /trace/sampling?rate=0.1 로 변경
+	@Bean
+	public RateTraceSampler traceSampler(@Value("${trace.sampling.rate:1.0}") double rate) {
+		return new RateTraceSampler(rate);
+	}
+
+	@Bean
+	public TraceSamplingController traceSamplingController(RateTraceSampler traceSampler) {
+		return new TraceSamplingController(traceSampler);
+	}
+
+	// 다른 구현으로 바꾸려면 이 빈만 교체
+	//  - TailSamplingLogTrace: 느리거나 예외가 난 trace 만 트리 전체를 남김
+	//  - BinaryLogTrace: 텍스트 대신 메모리 맵 바이너리 파일로 기록 (읽을 때는 ./gradlew decodeTrace)
+	@Bean
+	public LogTrace logTrace(TraceSink traceSink, LatencyHistograms latencyHistograms, RateTraceSampler traceSampler) {
+		// span 마다 객체를 만들지 않는 스레드별 배열 스택. 기존 TraceId/TraceStatus 방식은 ThreadLocalLogTrace
+		SpanStackLogTrace logTrace = new SpanStackLogTrace(traceSink);
+		// W3C trace-context 호환 128bit id 가 필요하면 W3cTraceIdGenerator 사용
+		logTrace.setIdGenerator(new XorShiftTraceIdGenerator());
+		// System.nanoTime 정밀 측정. 고QPS 경로는 CachedTraceClock(백그라운드 스레드가 1ms 마다 갱신)으로 교체 가능
+		logTrace.setClock(new SystemTraceClock());
+		logTrace.setLatencyHistograms(latencyHistograms);
+		logTrace.setSampler(traceSampler);
+		return logTrace;
+	}
+
+	// 지연 작업용 공용 타이머 (v4 저장소의 1초 지연 등). 요청마다 스레드나 ScheduledFuture 를 만들지 않음
+	// 등록한 스레드의 trace 를 만료 시점까지 이어서 기다린 시간은 "timer.queue()" span 으로 남음
+	// 만료된 작업(v4 future 완료 -> thenApply -> 스프링 MVC dispatch)은 타이머 스레드 하나에 몰리지 않도록 applicationTaskExecutor 에서 실행
+	@Bean
+	public HashedTimerWheel timerWheel(LogTrace logTrace, @Qualifier("applicationTaskExecutor") Executor applicationTaskExecutor) {
+		HashedTimerWheel timerWheel = new HashedTimerWheel(10, TimeUnit.MILLISECONDS, 512);
+		timerWheel.setTaskDecorator(new TracingTaskDecorator(logTrace, "timer"));
+		timerWheel.setTaskExecutor(applicationTaskExecutor);
+		return timerWheel;
+	}
+
+	@Bean
+	public HedgingMetrics hedgingMetrics() {
+		return new HedgingMetrics();
+	}
+
+	// @Hedged: 첫 호출이 최근 p95 를 넘기면 한 번 더 보내고 먼저 끝난 쪽 사용, @Timeout: 호출 전체 제한 시간
+	// 타이머는 공용 timerWheel, 추가 호출과 동기 메서드 실행은 hedgingExecutor (trace 는 이어짐)
+	@Bean
+	public Advisor hedgingAdvisor(HashedTimerWheel timerWheel, LogTrace logTrace, HedgingMetrics hedgingMetrics) {
+		ComposablePointcut pointcut = new ComposablePointcut(AnnotationMatchingPointcut.forMethodAnnotation(Hedged.class))
+				.union(AnnotationMatchingPointcut.forMethodAnnotation(Timeout.class));
+		ExecutorService executor = new TracingExecutorService(hedgingExecutor, logTrace, "hedge");
+		DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, new HedgingAdvice(timerWheel, executor, hedgingMetrics));
+		advisor.setOrder(HEDGING_ORDER);
+		return advisor;
+	}
+
+	// 스프링 부트 기본 applicationTaskExecutor(@Async 등)로 넘어가는 작업에 trace 를 이어줌
+	// 직접 만든 executor 는 new TracingExecutorService(executor, logTrace) 로 감싸서 사용
+	@Bean
+	public TracingTaskDecorator tracingTaskDecorator(LogTrace logTrace) {
+		return new TracingTaskDecorator(logTrace);
+	}
+
+	@Override
+	public void destroy() {
+		hedgingExecutor.shutdown();
+	}
+
+	private static ExecutorService newHedgingExecutor(int maxThreads) {
+		AtomicInteger threadNumber = new AtomicInteger();
+		return new ThreadPoolExecutor(0, maxThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+				task -> new Thread(task, "hedge-" + threadNumber.incrementAndGet()),
+				new ThreadPoolExecutor.AbortPolicy());
 	}
 }
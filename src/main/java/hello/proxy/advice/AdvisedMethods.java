@@ -0,0 +1,71 @@
+package hello.proxy.advice;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+
+/**
+ * 어노테이션으로 켜는 advice(@CachedResult, @SingleFlight, @Hedged/@Timeout, @Batched)의 공통 부분
+ *
+ * 인스턴스는 Method 별 상태(캐시, 그룹, 정책 등) 저장소. 처음 호출될 때 factory 로 한 번만 만들고,
+ * factory 가 null 을 반환하면 "적용 안 함"으로 기억해서 다음부터는 어노테이션을 다시 찾지 않음
+ * 같은 Method 는 대상 빈이 달라도 같은 상태를 공유함
+ */
+public final class AdvisedMethods<S> {
+
+    private static final Object NOT_APPLIED = new Object();
+
+    private final ConcurrentHashMap<Method, Object> states = new ConcurrentHashMap<>();
+    private final BiFunction<Method, Object, S> factory;
+
+    /**
+     * @param factory (Method, 대상 객체) -> 상태. 적용 대상이 아니면 null
+     */
+    public AdvisedMethods(BiFunction<Method, Object, S> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * @return invocation 메서드의 상태. 적용 대상이 아니면 null
+     */
+    @SuppressWarnings("unchecked")
+    public S get(MethodInvocation invocation) {
+        Method method = invocation.getMethod();
+        Object state = states.get(method);
+        if (state == null) {
+            Object target = invocation.getThis();
+            state = states.computeIfAbsent(method, m -> {
+                S created = factory.apply(m, target);
+                return created == null ? NOT_APPLIED : created;
+            });
+        }
+        return state == NOT_APPLIED ? null : (S) state;
+    }
+
+    /**
+     * JDK 동적 프록시는 인터페이스의 Method 를 넘기므로 구현 클래스 쪽 메서드도 확인
+     */
+    public static <A extends Annotation> A findAnnotation(Method method, Object target, Class<A> type) {
+        A annotation = AnnotationUtils.findAnnotation(method, type);
+        if (annotation == null && target != null) {
+            Method specificMethod = AopUtils.getMostSpecificMethod(method, target.getClass());
+            annotation = AnnotationUtils.findAnnotation(specificMethod, type);
+        }
+        return annotation;
+    }
+
+    /**
+     * 메트릭 이름. 지정한 이름이 없으면 "클래스.메서드()"
+     */
+    public static String name(Method method, String name) {
+        return name.isEmpty() ? name(method) : name;
+    }
+
+    public static String name(Method method) {
+        return method.getDeclaringClass().getSimpleName() + "." + method.getName() + "()";
+    }
+}
@@ -0,0 +1,35 @@
+package hello.proxy.app;
+
+import hello.proxy.batch.BatchResult;
+import java.util.List;
+
+/**
+ * v1 ~ v3 리포지토리가 같이 쓰는 저장 로직 (saveAll)
+ */
+public final class OrderStorage {
+
+  private OrderStorage() {
+  }
+
+  // 여러 건을 왕복 한 번으로 저장. 잘못된 항목만 실패
+  public static BatchResult<Void> saveAll(List<String> itemIds) {
+    BatchResult<Void> result = new BatchResult<>(itemIds.size());
+    for (int i = 0; i < itemIds.size(); i++) {
+      if (itemIds.get(i).equals("ex")) {
+        result.failure(i, new IllegalStateException("예외 발생!"));
+      } else {
+        result.success(i, null);
+      }
+    }
+    sleep(1000);
+    return result;
+  }
+
+  private static void sleep(int millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package hello.proxy.app.v1;
 
+import hello.proxy.trace.proxy.TraceProxy;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -7,6 +8,7 @@ import org.springframework.web.bind.annotation.ResponseBody;
 
 @RequestMapping   // 스프링은 @Controller 또는 @RequestMapping 애노테이션이 있어야 스프링 컨트롤러로 인식할 수 있음
 @ResponseBody
+@TraceProxy(patterns = {"request*", "order*", "save*"})
 public interface OrderControllerV1 {
 
   @GetMapping("/v1/request")
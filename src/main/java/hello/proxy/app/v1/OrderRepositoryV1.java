@@ -1,5 +1,28 @@
 package hello.proxy.app.v1;
 
+import hello.proxy.batch.BatchResult;
+import hello.proxy.batch.Batched;
+import hello.proxy.trace.proxy.TraceProxy;
+import java.util.List;
+
+@TraceProxy(patterns = {"request*", "order*", "save*"})
 public interface OrderRepositoryV1 {
+
+  // 동시에 들어온 save 는 모아서 saveAll 한 번으로 저장 (BatchingAdvice)
+  @Batched(method = "saveAll")
   void save(String itemId);
+
+  // 기본은 한 건씩 save. 한 번에 저장할 수 있는 구현이 재정의
+  default BatchResult<Void> saveAll(List<String> itemIds) {
+    BatchResult<Void> result = new BatchResult<>(itemIds.size());
+    for (int i = 0; i < itemIds.size(); i++) {
+      try {
+        save(itemIds.get(i));
+        result.success(i, null);
+      } catch (RuntimeException e) {
+        result.failure(i, e);
+      }
+    }
+    return result;
+  }
 }
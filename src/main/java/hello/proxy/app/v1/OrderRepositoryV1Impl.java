@@ -1,5 +1,9 @@
 package hello.proxy.app.v1;
 
+import hello.proxy.app.OrderStorage;
+import hello.proxy.batch.BatchResult;
+import java.util.List;
+
 public class OrderRepositoryV1Impl implements OrderRepositoryV1 {
   @Override
   public void save(String itemId) {
@@ -8,6 +12,12 @@ public class OrderRepositoryV1Impl implements OrderRepositoryV1 {
     sleep(1000);
   }
 
+  // 여러 건을 왕복 한 번으로 저장. 잘못된 항목만 실패
+  @Override
+  public BatchResult<Void> saveAll(List<String> itemIds) {
+    return OrderStorage.saveAll(itemIds);
+  }
+
   private void sleep(int millis) {
     try {
       Thread.sleep(millis);
@@ -1,5 +1,6 @@
 package hello.proxy.app.v2;
 
+import hello.proxy.trace.proxy.TraceProxy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -8,6 +9,7 @@ import org.springframework.web.bind.annotation.ResponseBody;
 @Slf4j
 @RequestMapping   // @Controller 는 컴포넌트의 대상이 되므로, 컴포넌트의 대상이 되지 않는 @RequestMapping 사용해서 수동 주입
 @ResponseBody
+@TraceProxy(patterns = {"request*", "order*", "save*"})
 public class OrderControllerV2 {
 
   private final OrderServiceV2 orderService;
@@ -1,13 +1,27 @@
 package hello.proxy.app.v2;
 
+import hello.proxy.app.OrderStorage;
+import hello.proxy.batch.BatchResult;
+import hello.proxy.batch.Batched;
+import hello.proxy.trace.proxy.TraceProxy;
+import java.util.List;
+
+@TraceProxy(patterns = {"request*", "order*", "save*"})
 public class OrderRepositoryV2 {
 
+  // 동시에 들어온 save 는 모아서 saveAll 한 번으로 저장 (BatchingAdvice)
+  @Batched(method = "saveAll")
   public void save(String itemId) {
     // 저장 로직
     if (itemId.equals("ex")) throw new IllegalStateException("예외 발생!");
     sleep(1000);
   }
 
+  // 여러 건을 왕복 한 번으로 저장. 잘못된 항목만 실패
+  public BatchResult<Void> saveAll(List<String> itemIds) {
+    return OrderStorage.saveAll(itemIds);
+  }
+
   private void sleep(int millis) {
     try {
       Thread.sleep(millis);
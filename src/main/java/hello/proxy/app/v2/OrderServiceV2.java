@@ -1,5 +1,8 @@
 package hello.proxy.app.v2;
 
+import hello.proxy.trace.proxy.TraceProxy;
+
+@TraceProxy(patterns = {"request*", "order*", "save*"})
 public class OrderServiceV2 {
 
   private final OrderRepositoryV2 orderRepository;
@@ -1,9 +1,11 @@
 package hello.proxy.app.v3;
 
+import hello.proxy.trace.proxy.TraceProxy;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
+@TraceProxy(patterns = {"request*", "order*", "save*"})
 public class OrderControllerV3 {
 
   private final OrderServiceV3 orderService;
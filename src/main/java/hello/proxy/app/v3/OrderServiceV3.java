@@ -1,8 +1,10 @@
 package hello.proxy.app.v3;
 
+import hello.proxy.trace.proxy.TraceProxy;
 import org.springframework.stereotype.Service;
 
 @Service
+@TraceProxy(patterns = {"request*", "order*", "save*"})
 public class OrderServiceV3 {
 
   private final OrderRepositoryV3 orderRepository;
@@ -0,0 +1,32 @@
+package hello.proxy.app.v4;
+
+import hello.proxy.trace.proxy.TraceProxy;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * v3 와 같은 흐름의 비동기 버전
+ * CompletableFuture 를 반환하면 스프링 MVC 가 서블릿 비동기 처리로 전환하므로
+ * 톰캣 worker 스레드는 save 를 기다리지 않고 바로 반환됨. 응답은 future 가 완료될 때 나감
+ */
+@RestController
+@TraceProxy(patterns = {"request*", "order*", "save*"})
+public class OrderControllerV4 {
+
+  private final OrderServiceV4 orderService;
+
+  public OrderControllerV4(OrderServiceV4 orderService) {
+    this.orderService = orderService;
+  }
+
+  @GetMapping("/v4/request")
+  public CompletableFuture<String> request(String itemId) {
+    return orderService.orderItem(itemId).thenApply(ignored -> "ok");
+  }
+
+  @GetMapping("/v4/no-log")
+  public String noLog() {
+    return "ok";
+  }
+}
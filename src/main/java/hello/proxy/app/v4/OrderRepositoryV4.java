@@ -0,0 +1,35 @@
+package hello.proxy.app.v4;
+
+import hello.proxy.hedge.Timeout;
+import hello.proxy.timer.HashedTimerWheel;
+import hello.proxy.trace.proxy.TraceProxy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 1초 걸리는 저장을 Thread.sleep 대신 타이머로 표현. 기다리는 동안 잡고 있는 스레드가 없음
+ * 완료(와 이후 thenApply, 스프링 MVC 비동기 dispatch)는 타이머의 taskExecutor 에서 실행됨 (ProxyApplication 의 timerWheel 참고)
+ */
+@Repository
+@TraceProxy(patterns = {"request*", "order*", "save*"})
+public class OrderRepositoryV4 {
+
+  private final HashedTimerWheel timerWheel;
+
+  public OrderRepositoryV4(HashedTimerWheel timerWheel) {
+    this.timerWheel = timerWheel;
+  }
+
+  // 3초 안에 끝나지 않으면 TimeoutException
+  // 저장은 멱등이 아니므로 @Hedged(느린 호출을 한 번 더 보냄)는 붙이지 않음. 조회처럼 다시 보내도 되는 메서드에만 사용
+  @Timeout(3000)
+  public CompletableFuture<Void> save(String itemId) {
+    // 저장 로직
+    if (itemId.equals("ex")) {
+      return CompletableFuture.failedFuture(new IllegalStateException("예외 발생!"));
+    }
+    // 완료 전에 타이머가 종료되면 예외로 완료되므로 응답을 기다리던 요청도 끝남
+    return timerWheel.delay(1, TimeUnit.SECONDS);
+  }
+}
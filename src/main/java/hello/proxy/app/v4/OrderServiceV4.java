@@ -0,0 +1,20 @@
+package hello.proxy.app.v4;
+
+import hello.proxy.trace.proxy.TraceProxy;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.stereotype.Service;
+
+@Service
+@TraceProxy(patterns = {"request*", "order*", "save*"})
+public class OrderServiceV4 {
+
+  private final OrderRepositoryV4 orderRepository;
+
+  public OrderServiceV4(OrderRepositoryV4 orderRepository) {
+    this.orderRepository = orderRepository;
+  }
+
+  public CompletableFuture<Void> orderItem(String itemId) {
+    return orderRepository.save(itemId);
+  }
+}
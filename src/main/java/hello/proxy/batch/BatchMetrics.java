@@ -0,0 +1,44 @@
+package hello.proxy.batch;
+
+import hello.proxy.metrics.HistogramSnapshot;
+import hello.proxy.metrics.LogLinearHistogram;
+import hello.proxy.metrics.MetricsExporter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 메서드별 배치 크기 분포를 /trace/metrics 로 내보냄
+ * 크기 16 까지는 LogLinearHistogram 버킷이 값 그대로라서 정확
+ */
+public class BatchMetrics implements MetricsExporter {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private final ConcurrentHashMap<String, LogLinearHistogram> batchSizes = new ConcurrentHashMap<>();
+
+    public LogLinearHistogram batchSizeHistogram(String name) {
+        return batchSizes.computeIfAbsent(name, key -> new LogLinearHistogram());
+    }
+
+    @Override
+    public void export(StringBuilder out) {
+        Map<String, HistogramSnapshot> snapshots = new TreeMap<>();
+        batchSizes.forEach((name, histogram) -> snapshots.put(name, histogram.snapshot()));
+
+        out.append("# TYPE batch_size summary\n");
+        snapshots.forEach((name, snapshot) -> {
+            String label = "method=\"" + MetricsExporter.escapeLabel(name) + "\"";
+            for (double quantile : QUANTILES) {
+                out.append("batch_size{").append(label).append(",quantile=\"").append(quantile).append("\"} ")
+                        .append(snapshot.valueAtPercentile(quantile * 100)).append('\n');
+            }
+            out.append("batch_size_count{").append(label).append("} ").append(snapshot.getCount()).append('\n');
+            out.append("batch_size_sum{").append(label).append("} ").append(snapshot.getSum()).append('\n');
+        });
+        out.append("# TYPE batch_size_max gauge\n");
+        snapshots.forEach((name, snapshot) ->
+                out.append("batch_size_max{method=\"").append(MetricsExporter.escapeLabel(name)).append("\"} ")
+                        .append(snapshot.getMax()).append('\n'));
+    }
+}
@@ -0,0 +1,43 @@
+package hello.proxy.batch;
+
+/**
+ * 배치 메서드의 항목별 결과. index 는 입력 List 의 순서
+ * 성공/실패를 기록하지 않은 항목은 null 결과로 성공 처리
+ */
+public final class BatchResult<R> {
+
+    private final Object[] values;
+    private final Throwable[] failures;
+
+    public BatchResult(int size) {
+        this.values = new Object[size];
+        this.failures = new Throwable[size];
+    }
+
+    public BatchResult<R> success(int index, R value) {
+        values[index] = value;
+        failures[index] = null;
+        return this;
+    }
+
+    public BatchResult<R> failure(int index, Throwable e) {
+        values[index] = null;
+        failures[index] = e;
+        return this;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public Object valueAt(int index) {
+        return values[index];
+    }
+
+    /**
+     * 실패한 항목이면 그 예외, 아니면 null
+     */
+    public Throwable failureAt(int index) {
+        return failures[index];
+    }
+}
@@ -0,0 +1,35 @@
+package hello.proxy.batch;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 인자가 하나인 메서드의 동시 호출을 모아서 배치 메서드 한 번으로 실행 (BatchingAdvice)
+ *
+ * 배치 메서드는 같은 빈에 있어야 하고 모양은 BatchResult<R> method(List<T>)
+ * (T 는 원래 메서드의 파라미터 타입, R 은 반환 타입. 결과는 입력 순서대로)
+ * 호출자는 모두 자기 항목의 결과나 예외를 받음
+ *
+ * 첫 호출(leader)이 lingerMillis 동안 기다리면서 뒤따라온 호출을 모으고, maxBatchSize 가 차면 바로 실행
+ * 배치 메서드는 leader 스레드에서 실행 (별도 스레드 없음)
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Batched {
+
+    /**
+     * 배치 메서드 이름
+     */
+    String method();
+
+    int maxBatchSize() default 64;
+
+    /**
+     * leader 가 다른 호출을 기다리는 최대 시간. 혼자 들어온 호출은 이만큼 늦어짐
+     */
+    long lingerMillis() default 5;
+}
@@ -0,0 +1,188 @@
+package hello.proxy.batch;
+
+import hello.proxy.metrics.LogLinearHistogram;
+import hello.proxy.trace.TraceContext;
+import hello.proxy.trace.logtrace.LogTrace;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * 대상 빈 하나 + @Batched 메서드 하나에 대한 배치 수집기
+ *
+ * 열린 배치는 항상 하나. 빈 배치에 처음 들어온 호출이 leader 가 되어 linger 동안 기다리고,
+ * 그 사이 들어온 호출(follower)은 같은 배치에 추가된 뒤 자기 결과만 기다림
+ * 배치가 차거나 linger 가 지나면 배치를 닫음. 닫힌 뒤에 들어온 호출은 새 배치의 leader 가 되므로
+ * 배치 실행 중에도 다음 배치는 계속 모임
+ *
+ * 여러 건 배치는 receiver(보통 프록시)의 배치 메서드를 호출하므로 혼자인 배치의 proceed 와 같은 advisor 체인을 거침
+ *
+ * 배치 메서드는 leader 스레드에서 실행되므로 그 span 은 leader 의 trace 에만 남음
+ * follower 의 trace 에는 배치에 추가된 시점부터 결과를 받을 때까지를 "이름.batch()" span 하나로 기록
+ */
+final class Batcher {
+
+    private final Object receiver;
+    private final Method batchMethod;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final LogLinearHistogram batchSizes;
+    private final LogTrace logTrace;
+    private final String followerMessage;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition closed = lock.newCondition();
+    private Batch open;
+
+    Batcher(Object receiver, Method batchMethod, int maxBatchSize, long lingerNanos, LogLinearHistogram batchSizes,
+            LogTrace logTrace, String name) {
+        this.receiver = receiver;
+        this.batchMethod = batchMethod;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = lingerNanos;
+        this.batchSizes = batchSizes;
+        this.logTrace = logTrace;
+        this.followerMessage = name + ".batch()";
+    }
+
+    Object submit(MethodInvocation invocation) throws Throwable {
+        TraceContext context = logTrace.capture();
+        Pending pending = new Pending(invocation.getArguments()[0]);
+        Batch batch;
+        boolean leader;
+
+        lock.lock();
+        try {
+            if (open == null) {
+                open = new Batch();
+            }
+            batch = open;
+            batch.items.add(pending);
+            leader = batch.items.size() == 1;
+            if (batch.items.size() >= maxBatchSize) {
+                open = null;
+                closed.signalAll();
+            }
+            if (leader) {
+                awaitClose(batch);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (leader) {
+            run(batch.items, invocation);
+            return pending.await();
+        }
+        return awaitAsFollower(pending, context);
+    }
+
+    /**
+     * 진행 중인 trace 가 없으면 (capture() == null) 기록하지 않음
+     */
+    private Object awaitAsFollower(Pending pending, TraceContext context) throws Throwable {
+        if (context == null) {
+            return pending.await();
+        }
+        try {
+            Object result = pending.await();
+            logTrace.record(followerMessage, context.getCapturedNanos());
+            return result;
+        } catch (Throwable e) {
+            logTrace.record(followerMessage, context.getCapturedNanos(),
+                    e instanceof Exception ? (Exception) e : new RuntimeException(e));
+            throw e;
+        }
+    }
+
+    /**
+     * lock 안에서 호출. 인터럽트돼도 follower 들이 기다리고 있으므로 배치는 닫고 실행
+     */
+    private void awaitClose(Batch batch) {
+        long remaining = lingerNanos;
+        try {
+            while (open == batch && remaining > 0) {
+                remaining = closed.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (open == batch) {
+            open = null;
+        }
+    }
+
+    /**
+     * 혼자인 배치는 원래 메서드를 그대로 호출 (다른 advice 체인도 그대로 거침)
+     */
+    private void run(List<Pending> items, MethodInvocation leaderInvocation) {
+        batchSizes.record(items.size());
+        if (items.size() == 1) {
+            Pending pending = items.get(0);
+            try {
+                pending.complete(leaderInvocation.proceed());
+            } catch (Throwable e) {
+                pending.completeExceptionally(e);
+            }
+            return;
+        }
+
+        List<Object> arguments = new ArrayList<>(items.size());
+        for (Pending pending : items) {
+            arguments.add(pending.argument);
+        }
+        try {
+            BatchResult<?> result = (BatchResult<?>) batchMethod.invoke(receiver, arguments);
+            if (result == null || result.size() != items.size()) {
+                throw new IllegalStateException("배치 결과 수가 입력 수와 다름: " + batchMethod
+                        + ", 입력 " + items.size() + ", 결과 " + (result == null ? "null" : result.size()));
+            }
+            for (int i = 0; i < items.size(); i++) {
+                Throwable failure = result.failureAt(i);
+                if (failure == null) {
+                    items.get(i).complete(result.valueAt(i));
+                } else {
+                    items.get(i).completeExceptionally(failure);
+                }
+            }
+        } catch (InvocationTargetException e) {
+            failAll(items, e.getCause());
+        } catch (Throwable e) {
+            failAll(items, e);
+        }
+    }
+
+    private static void failAll(List<Pending> items, Throwable e) {
+        for (Pending pending : items) {
+            pending.completeExceptionally(e);
+        }
+    }
+
+    private static final class Batch {
+
+        final List<Pending> items = new ArrayList<>();
+    }
+
+    private static final class Pending extends CompletableFuture<Object> {
+
+        final Object argument;
+
+        Pending(Object argument) {
+            this.argument = argument;
+        }
+
+        Object await() throws Throwable {
+            try {
+                return get();
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package hello.proxy.batch;
+
+import hello.proxy.advice.AdvisedMethods;
+import hello.proxy.trace.logtrace.LogTrace;
+import hello.proxy.trace.logtrace.NoOpLogTrace;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+
+/**
+ * @Batched 메서드의 동시 호출을 모아서 배치 메서드로 실행
+ *
+ * 자동 프록시: AnnotationMatchingPointcut.forMethodAnnotation(Batched.class) advisor 로 등록 (ProxyApplication 참고)
+ * 직접 적용: ProxyFactory 에 같은 advisor 를 addAdvisor
+ *
+ * 배치는 대상 빈마다 따로 모음 (같은 메서드라도 다른 빈의 호출을 섞지 않음)
+ * 그래서 다른 advice 와 달리 Method 별 AdvisedMethods 대신 (대상, Method) 키의 맵을 사용
+ * 배치 메서드는 프록시를 통해 호출하므로 원래 메서드처럼 다른 advisor(로그 추적, 동시 실행 제한 등)를 거침
+ * 배치 메서드 자체에는 @Batched 를 붙이지 않음
+ *
+ * 배치 메서드의 span 은 leader 의 trace 에만 남으므로 follower 의 trace 에는 logTrace 로 대기 구간을 기록 (Batcher 참고)
+ */
+public class BatchingAdvice implements MethodInterceptor {
+
+    private static final Batcher NOT_BATCHED = new Batcher(null, null, 0, 0, null, NoOpLogTrace.INSTANCE, "");
+
+    private final BatchMetrics batchMetrics;
+    private final LogTrace logTrace;
+    private final ConcurrentHashMap<BatcherKey, Batcher> batchers = new ConcurrentHashMap<>();
+
+    public BatchingAdvice(BatchMetrics batchMetrics) {
+        this(batchMetrics, NoOpLogTrace.INSTANCE);
+    }
+
+    public BatchingAdvice(BatchMetrics batchMetrics, LogTrace logTrace) {
+        this.batchMetrics = batchMetrics;
+        this.logTrace = logTrace;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        BatcherKey key = new BatcherKey(invocation.getThis(), invocation.getMethod());
+        Batcher batcher = batchers.get(key);
+        if (batcher == null) {
+            batcher = batchers.computeIfAbsent(key, k -> createBatcher(k, invocation));
+        }
+        if (batcher == NOT_BATCHED) {
+            return invocation.proceed();
+        }
+        return batcher.submit(invocation);
+    }
+
+    private Batcher createBatcher(BatcherKey key, MethodInvocation invocation) {
+        Batched batched = AdvisedMethods.findAnnotation(key.method, key.target, Batched.class);
+        if (batched == null || key.target == null) {
+            return NOT_BATCHED;
+        }
+        if (key.method.getParameterCount() != 1) {
+            throw new IllegalStateException("@Batched 는 인자가 하나인 메서드에만 사용 가능: " + key.method);
+        }
+        if (batched.maxBatchSize() < 1) {
+            throw new IllegalStateException("maxBatchSize 는 1 이상이어야 함: " + key.method);
+        }
+
+        Method batchMethod = findBatchMethod(key.target.getClass(), batched.method());
+        Object receiver = key.target;
+        if (invocation instanceof ProxyMethodInvocation) {
+            // JDK 동적 프록시는 구현 클래스의 Method 로 호출할 수 없으므로 프록시가 구현한 인터페이스에서 다시 찾음
+            // 인터페이스에 없는 배치 메서드는 프록시로 부를 수 없으므로 대상에 직접 호출
+            Object proxy = ((ProxyMethodInvocation) invocation).getProxy();
+            Method proxyMethod = findProxyMethod(proxy.getClass(), batchMethod);
+            if (proxyMethod != null) {
+                receiver = proxy;
+                batchMethod = proxyMethod;
+            }
+        }
+        String name = AdvisedMethods.name(key.method);
+        return new Batcher(receiver, batchMethod, batched.maxBatchSize(),
+                TimeUnit.MILLISECONDS.toNanos(batched.lingerMillis()), batchMetrics.batchSizeHistogram(name), logTrace, name);
+    }
+
+    private static Method findBatchMethod(Class<?> targetClass, String methodName) {
+        try {
+            Method batchMethod = targetClass.getMethod(methodName, List.class);
+            if (!BatchResult.class.isAssignableFrom(batchMethod.getReturnType())) {
+                throw new IllegalStateException("배치 메서드는 BatchResult 를 반환해야 함: " + batchMethod);
+            }
+            return batchMethod;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("배치 메서드를 찾을 수 없음: " + targetClass.getName() + "." + methodName + "(List)", e);
+        }
+    }
+
+    private static Method findProxyMethod(Class<?> proxyClass, Method batchMethod) {
+        // JDK 프록시 클래스는 public 이 아닐 수 있으므로 인터페이스에 선언된 Method 를 사용
+        Class<?>[] candidates = Proxy.isProxyClass(proxyClass) ? proxyClass.getInterfaces() : new Class<?>[]{proxyClass};
+        for (Class<?> candidate : candidates) {
+            try {
+                return candidate.getMethod(batchMethod.getName(), batchMethod.getParameterTypes());
+            } catch (NoSuchMethodException e) {
+                // 다음 인터페이스
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 대상 빈은 equals 를 재정의했을 수 있으므로 identity 로 비교
+     */
+    private static final class BatcherKey {
+
+        final Object target;
+        final Method method;
+
+        BatcherKey(Object target, Method method) {
+            this.target = target;
+            this.method = method;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof BatcherKey)) {
+                return false;
+            }
+            BatcherKey other = (BatcherKey) o;
+            return target == other.target && method.equals(other.method);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(target) + method.hashCode();
+        }
+    }
+}
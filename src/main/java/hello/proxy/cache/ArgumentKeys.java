@@ -0,0 +1,197 @@
+package hello.proxy.cache;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * 메서드 인자로 캐시 키를 만드는 방법을 파라미터 타입 보고 한 번만 정함
+ *
+ *  - 인자 없음: 상수 키 하나
+ *  - 인자 하나: 인자 자체를 키로 사용 (감싸는 객체를 만들지 않음. null 은 상수 키)
+ *  - 인자가 모두 기본형: long 필드에 값을 펼쳐 담은 키. 프록시가 넘긴 박싱 객체를 키에 붙잡아 두지 않음
+ *  - 그 외: 인자 배열 복사본 + 미리 계산한 해시 (배열 인자는 내용으로 비교)
+ *
+ * 스프링 AOP 는 인자를 Object[] 로 넘기므로 advice 에 도착한 시점에 기본형은 이미 박싱되어 있음
+ * 여기서는 그 위에 추가로 만드는 객체와 캐시에 오래 남는 객체를 줄이는 것이 목적
+ */
+public abstract class ArgumentKeys {
+
+    private static final Object NO_ARGS = new Object() {
+        @Override
+        public String toString() {
+            return "NO_ARGS";
+        }
+    };
+    private static final Object NULL_ARG = new Object() {
+        @Override
+        public String toString() {
+            return "NULL_ARG";
+        }
+    };
+
+    public abstract Object keyOf(Object[] args);
+
+    public static ArgumentKeys forMethod(Method method) {
+        return forParameterTypes(method.getParameterTypes());
+    }
+
+    public static ArgumentKeys forParameterTypes(Class<?>[] parameterTypes) {
+        if (parameterTypes.length == 0) {
+            return new NoArgs();
+        }
+        if (parameterTypes.length == 1 && !parameterTypes[0].isArray()) {
+            return new SingleArg();
+        }
+        if (Arrays.stream(parameterTypes).allMatch(Class::isPrimitive)) {
+            return parameterTypes.length == 2 ? new TwoPrimitives() : new Primitives();
+        }
+        return new MultipleArgs();
+    }
+
+    /**
+     * 기본형 값을 long 하나로. 실수형은 Double.equals 와 같은 기준 (NaN 끼리 같음, 0.0 과 -0.0 은 다름)
+     */
+    static long bitsOf(Object arg) {
+        if (arg instanceof Double) {
+            return Double.doubleToLongBits((Double) arg);
+        }
+        if (arg instanceof Float) {
+            return Float.floatToIntBits((Float) arg);
+        }
+        if (arg instanceof Character) {
+            return (Character) arg;
+        }
+        if (arg instanceof Boolean) {
+            return (Boolean) arg ? 1L : 0L;
+        }
+        return ((Number) arg).longValue();
+    }
+
+    private static final class NoArgs extends ArgumentKeys {
+
+        @Override
+        public Object keyOf(Object[] args) {
+            return NO_ARGS;
+        }
+    }
+
+    private static final class SingleArg extends ArgumentKeys {
+
+        @Override
+        public Object keyOf(Object[] args) {
+            Object arg = args[0];
+            return arg == null ? NULL_ARG : arg;
+        }
+    }
+
+    private static final class TwoPrimitives extends ArgumentKeys {
+
+        @Override
+        public Object keyOf(Object[] args) {
+            return new TwoPrimitivesKey(bitsOf(args[0]), bitsOf(args[1]));
+        }
+    }
+
+    private static final class Primitives extends ArgumentKeys {
+
+        @Override
+        public Object keyOf(Object[] args) {
+            long[] bits = new long[args.length];
+            for (int i = 0; i < args.length; i++) {
+                bits[i] = bitsOf(args[i]);
+            }
+            return new PrimitivesKey(bits);
+        }
+    }
+
+    private static final class MultipleArgs extends ArgumentKeys {
+
+        @Override
+        public Object keyOf(Object[] args) {
+            return new ArgumentsKey(args.clone());
+        }
+    }
+
+    static final class TwoPrimitivesKey {
+
+        private final long first;
+        private final long second;
+
+        TwoPrimitivesKey(long first, long second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof TwoPrimitivesKey)) {
+                return false;
+            }
+            TwoPrimitivesKey other = (TwoPrimitivesKey) o;
+            return first == other.first && second == other.second;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(first) + Long.hashCode(second);
+        }
+
+        @Override
+        public String toString() {
+            return "[" + first + ", " + second + "]";
+        }
+    }
+
+    static final class PrimitivesKey {
+
+        private final long[] bits;
+        private final int hash;
+
+        PrimitivesKey(long[] bits) {
+            this.bits = bits;
+            this.hash = Arrays.hashCode(bits);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof PrimitivesKey && Arrays.equals(bits, ((PrimitivesKey) o).bits);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(bits);
+        }
+    }
+
+    static final class ArgumentsKey {
+
+        private final Object[] args;
+        private final int hash;
+
+        ArgumentsKey(Object[] args) {
+            this.args = args;
+            this.hash = Arrays.deepHashCode(args);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ArgumentsKey && hash == ((ArgumentsKey) o).hash
+                    && Arrays.deepEquals(args, ((ArgumentsKey) o).args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.deepToString(args);
+        }
+    }
+}
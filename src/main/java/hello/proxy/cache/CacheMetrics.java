@@ -0,0 +1,43 @@
+package hello.proxy.cache;
+
+import hello.proxy.metrics.MetricsExporter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 캐시별 hit/miss/eviction 카운터를 /trace/metrics 로 내보냄
+ */
+public class CacheMetrics implements MetricsExporter {
+
+    private final ConcurrentHashMap<String, TinyLfuCache<?, ?>> caches = new ConcurrentHashMap<>();
+
+    public void register(TinyLfuCache<?, ?> cache) {
+        caches.put(cache.getName(), cache);
+    }
+
+    @Override
+    public void export(StringBuilder out) {
+        Map<String, TinyLfuCache<?, ?>> sorted = new TreeMap<>(caches);
+
+        out.append("# TYPE cache_requests_total counter\n");
+        sorted.forEach((name, cache) -> {
+            String label = label(name);
+            out.append("cache_requests_total{").append(label).append(",result=\"hit\"} ").append(cache.hitCount()).append('\n');
+            out.append("cache_requests_total{").append(label).append(",result=\"miss\"} ").append(cache.missCount()).append('\n');
+        });
+        out.append("# TYPE cache_evictions_total counter\n");
+        sorted.forEach((name, cache) -> {
+            String label = label(name);
+            out.append("cache_evictions_total{").append(label).append(",cause=\"size\"} ").append(cache.evictionCount()).append('\n');
+            out.append("cache_evictions_total{").append(label).append(",cause=\"expired\"} ").append(cache.expirationCount()).append('\n');
+        });
+        out.append("# TYPE cache_size gauge\n");
+        sorted.forEach((name, cache) ->
+                out.append("cache_size{").append(label(name)).append("} ").append(cache.estimatedSize()).append('\n'));
+    }
+
+    private static String label(String name) {
+        return "cache=\"" + MetricsExporter.escapeLabel(name) + "\"";
+    }
+}
@@ -0,0 +1,38 @@
+package hello.proxy.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 메서드 결과를 인자 기준으로 캐싱 (CachedResultAdvice)
+ * 같은 인자로 동시에 캐시 미스가 나면 한 번만 실행하고 나머지는 그 결과를 기다림
+ * 예외는 캐싱하지 않음
+ *
+ * 인터페이스 메서드, 구현 클래스 메서드 어느 쪽에 붙여도 됨
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachedResult {
+
+    /**
+     * 메트릭 라벨. 비어 있으면 "클래스.메서드()"
+     */
+    String name() default "";
+
+    /**
+     * 최대 항목 수. 넘으면 W-TinyLFU 기준으로 덜 쓰이는 항목부터 제거
+     */
+    int maximumSize() default 10_000;
+
+    /**
+     * 저장 후 유효 시간. 0 이하면 만료 없음
+     */
+    long ttl() default 0;
+
+    TimeUnit unit() default TimeUnit.SECONDS;
+}
@@ -0,0 +1,54 @@
+package hello.proxy.cache;
+
+import hello.proxy.advice.AdvisedMethods;
+import java.lang.reflect.Method;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * @CachedResult 메서드의 결과를 메서드별 TinyLfuCache 에 저장
+ * 포인트컷은 AnnotationMatchingPointcut.forMethodAnnotation(CachedResult.class) 와 함께 사용 (ProxyApplication 참고)
+ *
+ * 캐시는 Method 마다 하나. 같은 메서드는 대상 빈이 달라도 같은 캐시를 공유하므로 빈마다 결과가 다르면 사용하면 안 됨
+ */
+public class CachedResultAdvice implements MethodInterceptor {
+
+    private final CacheMetrics cacheMetrics;
+    private final AdvisedMethods<MethodCache> caches = new AdvisedMethods<>(this::createCache);
+
+    public CachedResultAdvice(CacheMetrics cacheMetrics) {
+        this.cacheMetrics = cacheMetrics;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        MethodCache cache = caches.get(invocation);
+        if (cache == null) {
+            return invocation.proceed();
+        }
+        return cache.values.get(cache.keys.keyOf(invocation.getArguments()), invocation::proceed);
+    }
+
+    private MethodCache createCache(Method method, Object target) {
+        CachedResult cachedResult = AdvisedMethods.findAnnotation(method, target, CachedResult.class);
+        if (cachedResult == null) {
+            return null;
+        }
+        String name = AdvisedMethods.name(method, cachedResult.name());
+        TinyLfuCache<Object, Object> values = new TinyLfuCache<>(
+                name, cachedResult.maximumSize(), cachedResult.unit().toNanos(cachedResult.ttl()));
+        cacheMetrics.register(values);
+        return new MethodCache(ArgumentKeys.forMethod(method), values);
+    }
+
+    private static final class MethodCache {
+
+        final ArgumentKeys keys;
+        final TinyLfuCache<Object, Object> values;
+
+        MethodCache(ArgumentKeys keys, TinyLfuCache<Object, Object> values) {
+            this.keys = keys;
+            this.values = values;
+        }
+    }
+}
@@ -0,0 +1,433 @@
+package hello.proxy.cache;
+
+import hello.proxy.trace.clock.SystemTraceClock;
+import hello.proxy.trace.clock.TraceClock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 크기 제한 + TTL 이 있는 동시성 캐시. 제거 정책은 W-TinyLFU
+ *
+ *  - window (1%, LRU): 새 항목은 여기로 들어옴. 갑자기 몰리는 새 키도 잠깐은 캐시에 남음
+ *  - main (99%, SLRU = probation 20% + protected 80%)
+ *    window 에서 밀려난 항목(candidate)은 probation 의 가장 오래된 항목(victim)과 빈도를 비교해서 더 자주 쓰인 쪽만 남김
+ *    probation 에서 다시 읽히면 protected 로 승격
+ *  - 빈도는 FrequencySketch 로 추정 (이미 제거된 키의 빈도도 기억하므로 한 번 쓰고 마는 키가 자주 쓰는 키를 밀어내지 못함)
+ *
+ * 조회는 ConcurrentHashMap.get 으로 락 없음. 정책 갱신(순서 이동, 빈도 증가)은 evictionLock 을 tryLock 으로 잡힐 때만 하고
+ * 경합 중이면 그 조회의 기록은 버림 (정확한 LRU 순서보다 조회 경로를 막지 않는 쪽을 선택)
+ * 쓰기(put, 제거)는 evictionLock 을 잡음
+ *
+ * 만료된 항목은 조회 시점과 제거 대상 선정 시점에 정리 (별도 스레드 없음)
+ */
+public final class TinyLfuCache<K, V> {
+
+    private final String name;
+    private final int maximumSize;
+    private final long ttlNanos;
+    private TraceClock clock = new SystemTraceClock();
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<K, Loading<V>> loading = new ConcurrentHashMap<>();
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final AccessQueue<K, V> window = new AccessQueue<>();
+    private final AccessQueue<K, V> probation = new AccessQueue<>();
+    private final AccessQueue<K, V> protectedQueue = new AccessQueue<>();
+    private final int windowMax;
+    private final int mainMax;
+    private final int protectedMax;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * ttlNanos 가 0 이하면 만료 없음
+     */
+    public TinyLfuCache(String name, int maximumSize, long ttlNanos) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize 는 1 이상이어야 함: " + maximumSize);
+        }
+        this.name = name;
+        this.maximumSize = maximumSize;
+        this.ttlNanos = ttlNanos;
+        this.sketch = new FrequencySketch(maximumSize);
+        this.windowMax = Math.max(1, maximumSize / 100);
+        this.mainMax = maximumSize - windowMax;
+        this.protectedMax = mainMax * 4 / 5;
+    }
+
+    public void setClock(TraceClock clock) {
+        this.clock = clock;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 캐시에 있으면 그 값, 없으면 loader 로 적재해서 저장 후 반환 (값이 null 이어도 캐싱)
+     * 같은 키의 적재가 이미 진행 중이면 새로 적재하지 않고 그 결과를 기다림. loader 예외는 기다리던 호출 모두에게 그대로 전달되고 캐싱하지 않음
+     */
+    public V get(K key, Loader<? extends V> loader) throws Throwable {
+        Node<K, V> node = data.get(key);
+        if (node != null) {
+            if (!node.isExpired(clock.nanoTime())) {
+                hits.increment();
+                afterRead(node);
+                return node.value;
+            }
+            expire(node);
+        }
+        misses.increment();
+        return load(key, loader);
+    }
+
+    /**
+     * 없거나 만료됐으면 null. 통계에 포함하지 않음
+     */
+    public V getIfPresent(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null || node.isExpired(clock.nanoTime())) {
+            return null;
+        }
+        return node.value;
+    }
+
+    public void put(K key, V value) {
+        long expireAt = ttlNanos > 0 ? clock.nanoTime() + ttlNanos : Long.MAX_VALUE;
+        Node<K, V> node = new Node<>(key, value, expireAt);
+        Node<K, V> previous = data.put(key, node);
+
+        evictionLock.lock();
+        try {
+            if (previous != null) {
+                unlink(previous);
+            }
+            // 락을 기다리는 사이 다른 put 이 이 노드를 교체했으면 연결하지 않음
+            if (data.get(key) == node) {
+                window.addLast(node, Node.WINDOW);
+                sketch.increment(key);
+                evict();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        Node<K, V> node = data.remove(key);
+        if (node != null) {
+            evictionLock.lock();
+            try {
+                unlink(node);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        evictionLock.lock();
+        try {
+            data.clear();
+            window.clear();
+            probation.clear();
+            protectedQueue.clear();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public int estimatedSize() {
+        return data.size();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * 크기 초과로 제거된 수
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * TTL 이 지나서 제거된 수
+     */
+    public long expirationCount() {
+        return expirations.sum();
+    }
+
+    private V load(K key, Loader<? extends V> loader) throws Throwable {
+        Loading<V> own = new Loading<>(Thread.currentThread());
+        Loading<V> inFlight = loading.putIfAbsent(key, own);
+        if (inFlight != null) {
+            if (inFlight.owner == Thread.currentThread()) {
+                throw new IllegalStateException("같은 키를 적재하는 중에 다시 적재 요청: " + name + ", " + key);
+            }
+            return await(inFlight);
+        }
+
+        try {
+            // 다른 스레드가 적재를 끝내고 loading 에서 지운 직후에 들어왔을 수 있음
+            Node<K, V> node = data.get(key);
+            V value;
+            if (node != null && !node.isExpired(clock.nanoTime())) {
+                value = node.value;
+            } else {
+                value = loader.load();
+                put(key, value);
+            }
+            own.complete(value);
+            return value;
+        } catch (Throwable e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, own);
+        }
+    }
+
+    private static <V> V await(Loading<V> inFlight) throws Throwable {
+        try {
+            return inFlight.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void afterRead(Node<K, V> node) {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            if (node.queue == Node.UNLINKED) {
+                return;
+            }
+            sketch.increment(node.key);
+            onAccess(node);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void expire(Node<K, V> node) {
+        if (data.remove(node.key, node)) {
+            expirations.increment();
+            evictionLock.lock();
+            try {
+                unlink(node);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    // 이하 evictionLock 안에서만 호출
+
+    private void onAccess(Node<K, V> node) {
+        switch (node.queue) {
+            case Node.WINDOW:
+                window.moveToLast(node);
+                break;
+            case Node.PROBATION:
+                probation.remove(node);
+                protectedQueue.addLast(node, Node.PROTECTED);
+                // protected 가 넘치면 가장 오래된 항목을 probation 으로 강등
+                if (protectedQueue.size > protectedMax) {
+                    Node<K, V> demoted = protectedQueue.pollFirst();
+                    probation.addLast(demoted, Node.PROBATION);
+                }
+                break;
+            case Node.PROTECTED:
+                protectedQueue.moveToLast(node);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void evict() {
+        while (window.size > windowMax) {
+            Node<K, V> candidate = window.pollFirst();
+            if (probation.size + protectedQueue.size < mainMax) {
+                probation.addLast(candidate, Node.PROBATION);
+                continue;
+            }
+
+            Node<K, V> victim = probation.size > 0 ? probation.peekFirst() : protectedQueue.peekFirst();
+            if (victim == null) {
+                // main 용량이 0 (maximumSize 가 아주 작은 경우)
+                remove(candidate);
+                continue;
+            }
+            if (victim.isExpired(clock.nanoTime())
+                    || sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                unlink(victim);
+                remove(victim);
+                probation.addLast(candidate, Node.PROBATION);
+            } else {
+                remove(candidate);
+            }
+        }
+    }
+
+    private void remove(Node<K, V> node) {
+        if (data.remove(node.key, node)) {
+            if (node.isExpired(clock.nanoTime())) {
+                expirations.increment();
+            } else {
+                evictions.increment();
+            }
+        }
+    }
+
+    private void unlink(Node<K, V> node) {
+        switch (node.queue) {
+            case Node.WINDOW:
+                window.remove(node);
+                break;
+            case Node.PROBATION:
+                probation.remove(node);
+                break;
+            case Node.PROTECTED:
+                protectedQueue.remove(node);
+                break;
+            default:
+                break;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Loader<V> {
+
+        V load() throws Throwable;
+    }
+
+    private static final class Loading<V> extends CompletableFuture<V> {
+
+        final Thread owner;
+
+        Loading(Thread owner) {
+            this.owner = owner;
+        }
+    }
+
+    private static final class Node<K, V> {
+
+        static final int UNLINKED = 0;
+        static final int WINDOW = 1;
+        static final int PROBATION = 2;
+        static final int PROTECTED = 3;
+
+        final K key;
+        final V value;
+        final long expireAt;
+
+        // evictionLock 안에서만 접근
+        int queue = UNLINKED;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, V value, long expireAt) {
+            this.key = key;
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - expireAt >= 0 && expireAt != Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * 접근 순서 이중 연결 리스트. 앞이 가장 오래된 항목
+     */
+    private static final class AccessQueue<K, V> {
+
+        private Node<K, V> first;
+        private Node<K, V> last;
+        int size;
+
+        void addLast(Node<K, V> node, int queue) {
+            node.queue = queue;
+            node.prev = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+            size++;
+        }
+
+        Node<K, V> peekFirst() {
+            return first;
+        }
+
+        Node<K, V> pollFirst() {
+            Node<K, V> node = first;
+            if (node != null) {
+                remove(node);
+            }
+            return node;
+        }
+
+        void moveToLast(Node<K, V> node) {
+            if (node != last) {
+                int queue = node.queue;
+                remove(node);
+                addLast(node, queue);
+            }
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.prev == null) {
+                first = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            node.queue = Node.UNLINKED;
+            size--;
+        }
+
+        void clear() {
+            Node<K, V> node = first;
+            while (node != null) {
+                Node<K, V> next = node.next;
+                node.prev = null;
+                node.next = null;
+                node.queue = Node.UNLINKED;
+                node = next;
+            }
+            first = null;
+            last = null;
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package hello.proxy.config;
+
+import hello.proxy.thread.VirtualThreads;
+import org.apache.coyote.AbstractProtocol;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+/**
+ * proxy.virtual-threads.enabled=true 일 때만. Java 21 이상 필요 (아니면 기동 시 UnsupportedOperationException)
+ *
+ * 톰캣 요청 처리와 applicationTaskExecutor(@Async 등)를 작업마다 새 가상 스레드로 실행
+ * v1~v3 의 save 처럼 블로킹하는 호출이 플랫폼 스레드를 붙잡지 않으므로 동시 요청 수가 server.tomcat.threads.max 에 묶이지 않음
+ * (상한은 server.tomcat.max-connections)
+ *
+ * 로그 추적은 스레드별 상태를 그대로 사용. 가상 스레드에서는 trace 가 끝나면 바로 정리됨 (SpanStackLogTrace, ThreadLocalLogTrace)
+ * trace/metrics 쪽 synchronized 는 짧은 등록 구간뿐이라 캐리어 스레드 고정(pinning) 영향은 작음. 블로킹 대기는 ReentrantLock 사용 (Batcher 등)
+ */
+@Configuration
+@ConditionalOnProperty(name = "proxy.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+  @Bean
+  public TomcatProtocolHandlerCustomizer<AbstractProtocol<?>> virtualThreadProtocolHandlerCustomizer() {
+    // 톰캣이 만든 executor 가 아니라서 종료 시 shutdown 하지 않지만, 가상 스레드는 풀이 없어 남는 스레드가 없음
+    return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("tomcat-virtual-"));
+  }
+
+  // 스프링 부트 기본 applicationTaskExecutor(ThreadPoolTaskExecutor) 대체. trace 전파는 TracingTaskDecorator 빈이 있으면 적용
+  @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+  public TaskExecutorAdapter applicationTaskExecutor(ObjectProvider<TaskDecorator> taskDecorator) {
+    TaskExecutorAdapter executor = new TaskExecutorAdapter(VirtualThreads.newThreadPerTaskExecutor("task-virtual-"));
+    taskDecorator.ifUnique(executor::setTaskDecorator);
+    return executor;
+  }
+}
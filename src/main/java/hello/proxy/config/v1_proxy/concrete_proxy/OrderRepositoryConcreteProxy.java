@@ -1,8 +1,10 @@
 package hello.proxy.config.v1_proxy.concrete_proxy;
 
 import hello.proxy.app.v2.OrderRepositoryV2;
+import hello.proxy.batch.BatchResult;
 import hello.proxy.trace.TraceStatus;
 import hello.proxy.trace.logtrace.LogTrace;
+import java.util.List;
 
 public class OrderRepositoryConcreteProxy extends OrderRepositoryV2 {
 
@@ -27,4 +29,19 @@ public class OrderRepositoryConcreteProxy extends OrderRepositoryV2 {
       throw e;
     }
   }
+
+  @Override
+  public BatchResult<Void> saveAll(List<String> itemIds) {
+    TraceStatus status = null;
+    try {
+      status = logTrace.begin("OrderRepository.saveAll()");
+      // target 호출
+      BatchResult<Void> result = target.saveAll(itemIds);
+      logTrace.end(status);
+      return result;
+    } catch (Exception e) {
+      logTrace.exception(status, e);
+      throw e;
+    }
+  }
 }
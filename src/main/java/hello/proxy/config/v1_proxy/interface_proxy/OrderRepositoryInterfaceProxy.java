@@ -1,8 +1,10 @@
 package hello.proxy.config.v1_proxy.interface_proxy;
 
 import hello.proxy.app.v1.OrderRepositoryV1;
+import hello.proxy.batch.BatchResult;
 import hello.proxy.trace.TraceStatus;
 import hello.proxy.trace.logtrace.LogTrace;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 
 @RequiredArgsConstructor
@@ -26,4 +28,19 @@ public class OrderRepositoryInterfaceProxy implements OrderRepositoryV1 {
       throw e;
     }
   }
+
+  @Override
+  public BatchResult<Void> saveAll(List<String> itemIds) {
+    TraceStatus status = null;
+    try {
+      status = logTrace.begin("OrderRepository.saveAll()");
+      // target 호출
+      BatchResult<Void> result = target.saveAll(itemIds);
+      logTrace.end(status);
+      return result;
+    } catch (Exception e) {
+      logTrace.exception(status, e);
+      throw e;
+    }
+  }
 }
@@ -3,9 +3,8 @@ package hello.proxy.config.v2_dynamicproxy;
 import hello.proxy.app.v2.OrderControllerV2;
 import hello.proxy.app.v2.OrderRepositoryV2;
 import hello.proxy.app.v2.OrderServiceV2;
-import hello.proxy.config.v2_dynamicproxy.interceptor.LogTraceFilterInterceptor;
+import hello.proxy.config.v2_dynamicproxy.interceptor.CglibTraceProxyBuilder;
 import hello.proxy.trace.logtrace.LogTrace;
-import org.springframework.cglib.proxy.Enhancer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -20,14 +19,9 @@ public class DynamicCglibProxyFilterConfig {
     OrderServiceV2 orderService = orderServiceV2(logTrace);
     OrderControllerV2 orderController = new OrderControllerV2(orderService);
 
-    Enhancer enhancer = new Enhancer();
-    enhancer.setSuperclass(OrderControllerV2.class);
-    enhancer.setCallback(new LogTraceFilterInterceptor(orderController, logTrace, PATTERNS));
-
+    // 로그 대상 여부는 프록시 클래스 생성 시 CallbackFilter 가 결정. noLog() 는 interceptor 없이 target 바로 호출
     // CGLIB 으로 프록시 생성 시, class 에 기본 생성자 필요. 생성 원하지 않으면, 생성자에 필요한 인자값 넘김 (ServiceV2 Bean 참고)
-    OrderControllerV2 proxy = (OrderControllerV2) enhancer.create();
-
-    return proxy;
+    return new CglibTraceProxyBuilder(logTrace, PATTERNS).create(OrderControllerV2.class, orderController);
   }
 
   @Bean
@@ -36,17 +30,11 @@ public class DynamicCglibProxyFilterConfig {
     OrderRepositoryV2 orderRepository = orderRepositoryV2(logTrace);
     OrderServiceV2 orderService = new OrderServiceV2(orderRepository);
 
-    Enhancer enhancer = new Enhancer();
-    enhancer.setSuperclass(OrderServiceV2.class);
-    enhancer.setCallback(new LogTraceFilterInterceptor(orderService, logTrace, PATTERNS));
-
     // CGLIB 으로 프록시 생성 시, class 에 기본 생성자 필요. 생성 원하지 않으면, 생성자에 필요한 인자값 넘김
-    OrderServiceV2 proxy = (OrderServiceV2) enhancer.create(
+    return new CglibTraceProxyBuilder(logTrace, PATTERNS).create(OrderServiceV2.class, orderService,
         new Class[]{OrderRepositoryV2.class},
         new Object[]{orderRepository}
     );
-
-    return proxy;
   }
 
   @Bean
@@ -54,11 +42,6 @@ public class DynamicCglibProxyFilterConfig {
 
     OrderRepositoryV2 orderRepository = new OrderRepositoryV2();
 
-    Enhancer enhancer = new Enhancer();
-    enhancer.setSuperclass(OrderRepositoryV2.class);
-    enhancer.setCallback(new LogTraceFilterInterceptor(orderRepository, logTrace, PATTERNS));
-    OrderRepositoryV2 proxy = (OrderRepositoryV2) enhancer.create();
-
-    return proxy;
+    return new CglibTraceProxyBuilder(logTrace, PATTERNS).create(OrderRepositoryV2.class, orderRepository);
   }
 }
@@ -1,36 +1,35 @@
 package hello.proxy.config.v2_dynamicproxy.handler;
 
-import hello.proxy.trace.TraceStatus;
 import hello.proxy.trace.logtrace.LogTrace;
+import hello.proxy.trace.site.TraceSites;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 
 public class LogTraceBasicHandler implements InvocationHandler {
 
-  private final Object target;
+  private final TargetInvoker invoker;
   private final LogTrace logTrace;
 
   public LogTraceBasicHandler(Object target, LogTrace logTrace) {
-    this.target = target;
+    this.invoker = new TargetInvoker(target);
     this.logTrace = logTrace;
   }
 
   @Override
   public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
 
-    TraceStatus status = null;
+    int span = LogTrace.NO_SPAN;
     try {
-      String message = String.format("%s.%s()",
-          method.getDeclaringClass().getSimpleName(),
-          method.getName());
-      status = logTrace.begin(message);
+      // 메시지는 메서드마다 한 번만 만들어서 재사용
+      span = logTrace.beginSpan(TraceSites.of(method));
 
-      // 로직 호출
-      Object result = method.invoke(target, args);
-      logTrace.end(status);
+      // 로직 호출 (Method 마다 캐시한 MethodHandle, 예외는 감싸지지 않고 그대로)
+      Object result = invoker.invoke(method, args);
+      logTrace.endSpan(span);
       return result;
-    } catch (Exception e) {
-      logTrace.exception(status, e);
+    } catch (Throwable e) {
+      // Error 도 span 을 닫아야 스레드의 trace 레벨이 어긋나지 않음
+      logTrace.exceptionSpan(span, e instanceof Exception ? (Exception) e : new RuntimeException(e));
       throw e;
     }
   }
@@ -1,49 +1,46 @@
 package hello.proxy.config.v2_dynamicproxy.handler;
 
-import hello.proxy.trace.TraceStatus;
+import hello.proxy.trace.filter.MethodFilter;
 import hello.proxy.trace.logtrace.LogTrace;
+import hello.proxy.trace.site.TraceSite;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
-import org.springframework.util.PatternMatchUtils;
 
 public class LogTraceFilterHandler implements InvocationHandler {
 
-  private final Object target;
+  private final TargetInvoker invoker;
   private final LogTrace logTrace;
-  private final String[] patterns;
+  private final MethodFilter filter;
 
   public LogTraceFilterHandler(Object target, LogTrace logTrace, String[] patterns) {
-    this.target = target;
+    this.invoker = new TargetInvoker(target);
     this.logTrace = logTrace;
-    this.patterns = patterns;
+    this.filter = new MethodFilter(patterns);
 
   }
 
   @Override
   public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
 
-    // method name filter
-    String methodName = method.getName();
-
+    // method name filter (패턴은 생성 시 한 번 컴파일, 판단 결과는 Method 마다 캐시)
     // save, request, reque*, *est not match
-    if (!PatternMatchUtils.simpleMatch(patterns, methodName)) {
+    TraceSite site = filter.siteOf(method);
+    if (site == null) {
       // logTrace 호출 x, 실제 메서드만 호출(invoke)
-      return method.invoke(target, args);
+      return invoker.invoke(method, args);
     }
 
-    TraceStatus status = null;
+    int span = LogTrace.NO_SPAN;
     try {
-      String message = String.format("%s.%s()",
-          method.getDeclaringClass().getSimpleName(),
-          methodName);
-      status = logTrace.begin(message);
-
-      // 로직 호출
-      Object result = method.invoke(target, args);
-      logTrace.end(status);
+      span = logTrace.beginSpan(site);
+
+      // 로직 호출 (Method 마다 캐시한 MethodHandle, 예외는 감싸지지 않고 그대로)
+      Object result = invoker.invoke(method, args);
+      logTrace.endSpan(span);
       return result;
-    } catch (Exception e) {
-      logTrace.exception(status, e);
+    } catch (Throwable e) {
+      // Error 도 span 을 닫아야 스레드의 trace 레벨이 어긋나지 않음
+      logTrace.exceptionSpan(span, e instanceof Exception ? (Exception) e : new RuntimeException(e));
       throw e;
     }
   }
@@ -0,0 +1,222 @@
+package hello.proxy.config.v2_dynamicproxy.handler;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * InvocationHandler 에서 method.invoke(target, args) 대신 사용
+ *
+ * Method 마다 한 번만 target 에 바인딩된 호출기를 만들어 두고 재사용
+ *  - 인자 2개 이하: LambdaMetafactory 로 target 을 캡처한 람다 클래스 (target.method(a0, a1) 를 직접 호출하는 바이트코드)
+ *  - 그 외, 람다를 만들 수 없는 경우(접근 불가 등): target 에 바인딩한 MethodHandle
+ *  - 호출마다 하는 리플렉션 접근 검사 없음
+ *  - 예외가 InvocationTargetException 으로 감싸지지 않고 그대로 전달됨
+ *    (method.invoke 를 쓰면 RuntimeException 도 감싸져서 프록시 밖으로는 UndeclaredThrowableException 이 나감)
+ *
+ * JDK 동적 프록시는 매번 같은 Method 객체(프록시 클래스의 static 필드)를 넘기므로 identity map 으로 충분
+ * 메서드 수가 적고 거의 읽기만 하므로 copy-on-write
+ *
+ * 비용 비교: ./gradlew jmh -Pjmh.includes=TargetInvokerBenchmark
+ */
+public class TargetInvoker {
+
+  private static final MethodType SPREAD_TYPE = MethodType.methodType(Object.class, Object[].class);
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final int MAX_LAMBDA_ARITY = 2;
+  private static final Class<?>[] CALL_TYPES = {Call0.class, Call1.class, Call2.class};
+  private static final Class<?>[] RUN_TYPES = {Run0.class, Run1.class, Run2.class};
+
+  private final Object target;
+  private volatile IdentityHashMap<Method, Invoker> invokers = new IdentityHashMap<>();
+
+  public TargetInvoker(Object target) {
+    this.target = target;
+  }
+
+  /**
+   * args 는 InvocationHandler 가 받은 그대로 (인자가 없으면 null)
+   */
+  public Object invoke(Method method, Object[] args) throws Throwable {
+    Invoker invoker = invokers.get(method);
+    if (invoker == null) {
+      invoker = register(method);
+    }
+    return invoker.invoke(args);
+  }
+
+  /**
+   * 지금까지 만든 호출기 수
+   */
+  public int size() {
+    return invokers.size();
+  }
+
+  /**
+   * method 호출기가 람다 클래스면 true (테스트용)
+   */
+  boolean isLambda(Method method) {
+    Invoker invoker = invokers.get(method);
+    return invoker != null && !(invoker instanceof HandleInvoker);
+  }
+
+  private synchronized Invoker register(Method method) {
+    IdentityHashMap<Method, Invoker> current = invokers;
+    Invoker invoker = current.get(method);
+    if (invoker != null) {
+      return invoker;
+    }
+
+    invoker = lambda(method);
+    if (invoker == null) {
+      invoker = new HandleInvoker(spreadHandle(method));
+    }
+
+    IdentityHashMap<Method, Invoker> copy = new IdentityHashMap<>(current);
+    copy.put(method, invoker);
+    invokers = copy;
+    return invoker;
+  }
+
+  /**
+   * target 을 캡처한 CallN / RunN 구현 클래스. 만들 수 없으면 null
+   */
+  private Invoker lambda(Method method) {
+    int arity = method.getParameterCount();
+    if (arity > MAX_LAMBDA_ARITY) {
+      return null;
+    }
+    boolean isVoid = method.getReturnType() == void.class;
+    Class<?> sam = isVoid ? RUN_TYPES[arity] : CALL_TYPES[arity];
+
+    Class<?>[] erased = new Class<?>[arity];
+    Arrays.fill(erased, Object.class);
+    MethodType samType = MethodType.methodType(isVoid ? void.class : Object.class, erased);
+    // 인자는 실제 타입으로 캐스팅(기본형은 언박싱), 반환값은 Object 로 박싱
+    MethodType instantiatedType = MethodType.methodType(Object.class, method.getParameterTypes())
+        .wrap()
+        .changeReturnType(samType.returnType());
+    try {
+      MethodHandle impl = LOOKUP.unreflect(method);
+      CallSite site = LambdaMetafactory.metafactory(LOOKUP, isVoid ? "run" : "call",
+          MethodType.methodType(sam, method.getDeclaringClass()), samType, impl, instantiatedType);
+      return (Invoker) site.getTarget().invoke(target);
+    } catch (Throwable e) {
+      // public 이 아닌 인터페이스, 다른 클래스 로더 등
+      return null;
+    }
+  }
+
+  /**
+   * (Object[]) -> Object 로 맞춰 두면 호출 쪽은 invokeExact 하나로 끝남. void 는 null, 기본형은 박싱
+   */
+  private MethodHandle spreadHandle(Method method) {
+    return unreflect(method)
+        .bindTo(target)
+        .asSpreader(Object[].class, method.getParameterCount())
+        .asType(SPREAD_TYPE);
+  }
+
+  private static MethodHandle unreflect(Method method) {
+    try {
+      return MethodHandles.publicLookup().unreflect(method);
+    } catch (IllegalAccessException e) {
+      // public 이 아닌 인터페이스 등. 접근 검사를 끄고 다시 시도
+      try {
+        method.setAccessible(true);
+        return MethodHandles.lookup().unreflect(method);
+      } catch (IllegalAccessException | RuntimeException retry) {
+        throw new IllegalStateException("MethodHandle 생성 실패: " + method, retry);
+      }
+    }
+  }
+
+  interface Invoker {
+
+    Object invoke(Object[] args) throws Throwable;
+  }
+
+  // LambdaMetafactory 가 구현하는 인자 수별 인터페이스. invoke 에서 배열을 풀어서 호출
+
+  interface Call0 extends Invoker {
+
+    Object call() throws Throwable;
+
+    @Override
+    default Object invoke(Object[] args) throws Throwable {
+      return call();
+    }
+  }
+
+  interface Call1 extends Invoker {
+
+    Object call(Object a0) throws Throwable;
+
+    @Override
+    default Object invoke(Object[] args) throws Throwable {
+      return call(args[0]);
+    }
+  }
+
+  interface Call2 extends Invoker {
+
+    Object call(Object a0, Object a1) throws Throwable;
+
+    @Override
+    default Object invoke(Object[] args) throws Throwable {
+      return call(args[0], args[1]);
+    }
+  }
+
+  interface Run0 extends Invoker {
+
+    void run() throws Throwable;
+
+    @Override
+    default Object invoke(Object[] args) throws Throwable {
+      run();
+      return null;
+    }
+  }
+
+  interface Run1 extends Invoker {
+
+    void run(Object a0) throws Throwable;
+
+    @Override
+    default Object invoke(Object[] args) throws Throwable {
+      run(args[0]);
+      return null;
+    }
+  }
+
+  interface Run2 extends Invoker {
+
+    void run(Object a0, Object a1) throws Throwable;
+
+    @Override
+    default Object invoke(Object[] args) throws Throwable {
+      run(args[0], args[1]);
+      return null;
+    }
+  }
+
+  private static final class HandleInvoker implements Invoker {
+
+    private final MethodHandle handle;
+
+    HandleInvoker(MethodHandle handle) {
+      this.handle = handle;
+    }
+
+    @Override
+    public Object invoke(Object[] args) throws Throwable {
+      return (Object) handle.invokeExact(args);
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package hello.proxy.config.v2_dynamicproxy.interceptor;
+
+import hello.proxy.trace.logtrace.LogTrace;
+import org.springframework.cglib.proxy.Callback;
+import org.springframework.cglib.proxy.Enhancer;
+
+/**
+ * 로그 대상 메서드만 interceptor 를 거치는 CGLIB 프록시 생성
+ * callback 배열 순서는 LogTraceCallbackFilter 의 TRACE, DISPATCH 와 맞춰야 함
+ */
+public class CglibTraceProxyBuilder {
+
+  private final LogTrace logTrace;
+  private final LogTraceCallbackFilter callbackFilter;
+
+  public CglibTraceProxyBuilder(LogTrace logTrace, String... patterns) {
+    this.logTrace = logTrace;
+    this.callbackFilter = new LogTraceCallbackFilter(patterns);
+  }
+
+  public <T> T create(Class<T> type, T target) {
+    return create(type, target, new Class[0], new Object[0]);
+  }
+
+  /**
+   * 기본 생성자가 없는 클래스는 부모 생성자에 넘길 인자 지정
+   */
+  public <T> T create(Class<T> type, T target, Class<?>[] argumentTypes, Object[] arguments) {
+    Enhancer enhancer = new Enhancer();
+    enhancer.setSuperclass(type);
+    enhancer.setCallbackFilter(callbackFilter);
+    enhancer.setCallbacks(new Callback[]{
+        new LogTraceInterceptor(target, logTrace), // TRACE
+        new TargetDispatcher(target)               // DISPATCH
+    });
+
+    Object proxy = argumentTypes.length == 0 ? enhancer.create() : enhancer.create(argumentTypes, arguments);
+    return type.cast(proxy);
+  }
+}
@@ -0,0 +1,52 @@
+package hello.proxy.config.v2_dynamicproxy.interceptor;
+
+import hello.proxy.trace.filter.MethodNameMatcher;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.TreeSet;
+import org.springframework.cglib.proxy.CallbackFilter;
+
+/**
+ * 프록시 클래스를 생성할 때 메서드마다 한 번 호출되어 callback 을 고름
+ *  - TRACE: 패턴에 맞는 메서드 -> LogTraceInterceptor
+ *  - DISPATCH: 나머지 -> TargetDispatcher (target 직접 호출)
+ * 호출 시점에는 패턴 매칭이 전혀 없음. 어떤 메서드가 로그 대상인지는 LogTraceFilterInterceptor 와 같음
+ * (protected 메서드는 CGLIB 가 Dispatcher 코드를 만들지 않으므로 DISPATCH 면 프록시 자신의 구현이 실행됨)
+ *
+ * CGLIB 는 CallbackFilter 의 equals/hashCode 를 생성 클래스 캐시 키로 쓰므로 패턴 집합으로 비교
+ * (같은 타입, 같은 패턴이면 프록시 클래스를 한 번만 생성)
+ */
+public class LogTraceCallbackFilter implements CallbackFilter {
+
+  public static final int TRACE = 0;
+  public static final int DISPATCH = 1;
+
+  private final String[] patterns;
+  private final MethodNameMatcher matcher;
+
+  public LogTraceCallbackFilter(String... patterns) {
+    this.patterns = new TreeSet<>(Arrays.asList(patterns)).toArray(new String[0]);
+    this.matcher = MethodNameMatcher.compile(patterns);
+  }
+
+  @Override
+  public int accept(Method method) {
+    return matcher.matches(method.getName()) ? TRACE : DISPATCH;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    return Arrays.equals(patterns, ((LogTraceCallbackFilter) o).patterns);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(patterns);
+  }
+}
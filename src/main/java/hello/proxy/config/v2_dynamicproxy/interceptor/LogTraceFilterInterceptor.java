@@ -1,45 +1,43 @@
 package hello.proxy.config.v2_dynamicproxy.interceptor;
 
-import hello.proxy.trace.TraceStatus;
+import hello.proxy.trace.filter.MethodFilter;
 import hello.proxy.trace.logtrace.LogTrace;
+import hello.proxy.trace.site.TraceSite;
 import java.lang.reflect.Method;
 import org.springframework.cglib.proxy.MethodInterceptor;
 import org.springframework.cglib.proxy.MethodProxy;
-import org.springframework.util.PatternMatchUtils;
 
 public class LogTraceFilterInterceptor implements MethodInterceptor {
 
   private final Object target;
   private final LogTrace logTrace;
-  private final String[] patterns;
+  private final MethodFilter filter;
 
   public LogTraceFilterInterceptor(Object target, LogTrace logTrace, String[] patterns) {
     this.target = target;
     this.logTrace = logTrace;
-    this.patterns = patterns;
+    this.filter = new MethodFilter(patterns);
   }
 
   @Override
   public Object intercept(Object obj, Method method, Object[] args, MethodProxy methodProxy) throws Throwable {
 
-    String methodName = method.getName();
-    if (!PatternMatchUtils.simpleMatch(patterns, methodName)) {
+    TraceSite site = filter.siteOf(method);
+    if (site == null) {
       return methodProxy.invoke(target, args);
     }
 
-    TraceStatus status = null;
+    int span = LogTrace.NO_SPAN;
     try {
-      String message = String.format("%s.%s()",
-          method.getDeclaringClass().getSimpleName(),
-          methodName);
-      status = logTrace.begin(message);
+      span = logTrace.beginSpan(site);
 
       // 로직 호출
       Object result = methodProxy.invoke(target, args);
-      logTrace.end(status);
+      logTrace.endSpan(span);
       return result;
-    } catch (Exception e) {
-      logTrace.exception(status, e);
+    } catch (Throwable e) {
+      // Error 도 span 을 닫아야 스레드의 trace 레벨이 어긋나지 않음
+      logTrace.exceptionSpan(span, e instanceof Exception ? (Exception) e : new RuntimeException(e));
       throw e;
     }
   }
@@ -0,0 +1,40 @@
+package hello.proxy.config.v2_dynamicproxy.interceptor;
+
+import hello.proxy.trace.logtrace.LogTrace;
+import hello.proxy.trace.site.TraceSites;
+import java.lang.reflect.Method;
+import org.springframework.cglib.proxy.MethodInterceptor;
+import org.springframework.cglib.proxy.MethodProxy;
+
+/**
+ * 필터 없이 항상 로그를 남기는 interceptor
+ * 로그 대상 판단은 LogTraceCallbackFilter 가 프록시 클래스 생성 시점에 끝냄 (로그 대상 메서드만 여기로 옴)
+ */
+public class LogTraceInterceptor implements MethodInterceptor {
+
+  private final Object target;
+  private final LogTrace logTrace;
+
+  public LogTraceInterceptor(Object target, LogTrace logTrace) {
+    this.target = target;
+    this.logTrace = logTrace;
+  }
+
+  @Override
+  public Object intercept(Object obj, Method method, Object[] args, MethodProxy methodProxy) throws Throwable {
+
+    int span = LogTrace.NO_SPAN;
+    try {
+      span = logTrace.beginSpan(TraceSites.of(method));
+
+      // 로직 호출
+      Object result = methodProxy.invoke(target, args);
+      logTrace.endSpan(span);
+      return result;
+    } catch (Throwable e) {
+      // Error 도 span 을 닫아야 스레드의 trace 레벨이 어긋나지 않음
+      logTrace.exceptionSpan(span, e instanceof Exception ? (Exception) e : new RuntimeException(e));
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package hello.proxy.config.v2_dynamicproxy.interceptor;
+
+import org.springframework.cglib.proxy.Dispatcher;
+
+/**
+ * 로그 대상이 아닌 메서드용 callback
+ * CGLIB 가 생성하는 코드가 ((타입) loadObject()).메서드(args) 를 바로 호출함 (Object[] 인자 배열, MethodProxy 없음)
+ */
+public class TargetDispatcher implements Dispatcher {
+
+  private final Object target;
+
+  public TargetDispatcher(Object target) {
+    this.target = target;
+  }
+
+  @Override
+  public Object loadObject() {
+    return target;
+  }
+}
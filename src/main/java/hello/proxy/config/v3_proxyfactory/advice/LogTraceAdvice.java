@@ -1,8 +1,10 @@
 package hello.proxy.config.v3_proxyfactory.advice;
 
-import hello.proxy.trace.TraceStatus;
+import hello.proxy.trace.TraceContext;
+import hello.proxy.trace.async.CompletionTracing;
 import hello.proxy.trace.logtrace.LogTrace;
-import java.lang.reflect.Method;
+import hello.proxy.trace.site.TraceSite;
+import hello.proxy.trace.site.TraceSites;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 
@@ -17,21 +19,22 @@ public class LogTraceAdvice implements MethodInterceptor {
 
   @Override
   public Object invoke(MethodInvocation invocation) throws Throwable {
-    TraceStatus status = null;
+    int span = LogTrace.NO_SPAN;
     try {
-      Method method = invocation.getMethod();
-      String message = String.format("%s.%s()",
-          method.getDeclaringClass().getSimpleName(),
-          method.getName());
-      status = logTrace.begin(message);
+      TraceSite site = TraceSites.of(invocation.getMethod());
+      span = logTrace.beginSpan(site);
+      // CompletableFuture 등을 반환하는 메서드는 완료 시점까지 따로 기록
+      TraceContext context = CompletionTracing.captureIfAsync(logTrace, site);
 
       // 로직 호출
       Object result = invocation.proceed();
 
-      logTrace.end(status);
+      logTrace.endSpan(span);
+      CompletionTracing.traceCompletion(logTrace, context, result, site);
       return result;
-    } catch (Exception e) {
-      logTrace.exception(status, e);
+    } catch (Throwable e) {
+      // Error 도 span 을 닫아야 스레드의 trace 레벨이 어긋나지 않음
+      logTrace.exceptionSpan(span, e instanceof Exception ? (Exception) e : new RuntimeException(e));
       throw e;
     }
   }
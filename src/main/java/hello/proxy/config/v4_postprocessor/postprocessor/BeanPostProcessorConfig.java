@@ -22,7 +22,7 @@ public class BeanPostProcessorConfig {
     return new PackageLogTracePostProcessor("hello.proxy.app", getAdvisor(logTrace));
   }
 
-  private Advisor getAdvisor(LogTrace logTrace) {
+  static Advisor getAdvisor(LogTrace logTrace) {
 
     NameMatchMethodPointcut pointcut = new NameMatchMethodPointcut();
     pointcut.setMappedNames("request*", "order*", "save*");
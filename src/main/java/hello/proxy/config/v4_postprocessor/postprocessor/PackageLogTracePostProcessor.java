@@ -1,10 +1,13 @@
 package hello.proxy.config.v4_postprocessor.postprocessor;
 
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.aop.Advisor;
 import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.util.ClassUtils;
 
 @Slf4j
 public class PackageLogTracePostProcessor implements BeanPostProcessor {
@@ -12,6 +15,9 @@ public class PackageLogTracePostProcessor implements BeanPostProcessor {
   private final String basePackage;
   private final Advisor advisor;
 
+  // 클래스마다 한 번만 적용 대상 여부를 판단하고 프록시 설정(인터페이스 목록)을 만들어 둠
+  private final ConcurrentHashMap<Class<?>, ProxyTemplate> templates = new ConcurrentHashMap<>();
+
   public PackageLogTracePostProcessor(String basePackage, Advisor advisor) {
     this.basePackage = basePackage;
     this.advisor = advisor;
@@ -19,19 +25,18 @@ public class PackageLogTracePostProcessor implements BeanPostProcessor {
 
   @Override
   public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
-    log.info("param beanName: {}, bean: {}", beanName, bean.getClass());
+    // 모든 빈이 지나가므로 debug
+    log.debug("param beanName: {}, bean: {}", beanName, bean.getClass());
 
     // proxy 적용 대상 여부 체크
     // 프록시 적용 대상이 아니면 원본 그대로 진행
-    String packageName = bean.getClass().getPackageName();
-    if (!packageName.startsWith(basePackage)) {
+    ProxyTemplate template = templates.computeIfAbsent(bean.getClass(), this::createTemplate);
+    if (template == ProxyTemplate.NOT_PROXIED) {
       return bean;
     }
 
     // 프록시 적용 대상이면 프록시를 만들어서 반환
-    ProxyFactory factory = new ProxyFactory(bean);
-    factory.addAdvisor(advisor);
-    Object proxy = factory.getProxy();
+    Object proxy = template.createProxy(bean, advisor);
     log.info("created proxy - target: {}, proxy: {}", bean.getClass(), proxy.getClass());
 
     // 스프링부트가 기본으로 등록하는 수많은 빈들이 빈 후처리기를 통과하여 'param beanName: ~' 로그가 실제로 엄청 찍힘
@@ -62,4 +67,46 @@ public class PackageLogTracePostProcessor implements BeanPostProcessor {
     // created proxy - target: class hello.proxy.app.v2.OrderControllerV2, proxy: class hello.proxy.app.v2.OrderControllerV2$$EnhancerBySpringCGLIB$$3d4f12f8
     return proxy;
   }
+
+  /**
+   * 패키지가 맞아도 advisor 의 ClassFilter/MethodMatcher 에 걸리는 메서드가 하나도 없으면 프록시를 만들지 않음
+   * (AopUtils.canApply 는 클래스와 인터페이스의 모든 메서드를 검사하므로 클래스마다 한 번만)
+   */
+  private ProxyTemplate createTemplate(Class<?> beanClass) {
+    String packageName = beanClass.getPackageName();
+    if (!packageName.startsWith(basePackage)) {
+      return ProxyTemplate.NOT_PROXIED;
+    }
+    if (!AopUtils.canApply(advisor, beanClass)) {
+      log.debug("no matching method, skip proxy - target: {}", beanClass);
+      return ProxyTemplate.NOT_PROXIED;
+    }
+    return new ProxyTemplate(ClassUtils.getAllInterfacesForClass(beanClass, beanClass.getClassLoader()));
+  }
+
+  /**
+   * 같은 클래스의 빈들이 공유하는 프록시 설정
+   * 인터페이스 목록과 advisor 가 같으므로 JDK 동적 프록시는 JDK 캐시에서, CGLIB 은 스프링 캐시에서 같은 프록시 클래스를 재사용함
+   */
+  private static final class ProxyTemplate {
+
+    static final ProxyTemplate NOT_PROXIED = new ProxyTemplate(new Class<?>[0]);
+
+    private final Class<?>[] interfaces;
+
+    ProxyTemplate(Class<?>[] interfaces) {
+      this.interfaces = interfaces;
+    }
+
+    Object createProxy(Object bean, Advisor advisor) {
+      ProxyFactory factory = new ProxyFactory();
+      factory.setTarget(bean);
+      // 인터페이스가 없으면 CGLIB (new ProxyFactory(bean) 과 같은 선택)
+      factory.setInterfaces(interfaces);
+      factory.addAdvisor(advisor);
+      // ClassFilter 는 이미 통과했으므로 호출 시 다시 검사하지 않음
+      factory.setPreFiltered(true);
+      return factory.getProxy(bean.getClass().getClassLoader());
+    }
+  }
 }
@@ -0,0 +1,24 @@
+package hello.proxy.config.v4_postprocessor.postprocessor;
+
+import hello.proxy.trace.logtrace.NoOpLogTrace;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * BeanPostProcessorConfig + 프록시 클래스 미리 생성
+ * 빈 후처리기가 만들 프록시 클래스를 빈 정의 단계에서 백그라운드로 먼저 만들어 둠
+ * 빈 생성과 겹쳐서 돌릴 여유 코어가 있어야 효과가 있음. 코어가 하나면 BeanPostProcessorConfig 와 차이 없음 (ProxyStartupBenchmark)
+ */
+@Configuration
+@Import(BeanPostProcessorConfig.class)
+public class PreGeneratedBeanPostProcessorConfig {
+
+  // BeanFactoryPostProcessor 는 다른 빈보다 먼저 만들어져야 하므로 static
+  // 프록시 클래스 생성에는 advice 의 타입과 포인트컷만 쓰이므로 NoOpLogTrace 로 같은 모양의 advisor 사용
+  // (LogTrace 빈을 받으면 BeanFactoryPostProcessor 단계에서 LogTrace 가 너무 일찍 생성됨)
+  @Bean
+  public static ProxyClassPreGenerator proxyClassPreGenerator() {
+    return new ProxyClassPreGenerator("hello.proxy.app", BeanPostProcessorConfig.getAdvisor(NoOpLogTrace.INSTANCE));
+  }
+}
@@ -0,0 +1,164 @@
+package hello.proxy.config.v4_postprocessor.postprocessor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.util.ClassUtils;
+
+/**
+ * 빈 생성 전에 프록시 클래스를 백그라운드에서 미리 만들어 두는 BeanFactoryPostProcessor
+ *
+ * 빈 정의의 타입만 보고 PackageLogTracePostProcessor 와 같은 기준(패키지 + AopUtils.canApply)으로 대상 클래스를 고르고
+ * 프록시 클래스 생성(JDK Proxy 클래스 정의, CGLIB 바이트코드 생성)을 ForkJoinPool 에서 병렬로 진행
+ * 만든 인스턴스는 버림. 클래스는 JDK / 스프링 CGLIB 캐시에 남으므로 이후 빈 후처리기는 캐시된 클래스로 인스턴스만 생성
+ *
+ * 캐시 키가 같아야 재사용되므로 advisor 는 빈 후처리기와 같은 포인트컷 + 같은 advice 타입이어야 함
+ * (CGLIB 캐시는 advice 인스턴스가 아니라 클래스와 포인트컷 equals 로 비교하므로 NoOpLogTrace 로 만든 advice 로 충분)
+ * 생성이 빈 생성보다 늦게 끝나면 그 클래스는 빈 후처리기가 평소처럼 직접 만듦 (결과는 같고 시간만 손해)
+ */
+@Slf4j
+public class ProxyClassPreGenerator implements BeanFactoryPostProcessor {
+
+  private final String basePackage;
+  private final Advisor[] advisors;
+
+  private boolean proxyTargetClass;
+  private int parallelism = Runtime.getRuntime().availableProcessors();
+
+  // 대상 타입 -> 미리 만든 프록시 클래스
+  private final ConcurrentHashMap<Class<?>, Class<?>> proxyClasses = new ConcurrentHashMap<>();
+  private volatile CompletableFuture<Void> completion = CompletableFuture.completedFuture(null);
+
+  public ProxyClassPreGenerator(String basePackage, Advisor... advisors) {
+    this.basePackage = basePackage;
+    this.advisors = advisors;
+  }
+
+  /**
+   * 빈 후처리기가 인터페이스가 있어도 CGLIB 을 쓰는 경우 true
+   */
+  public void setProxyTargetClass(boolean proxyTargetClass) {
+    this.proxyTargetClass = proxyTargetClass;
+  }
+
+  public void setParallelism(int parallelism) {
+    this.parallelism = parallelism;
+  }
+
+  @Override
+  public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+    long startNanos = System.nanoTime();
+    Set<Class<?>> candidates = findCandidates(beanFactory);
+    if (candidates.isEmpty()) {
+      return;
+    }
+
+    // 기동이 끝나면 필요 없으므로 전용 풀을 쓰고 끝나면 종료 (commonPool 을 점유하지 않음)
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    List<CompletableFuture<Void>> tasks = new ArrayList<>(candidates.size());
+    for (Class<?> type : candidates) {
+      tasks.add(CompletableFuture.runAsync(() -> generate(type), pool));
+    }
+    completion = CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0]))
+        .whenComplete((result, e) -> {
+          pool.shutdown();
+          log.debug("pre-generated proxy classes: {}/{}, {}ms",
+              proxyClasses.size(), candidates.size(), (System.nanoTime() - startNanos) / 1_000_000);
+        });
+  }
+
+  /**
+   * 미리 생성이 끝날 때까지 대기 (테스트, 측정용)
+   */
+  public void awaitCompletion() {
+    completion.join();
+  }
+
+  /**
+   * 미리 만든 프록시 클래스 수
+   */
+  public int getGeneratedCount() {
+    return proxyClasses.size();
+  }
+
+  /**
+   * type 에 대해 미리 만든 프록시 클래스. 만들지 않았으면 null
+   */
+  public Class<?> getProxyClass(Class<?> type) {
+    return proxyClasses.get(type);
+  }
+
+  /**
+   * 인스턴스를 만들지 않고 빈 정의의 타입만 조회 (allowFactoryBeanInit = false)
+   * 같은 클래스의 빈이 여러 개여도 한 번만
+   */
+  private Set<Class<?>> findCandidates(ConfigurableListableBeanFactory beanFactory) {
+    Set<Class<?>> candidates = new LinkedHashSet<>();
+    for (String beanName : beanFactory.getBeanDefinitionNames()) {
+      Class<?> type;
+      try {
+        type = beanFactory.getType(beanName, false);
+      } catch (BeansException e) {
+        continue;
+      }
+      if (type != null && isCandidate(type)) {
+        candidates.add(type);
+      }
+    }
+    return candidates;
+  }
+
+  private boolean isCandidate(Class<?> type) {
+    if (!type.getPackageName().startsWith(basePackage)) {
+      return false;
+    }
+    return Arrays.stream(advisors).anyMatch(advisor -> AopUtils.canApply(advisor, type));
+  }
+
+  /**
+   * 빈 후처리기가 같은 클래스에 대해 만들 프록시와 같은 설정
+   *  - 인터페이스가 있으면 JDK 동적 프록시 (@Bean 의 반환 타입이 인터페이스면 그 인터페이스)
+   *  - 없으면 CGLIB. target 없이 클래스만 지정
+   */
+  private void generate(Class<?> type) {
+    ClassLoader classLoader = type.getClassLoader();
+    ProxyFactory factory = new ProxyFactory();
+    if (type.isInterface()) {
+      if (proxyTargetClass) {
+        // 구현 클래스를 모르므로 CGLIB 프록시 클래스를 정할 수 없음
+        return;
+      }
+      factory.setInterfaces(type);
+    } else {
+      Class<?>[] interfaces = ClassUtils.getAllInterfacesForClass(type, classLoader);
+      if (interfaces.length == 0 || proxyTargetClass) {
+        factory.setTargetClass(type);
+        factory.setProxyTargetClass(true);
+      } else {
+        factory.setInterfaces(interfaces);
+      }
+    }
+    factory.addAdvisors(advisors);
+    factory.setPreFiltered(true);
+
+    try {
+      Class<?> proxyClass = factory.getProxy(classLoader).getClass();
+      proxyClasses.put(type, proxyClass);
+    } catch (RuntimeException | LinkageError e) {
+      // final 클래스 등. 빈 후처리기에서 원래대로 처리되므로 여기서는 건너뜀
+      log.debug("skip proxy class pre-generation - target: {}, cause: {}", type, e.toString());
+    }
+  }
+}
@@ -1,12 +1,16 @@
 package hello.proxy.config.v6_aop.aspect;
 
 import hello.proxy.config.v5_autoproxy.AutoProxyConfig;
-import hello.proxy.trace.TraceStatus;
+import hello.proxy.trace.TraceContext;
+import hello.proxy.trace.async.CompletionTracing;
 import hello.proxy.trace.logtrace.LogTrace;
+import hello.proxy.trace.site.TraceSite;
+import hello.proxy.trace.site.TraceSites;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 
 /**
  * AnnotationAwareAutoProxyCreator 의 또 하나의 추가 기능
@@ -58,18 +62,25 @@ public class LogTraceAspect {
   @Around("execution(* hello.proxy.app..*(..)) && !execution(* hello.proxy.app..noLog(..))")
   public Object execute(ProceedingJoinPoint joinPoint) throws Throwable {
 
-    TraceStatus status = null;
+    int span = LogTrace.NO_SPAN;
     try {
-      String message = joinPoint.getSignature().toShortString();
-      status = logTrace.begin(message);
+      // toShortString() 은 호출마다 문자열을 새로 만듦. Method 기준으로 캐싱된 site 사용
+      // (스프링 AOP 의 getStaticPart() 는 호출마다 새 joinPoint 를 돌려주므로 키로 쓸 수 없음)
+      MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+      TraceSite site = TraceSites.ofShortString(signature.getMethod());
+      span = logTrace.beginSpan(site);
+      // CompletableFuture 등을 반환하는 메서드(v4)는 완료 시점까지 따로 기록
+      TraceContext context = CompletionTracing.captureIfAsync(logTrace, site);
 
       // 로직 호출
       Object result = joinPoint.proceed();
 
-      logTrace.end(status);
+      logTrace.endSpan(span);
+      CompletionTracing.traceCompletion(logTrace, context, result, site);
       return result;
-    } catch (Exception e) {
-      logTrace.exception(status, e);
+    } catch (Throwable e) {
+      // Error 도 span 을 닫아야 스레드의 trace 레벨이 어긋나지 않음
+      logTrace.exceptionSpan(span, e instanceof Exception ? (Exception) e : new RuntimeException(e));
       throw e;
     }
   }
@@ -0,0 +1,23 @@
+package hello.proxy.config.v7_staticproxy;
+
+import hello.proxy.config.AppV1Config;
+import hello.proxy.config.AppV2Config;
+import hello.proxy.config.v7_staticproxy.postprocessor.StaticTraceProxyPostProcessor;
+import hello.proxy.trace.logtrace.LogTrace;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * 런타임 프록시 대신 컴파일 시점에 생성된 프록시 사용 (trace-proxy-processor)
+ * 적용 대상과 로그 패턴은 app 의 @TraceProxy 에서 지정. v1, v2, v3 모두 적용됨
+ */
+@Configuration
+@Import({ AppV1Config.class, AppV2Config.class })
+public class StaticProxyConfig {
+
+  @Bean
+  public StaticTraceProxyPostProcessor staticTraceProxyPostProcessor(LogTrace logTrace) {
+    return new StaticTraceProxyPostProcessor(logTrace);
+  }
+}
@@ -0,0 +1,140 @@
+package hello.proxy.config.v7_staticproxy.postprocessor;
+
+import hello.proxy.trace.logtrace.LogTrace;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Constructor;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * 컴파일 시점에 생성된 프록시(@TraceProxy -> {이름}TraceProxy)로 빈을 교체
+ *
+ * ProxyFactory/CGLIB 와 달리 시작 시 클래스를 만들지 않고, 이미 컴파일된 클래스의 생성자만 호출함
+ * 대상 타입은 애노테이션 프로세서가 남긴 META-INF/trace-proxies 인덱스로 찾음 (리플렉션으로 애노테이션을 읽지 않음)
+ *  - 빈 클래스 자신과 부모 클래스 우선 (클래스 프록시 -> 구체 타입 유지)
+ *  - 없으면 구현한 인터페이스 (인터페이스 프록시)
+ */
+@Slf4j
+public class StaticTraceProxyPostProcessor implements BeanPostProcessor {
+
+  static final String INDEX = "META-INF/trace-proxies";
+
+  private final LogTrace logTrace;
+  private final Map<String, String> proxyTypes;
+  private final ConcurrentHashMap<Class<?>, Optional<Constructor<?>>> constructors = new ConcurrentHashMap<>();
+
+  public StaticTraceProxyPostProcessor(LogTrace logTrace) {
+    this(logTrace, StaticTraceProxyPostProcessor.class.getClassLoader());
+  }
+
+  public StaticTraceProxyPostProcessor(LogTrace logTrace, ClassLoader classLoader) {
+    this.logTrace = logTrace;
+    this.proxyTypes = loadIndex(classLoader);
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+    Constructor<?> constructor = constructors.computeIfAbsent(bean.getClass(), this::findProxyConstructor).orElse(null);
+    if (constructor == null) {
+      return bean;
+    }
+
+    try {
+      Object proxy = constructor.newInstance(bean, logTrace);
+      log.info("static proxy - target: {}, proxy: {}", bean.getClass(), proxy.getClass());
+      return proxy;
+    } catch (ReflectiveOperationException e) {
+      throw new BeanCreationException(beanName, "static proxy 생성 실패: " + constructor.getDeclaringClass().getName(), e);
+    }
+  }
+
+  /**
+   * 등록된 대상 타입 수 (인덱스가 비어 있으면 프로세서가 돌지 않은 것)
+   */
+  public int size() {
+    return proxyTypes.size();
+  }
+
+  private Optional<Constructor<?>> findProxyConstructor(Class<?> beanClass) {
+    for (Class<?> type = beanClass; type != null && type != Object.class; type = type.getSuperclass()) {
+      Constructor<?> constructor = proxyConstructor(type);
+      if (constructor != null) {
+        return Optional.of(constructor);
+      }
+    }
+
+    Set<Class<?>> visited = new HashSet<>();
+    Deque<Class<?>> queue = new ArrayDeque<>();
+    for (Class<?> type = beanClass; type != null; type = type.getSuperclass()) {
+      for (Class<?> anInterface : type.getInterfaces()) {
+        queue.add(anInterface);
+      }
+    }
+    while (!queue.isEmpty()) {
+      Class<?> anInterface = queue.poll();
+      if (!visited.add(anInterface)) {
+        continue;
+      }
+      Constructor<?> constructor = proxyConstructor(anInterface);
+      if (constructor != null) {
+        return Optional.of(constructor);
+      }
+      for (Class<?> superInterface : anInterface.getInterfaces()) {
+        queue.add(superInterface);
+      }
+    }
+    return Optional.empty();
+  }
+
+  private Constructor<?> proxyConstructor(Class<?> type) {
+    String proxyType = proxyTypes.get(type.getName());
+    if (proxyType == null) {
+      return null;
+    }
+    try {
+      Class<?> proxyClass = Class.forName(proxyType, false, type.getClassLoader());
+      return proxyClass.getConstructor(type, LogTrace.class);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("생성된 프록시 클래스를 찾을 수 없음: " + proxyType, e);
+    }
+  }
+
+  private static Map<String, String> loadIndex(ClassLoader classLoader) {
+    Map<String, String> proxyTypes = new HashMap<>();
+    try {
+      Enumeration<URL> resources = classLoader.getResources(INDEX);
+      while (resources.hasMoreElements()) {
+        URL resource = resources.nextElement();
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+          String line;
+          while ((line = reader.readLine()) != null) {
+            int separator = line.indexOf('=');
+            if (separator > 0) {
+              proxyTypes.put(line.substring(0, separator).trim(), line.substring(separator + 1).trim());
+            }
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(INDEX + " 읽기 실패", e);
+    }
+    return proxyTypes;
+  }
+}
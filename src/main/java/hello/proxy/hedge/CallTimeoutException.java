@@ -0,0 +1,14 @@
+package hello.proxy.hedge;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 동기 메서드의 @Timeout 초과. 선언하지 않은 checked 예외는 프록시가 UndeclaredThrowableException 으로 감싸므로 unchecked 로 던짐
+ * 원인(cause)은 TimeoutException
+ */
+public class CallTimeoutException extends RuntimeException {
+
+    public CallTimeoutException(TimeoutException cause) {
+        super(cause.getMessage(), cause);
+    }
+}
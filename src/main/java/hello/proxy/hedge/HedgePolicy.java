@@ -0,0 +1,86 @@
+package hello.proxy.hedge;
+
+import hello.proxy.metrics.HistogramSnapshot;
+import hello.proxy.metrics.LatencyHistograms;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 메서드 하나의 @Hedged/@Timeout 설정 + 지연 시간 기반 추가 호출 지연값 + 카운터
+ *
+ * 추가 호출 지연값은 refreshIntervalNanos 마다 한 번만 다시 계산 (히스토그램 스냅샷은 버킷 배열 복사라서 호출마다 하기엔 비쌈)
+ * 직전 계산 이후 구간에 샘플이 minSamples 이상 모였을 때만 그 구간의 percentile 로 바꿈. 모자라면 구간을 계속 늘려감
+ */
+final class HedgePolicy {
+
+    final String name;
+    final boolean async;
+    final int maxAttempts;
+    final long timeoutNanos;
+
+    private final double percentile;
+    private final int minSamples;
+    private final LatencyHistograms latencies;
+    private final long refreshIntervalNanos;
+
+    private volatile long hedgeDelayNanos = -1;
+    private volatile long refreshAtNanos;
+    private HistogramSnapshot previous;
+
+    final LongAdder hedges = new LongAdder();
+    final LongAdder hedgeWins = new LongAdder();
+    final LongAdder timeouts = new LongAdder();
+
+    HedgePolicy(String name, boolean async, Hedged hedged, long timeoutNanos,
+                LatencyHistograms latencies, long refreshIntervalNanos, long nowNanos) {
+        this.name = name;
+        this.async = async;
+        this.maxAttempts = hedged == null ? 1 : hedged.maxAttempts();
+        this.percentile = hedged == null ? 0 : hedged.percentile();
+        this.minSamples = hedged == null ? 0 : hedged.minSamples();
+        this.timeoutNanos = timeoutNanos;
+        this.latencies = latencies;
+        this.refreshIntervalNanos = refreshIntervalNanos;
+        this.refreshAtNanos = nowNanos;
+    }
+
+    boolean isHedged() {
+        return maxAttempts > 1;
+    }
+
+    /**
+     * 추가 호출까지 기다릴 시간. 아직 샘플이 부족하거나 @Hedged 가 없으면 -1
+     */
+    long hedgeDelayNanos(long nowNanos) {
+        if (isHedged() && nowNanos - refreshAtNanos >= 0) {
+            refresh(nowNanos);
+        }
+        return hedgeDelayNanos;
+    }
+
+    long currentHedgeDelayNanos() {
+        return hedgeDelayNanos;
+    }
+
+    /**
+     * 실제로 끝난 호출의 지연 시간. 취소된 첫 호출은 취소 시점까지의 시간(하한값)을 넣어서 느린 꼬리가 분포에서 빠지지 않게 함
+     */
+    void recordLatency(long nanos) {
+        latencies.record(name, nanos);
+    }
+
+    private synchronized void refresh(long nowNanos) {
+        if (nowNanos - refreshAtNanos < 0) {
+            return;
+        }
+        refreshAtNanos = nowNanos + refreshIntervalNanos;
+        HistogramSnapshot current = latencies.snapshot(name);
+        if (current == null) {
+            return;
+        }
+        HistogramSnapshot window = previous == null ? current : current.minus(previous);
+        if (window.getCount() >= minSamples) {
+            hedgeDelayNanos = window.valueAtPercentile(percentile);
+            previous = current;
+        }
+    }
+}
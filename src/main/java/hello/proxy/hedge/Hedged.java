@@ -0,0 +1,35 @@
+package hello.proxy.hedge;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 첫 호출이 최근 지연 시간의 percentile 만큼 지나도 끝나지 않으면 같은 호출을 한 번 더 보내고 먼저 끝난 결과를 사용 (HedgingAdvice)
+ * 진 쪽은 취소 (동기 메서드는 인터럽트)
+ *
+ * 같은 호출이 두 번 실행될 수 있으므로 멱등한 메서드에만 사용
+ * 느린 꼬리만 다시 보내므로 추가 호출은 대략 (100 - percentile)% 이내
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Hedged {
+
+    /**
+     * 추가 호출을 보내는 지연 시간 기준 (0 ~ 100)
+     */
+    double percentile() default 95.0;
+
+    /**
+     * 첫 호출 포함 최대 호출 수. 추가 호출은 앞 호출 후 같은 지연 시간마다 하나씩
+     */
+    int maxAttempts() default 2;
+
+    /**
+     * 지연 시간 샘플이 이만큼 모이기 전에는 추가 호출을 보내지 않음
+     */
+    int minSamples() default 100;
+}
@@ -0,0 +1,272 @@
+package hello.proxy.hedge;
+
+import hello.proxy.timer.HashedTimerWheel;
+import hello.proxy.trace.clock.TraceClock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * 호출 하나의 진행 상태. result 는 처음 성공한 시도의 값, 모든 시도가 실패하면 첫 실패, 제한 시간이 지나면 TimeoutException
+ *
+ * 추가 호출 타이머와 제한 시간 타이머는 공용 HashedTimerWheel 에 등록 (호출마다 스레드나 ScheduledFuture 를 만들지 않음)
+ * 추가 호출은 executor 에서 실행 (타이머 스레드에서 대상 메서드를 실행하지 않음)
+ *
+ * 진행 중인 시도 수(running)가 0 이 되는 순간에만 실패로 끝냄. 추가 호출 시작은 running 을 먼저 올리고 result 를 확인하므로
+ * 첫 호출 실패와 추가 호출 시작이 겹쳐도 결과가 두 번 정해지지 않음
+ *
+ * executor 가 가득 차서 거절하면 호출 스레드에서 대신 실행하지 않음 (제한 시간을 지킬 수 없고, 취소가 호출 스레드를 인터럽트함)
+ *  - 첫 호출: RejectedExecutionException 으로 실패
+ *  - 추가 호출: 건너뜀 (hedge_attempts_total 에 세지 않음)
+ */
+final class HedgedCall {
+
+    private final HedgePolicy policy;
+    private final Executor executor;
+    private final HashedTimerWheel timerWheel;
+    private final TraceClock clock;
+    private final MethodInvocation[] invocations;
+    private final long hedgeDelayNanos;
+
+    final CompletableFuture<Object> result = new CompletableFuture<>();
+    private final AtomicReferenceArray<Attempt> attempts;
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+    private volatile HashedTimerWheel.Timeout hedgeTimer;
+    private volatile HashedTimerWheel.Timeout deadlineTimer;
+
+    /**
+     * @param invocations 시도별 호출. 추가 호출용은 첫 호출이 진행되기 전에 invocableClone() 으로 만들어 둔 것
+     */
+    HedgedCall(HedgePolicy policy, Executor executor, HashedTimerWheel timerWheel, TraceClock clock,
+               MethodInvocation[] invocations, long hedgeDelayNanos) {
+        this.policy = policy;
+        this.executor = executor;
+        this.timerWheel = timerWheel;
+        this.clock = clock;
+        this.invocations = invocations;
+        this.hedgeDelayNanos = hedgeDelayNanos;
+        this.attempts = new AtomicReferenceArray<>(invocations.length);
+    }
+
+    void start() {
+        if (policy.timeoutNanos > 0) {
+            deadlineTimer = timerWheel.newTimeout(this::timeout, policy.timeoutNanos, TimeUnit.NANOSECONDS);
+        }
+        startAttempt(0);
+    }
+
+    /**
+     * 호출자가 더 기다리지 않음 (인터럽트 등)
+     */
+    void cancel() {
+        if (result.cancel(false)) {
+            finish(null);
+        }
+    }
+
+    private void startAttempt(int index) {
+        running.incrementAndGet();
+        if (result.isDone()) {
+            running.decrementAndGet();
+            return;
+        }
+        Attempt attempt = new Attempt(index, invocations[index]);
+        attempts.set(index, attempt);
+        if (index + 1 < invocations.length) {
+            hedgeTimer = timerWheel.newTimeout(() -> launch(index + 1), hedgeDelayNanos, TimeUnit.NANOSECONDS);
+        }
+        // 시도가 바로 끝나도 호출자가 보기 전에 세어지도록 먼저 올리고, 거절되면 되돌림
+        if (index > 0) {
+            policy.hedges.increment();
+        }
+        if (!attempt.start()) {
+            policy.hedges.decrement();
+            return;
+        }
+        // finish() 가 attempts 를 훑은 뒤에 등록된 경우
+        if (result.isDone()) {
+            attempt.cancel();
+        }
+    }
+
+    /**
+     * 타이머 스레드에서 호출. 동기 메서드는 어차피 executor 로 넘기므로 바로 시작하고,
+     * CompletionStage 메서드는 현재 스레드에서 호출하므로 executor 로 넘김
+     */
+    private void launch(int index) {
+        if (policy.async) {
+            try {
+                executor.execute(() -> startAttempt(index));
+            } catch (RejectedExecutionException e) {
+                // 추가 호출은 건너뜀. running 을 올리기 전이므로 정리할 것 없음
+            }
+        } else {
+            startAttempt(index);
+        }
+    }
+
+    private void succeeded(Attempt attempt, Object value) {
+        long elapsed = clock.nanoTime() - attempt.startNanos;
+        running.decrementAndGet();
+        if (!result.complete(value)) {
+            return;
+        }
+        policy.recordLatency(elapsed);
+        if (attempt.index > 0) {
+            policy.hedgeWins.increment();
+            recordPrimaryLowerBound();
+        }
+        finish(attempt);
+    }
+
+    private void failed(Throwable e) {
+        firstFailure.compareAndSet(null, e);
+        if (running.decrementAndGet() == 0 && result.completeExceptionally(firstFailure.get())) {
+            finish(null);
+        }
+    }
+
+    /**
+     * 거절된 추가 호출. 실패로 세지 않고 running 만 되돌림 (그 사이 다른 시도가 모두 실패했으면 그 실패로 끝냄)
+     */
+    private void skipped() {
+        Throwable failure = firstFailure.get();
+        if (running.decrementAndGet() == 0 && failure != null && result.completeExceptionally(failure)) {
+            finish(null);
+        }
+    }
+
+    private void timeout() {
+        long timeoutMillis = TimeUnit.NANOSECONDS.toMillis(policy.timeoutNanos);
+        if (result.completeExceptionally(new TimeoutException(policy.name + " 제한 시간 초과 (" + timeoutMillis + "ms)"))) {
+            policy.timeouts.increment();
+            recordPrimaryLowerBound();
+            finish(null);
+        }
+    }
+
+    private void recordPrimaryLowerBound() {
+        Attempt primary = attempts.get(0);
+        if (primary != null) {
+            policy.recordLatency(clock.nanoTime() - primary.startNanos);
+        }
+    }
+
+    private void finish(Attempt winner) {
+        HashedTimerWheel.Timeout timer = hedgeTimer;
+        if (timer != null) {
+            timer.cancel();
+        }
+        timer = deadlineTimer;
+        if (timer != null) {
+            timer.cancel();
+        }
+        for (int i = 0; i < attempts.length(); i++) {
+            Attempt attempt = attempts.get(i);
+            if (attempt != null && attempt != winner) {
+                attempt.cancel();
+            }
+        }
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    private final class Attempt {
+
+        final int index;
+        final MethodInvocation invocation;
+        volatile long startNanos;
+        private volatile Future<?> pending;
+
+        Attempt(int index, MethodInvocation invocation) {
+            this.index = index;
+            this.invocation = invocation;
+        }
+
+        /**
+         * CompletionStage 를 반환하는 메서드는 현재 스레드에서 바로 호출, 동기 메서드는 executor 에서 실행
+         *
+         * @return 추가 호출이 거절되어 건너뛰었으면 false
+         */
+        boolean start() {
+            startNanos = clock.nanoTime();
+            if (policy.async) {
+                proceedAsync();
+                return true;
+            }
+            FutureTask<Void> task = new FutureTask<>(this::proceedSync, null);
+            pending = task;
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                if (index == 0) {
+                    failed(e);
+                    return true;
+                }
+                skipped();
+                return false;
+            } catch (RuntimeException e) {
+                failed(e);
+            }
+            return true;
+        }
+
+        private void proceedSync() {
+            Object value;
+            try {
+                value = invocation.proceed();
+            } catch (Throwable e) {
+                failed(e);
+                return;
+            }
+            succeeded(this, value);
+        }
+
+        private void proceedAsync() {
+            Object value;
+            try {
+                value = invocation.proceed();
+            } catch (Throwable e) {
+                failed(e);
+                return;
+            }
+            if (!(value instanceof CompletionStage)) {
+                succeeded(this, value);
+                return;
+            }
+            if (value instanceof Future) {
+                pending = (Future<?>) value;
+            }
+            ((CompletionStage<?>) value).whenComplete((v, e) -> {
+                if (e == null) {
+                    succeeded(this, v);
+                } else {
+                    failed(unwrap(e));
+                }
+            });
+        }
+
+        /**
+         * 동기 메서드는 실행 중이면 인터럽트. CompletableFuture 는 결과만 취소됨 (진행 중인 작업은 멈추지 않음)
+         */
+        void cancel() {
+            Future<?> future = pending;
+            if (future != null) {
+                future.cancel(!policy.async);
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package hello.proxy.hedge;
+
+import hello.proxy.advice.AdvisedMethods;
+import hello.proxy.timer.HashedTimerWheel;
+import hello.proxy.trace.clock.SystemTraceClock;
+import hello.proxy.trace.clock.TraceClock;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+
+/**
+ * @Hedged / @Timeout 메서드 실행
+ * 포인트컷은 두 어노테이션의 AnnotationMatchingPointcut 을 합친 것과 함께 사용 (ProxyApplication 참고)
+ *
+ * 타이머는 공용 HashedTimerWheel 하나로 처리하므로 정밀도는 tick 단위 (기본 10ms). 그보다 짧은 지연값은 다음 tick 에 실행됨
+ *
+ * 동기 메서드는 호출 스레드가 결과를 기다리는 동안 시도들을 executor 에서 실행 (호출 스레드로는 진행 중인 호출을 끊을 수 없음)
+ * 추가 호출 지연값이 아직 없고 @Timeout 도 없으면 executor 를 거치지 않고 바로 실행
+ * CompletionStage 를 반환하는 메서드는 첫 호출을 현재 스레드에서 하고, 먼저 끝난 결과로 완료되는 CompletableFuture 를 반환
+ *
+ * 추가 호출은 ProxyMethodInvocation.invocableClone() 으로 남은 advice 체인부터 다시 실행. 그 외의 MethodInvocation 이면 @Timeout 만 적용
+ */
+public class HedgingAdvice implements MethodInterceptor {
+
+    private static final long DEFAULT_REFRESH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final HashedTimerWheel timerWheel;
+    private final Executor executor;
+    private final HedgingMetrics hedgingMetrics;
+    private final AdvisedMethods<HedgePolicy> policies = new AdvisedMethods<>(this::createPolicy);
+
+    private TraceClock clock = new SystemTraceClock();
+    private long refreshIntervalNanos = DEFAULT_REFRESH_INTERVAL_NANOS;
+
+    public HedgingAdvice(HashedTimerWheel timerWheel, Executor executor, HedgingMetrics hedgingMetrics) {
+        this.timerWheel = timerWheel;
+        this.executor = executor;
+        this.hedgingMetrics = hedgingMetrics;
+    }
+
+    public void setClock(TraceClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * 추가 호출 지연값을 다시 계산하는 주기
+     */
+    public void setRefreshInterval(long interval, TimeUnit unit) {
+        this.refreshIntervalNanos = unit.toNanos(interval);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        HedgePolicy policy = policies.get(invocation);
+        if (policy == null) {
+            return invocation.proceed();
+        }
+
+        long startNanos = clock.nanoTime();
+        long hedgeDelayNanos = invocation instanceof ProxyMethodInvocation ? policy.hedgeDelayNanos(startNanos) : -1;
+        if (hedgeDelayNanos < 0 && policy.timeoutNanos <= 0 && !policy.async) {
+            Object result = invocation.proceed();
+            policy.recordLatency(clock.nanoTime() - startNanos);
+            return result;
+        }
+
+        HedgedCall call = new HedgedCall(policy, executor, timerWheel, clock,
+                invocations(invocation, hedgeDelayNanos < 0 ? 1 : policy.maxAttempts), hedgeDelayNanos);
+        call.start();
+        if (policy.async) {
+            return call.result;
+        }
+        try {
+            return call.result.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TimeoutException) {
+                throw new CallTimeoutException((TimeoutException) cause);
+            }
+            throw cause;
+        } catch (InterruptedException e) {
+            call.cancel();
+            throw e;
+        }
+    }
+
+    /**
+     * 추가 호출용 복제는 첫 호출이 진행되기 전에 만들어야 함 (진행 중인 invocation 은 advice 체인 위치가 바뀜)
+     */
+    private static MethodInvocation[] invocations(MethodInvocation invocation, int attempts) {
+        MethodInvocation[] invocations = new MethodInvocation[attempts];
+        invocations[0] = invocation;
+        for (int i = 1; i < attempts; i++) {
+            invocations[i] = ((ProxyMethodInvocation) invocation).invocableClone();
+        }
+        return invocations;
+    }
+
+    private HedgePolicy createPolicy(Method method, Object target) {
+        Hedged hedged = AdvisedMethods.findAnnotation(method, target, Hedged.class);
+        Timeout timeout = AdvisedMethods.findAnnotation(method, target, Timeout.class);
+        if (hedged == null && timeout == null) {
+            return null;
+        }
+        if (hedged != null && (hedged.percentile() <= 0 || hedged.percentile() > 100)) {
+            throw new IllegalStateException("percentile 은 0 초과 100 이하여야 함: " + method);
+        }
+        if (hedged != null && hedged.maxAttempts() < 1) {
+            throw new IllegalStateException("maxAttempts 는 1 이상이어야 함: " + method);
+        }
+        if (timeout != null && timeout.value() <= 0) {
+            throw new IllegalStateException("@Timeout 은 0 보다 커야 함: " + method);
+        }
+
+        String name = AdvisedMethods.name(method);
+        boolean async = CompletionStage.class.isAssignableFrom(method.getReturnType());
+        if (async && !method.getReturnType().isAssignableFrom(CompletableFuture.class)) {
+            throw new IllegalStateException("CompletionStage 메서드는 CompletableFuture 로 반환 가능한 타입이어야 함: " + method);
+        }
+        long timeoutNanos = timeout == null ? 0 : timeout.unit().toNanos(timeout.value());
+        HedgePolicy policy = new HedgePolicy(name, async, hedged, timeoutNanos,
+                hedgingMetrics.latencies(), refreshIntervalNanos, clock.nanoTime());
+        hedgingMetrics.register(policy);
+        return policy;
+    }
+}
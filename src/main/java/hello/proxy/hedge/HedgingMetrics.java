@@ -0,0 +1,52 @@
+package hello.proxy.hedge;
+
+import hello.proxy.metrics.LatencyHistograms;
+import hello.proxy.metrics.MetricsExporter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 메서드별 호출 지연 시간 분포 / 현재 추가 호출 지연값 / 추가 호출·추가 호출 승리·제한 시간 초과 수를 /trace/metrics 로 내보냄
+ *
+ * 지연 시간은 trace 와 별도 히스토그램에 기록 (추가 호출 지연값 계산에 쓰이므로 trace 샘플링과 무관하게 모든 호출을 기록)
+ */
+public class HedgingMetrics implements MetricsExporter {
+
+    private final LatencyHistograms latencies = new LatencyHistograms("hedged_call_duration_seconds");
+    private final ConcurrentHashMap<String, HedgePolicy> policies = new ConcurrentHashMap<>();
+
+    LatencyHistograms latencies() {
+        return latencies;
+    }
+
+    void register(HedgePolicy policy) {
+        policies.put(policy.name, policy);
+    }
+
+    @Override
+    public void export(StringBuilder out) {
+        latencies.export(out);
+
+        Map<String, HedgePolicy> sorted = new TreeMap<>(policies);
+        out.append("# TYPE hedge_delay_seconds gauge\n");
+        sorted.forEach((name, policy) -> {
+            long delay = policy.currentHedgeDelayNanos();
+            out.append("hedge_delay_seconds{").append(label(name)).append("} ")
+                    .append(delay < 0 ? "NaN" : String.valueOf(delay / 1e9)).append('\n');
+        });
+        out.append("# TYPE hedge_attempts_total counter\n");
+        sorted.forEach((name, policy) ->
+                out.append("hedge_attempts_total{").append(label(name)).append("} ").append(policy.hedges.sum()).append('\n'));
+        out.append("# TYPE hedge_wins_total counter\n");
+        sorted.forEach((name, policy) ->
+                out.append("hedge_wins_total{").append(label(name)).append("} ").append(policy.hedgeWins.sum()).append('\n'));
+        out.append("# TYPE call_timeouts_total counter\n");
+        sorted.forEach((name, policy) ->
+                out.append("call_timeouts_total{").append(label(name)).append("} ").append(policy.timeouts.sum()).append('\n'));
+    }
+
+    private static String label(String name) {
+        return "method=\"" + MetricsExporter.escapeLabel(name) + "\"";
+    }
+}
@@ -0,0 +1,23 @@
+package hello.proxy.hedge;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 호출 전체(@Hedged 의 추가 호출 포함)의 제한 시간 (HedgingAdvice)
+ * 넘으면 진행 중인 호출을 취소하고 동기 메서드는 CallTimeoutException,
+ * CompletionStage 를 반환하는 메서드는 TimeoutException 으로 완료
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Timeout {
+
+    long value();
+
+    TimeUnit unit() default TimeUnit.MILLISECONDS;
+}
@@ -0,0 +1,55 @@
+package hello.proxy.limit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TCP 혼잡 제어와 같은 AIMD (additive increase, multiplicative decrease)
+ *
+ *  - 과부하 신호(타임아웃, 또는 지연이 timeout 초과)면 한도 * backoffRatio
+ *  - 아니면 한도의 절반 이상 쓰고 있을 때만 +1 (한도까지 쓰지도 않는데 늘리면 의미 없이 커지기만 함)
+ *
+ * 단순하고 예측 가능하지만 지연 증가만으로는 줄지 않으므로 timeout 을 적절히 잡아야 함
+ */
+public class AimdLimit implements LimitAlgorithm {
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long timeoutNanos;
+
+    public AimdLimit(int initialLimit, int minLimit, int maxLimit, long timeout, TimeUnit unit) {
+        this(initialLimit, minLimit, maxLimit, 0.9, timeout, unit);
+    }
+
+    public AimdLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, long timeout, TimeUnit unit) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("1 <= minLimit <= initialLimit <= maxLimit 이어야 함: "
+                    + minLimit + ", " + initialLimit + ", " + maxLimit);
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio 는 0 과 1 사이: " + backoffRatio);
+        }
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.timeoutNanos = unit.toNanos(timeout);
+    }
+
+    @Override
+    public int initialLimit() {
+        return initialLimit;
+    }
+
+    @Override
+    public int update(int limit, long rttNanos, int inFlight, boolean dropped) {
+        if (dropped || rttNanos > timeoutNanos) {
+            return Math.max(minLimit, Math.min(limit - 1, (int) (limit * backoffRatio)));
+        }
+        if (inFlight * 2 >= limit) {
+            return Math.min(maxLimit, limit + 1);
+        }
+        return limit;
+    }
+}
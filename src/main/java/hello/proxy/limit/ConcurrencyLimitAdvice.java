@@ -0,0 +1,57 @@
+package hello.proxy.limit;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeoutException;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * 포인트컷에 걸린 호출 전체를 ConcurrencyLimiter 하나로 제한 (LogTraceAdvice 처럼 DefaultPointcutAdvisor 로 적용, ProxyApplication 참고)
+ * 한도를 넘으면 대상을 호출하지 않고 ConcurrencyLimitExceededException
+ *
+ * CompletionStage 를 반환하면(v4) 반환 시점이 아니라 완료 시점에 반납
+ * TimeoutException 으로 끝나면 과부하 신호(onDropped), 그 외 예외는 한도 계산에서 제외(onIgnored)
+ * 제한 시간(HedgingAdvice 의 @Timeout)보다 바깥에 두어야 시간 초과가 보임. 안쪽에서는 취소나 인터럽트로만 끝남
+ */
+public class ConcurrencyLimitAdvice implements MethodInterceptor {
+
+    private final ConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitAdvice(ConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        int inFlight = limiter.acquire();
+        long startNanos = limiter.nanoTime();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            release(startNanos, inFlight, e);
+            throw e;
+        }
+        if (result instanceof CompletionStage) {
+            ((CompletionStage<?>) result).whenComplete((value, e) -> release(startNanos, inFlight, e));
+        } else {
+            limiter.onSuccess(startNanos, inFlight);
+        }
+        return result;
+    }
+
+    private void release(long startNanos, int inFlight, Throwable e) {
+        if (e == null) {
+            limiter.onSuccess(startNanos, inFlight);
+        } else if (isTimeout(e)) {
+            limiter.onDropped();
+        } else {
+            limiter.onIgnored();
+        }
+    }
+
+    private static boolean isTimeout(Throwable e) {
+        // CompletableFuture 는 CompletionException, @Timeout 동기 메서드는 CallTimeoutException 으로 감싸서 넘김
+        return e instanceof TimeoutException || e.getCause() instanceof TimeoutException;
+    }
+}
@@ -0,0 +1,24 @@
+package hello.proxy.limit;
+
+/**
+ * 동시 실행 한도 초과로 호출을 거절함. 대상은 실행되지 않았으므로 재시도해도 안전
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    private final String name;
+    private final int limit;
+
+    public ConcurrencyLimitExceededException(String name, int limit) {
+        super("동시 실행 한도 초과: " + name + " (limit=" + limit + ")");
+        this.name = name;
+        this.limit = limit;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,45 @@
+package hello.proxy.limit;
+
+import hello.proxy.metrics.MetricsExporter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * limiter 별 현재 한도 / 진행 중 호출 수 / 허용·거절 수 / 과부하(타임아웃) 수를 /trace/metrics 로 내보냄
+ */
+public class ConcurrencyLimitMetrics implements MetricsExporter {
+
+    private final ConcurrentHashMap<String, ConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public void register(ConcurrencyLimiter limiter) {
+        limiters.put(limiter.getName(), limiter);
+    }
+
+    @Override
+    public void export(StringBuilder out) {
+        Map<String, ConcurrencyLimiter> sorted = new TreeMap<>(limiters);
+
+        out.append("# TYPE concurrency_limit gauge\n");
+        sorted.forEach((name, limiter) ->
+                out.append("concurrency_limit{").append(label(name)).append("} ").append(limiter.limit()).append('\n'));
+        out.append("# TYPE concurrency_in_flight gauge\n");
+        sorted.forEach((name, limiter) ->
+                out.append("concurrency_in_flight{").append(label(name)).append("} ").append(limiter.inFlightCount()).append('\n'));
+        out.append("# TYPE concurrency_calls_total counter\n");
+        sorted.forEach((name, limiter) -> {
+            String label = label(name);
+            out.append("concurrency_calls_total{").append(label).append(",result=\"accepted\"} ")
+                    .append(limiter.acceptedCount()).append('\n');
+            out.append("concurrency_calls_total{").append(label).append(",result=\"rejected\"} ")
+                    .append(limiter.rejectedCount()).append('\n');
+        });
+        out.append("# TYPE concurrency_dropped_total counter\n");
+        sorted.forEach((name, limiter) ->
+                out.append("concurrency_dropped_total{").append(label(name)).append("} ").append(limiter.droppedCount()).append('\n'));
+    }
+
+    private static String label(String name) {
+        return "limiter=\"" + MetricsExporter.escapeLabel(name) + "\"";
+    }
+}
@@ -0,0 +1,199 @@
+package hello.proxy.limit;
+
+import hello.proxy.trace.clock.SystemTraceClock;
+import hello.proxy.trace.clock.TraceClock;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 동시 실행 수 제한. 한도는 완료된 호출의 지연 시간을 보고 LimitAlgorithm 이 조절
+ *
+ *  - 획득/반납: 진행 중 호출 수는 AtomicInteger 하나를 CAS 로 증감 (락 없음)
+ *  - 한도 갱신: 완료 시 tryLock 으로 한 스레드만 알고리즘 실행. 락을 못 잡은 샘플은 버림 (호출이 많을 때라 샘플은 충분함)
+ *  - 한도 초과: 기본은 바로 거절. setMaxWait 로 짧게 기다리게 할 수 있음 (반납될 때 깨움)
+ *
+ * 사용: int inFlight = acquire(); long start = nanoTime(); ... onSuccess(start, inFlight) / onDropped() / onIgnored()
+ * 획득한 호출은 반드시 셋 중 하나로 반납해야 함
+ */
+public class ConcurrencyLimiter {
+
+    private final String name;
+    private final LimitAlgorithm algorithm;
+    private volatile int limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    private long maxWaitNanos;
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final ReentrantLock waitLock = new ReentrantLock();
+    private final Condition released = waitLock.newCondition();
+
+    private TraceClock clock = new SystemTraceClock();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public ConcurrencyLimiter(String name, LimitAlgorithm algorithm) {
+        this.name = name;
+        this.algorithm = algorithm;
+        this.limit = algorithm.initialLimit();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 한도가 찼을 때 자리가 나기를 기다리는 최대 시간. 0(기본값)이면 바로 거절
+     * 대기열이 길어지면 제한하는 의미가 없으므로 대상 지연 시간보다 훨씬 짧게
+     */
+    public void setMaxWait(long maxWait, TimeUnit unit) {
+        this.maxWaitNanos = unit.toNanos(maxWait);
+    }
+
+    public void setClock(TraceClock clock) {
+        this.clock = clock;
+    }
+
+    public long nanoTime() {
+        return clock.nanoTime();
+    }
+
+    /**
+     * @return 획득 시점의 진행 중 호출 수 (자기 자신 포함). onSuccess 에 그대로 넘김
+     * @throws ConcurrencyLimitExceededException 한도 초과 (대기 시간 안에 자리가 나지 않음)
+     */
+    public int acquire() {
+        int current = tryIncrement();
+        if (current < 0 && maxWaitNanos > 0) {
+            current = awaitPermit();
+        }
+        if (current < 0) {
+            rejected.increment();
+            throw new ConcurrencyLimitExceededException(name, limit);
+        }
+        accepted.increment();
+        return current;
+    }
+
+    /**
+     * 정상 완료. 지연 시간을 한도 계산에 반영
+     */
+    public void onSuccess(long startNanos, int inFlightAtStart) {
+        long rttNanos = clock.nanoTime() - startNanos;
+        release();
+        updateLimit(rttNanos, inFlightAtStart, false);
+    }
+
+    /**
+     * 타임아웃 등 대상이 과부하라는 신호로 끝남. 한도를 줄임
+     */
+    public void onDropped() {
+        dropped.increment();
+        release();
+        updateLimit(0, inFlight.get(), true);
+    }
+
+    /**
+     * 지연 시간과 상관없는 실패(입력 오류 등). 한도 계산에 넣지 않음
+     */
+    public void onIgnored() {
+        release();
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlightCount() {
+        return inFlight.get();
+    }
+
+    public long acceptedCount() {
+        return accepted.sum();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    private int tryIncrement() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * waiters 를 먼저 올리고 락 안에서 다시 시도하므로, 그 사이에 반납한 스레드는 waiters 를 보고 깨워줌 (신호 유실 없음)
+     */
+    private int awaitPermit() {
+        waiters.incrementAndGet();
+        waitLock.lock();
+        try {
+            long remaining = maxWaitNanos;
+            while (true) {
+                int current = tryIncrement();
+                if (current > 0 || remaining <= 0) {
+                    return current;
+                }
+                remaining = released.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } finally {
+            waitLock.unlock();
+            waiters.decrementAndGet();
+        }
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        if (waiters.get() > 0) {
+            signalWaiters(false);
+        }
+    }
+
+    private void signalWaiters(boolean all) {
+        waitLock.lock();
+        try {
+            if (all) {
+                released.signalAll();
+            } else {
+                released.signal();
+            }
+        } finally {
+            waitLock.unlock();
+        }
+    }
+
+    private void updateLimit(long rttNanos, int inFlightAtStart, boolean dropped) {
+        if (!updateLock.tryLock()) {
+            return;
+        }
+        int previous = limit;
+        try {
+            limit = Math.max(1, algorithm.update(previous, rttNanos, inFlightAtStart, dropped));
+        } finally {
+            updateLock.unlock();
+        }
+        if (limit > previous && waiters.get() > 0) {
+            signalWaiters(true);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package hello.proxy.limit;
+
+/**
+ * 지연 시간 기울기로 한도를 조절 (Netflix concurrency-limits 의 Gradient2 와 같은 방식)
+ *
+ * 리틀의 법칙: 진행 중 호출 수 = 처리량 * 지연 시간
+ * 대상이 처리할 수 있는 만큼만 들어오면 지연은 평소 값(longRtt)에 머물고, 넘치는 만큼은 대기열에 쌓여 지연(shortRtt)만 늘어남
+ * 그래서 gradient = longRtt / shortRtt 는 진행 중 호출 중 실제로 처리되고 있는 비율이고,
+ * limit * gradient 가 지금 처리량을 유지하는 데 필요한 동시 실행 수. 여기에 여유분(queueSize = sqrt(limit))을 더함
+ *
+ *  - longRtt: 느린 지수 이동 평균(기본 600 샘플). 기준 지연
+ *  - shortRtt: 빠른 지수 이동 평균(기본 10 샘플). 현재 지연
+ *  - tolerance(기본 1.5): 지연이 기준의 1.5 배까지는 줄이지 않음
+ *  - gradient 는 [0.5, 1] 로 자름. 한 번에 절반 넘게 줄이지 않음
+ *  - 새 한도는 smoothing(기본 0.2) 비율로만 반영
+ *
+ * 한도의 절반도 쓰지 않는 동안은 늘리지 않음 (호출이 적어서 지연이 낮은 것일 뿐)
+ * 부하가 오래 이어지면 longRtt 도 따라 올라가서 기준이 흐려지므로, longRtt 가 shortRtt 의 2 배를 넘으면 빠르게 낮춤
+ */
+public class GradientLimit implements LimitAlgorithm {
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+
+    private final double longAlpha;
+    private final double shortAlpha;
+    private double longRtt;
+    private double shortRtt;
+    private double estimatedLimit;
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, 1.5, 0.2, 600, 10);
+    }
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit,
+                         double tolerance, double smoothing, int longWindow, int shortWindow) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("1 <= minLimit <= initialLimit <= maxLimit 이어야 함: "
+                    + minLimit + ", " + initialLimit + ", " + maxLimit);
+        }
+        if (tolerance < 1) {
+            throw new IllegalArgumentException("tolerance 는 1 이상: " + tolerance);
+        }
+        if (smoothing <= 0 || smoothing > 1) {
+            throw new IllegalArgumentException("smoothing 은 (0, 1] 범위: " + smoothing);
+        }
+        if (shortWindow < 1 || longWindow < shortWindow) {
+            throw new IllegalArgumentException("1 <= shortWindow <= longWindow 이어야 함: " + shortWindow + ", " + longWindow);
+        }
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.longAlpha = 2.0 / (longWindow + 1);
+        this.shortAlpha = 2.0 / (shortWindow + 1);
+        this.estimatedLimit = initialLimit;
+    }
+
+    @Override
+    public int initialLimit() {
+        return initialLimit;
+    }
+
+    @Override
+    public int update(int limit, long rttNanos, int inFlight, boolean dropped) {
+        double gradient;
+        if (dropped) {
+            gradient = 0.5;
+        } else {
+            if (longRtt == 0) {
+                longRtt = rttNanos;
+                shortRtt = rttNanos;
+            } else {
+                longRtt += longAlpha * (rttNanos - longRtt);
+                shortRtt += shortAlpha * (rttNanos - shortRtt);
+            }
+            if (longRtt / shortRtt > 2) {
+                // 부하가 끝나고 지연이 내려왔는데 기준이 아직 높게 남아 있음
+                longRtt *= 0.95;
+            }
+            if (inFlight < estimatedLimit / 2) {
+                return (int) estimatedLimit;
+            }
+            gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / Math.max(shortRtt, 1)));
+        }
+
+        double queueSize = Math.sqrt(estimatedLimit);
+        double newLimit = estimatedLimit * gradient + queueSize;
+        newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        return (int) estimatedLimit;
+    }
+}
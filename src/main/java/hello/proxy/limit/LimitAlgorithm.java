@@ -0,0 +1,19 @@
+package hello.proxy.limit;
+
+/**
+ * 완료된 호출의 지연 시간으로 다음 동시 실행 한도를 계산
+ * ConcurrencyLimiter 가 한 번에 한 스레드에서만 호출하므로 구현은 동기화 없이 상태를 가져도 됨
+ */
+public interface LimitAlgorithm {
+
+    int initialLimit();
+
+    /**
+     * @param limit    현재 한도
+     * @param rttNanos 허가를 받은 시점부터 완료까지
+     * @param inFlight 허가를 받은 시점의 진행 중 호출 수 (자기 자신 포함)
+     * @param dropped  타임아웃 등 과부하 신호. 이때 rttNanos 는 의미 없음
+     * @return 새 한도
+     */
+    int update(int limit, long rttNanos, int inFlight, boolean dropped);
+}
@@ -0,0 +1,66 @@
+package hello.proxy.metrics;
+
+/**
+ * 특정 시점의 LogLinearHistogram 값 (불변)
+ */
+public class HistogramSnapshot {
+
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    HistogramSnapshot(long[] counts, long count, long sum, long max) {
+        this.counts = counts;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * interval 스냅샷에서는 구간 최대값이 아니라 누적 최대값
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @param percentile 0 ~ 100
+     * @return 해당 백분위가 들어있는 버킷의 상한값 (max 를 넘지 않음)
+     */
+    public long valueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(LogLinearHistogram.bucketUpperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * 이전 누적 스냅샷과의 차이 (interval 값)
+     */
+    public HistogramSnapshot minus(HistogramSnapshot previous) {
+        long[] diff = new long[counts.length];
+        long diffCount = 0;
+        for (int i = 0; i < counts.length; i++) {
+            diff[i] = Math.max(0, counts[i] - previous.counts[i]);
+            diffCount += diff[i];
+        }
+        return new HistogramSnapshot(diff, diffCount, Math.max(0, sum - previous.sum), max);
+    }
+}
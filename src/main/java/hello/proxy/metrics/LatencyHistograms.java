@@ -0,0 +1,130 @@
+package hello.proxy.metrics;
+
+import hello.proxy.trace.site.TraceSite;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * span 이름(예: OrderService.orderItem()) 별 지연시간 히스토그램 저장소
+ * 기록 경로는 ConcurrentHashMap 조회 + LogLinearHistogram.record() 로 락 없음
+ */
+public class LatencyHistograms implements MetricsExporter {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final ConcurrentHashMap<String, LogLinearHistogram> histograms = new ConcurrentHashMap<>();
+    // TraceSite id -> 히스토그램. 새 site 가 들어올 때만 복사해서 교체 (읽기는 배열 인덱스 한 번)
+    private volatile LogLinearHistogram[] bySiteId = new LogLinearHistogram[64];
+    private final String metricName;
+
+    // intervalSnapshot() 호출 사이의 차이를 계산하기 위한 직전 누적값
+    private Map<String, HistogramSnapshot> lastCumulative = new HashMap<>();
+
+    public LatencyHistograms() {
+        this("trace_span_duration_seconds");
+    }
+
+    public LatencyHistograms(String metricName) {
+        this.metricName = metricName;
+    }
+
+    public void record(String name, long nanos) {
+        LogLinearHistogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(name, key -> new LogLinearHistogram());
+        }
+        histogram.record(nanos);
+    }
+
+    /**
+     * site id 로 바로 찾음. 같은 메시지로 record(String, long) 한 값과 같은 히스토그램에 합쳐짐
+     */
+    public void record(TraceSite site, long nanos) {
+        LogLinearHistogram[] table = bySiteId;
+        int id = site.getId();
+        LogLinearHistogram histogram = id < table.length ? table[id] : null;
+        if (histogram == null) {
+            histogram = registerSite(site);
+        }
+        histogram.record(nanos);
+    }
+
+    private synchronized LogLinearHistogram registerSite(TraceSite site) {
+        int id = site.getId();
+        LogLinearHistogram[] table = bySiteId;
+        if (id < table.length && table[id] != null) {
+            return table[id];
+        }
+        LogLinearHistogram histogram = histograms.computeIfAbsent(site.getMessage(), key -> new LogLinearHistogram());
+        LogLinearHistogram[] copy = Arrays.copyOf(table, Math.max(table.length, Integer.highestOneBit(id) << 1));
+        copy[id] = histogram;
+        bySiteId = copy;
+        return histogram;
+    }
+
+    /**
+     * 기동 이후 (또는 마지막 reset 이후) 누적값
+     */
+    public Map<String, HistogramSnapshot> snapshot() {
+        Map<String, HistogramSnapshot> result = new TreeMap<>();
+        histograms.forEach((name, histogram) -> result.put(name, histogram.snapshot()));
+        return result;
+    }
+
+    /**
+     * 이름 하나의 누적값. 기록된 적이 없으면 null
+     */
+    public HistogramSnapshot snapshot(String name) {
+        LogLinearHistogram histogram = histograms.get(name);
+        return histogram == null ? null : histogram.snapshot();
+    }
+
+    /**
+     * 직전 intervalSnapshot() 호출 이후 구간 값. 히스토그램 자체는 리셋하지 않으므로 누적값 조회와 섞어 써도 됨
+     */
+    public synchronized Map<String, HistogramSnapshot> intervalSnapshot() {
+        Map<String, HistogramSnapshot> cumulative = snapshot();
+        Map<String, HistogramSnapshot> result = new TreeMap<>();
+        cumulative.forEach((name, current) -> {
+            HistogramSnapshot previous = lastCumulative.get(name);
+            result.put(name, previous == null ? current : current.minus(previous));
+        });
+        lastCumulative = cumulative;
+        return result;
+    }
+
+    public synchronized void reset() {
+        histograms.values().forEach(LogLinearHistogram::reset);
+        lastCumulative = new HashMap<>();
+    }
+
+    @Override
+    public void export(StringBuilder out) {
+        export(out, snapshot());
+    }
+
+    public void exportInterval(StringBuilder out) {
+        export(out, intervalSnapshot());
+    }
+
+    private void export(StringBuilder out, Map<String, HistogramSnapshot> snapshots) {
+        out.append("# TYPE ").append(metricName).append(" summary\n");
+        snapshots.forEach((name, snapshot) -> {
+            String label = "method=\"" + MetricsExporter.escapeLabel(name) + "\"";
+            for (double quantile : QUANTILES) {
+                out.append(metricName).append('{').append(label).append(",quantile=\"").append(quantile).append("\"} ")
+                        .append(snapshot.valueAtPercentile(quantile * 100) / NANOS_PER_SECOND).append('\n');
+            }
+            out.append(metricName).append("_count{").append(label).append("} ").append(snapshot.getCount()).append('\n');
+            out.append(metricName).append("_sum{").append(label).append("} ").append(snapshot.getSum() / NANOS_PER_SECOND).append('\n');
+        });
+        out.append("# TYPE ").append(metricName).append("_max gauge\n");
+        snapshots.forEach((name, snapshot) ->
+                out.append(metricName).append("_max{method=\"").append(MetricsExporter.escapeLabel(name)).append("\"} ")
+                        .append(snapshot.getMax() / NANOS_PER_SECOND).append('\n'));
+    }
+}
@@ -0,0 +1,46 @@
+package hello.proxy.metrics;
+
+import java.util.List;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Prometheus scrape 용 엔드포인트
+ * 컴포넌트 스캔 대상(hello.proxy.app)이 아니므로 @Bean 으로 직접 등록해야 함 (ProxyApplication 참고)
+ */
+@RestController
+public class MetricsController {
+
+    private static final String PROMETHEUS_TEXT = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final LatencyHistograms latencyHistograms;
+    private final List<MetricsExporter> exporters;
+
+    public MetricsController(LatencyHistograms latencyHistograms, List<MetricsExporter> exporters) {
+        this.latencyHistograms = latencyHistograms;
+        this.exporters = exporters;
+    }
+
+    // 누적값
+    @GetMapping(value = "/trace/metrics", produces = PROMETHEUS_TEXT)
+    public String metrics() {
+        StringBuilder out = new StringBuilder();
+        exporters.forEach(exporter -> exporter.export(out));
+        return out.toString();
+    }
+
+    // 직전 interval 호출 이후 구간 값
+    @GetMapping(value = "/trace/metrics/interval", produces = PROMETHEUS_TEXT)
+    public String interval() {
+        StringBuilder out = new StringBuilder();
+        latencyHistograms.exportInterval(out);
+        return out.toString();
+    }
+
+    @PostMapping("/trace/metrics/reset")
+    public String reset() {
+        latencyHistograms.reset();
+        return "ok";
+    }
+}
@@ -0,0 +1,13 @@
+package hello.proxy.metrics;
+
+/**
+ * MetricsController 가 /trace/metrics 응답을 만들 때 호출. Prometheus text format(0.0.4)으로 출력
+ */
+public interface MetricsExporter {
+
+    void export(StringBuilder out);
+
+    static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
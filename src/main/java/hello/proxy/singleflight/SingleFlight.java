@@ -0,0 +1,26 @@
+package hello.proxy.singleflight;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 같은 인자로 동시에 들어온 호출을 실행 하나로 합침 (SingleFlightAdvice)
+ * 먼저 들어온 호출이 실행하는 동안 뒤따라온 호출은 실행하지 않고 그 결과나 예외를 그대로 받음
+ * 실행이 끝나면 바로 정리되므로 결과를 저장하지 않음 (캐시가 필요하면 @CachedResult)
+ *
+ * 여러 번 실행해도 한 번 실행한 것과 같은 멱등 메서드에만 사용
+ * 주문, 저장처럼 호출마다 부수효과가 있어야 하는 메서드에 붙이면 뒤따라온 호출이 사라지므로 조회 메서드에 사용
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SingleFlight {
+
+    /**
+     * 메트릭 라벨. 비어 있으면 "클래스.메서드()"
+     */
+    String name() default "";
+}
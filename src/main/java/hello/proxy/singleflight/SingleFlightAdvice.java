@@ -0,0 +1,53 @@
+package hello.proxy.singleflight;
+
+import hello.proxy.advice.AdvisedMethods;
+import hello.proxy.cache.ArgumentKeys;
+import java.lang.reflect.Method;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * @SingleFlight 메서드의 동시 호출을 인자 기준으로 합침
+ * 포인트컷은 AnnotationMatchingPointcut.forMethodAnnotation(SingleFlight.class) 와 함께 사용 (ProxyApplication 참고)
+ *
+ * 키는 @CachedResult 와 같은 ArgumentKeys. 메서드마다 SingleFlightGroup 하나를 대상 빈이 달라도 공유
+ */
+public class SingleFlightAdvice implements MethodInterceptor {
+
+    private final SingleFlightMetrics singleFlightMetrics;
+    private final AdvisedMethods<MethodFlights> flights = new AdvisedMethods<>(this::createFlights);
+
+    public SingleFlightAdvice(SingleFlightMetrics singleFlightMetrics) {
+        this.singleFlightMetrics = singleFlightMetrics;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        MethodFlights methodFlights = flights.get(invocation);
+        if (methodFlights == null) {
+            return invocation.proceed();
+        }
+        return methodFlights.group.execute(methodFlights.keys.keyOf(invocation.getArguments()), invocation::proceed);
+    }
+
+    private MethodFlights createFlights(Method method, Object target) {
+        SingleFlight singleFlight = AdvisedMethods.findAnnotation(method, target, SingleFlight.class);
+        if (singleFlight == null) {
+            return null;
+        }
+        SingleFlightGroup<Object> group = new SingleFlightGroup<>(AdvisedMethods.name(method, singleFlight.name()));
+        singleFlightMetrics.register(group);
+        return new MethodFlights(ArgumentKeys.forMethod(method), group);
+    }
+
+    private static final class MethodFlights {
+
+        final ArgumentKeys keys;
+        final SingleFlightGroup<Object> group;
+
+        MethodFlights(ArgumentKeys keys, SingleFlightGroup<Object> group) {
+            this.keys = keys;
+            this.group = group;
+        }
+    }
+}
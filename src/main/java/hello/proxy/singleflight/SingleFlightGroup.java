@@ -0,0 +1,129 @@
+package hello.proxy.singleflight;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 키별 진행 중인 실행(future) 저장소
+ *
+ * 키를 해시로 stripe 에 나눠 stripe 마다 ConcurrentHashMap 하나
+ * 항목은 실행 중에만 존재하고 끝나는 즉시 지우므로 put/remove 가 계속 반복됨
+ * 맵 하나에 몰리면 resize 와 카운터 갱신이 한곳에서 경합하므로 작게 나눠 둠
+ *
+ * 끝난 실행은 결과를 넘기기 전에 먼저 맵에서 지움. 이후에 들어온 호출은 새로 실행
+ */
+public final class SingleFlightGroup<K> {
+
+    private final String name;
+    private final ConcurrentHashMap<K, Flight>[] stripes;
+    private final int stripeMask;
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+
+    public SingleFlightGroup(String name) {
+        this(name, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    @SuppressWarnings("unchecked")
+    public SingleFlightGroup(String name, int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(stripeCount, 2) - 1) << 1;
+        this.name = name;
+        this.stripes = new ConcurrentHashMap[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.stripeMask = size - 1;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 같은 키의 실행이 진행 중이면 그 결과를 기다리고, 아니면 직접 실행
+     * 예외도 기다리던 호출 모두에게 같은 예외 객체로 전달됨
+     */
+    public Object execute(K key, Call call) throws Throwable {
+        ConcurrentHashMap<K, Flight> stripe = stripeOf(key);
+        Flight own = new Flight(Thread.currentThread());
+        Flight inFlight = stripe.putIfAbsent(key, own);
+        if (inFlight != null) {
+            if (inFlight.owner == Thread.currentThread()) {
+                // 실행 중에 같은 키로 다시 들어온 재귀 호출. 기다리면 교착이므로 그냥 실행
+                return call.call();
+            }
+            collapsed.increment();
+            return await(inFlight);
+        }
+
+        executions.increment();
+        Object result;
+        try {
+            result = call.call();
+        } catch (Throwable e) {
+            stripe.remove(key, own);
+            own.completeExceptionally(e);
+            throw e;
+        }
+        stripe.remove(key, own);
+        own.complete(result);
+        return result;
+    }
+
+    /**
+     * 실제로 실행한 호출 수
+     */
+    public long executionCount() {
+        return executions.sum();
+    }
+
+    /**
+     * 실행하지 않고 다른 호출의 결과를 받은 호출 수
+     */
+    public long collapsedCount() {
+        return collapsed.sum();
+    }
+
+    /**
+     * 지금 진행 중인 실행 수
+     */
+    public int inFlightCount() {
+        int count = 0;
+        for (ConcurrentHashMap<K, Flight> stripe : stripes) {
+            count += stripe.size();
+        }
+        return count;
+    }
+
+    private ConcurrentHashMap<K, Flight> stripeOf(K key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return stripes[(h * 0x9E3779B9) >>> 16 & stripeMask];
+    }
+
+    private static Object await(Flight flight) throws Throwable {
+        try {
+            return flight.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    public interface Call {
+
+        Object call() throws Throwable;
+    }
+
+    private static final class Flight extends CompletableFuture<Object> {
+
+        final Thread owner;
+
+        Flight(Thread owner) {
+            this.owner = owner;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package hello.proxy.singleflight;
+
+import hello.proxy.metrics.MetricsExporter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 메서드별 실제 실행 수 / 합쳐진 호출 수 / 진행 중 실행 수를 /trace/metrics 로 내보냄
+ */
+public class SingleFlightMetrics implements MetricsExporter {
+
+    private final ConcurrentHashMap<String, SingleFlightGroup<?>> groups = new ConcurrentHashMap<>();
+
+    public void register(SingleFlightGroup<?> group) {
+        groups.put(group.getName(), group);
+    }
+
+    @Override
+    public void export(StringBuilder out) {
+        Map<String, SingleFlightGroup<?>> sorted = new TreeMap<>(groups);
+
+        out.append("# TYPE singleflight_calls_total counter\n");
+        sorted.forEach((name, group) -> {
+            String label = label(name);
+            out.append("singleflight_calls_total{").append(label).append(",result=\"executed\"} ")
+                    .append(group.executionCount()).append('\n');
+            out.append("singleflight_calls_total{").append(label).append(",result=\"collapsed\"} ")
+                    .append(group.collapsedCount()).append('\n');
+        });
+        out.append("# TYPE singleflight_in_flight gauge\n");
+        sorted.forEach((name, group) ->
+                out.append("singleflight_in_flight{").append(label(name)).append("} ").append(group.inFlightCount()).append('\n'));
+    }
+
+    private static String label(String name) {
+        return "method=\"" + MetricsExporter.escapeLabel(name) + "\"";
+    }
+}
@@ -0,0 +1,74 @@
+package hello.proxy.thread;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 가상 스레드(Java 21) 접근. 코드는 Java 11 로 컴파일하므로 여기서는 리플렉션으로 찾고,
+ * ./gradlew jar -Pjava21 로 만든 plain jar 의 META-INF/versions/21 에는 같은 이름의 직접 호출 버전(src/main/java21)이 들어감
+ * Java 21 에서 그 jar 를 클래스패스에 두고 실행하면 그쪽이 로딩되고,
+ * bootJar 실행, IDE/테스트처럼 클래스 디렉터리로 실행하면 이 버전이 리플렉션으로 동작 (기능은 같음)
+ *
+ * Java 11~20 에서는 isSupported() 가 false, isVirtual() 은 항상 false
+ */
+public final class VirtualThreads {
+
+    // Thread::isVirtual. 없으면 null. static final 이라 JIT 가 상수로 취급
+    private static final MethodHandle IS_VIRTUAL = findIsVirtual();
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return IS_VIRTUAL != null;
+    }
+
+    /**
+     * 가상 스레드면 true. 스레드별 상태를 trace 가 끝날 때 바로 반납할지 판단할 때 사용 (SpanStackLogTrace 등)
+     */
+    public static boolean isVirtual(Thread thread) {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (boolean) IS_VIRTUAL.invokeExact(thread);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 작업마다 새 가상 스레드를 만드는 executor. 스레드 이름은 namePrefix + 순번
+     *
+     * @throws UnsupportedOperationException Java 21 미만
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("가상 스레드는 Java 21 이상에서 사용 가능 (현재 " + Runtime.version() + ")");
+        }
+        try {
+            // Thread.ofVirtual().name(namePrefix, 0).factory()
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> ofVirtual = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            builder = ofVirtual.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory factory = (ThreadFactory) ofVirtual.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class
+                    .getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("가상 스레드 executor 생성 실패", e);
+        }
+    }
+
+    private static MethodHandle findIsVirtual() {
+        try {
+            return MethodHandles.publicLookup()
+                    .findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
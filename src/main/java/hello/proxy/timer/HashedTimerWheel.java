@@ -0,0 +1,415 @@
+package hello.proxy.timer;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * 지연 작업 수십만 개를 스레드 하나로 처리하는 타이머 (Netty HashedWheelTimer 와 같은 구조)
+ *
+ *  - 바퀴: tick 마다 한 칸씩 도는 bucket 배열. 작업은 (만료 시각 / tick) 칸에 들어가고, 한 바퀴보다 멀면 남은 바퀴 수(rounds)를 가짐
+ *  - 등록/취소: 호출 스레드는 락 없는 큐에만 넣고, worker 스레드가 다음 tick 에 bucket 으로 옮김 (bucket 은 worker 만 접근)
+ *  - 만료: worker 가 현재 칸의 작업 중 rounds 가 0 인 것만 실행. 정밀도는 tick 단위 (늦게 실행될 수는 있어도 일찍 실행되지는 않음)
+ *
+ * ScheduledThreadPoolExecutor 는 등록/취소가 힙 연산(O(log n)) + 락이라서 요청마다 타이머를 거는 용도에는 이쪽이 가벼움
+ *
+ * 만료된 작업은 기본적으로 worker 스레드에서 바로 실행하므로 짧아야 함. 오래 걸리면 setTaskExecutor 로 넘김
+ * (delay 의 future 를 기다리는 후속 작업도 그 스레드에서 실행됨)
+ *
+ * worker 스레드는 첫 newTimeout 때 시작. 등록하지 않으면 스레드를 만들지 않음
+ * close() 시 worker 종료. 아직 만료되지 않은 작업은 실행하지 않고 onClose 가 있으면 대신 실행
+ * (delay 의 future 는 예외로 완료). 스프링 빈이면 컨테이너 종료 시 자동 호출
+ */
+@Slf4j
+public class HashedTimerWheel implements AutoCloseable {
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+
+    private final Queue<TimeoutTask> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<TimeoutTask> cancelled = new ConcurrentLinkedQueue<>();
+    private final LongAdder pendingCount = new LongAdder();
+
+    private TaskDecorator taskDecorator;
+    private Executor taskExecutor;
+
+    private static final int INIT = 0;
+    private static final int STARTED = 1;
+    private static final int SHUTDOWN = 2;
+
+    // startNanos 는 workerState 를 STARTED 로 쓰기 전에 정해지므로 STARTED 를 본 스레드는 항상 올바른 값을 봄
+    private long startNanos;
+    private final Thread worker;
+    private volatile int workerState = INIT;
+    // worker 가 남은 작업 정리를 시작함. 이후 등록된 작업은 등록한 스레드가 직접 정리
+    private volatile boolean terminated;
+
+    public HashedTimerWheel() {
+        this(10, TimeUnit.MILLISECONDS, 512);
+    }
+
+    /**
+     * @param ticksPerWheel 2의 제곱수로 올림
+     */
+    public HashedTimerWheel(long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration 은 0 보다 커야 함: " + tickDuration);
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("ticksPerWheel 범위 초과: " + ticksPerWheel);
+        }
+        int size = Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        size = Math.max(size, 1);
+        this.tickNanos = Math.max(unit.toNanos(tickDuration), TimeUnit.MILLISECONDS.toNanos(1));
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+
+        this.worker = new Thread(this::workerLoop, "timer-wheel");
+        worker.setDaemon(true);
+    }
+
+    /**
+     * 등록 시점에 호출 스레드에서 작업을 감쌈 (예: TracingTaskDecorator 로 trace 를 만료 시점까지 이어줌)
+     */
+    public void setTaskDecorator(TaskDecorator taskDecorator) {
+        this.taskDecorator = taskDecorator;
+    }
+
+    /**
+     * 만료된 작업을 실행할 executor. 없으면 worker 스레드에서 바로 실행
+     */
+    public void setTaskExecutor(Executor taskExecutor) {
+        this.taskExecutor = taskExecutor;
+    }
+
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        return newTimeout(task, null, delay, unit);
+    }
+
+    /**
+     * @param onClose 만료 전에 타이머가 종료되면 task 대신 실행 (기다리는 쪽을 예외로 깨우는 등). null 이면 아무것도 안 함
+     */
+    public Timeout newTimeout(Runnable task, Runnable onClose, long delay, TimeUnit unit) {
+        if (workerState != STARTED) {
+            startWorker();
+        }
+        Runnable decorated = taskDecorator == null ? task : taskDecorator.decorate(task);
+        long deadline = System.nanoTime() - startNanos + unit.toNanos(Math.max(delay, 0));
+        TimeoutTask timeout = new TimeoutTask(decorated, onClose, deadline);
+        pendingCount.increment();
+        pending.add(timeout);
+        // worker 가 정리를 끝낸 뒤에 들어갔으면 아무도 꺼내지 않으므로 직접 정리
+        if (terminated) {
+            abandonPending();
+        }
+        return timeout;
+    }
+
+    /**
+     * delay 뒤에 완료되는 future. 그 전에 타이머가 종료되면 IllegalStateException 으로 완료
+     */
+    public CompletableFuture<Void> delay(long delay, TimeUnit unit) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            newTimeout(() -> future.complete(null),
+                    () -> future.completeExceptionally(new IllegalStateException("종료된 타이머")), delay, unit);
+        } catch (IllegalStateException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 만료나 취소되지 않은 작업 수
+     */
+    public long pendingTimeouts() {
+        return pendingCount.sum();
+    }
+
+    private synchronized void startWorker() {
+        if (workerState == SHUTDOWN) {
+            throw new IllegalStateException("종료된 타이머");
+        }
+        if (workerState == INIT) {
+            startNanos = System.nanoTime();
+            workerState = STARTED;
+            worker.start();
+        }
+    }
+
+    /**
+     * worker 를 멈추고 남은 작업의 onClose 를 모두 실행한 뒤 반환
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            int previous = workerState;
+            workerState = SHUTDOWN;
+            if (previous == SHUTDOWN) {
+                return;
+            }
+            if (previous == INIT) {
+                // 등록된 작업이 없음
+                terminated = true;
+                return;
+            }
+        }
+        worker.interrupt();
+        if (Thread.currentThread() == worker) {
+            return;
+        }
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void workerLoop() {
+        long tick = 0;
+        while (workerState != SHUTDOWN) {
+            long now = waitForNextTick(tick);
+            if (now < 0) {
+                break;
+            }
+            processCancelled();
+            transferPending(tick);
+            wheel[(int) (tick & mask)].expire(now);
+            tick++;
+        }
+        terminated = true;
+        for (Bucket bucket : wheel) {
+            bucket.abandonAll();
+        }
+        abandonPending();
+    }
+
+    /**
+     * 바퀴로 옮겨지지 않은 작업 정리. worker 와 늦게 등록한 스레드가 같이 호출할 수 있지만 작업마다 한 번만 처리됨
+     */
+    private void abandonPending() {
+        TimeoutTask timeout;
+        while ((timeout = pending.poll()) != null) {
+            timeout.abandon();
+        }
+    }
+
+    /**
+     * 다음 tick 시각까지 대기 후 현재 시각 (startNanos 기준). 종료되면 -1
+     */
+    private long waitForNextTick(long tick) {
+        long deadline = tickNanos * (tick + 1);
+        while (true) {
+            long now = System.nanoTime() - startNanos;
+            long sleepMillis = (deadline - now + 999_999) / 1_000_000;
+            if (sleepMillis <= 0) {
+                return now;
+            }
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                if (workerState == SHUTDOWN) {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    private void transferPending(long tick) {
+        // 한 tick 에 너무 오래 붙잡히지 않도록 개수 제한. 남은 것은 다음 tick 에
+        for (int i = 0; i < 100_000; i++) {
+            TimeoutTask timeout = pending.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state.get() == TimeoutTask.CANCELLED) {
+                continue;
+            }
+            long expireTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (expireTick - tick) / wheel.length;
+            // 이미 지난 시각이면 현재 칸에 넣어서 이번 tick 에 실행
+            wheel[(int) (Math.max(expireTick, tick) & mask)].add(timeout);
+        }
+    }
+
+    private void processCancelled() {
+        TimeoutTask timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void run(TimeoutTask timeout) {
+        pendingCount.decrement();
+        Executor executor = taskExecutor;
+        try {
+            if (executor == null) {
+                timeout.task.run();
+            } else {
+                executor.execute(timeout.task);
+            }
+        } catch (Throwable e) {
+            log.warn("timer task failed", e);
+        }
+    }
+
+    public interface Timeout {
+
+        /**
+         * 아직 실행되지 않았으면 취소하고 true
+         */
+        boolean cancel();
+
+        boolean isExpired();
+
+        boolean isCancelled();
+    }
+
+    private final class TimeoutTask implements Timeout {
+
+        static final int WAITING = 0;
+        static final int CANCELLED = 1;
+        static final int EXPIRED = 2;
+
+        final Runnable task;
+        final Runnable onClose;
+        final long deadline;
+        final AtomicInteger state = new AtomicInteger(WAITING);
+
+        // worker 스레드만 접근
+        long remainingRounds;
+        Bucket bucket;
+        TimeoutTask prev;
+        TimeoutTask next;
+
+        TimeoutTask(Runnable task, Runnable onClose, long deadline) {
+            this.task = task;
+            this.onClose = onClose;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED)) {
+                return false;
+            }
+            pendingCount.decrement();
+            cancelled.add(this);
+            return true;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        void expire() {
+            if (state.compareAndSet(WAITING, EXPIRED)) {
+                run(this);
+            }
+        }
+
+        /**
+         * 타이머 종료로 실행하지 못함. 취소된 것으로 보고 onClose 실행
+         */
+        void abandon() {
+            if (!state.compareAndSet(WAITING, CANCELLED)) {
+                return;
+            }
+            pendingCount.decrement();
+            if (onClose == null) {
+                return;
+            }
+            try {
+                onClose.run();
+            } catch (Throwable e) {
+                log.warn("timer close callback failed", e);
+            }
+        }
+    }
+
+    /**
+     * 바퀴 한 칸. worker 스레드만 접근하는 이중 연결 리스트
+     */
+    private static final class Bucket {
+
+        private TimeoutTask head;
+        private TimeoutTask tail;
+
+        void add(TimeoutTask timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+            }
+            tail = timeout;
+        }
+
+        void expire(long now) {
+            TimeoutTask timeout = head;
+            while (timeout != null) {
+                TimeoutTask next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    if (timeout.deadline <= now) {
+                        timeout.expire();
+                    } else {
+                        // 등록이 늦게 옮겨져 잘못된 칸에 들어간 경우는 없어야 함
+                        throw new IllegalStateException("만료 시각 전 실행: " + timeout.deadline + " > " + now);
+                    }
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void abandonAll() {
+            TimeoutTask timeout;
+            while ((timeout = head) != null) {
+                remove(timeout);
+                timeout.abandon();
+            }
+        }
+
+        void remove(TimeoutTask timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package hello.proxy.trace;
+
+/**
+ * 다른 스레드로 넘기는 trace 위치
+ * TraceId 는 불변이라 참조 하나만 들고 있으면 됨 (MDC 처럼 맵을 복사하지 않음)
+ */
+public final class TraceContext {
+
+    private final TraceId traceId;
+    private final long capturedNanos;
+
+    public TraceContext(TraceId traceId, long capturedNanos) {
+        this.traceId = traceId;
+        this.capturedNanos = capturedNanos;
+    }
+
+    public TraceId getTraceId() {
+        return traceId;
+    }
+
+    /**
+     * 캡처한 시각 (LogTrace 의 clock 기준). executor 큐 대기 시간 계산에 사용
+     */
+    public long getCapturedNanos() {
+        return capturedNanos;
+    }
+}
@@ -1,32 +1,84 @@
 package hello.proxy.trace;
 
-import java.util.UUID;
+import hello.proxy.trace.id.TraceIdGenerator;
+import hello.proxy.trace.id.XorShiftTraceIdGenerator;
+import hello.proxy.trace.sampling.TraceSampler;
 
 public class TraceId {
 
-    private String id;
-    private int level;
+    private static final TraceIdGenerator DEFAULT_GENERATOR = new XorShiftTraceIdGenerator();
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final long highId;
+    private final long lowId;
+    private final boolean wide;
+    private String id; // 로그를 실제로 찍을 때 인코딩 (lazy)
+    private final int level;
+    private final boolean sampled; // 루트에서 한 번 결정, 하위 레벨은 그대로 물려받음
 
     public TraceId() {
-        this.id = createId();
+        this(DEFAULT_GENERATOR);
+    }
+
+    public TraceId(TraceIdGenerator generator) {
+        this(generator, null);
+    }
+
+    /**
+     * @param sampler null 이면 항상 샘플링
+     */
+    public TraceId(TraceIdGenerator generator, TraceSampler sampler) {
+        this.wide = generator.isWide();
+        this.highId = wide ? generator.nextHighId() : 0L;
+        this.lowId = generator.nextId();
         this.level = 0;
+        this.sampled = sampler == null || sampler.isSampled(lowId);
     }
 
-    private TraceId(String id, int level) {
-        this.id = id;
-        this.level = level;
+    /**
+     * 이미 만들어진 id 를 복원 (바이너리 로그 디코딩 등). 루트 레벨, 샘플링 대상
+     */
+    public TraceId(long highId, long lowId, boolean wide) {
+        this(highId, lowId, wide, true);
     }
 
-    private String createId() {
-        return UUID.randomUUID().toString().substring(0, 8);
+    /**
+     * id 와 샘플링 결정을 따로 들고 있다가 필요할 때만 객체로 만드는 경우 (SpanStackLogTrace). 루트 레벨
+     */
+    public TraceId(long highId, long lowId, boolean wide, boolean sampled) {
+        this.highId = wide ? highId : 0L;
+        this.lowId = lowId;
+        this.wide = wide;
+        this.level = 0;
+        this.sampled = sampled;
+    }
+
+    private TraceId(TraceId parent, int level, boolean sampled) {
+        this.highId = parent.highId;
+        this.lowId = parent.lowId;
+        this.wide = parent.wide;
+        this.id = parent.id;
+        this.level = level;
+        this.sampled = sampled;
     }
 
     public TraceId createNextId() {
-        return new TraceId(id, level + 1);
+        return new TraceId(this, level + 1, sampled);
     }
 
     public TraceId createPreviousId() {
-        return new TraceId(id, level - 1);
+        return new TraceId(this, level - 1, sampled);
+    }
+
+    /**
+     * 같은 레벨에서 샘플링 대상으로 강제 전환. 이후 만들어지는 하위/상위 레벨도 샘플링 대상
+     */
+    public TraceId forceSampled() {
+        return sampled ? this : new TraceId(this, level, true);
+    }
+
+    public boolean isSampled() {
+        return sampled;
     }
 
     public boolean isFirstLevel() {
@@ -34,10 +86,48 @@ public class TraceId {
     }
 
     public String getId() {
-        return id;
+        String result = id;
+        if (result == null) {
+            // 여러 스레드가 동시에 인코딩해도 같은 값이 나오므로 동기화 불필요
+            result = encode();
+            id = result;
+        }
+        return result;
+    }
+
+    public long getHighId() {
+        return highId;
+    }
+
+    public long getLowId() {
+        return lowId;
+    }
+
+    /**
+     * true 면 128bit id
+     */
+    public boolean isWide() {
+        return wide;
     }
 
     public int getLevel() {
         return level;
     }
+
+    private String encode() {
+        char[] buf = new char[wide ? 32 : 16];
+        int pos = 0;
+        if (wide) {
+            pos = writeHex(highId, buf, pos);
+        }
+        writeHex(lowId, buf, pos);
+        return new String(buf);
+    }
+
+    private static int writeHex(long value, char[] buf, int pos) {
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            buf[pos++] = HEX[(int) (value >>> shift) & 0xF];
+        }
+        return pos;
+    }
 }
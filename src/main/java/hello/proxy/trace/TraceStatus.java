@@ -1,19 +1,37 @@
 package hello.proxy.trace;
 
+import hello.proxy.trace.logtrace.LogTrace;
+import hello.proxy.trace.site.TraceSite;
+
 public class TraceStatus {
 
-    private TraceId traceId;
-    private Long startTimeMs;
-    private String message;
+    private final TraceId traceId;
+    private final long startTimeNanos;
+    private final String message;
+    private final TraceSite site;
+    private final int handle;
+
+    public TraceStatus(TraceId traceId, long startTimeNanos, String message) {
+        this(traceId, startTimeNanos, message, null, LogTrace.NO_SPAN);
+    }
+
+    public TraceStatus(TraceId traceId, long startTimeNanos, TraceSite site) {
+        this(traceId, startTimeNanos, site.getMessage(), site, LogTrace.NO_SPAN);
+    }
 
-    public TraceStatus(TraceId traceId, Long startTimeMs, String message) {
+    public TraceStatus(TraceId traceId, long startTimeNanos, String message, TraceSite site, int handle) {
         this.traceId = traceId;
-        this.startTimeMs = startTimeMs;
+        this.startTimeNanos = startTimeNanos;
         this.message = message;
+        this.site = site;
+        this.handle = handle;
     }
 
-    public Long getStartTimeMs() {
-        return startTimeMs;
+    /**
+     * TraceClock 기준 시작 시각. 종료 시각과의 차이로만 의미가 있음
+     */
+    public long getStartTimeNanos() {
+        return startTimeNanos;
     }
 
     public String getMessage() {
@@ -23,4 +41,18 @@ public class TraceStatus {
     public TraceId getTraceId() {
         return traceId;
     }
+
+    /**
+     * begin(TraceSite) 로 시작했을 때만 값이 있음
+     */
+    public TraceSite getSite() {
+        return site;
+    }
+
+    /**
+     * SpanStackLogTrace 의 span handle. 다른 구현체는 LogTrace.NO_SPAN
+     */
+    public int getHandle() {
+        return handle;
+    }
 }
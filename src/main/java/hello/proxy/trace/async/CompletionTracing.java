@@ -0,0 +1,58 @@
+package hello.proxy.trace.async;
+
+import hello.proxy.trace.TraceContext;
+import hello.proxy.trace.TraceId;
+import hello.proxy.trace.logtrace.LogTrace;
+import hello.proxy.trace.site.TraceSite;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * CompletionStage 를 반환하는 메서드의 비동기 구간 기록
+ *
+ * 메서드의 span 은 스레드별 스택에 있어서 반환 시점에 같은 스레드에서 닫아야 함 (이 span 은 동기 구간만 포함)
+ * 그래서 span 안에서 capture() 해두고, 완료되면 완료한 스레드에서 같은 trace 에 붙어
+ * 메서드 시작부터 완료까지를 "{message}.async()" 하위 span 하나로 남김. 예외로 완료되면 그 예외로 기록
+ */
+public final class CompletionTracing {
+
+    private CompletionTracing() {
+    }
+
+    /**
+     * 비동기 메서드면 span 이 열려 있는 동안 호출해서 위치를 잡아둠. 아니면 null (capture 비용 없음)
+     */
+    public static TraceContext captureIfAsync(LogTrace logTrace, TraceSite site) {
+        return site.hasFlag(TraceSite.FLAG_ASYNC_RETURN) ? logTrace.capture() : null;
+    }
+
+    /**
+     * context 가 null 이거나 result 가 CompletionStage 가 아니면 아무것도 하지 않음
+     */
+    public static void traceCompletion(LogTrace logTrace, TraceContext context, Object result, TraceSite site) {
+        if (context == null || !(result instanceof CompletionStage)) {
+            return;
+        }
+        ((CompletionStage<?>) result).whenComplete((value, e) -> {
+            TraceId previous = logTrace.attach(context);
+            try {
+                logTrace.record(site.getAsyncMessage(), context.getCapturedNanos(), toException(e));
+            } finally {
+                logTrace.detach(previous);
+            }
+        });
+    }
+
+    /**
+     * CompletableFuture 가 감싼 CompletionException 은 벗김. Error 는 Exception 만 받는 LogTrace 에 맞춰 감쌈
+     */
+    private static Exception toException(Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        if (e == null || e instanceof Exception) {
+            return (Exception) e;
+        }
+        return new CompletionException(e);
+    }
+}
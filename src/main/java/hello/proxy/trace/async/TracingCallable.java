@@ -0,0 +1,32 @@
+package hello.proxy.trace.async;
+
+import hello.proxy.trace.TraceContext;
+import hello.proxy.trace.TraceId;
+import hello.proxy.trace.logtrace.LogTrace;
+import java.util.concurrent.Callable;
+
+final class TracingCallable<V> implements Callable<V> {
+
+    private final Callable<V> delegate;
+    private final LogTrace logTrace;
+    private final TraceContext context;
+    private final String queueMessage;
+
+    TracingCallable(Callable<V> delegate, LogTrace logTrace, TraceContext context, String queueMessage) {
+        this.delegate = delegate;
+        this.logTrace = logTrace;
+        this.context = context;
+        this.queueMessage = queueMessage;
+    }
+
+    @Override
+    public V call() throws Exception {
+        TraceId previous = logTrace.attach(context);
+        try {
+            logTrace.record(queueMessage, context.getCapturedNanos());
+            return delegate.call();
+        } finally {
+            logTrace.detach(previous);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package hello.proxy.trace.async;
+
+import hello.proxy.trace.TraceContext;
+import hello.proxy.trace.logtrace.LogTrace;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+/**
+ * 작업을 제출한 스레드의 trace 를 실행 스레드로 이어줌
+ * 실행 스레드의 span 은 제출 시점 span 의 하위 레벨로 기록되고, 큐에서 기다린 시간은 "{name}.queue()" span 으로 따로 남음
+ *
+ * CompletableFuture 는 *Async(..., executor) 에 이 executor 를 넘겨야 전파됨
+ * (executor 를 생략하면 commonPool 에서 실행되어 trace 가 끊김)
+ */
+public class TracingExecutor implements Executor {
+
+    private final Executor delegate;
+    private final LogTrace logTrace;
+    private final String queueMessage;
+
+    public TracingExecutor(Executor delegate, LogTrace logTrace) {
+        this(delegate, logTrace, "executor");
+    }
+
+    public TracingExecutor(Executor delegate, LogTrace logTrace, String name) {
+        this.delegate = delegate;
+        this.logTrace = logTrace;
+        this.queueMessage = name + ".queue()";
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(wrap(command));
+    }
+
+    /**
+     * 진행 중인 trace 가 없으면 감싸지 않고 그대로 반환
+     */
+    public Runnable wrap(Runnable task) {
+        TraceContext context = logTrace.capture();
+        if (context == null) {
+            return task;
+        }
+        return new TracingRunnable(task, logTrace, context, queueMessage);
+    }
+
+    public <V> Callable<V> wrap(Callable<V> task) {
+        TraceContext context = logTrace.capture();
+        if (context == null) {
+            return task;
+        }
+        return new TracingCallable<>(task, logTrace, context, queueMessage);
+    }
+}
@@ -0,0 +1,34 @@
+package hello.proxy.trace.async;
+
+import hello.proxy.trace.TraceContext;
+import hello.proxy.trace.TraceId;
+import hello.proxy.trace.logtrace.LogTrace;
+
+/**
+ * 제출한 스레드의 trace 위치를 실행 스레드에 잠깐 붙였다가 원래대로 되돌림
+ */
+final class TracingRunnable implements Runnable {
+
+    private final Runnable delegate;
+    private final LogTrace logTrace;
+    private final TraceContext context;
+    private final String queueMessage;
+
+    TracingRunnable(Runnable delegate, LogTrace logTrace, TraceContext context, String queueMessage) {
+        this.delegate = delegate;
+        this.logTrace = logTrace;
+        this.context = context;
+        this.queueMessage = queueMessage;
+    }
+
+    @Override
+    public void run() {
+        TraceId previous = logTrace.attach(context);
+        try {
+            logTrace.record(queueMessage, context.getCapturedNanos());
+            delegate.run();
+        } finally {
+            logTrace.detach(previous);
+        }
+    }
+}
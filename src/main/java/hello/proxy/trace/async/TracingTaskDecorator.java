@@ -0,0 +1,32 @@
+package hello.proxy.trace.async;
+
+import hello.proxy.trace.TraceContext;
+import hello.proxy.trace.logtrace.LogTrace;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * 스프링 ThreadPoolTaskExecutor 용. 빈으로 등록하면 스프링 부트가 기본 applicationTaskExecutor (@Async 등)에 적용
+ */
+public class TracingTaskDecorator implements TaskDecorator {
+
+    private final LogTrace logTrace;
+    private final String queueMessage;
+
+    public TracingTaskDecorator(LogTrace logTrace) {
+        this(logTrace, "taskExecutor");
+    }
+
+    public TracingTaskDecorator(LogTrace logTrace, String name) {
+        this.logTrace = logTrace;
+        this.queueMessage = name + ".queue()";
+    }
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        TraceContext context = logTrace.capture();
+        if (context == null) {
+            return runnable;
+        }
+        return new TracingRunnable(runnable, logTrace, context, queueMessage);
+    }
+}
@@ -0,0 +1,97 @@
+package hello.proxy.trace.binary;
+
+import hello.proxy.trace.TraceContext;
+import hello.proxy.trace.TraceId;
+import hello.proxy.trace.TraceStatus;
+import hello.proxy.trace.clock.SystemTraceClock;
+import hello.proxy.trace.clock.TraceClock;
+import hello.proxy.trace.id.TraceIdGenerator;
+import hello.proxy.trace.id.XorShiftTraceIdGenerator;
+import hello.proxy.trace.logtrace.LogTrace;
+
+/**
+ * 텍스트 로그 대신 BinaryTraceWriter 로 span 마다 고정 크기 레코드 하나를 기록
+ * begin 에서는 아무것도 쓰지 않고, 종료 시 시작/종료 시각을 함께 기록
+ * 사람이 읽을 때는 BinaryTraceDecoder 로 ThreadLocalLogTrace 와 같은 트리 형식으로 변환
+ */
+public class BinaryLogTrace implements LogTrace {
+
+    private final ThreadLocal<TraceId> traceIdHolder = new ThreadLocal<>();
+    private final BinaryTraceWriter writer;
+    private final TraceDictionary dictionary;
+    private TraceIdGenerator idGenerator = new XorShiftTraceIdGenerator();
+    private TraceClock clock = new SystemTraceClock();
+
+    public BinaryLogTrace(BinaryTraceWriter writer) {
+        this.writer = writer;
+        this.dictionary = writer.getDictionary();
+    }
+
+    public void setIdGenerator(TraceIdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+
+    public void setClock(TraceClock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public TraceStatus begin(String message) {
+        TraceId parent = traceIdHolder.get();
+        TraceId traceId = parent == null ? new TraceId(idGenerator) : parent.createNextId();
+        traceIdHolder.set(traceId);
+        return new TraceStatus(traceId, clock.nanoTime(), message);
+    }
+
+    @Override
+    public void end(TraceStatus status) {
+        complete(status, null);
+    }
+
+    @Override
+    public void exception(TraceStatus status, Exception e) {
+        complete(status, e);
+    }
+
+    @Override
+    public TraceContext capture() {
+        TraceId traceId = traceIdHolder.get();
+        return traceId == null ? null : new TraceContext(traceId, clock.nanoTime());
+    }
+
+    @Override
+    public TraceId attach(TraceContext context) {
+        TraceId previous = traceIdHolder.get();
+        traceIdHolder.set(context.getTraceId());
+        return previous;
+    }
+
+    @Override
+    public void detach(TraceId previous) {
+        if (previous == null) {
+            traceIdHolder.remove();
+        } else {
+            traceIdHolder.set(previous);
+        }
+    }
+
+    @Override
+    public void record(String message, long startTimeNanos, Exception e) {
+        TraceStatus status = begin(message);
+        complete(new TraceStatus(status.getTraceId(), startTimeNanos, message), e);
+    }
+
+    private void complete(TraceStatus status, Exception e) {
+        long endNanos = clock.nanoTime();
+        TraceId traceId = status.getTraceId();
+        int exceptionId = e == null ? 0 : dictionary.exceptionId(e);
+        writer.append(traceId.getHighId(), traceId.getLowId(), traceId.isWide(), traceId.getLevel(),
+                dictionary.methodId(status.getMessage()), exceptionId, status.getStartTimeNanos(), endNanos);
+
+        if (traceId.isFirstLevel()) {
+            traceIdHolder.remove();
+        } else {
+            traceIdHolder.set(traceId.createPreviousId());
+        }
+    }
+}
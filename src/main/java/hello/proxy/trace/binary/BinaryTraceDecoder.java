@@ -0,0 +1,186 @@
+package hello.proxy.trace.binary;
+
+import hello.proxy.trace.TraceId;
+import hello.proxy.trace.sink.Slf4jTraceSink;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * BinaryTraceWriter 가 남긴 segment + 사전 파일을 읽어서 ThreadLocalLogTrace 와 같은 형식으로 출력
+ *
+ * 사용법: ./gradlew decodeTrace --args='trace 디렉토리'
+ *
+ * 레코드는 trace 안에서 post-order(자식 -> 부모)로 쌓여있으므로
+ * 레벨별 대기 목록으로 트리를 다시 조립한 뒤 pre-order 로 begin/end 줄을 출력
+ * 루트 레코드가 없는(기록 도중 종료된) trace 는 건너뜀
+ */
+public class BinaryTraceDecoder {
+
+    private final Map<Integer, String> methods;
+    private final Map<Integer, String> exceptions;
+
+    public BinaryTraceDecoder(Map<Integer, String> methods, Map<Integer, String> exceptions) {
+        this.methods = methods;
+        this.exceptions = exceptions;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: BinaryTraceDecoder <trace directory>");
+            System.exit(1);
+        }
+        decode(Paths.get(args[0]), System.out);
+    }
+
+    public static void decode(Path directory, PrintStream out) throws IOException {
+        Map<Integer, String>[] dictionary = TraceDictionary.read(directory);
+        BinaryTraceDecoder decoder = new BinaryTraceDecoder(dictionary[0], dictionary[1]);
+
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.filter(p -> p.getFileName().toString().startsWith(BinaryTraceWriter.SEGMENT_PREFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        Map<TraceKey, PendingTrace> pending = new LinkedHashMap<>();
+        for (Path segment : segments) {
+            decoder.readSegment(segment, pending, out);
+        }
+        if (!pending.isEmpty()) {
+            System.err.println("완료되지 않은 trace " + pending.size() + "개 생략");
+        }
+    }
+
+    private void readSegment(Path segment, Map<TraceKey, PendingTrace> pending, PrintStream out) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        for (int offset = 0; offset + BinaryTraceWriter.RECORD_SIZE <= buffer.limit(); offset += BinaryTraceWriter.RECORD_SIZE) {
+            int flags = buffer.getInt(offset);
+            if ((flags & BinaryTraceWriter.FLAG_VALID) == 0) {
+                continue; // 선점만 되고 기록되지 않았거나 아직 사용하지 않은 영역
+            }
+            Span span = new Span(
+                    buffer.getInt(offset + 4),
+                    buffer.getInt(offset + 24),
+                    buffer.getInt(offset + 28),
+                    buffer.getLong(offset + 40) - buffer.getLong(offset + 32));
+            TraceKey key = new TraceKey(buffer.getLong(offset + 8), buffer.getLong(offset + 16),
+                    (flags & BinaryTraceWriter.FLAG_WIDE) != 0);
+
+            PendingTrace trace = pending.computeIfAbsent(key, k -> new PendingTrace());
+            if (trace.add(span)) {
+                pending.remove(key);
+                render(key, span, out);
+            }
+        }
+    }
+
+    private void render(TraceKey key, Span root, PrintStream out) {
+        String id = new TraceId(key.high, key.low, key.wide).getId();
+        renderSpan(id, root, out);
+    }
+
+    private void renderSpan(String id, Span span, PrintStream out) {
+        String message = methods.getOrDefault(span.methodId, "#" + span.methodId);
+        out.println("[" + id + "] " + Slf4jTraceSink.addSpace(Slf4jTraceSink.START_PREFIX, span.level) + message);
+        for (Span child : span.children) {
+            renderSpan(id, child, out);
+        }
+        long resultTimeMs = TimeUnit.NANOSECONDS.toMillis(span.resultTimeNanos);
+        if (span.exceptionId == 0) {
+            out.println("[" + id + "] " + Slf4jTraceSink.addSpace(Slf4jTraceSink.COMPLETE_PREFIX, span.level)
+                    + message + " time=" + resultTimeMs + "ms");
+        } else {
+            out.println("[" + id + "] " + Slf4jTraceSink.addSpace(Slf4jTraceSink.EX_PREFIX, span.level)
+                    + message + " time=" + resultTimeMs + "ms ex="
+                    + exceptions.getOrDefault(span.exceptionId, "#" + span.exceptionId));
+        }
+    }
+
+    private static final class Span {
+
+        final int level;
+        final int methodId;
+        final int exceptionId;
+        final long resultTimeNanos;
+        List<Span> children = List.of();
+
+        Span(int level, int methodId, int exceptionId, long resultTimeNanos) {
+            this.level = level;
+            this.methodId = methodId;
+            this.exceptionId = exceptionId;
+            this.resultTimeNanos = resultTimeNanos;
+        }
+    }
+
+    /**
+     * post-order 로 들어오는 span 을 트리로 조립
+     * 레벨 L 의 span 이 도착하면, 그 전까지 쌓인 레벨 L+1 span 들이 자식
+     */
+    private static final class PendingTrace {
+
+        private final List<List<Span>> waitingByLevel = new ArrayList<>();
+
+        /**
+         * @return 루트가 도착해서 트리가 완성되면 true
+         */
+        boolean add(Span span) {
+            while (waitingByLevel.size() <= span.level + 1) {
+                waitingByLevel.add(new ArrayList<>());
+            }
+            List<Span> children = waitingByLevel.get(span.level + 1);
+            if (!children.isEmpty()) {
+                span.children = new ArrayList<>(children);
+                children.clear();
+            }
+            if (span.level == 0) {
+                return true;
+            }
+            waitingByLevel.get(span.level).add(span);
+            return false;
+        }
+    }
+
+    private static final class TraceKey {
+
+        final long high;
+        final long low;
+        final boolean wide;
+
+        TraceKey(long high, long low, boolean wide) {
+            this.high = high;
+            this.low = low;
+            this.wide = wide;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof TraceKey)) {
+                return false;
+            }
+            TraceKey other = (TraceKey) o;
+            return high == other.high && low == other.low && wide == other.wide;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(high * 31 + low) * 31 + Boolean.hashCode(wide);
+        }
+    }
+}
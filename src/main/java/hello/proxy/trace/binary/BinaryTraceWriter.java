@@ -0,0 +1,231 @@
+package hello.proxy.trace.binary;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 고정 크기 레코드를 메모리 맵 파일(segment)에 추가. segment 가 가득 차면 다음 파일로 넘어감
+ * 여러 스레드가 동시에 호출해도 됨: 레코드 위치는 AtomicInteger 로 선점하고, 서로 다른 영역에만 씀
+ *
+ * 레코드 (48 byte, little endian)
+ *  0  int  flags       FLAG_VALID | FLAG_WIDE. 마지막에 기록 (0 이면 빈 레코드)
+ *  4  int  level
+ *  8  long traceId 상위 64bit (128bit id 일 때)
+ *  16 long traceId 하위 64bit
+ *  24 int  method id   (TraceDictionary)
+ *  28 int  예외 타입 id (0 = 정상 종료)
+ *  32 long 시작 nanos
+ *  40 long 종료 nanos
+ *
+ * 레코드는 span 이 끝날 때 기록하므로 trace 하나 안에서는 자식 -> 부모 순서 (post-order)
+ *
+ * 실행마다 trace-00000 부터 다시 번호를 매기고 사전도 새로 쓰므로, 열 때 이전 실행의 segment 를 모두 지움
+ * (남겨두면 디코더가 새 사전으로 이전 레코드를 풀어버림)
+ * 디스크에는 최근 maxSegments 개만 남김. 오래된 segment 를 지우면 그 안에 자식이 있던 trace 는 일부만 출력됨
+ * segment 는 선점한 레코드가 모두 기록된 순간 force 후 unmap (GC 를 기다리지 않음)
+ */
+@Slf4j
+public class BinaryTraceWriter implements AutoCloseable {
+
+    static final int RECORD_SIZE = 48;
+    static final int FLAG_VALID = 1;
+    static final int FLAG_WIDE = 2;
+    static final String SEGMENT_PREFIX = "trace-";
+    static final String SEGMENT_SUFFIX = ".seg";
+    private static final int DEFAULT_MAX_SEGMENTS = 16;
+
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // jdk.unsupported 모듈이 없으면 GC 가 unmap
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final int maxSegments;
+    private final TraceDictionary dictionary;
+    private volatile Segment current;
+    private int segmentNumber;
+    private volatile boolean closed;
+
+    public BinaryTraceWriter(Path directory) {
+        this(directory, 1 << 18); // 12MB
+    }
+
+    public BinaryTraceWriter(Path directory, int recordsPerSegment) {
+        this(directory, recordsPerSegment, DEFAULT_MAX_SEGMENTS);
+    }
+
+    /**
+     * @param maxSegments 디스크에 남겨둘 segment 수 (쓰는 중인 것 포함). 2 이상
+     */
+    public BinaryTraceWriter(Path directory, int recordsPerSegment, int maxSegments) {
+        if (maxSegments < 2) {
+            throw new IllegalArgumentException("maxSegments 는 2 이상이어야 함: " + maxSegments);
+        }
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        this.maxSegments = maxSegments;
+        try {
+            Files.createDirectories(directory);
+            deleteSegments(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.dictionary = new TraceDictionary(directory);
+        this.current = openSegment();
+    }
+
+    public TraceDictionary getDictionary() {
+        return dictionary;
+    }
+
+    public void append(long traceIdHigh, long traceIdLow, boolean wide, int level,
+                       int methodId, int exceptionId, long startNanos, long endNanos) {
+        if (closed) {
+            return;
+        }
+        while (true) {
+            Segment segment = current;
+            int index = segment.next.getAndIncrement();
+            if (index < recordsPerSegment) {
+                int offset = index * RECORD_SIZE;
+                MappedByteBuffer buffer = segment.buffer;
+                buffer.putInt(offset + 4, level);
+                buffer.putLong(offset + 8, traceIdHigh);
+                buffer.putLong(offset + 16, traceIdLow);
+                buffer.putInt(offset + 24, methodId);
+                buffer.putInt(offset + 28, exceptionId);
+                buffer.putLong(offset + 32, startNanos);
+                buffer.putLong(offset + 40, endNanos);
+                buffer.putInt(offset, wide ? FLAG_VALID | FLAG_WIDE : FLAG_VALID);
+                if (segment.written.incrementAndGet() == recordsPerSegment) {
+                    retire(segment);
+                }
+                return;
+            }
+            roll(segment);
+        }
+    }
+
+    private synchronized void roll(Segment full) {
+        if (current != full || closed) {
+            return; // 다른 스레드가 이미 넘김
+        }
+        current = openSegment();
+        deleteSegment(full.number + 1 - maxSegments);
+    }
+
+    /**
+     * 마지막 레코드를 쓴 스레드에서 호출. 이 segment 에 쓰는 스레드는 더 없으므로 unmap 해도 안전
+     */
+    private synchronized void retire(Segment segment) {
+        segment.buffer.force();
+        segment.retired = true;
+        unmap(segment.buffer);
+    }
+
+    private Segment openSegment() {
+        int number = segmentNumber++;
+        Path file = segmentFile(directory, number);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            log.info("trace segment opened: {}", file);
+            return new Segment(number, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // 기록 중인 스레드가 있을 수 있으므로 마지막 segment 는 unmap 하지 않고 GC 에 맡김
+        Segment segment = current;
+        if (!segment.retired) {
+            segment.buffer.force();
+        }
+        dictionary.close();
+    }
+
+    private void deleteSegment(int number) {
+        if (number < 0) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(segmentFile(directory, number));
+        } catch (IOException e) {
+            log.warn("trace segment 삭제 실패: {}", segmentFile(directory, number), e);
+        }
+    }
+
+    private static Path segmentFile(Path directory, int number) {
+        return directory.resolve(String.format("%s%05d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    private static void deleteSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private static void unmap(MappedByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException e) {
+            log.debug("unmap 실패, GC 에 맡김", e);
+        }
+    }
+
+    private static final class Segment {
+
+        final int number;
+        final MappedByteBuffer buffer;
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicInteger written = new AtomicInteger();
+        volatile boolean retired;
+
+        Segment(int number, MappedByteBuffer buffer) {
+            this.number = number;
+            this.buffer = buffer;
+        }
+    }
+}
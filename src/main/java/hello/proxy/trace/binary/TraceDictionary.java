@@ -0,0 +1,138 @@
+package hello.proxy.trace.binary;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 바이너리 레코드에는 문자열 대신 정수 id 만 기록하고, id -> 문자열 매핑은 사전 파일에 한 줄씩 추가
+ *
+ * 파일 형식 (UTF-8, 탭 구분)
+ *  M  {id}  {span 메시지}
+ *  E  {id}  {예외 toString() (텍스트 로그의 ex= 와 같은 값)}
+ * id 는 1부터 시작. 0 은 "없음"
+ *
+ * 예외 메시지에 요청마다 다른 값이 들어가면 사전이 끝없이 커지므로 MAX_EXCEPTION_TEXTS 개를 넘으면 클래스 이름만 기록
+ */
+public class TraceDictionary {
+
+    static final String FILE_NAME = "trace.dict";
+    private static final String METHOD = "M";
+    private static final String EXCEPTION = "E";
+    private static final int MAX_EXCEPTION_TEXTS = 4096;
+
+    private final ConcurrentHashMap<String, Integer> methodIds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> exceptionIds = new ConcurrentHashMap<>();
+    private final BufferedWriter writer;
+    private int nextMethodId = 1;
+    private int nextExceptionId = 1;
+
+    public TraceDictionary(Path directory) {
+        try {
+            this.writer = Files.newBufferedWriter(directory.resolve(FILE_NAME), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public int methodId(String message) {
+        Integer id = methodIds.get(message);
+        return id != null ? id : register(message);
+    }
+
+    public int exceptionId(Throwable e) {
+        String text = e.toString();
+        Integer id = exceptionIds.get(text);
+        if (id != null) {
+            return id;
+        }
+        if (exceptionIds.size() >= MAX_EXCEPTION_TEXTS) {
+            text = e.getClass().getName();
+        }
+        return registerException(text);
+    }
+
+    private synchronized int register(String message) {
+        Integer id = methodIds.get(message);
+        if (id == null) {
+            id = nextMethodId++;
+            append(METHOD, id, message);
+            methodIds.put(message, id);
+        }
+        return id;
+    }
+
+    private synchronized int registerException(String text) {
+        Integer id = exceptionIds.get(text);
+        if (id == null) {
+            id = nextExceptionId++;
+            append(EXCEPTION, id, text);
+            exceptionIds.put(text, id);
+        }
+        return id;
+    }
+
+    private void append(String kind, int id, String value) {
+        try {
+            writer.write(kind + "\t" + id + "\t" + escape(value));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return [0] = method id -> 메시지, [1] = exception id -> 예외 toString()
+     */
+    @SuppressWarnings("unchecked")
+    static Map<Integer, String>[] read(Path directory) throws IOException {
+        Map<Integer, String> methods = new HashMap<>();
+        Map<Integer, String> exceptions = new HashMap<>();
+        List<String> lines = Files.readAllLines(directory.resolve(FILE_NAME), StandardCharsets.UTF_8);
+        for (String line : lines) {
+            String[] parts = line.split("\t", 3);
+            if (parts.length < 3) {
+                continue;
+            }
+            Map<Integer, String> target = METHOD.equals(parts[0]) ? methods : exceptions;
+            target.put(Integer.parseInt(parts[1]), unescape(parts[2]));
+        }
+        return new Map[]{methods, exceptions};
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+    }
+
+    private static String unescape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                sb.append(next == 't' ? '\t' : next == 'n' ? '\n' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,50 @@
+package hello.proxy.trace.clock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 백그라운드 스레드가 tick 간격마다 System.nanoTime() 을 읽어 volatile 필드에 저장
+ * 요청 스레드는 필드 하나만 읽으므로 고QPS 경로에서 싸지만, 해상도는 tick 간격으로 떨어짐
+ * (tick 보다 짧은 span 은 0 으로 측정될 수 있음)
+ */
+public class CachedTraceClock implements TraceClock, AutoCloseable {
+
+    private final long tickNanos;
+    private final Thread ticker;
+    private volatile long now;
+    private volatile boolean closed;
+
+    public CachedTraceClock() {
+        this(1, TimeUnit.MILLISECONDS);
+    }
+
+    public CachedTraceClock(long tick, TimeUnit unit) {
+        this.tickNanos = unit.toNanos(tick);
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("tick 은 0 보다 커야 함: " + tick);
+        }
+        this.now = System.nanoTime();
+        this.ticker = new Thread(this::tickLoop, "trace-clock-ticker");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    @Override
+    public long nanoTime() {
+        return now;
+    }
+
+    private void tickLoop() {
+        while (!closed) {
+            now = System.nanoTime();
+            LockSupport.parkNanos(tickNanos);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(ticker);
+    }
+}
@@ -0,0 +1,12 @@
+package hello.proxy.trace.clock;
+
+/**
+ * 매번 System.nanoTime() 호출. 정밀하지만 호출마다 시계 읽기 비용이 있음
+ */
+public class SystemTraceClock implements TraceClock {
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+}
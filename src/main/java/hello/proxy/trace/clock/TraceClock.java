@@ -0,0 +1,10 @@
+package hello.proxy.trace.clock;
+
+/**
+ * span 시간 측정용 시계. 기준점이 임의인 단조 증가 나노초 값 (System.nanoTime 과 같은 의미)
+ * 두 값의 차이로만 사용해야 함
+ */
+public interface TraceClock {
+
+    long nanoTime();
+}
@@ -0,0 +1,46 @@
+package hello.proxy.trace.filter;
+
+import hello.proxy.trace.site.TraceSite;
+import hello.proxy.trace.site.TraceSites;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Method 별 로그 대상 여부를 한 번만 판단해서 캐시
+ *
+ * 결과로 TraceSite 자체를 저장하므로 로그 대상이면 TraceSites 를 다시 조회할 필요 없음
+ * JDK 동적 프록시와 CGLIB 는 매번 같은 Method 객체(생성된 클래스의 static 필드)를 넘기므로
+ * ConcurrentHashMap.get 은 key 비교가 == 에서 끝남 (Method.equals 까지 가지 않음)
+ * 읽기는 락 없음, 메서드가 수천 개여도 처음 한 번씩만 쓰기
+ */
+public final class MethodFilter {
+
+    private static final Object NOT_TRACED = new Object();
+
+    private final MethodNameMatcher matcher;
+    private final ConcurrentHashMap<Method, Object> decisions = new ConcurrentHashMap<>();
+
+    public MethodFilter(String... patterns) {
+        this(MethodNameMatcher.compile(patterns));
+    }
+
+    public MethodFilter(MethodNameMatcher matcher) {
+        this.matcher = matcher;
+    }
+
+    /**
+     * 로그 대상이면 TraceSite, 아니면 null
+     */
+    public TraceSite siteOf(Method method) {
+        Object decision = decisions.get(method);
+        if (decision == null) {
+            decision = decisions.computeIfAbsent(method,
+                    m -> matcher.matches(m.getName()) ? TraceSites.of(m) : NOT_TRACED);
+        }
+        return decision == NOT_TRACED ? null : (TraceSite) decision;
+    }
+
+    public boolean matches(Method method) {
+        return siteOf(method) != null;
+    }
+}
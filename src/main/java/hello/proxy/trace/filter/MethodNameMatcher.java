@@ -0,0 +1,152 @@
+package hello.proxy.trace.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import org.springframework.util.PatternMatchUtils;
+
+/**
+ * 메서드 이름 패턴 묶음을 한 번 컴파일해 둔 matcher
+ * PatternMatchUtils.simpleMatch(patterns, name) 과 같은 결과
+ *
+ * 패턴 모양별로 나눠서 저장
+ *  - "*": 전부 매칭
+ *  - "save": 정확히 일치 -> HashSet
+ *  - "save*": prefix -> trie (이름 길이만큼만 탐색, 패턴 수와 무관)
+ *  - "*Item": suffix -> 뒤집은 문자열 trie
+ *  - 그 외 ("*rder*", "or*Item" 등): 기존 simpleMatch 로 하나씩 비교
+ */
+public final class MethodNameMatcher {
+
+    private final boolean matchAll;
+    private final Set<String> exact;
+    private final Trie prefixes;
+    private final Trie suffixes;
+    private final String[] others;
+
+    private MethodNameMatcher(boolean matchAll, Set<String> exact, Trie prefixes, Trie suffixes, String[] others) {
+        this.matchAll = matchAll;
+        this.exact = exact;
+        this.prefixes = prefixes;
+        this.suffixes = suffixes;
+        this.others = others;
+    }
+
+    public static MethodNameMatcher compile(String... patterns) {
+        boolean matchAll = false;
+        Set<String> exact = new HashSet<>();
+        Trie.Builder prefixes = new Trie.Builder();
+        Trie.Builder suffixes = new Trie.Builder();
+        List<String> others = new ArrayList<>();
+
+        for (String pattern : patterns) {
+            if (pattern == null) {
+                continue;
+            }
+            int first = pattern.indexOf('*');
+            int last = pattern.lastIndexOf('*');
+            if (first == -1) {
+                exact.add(pattern);
+            } else if (pattern.equals("*")) {
+                matchAll = true;
+            } else if (first == last && last == pattern.length() - 1) {
+                prefixes.add(pattern.substring(0, first));
+            } else if (first == last && first == 0) {
+                suffixes.add(new StringBuilder(pattern.substring(1)).reverse().toString());
+            } else {
+                others.add(pattern);
+            }
+        }
+        return new MethodNameMatcher(matchAll, exact, prefixes.build(), suffixes.build(), others.toArray(new String[0]));
+    }
+
+    public boolean matches(String name) {
+        if (name == null) {
+            return false;
+        }
+        if (matchAll || exact.contains(name) || prefixes.matchesPrefixOf(name, false)
+                || suffixes.matchesPrefixOf(name, true)) {
+            return true;
+        }
+        for (String pattern : others) {
+            if (PatternMatchUtils.simpleMatch(pattern, name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 글자 단위 trie. 자식은 정렬된 char 배열 + 이진 탐색 (노드마다 Map 을 두지 않음)
+     * 어떤 패턴의 끝 노드(terminal)에 도달하면 그 패턴이 이름의 prefix 라는 뜻
+     */
+    static final class Trie {
+
+        private static final Trie EMPTY = new Trie(false, new char[0], new Trie[0]);
+
+        private final boolean terminal;
+        private final char[] keys;
+        private final Trie[] children;
+
+        private Trie(boolean terminal, char[] keys, Trie[] children) {
+            this.terminal = terminal;
+            this.keys = keys;
+            this.children = children;
+        }
+
+        /**
+         * reversed 면 name 을 뒤에서부터 읽음 (suffix 패턴용)
+         */
+        boolean matchesPrefixOf(String name, boolean reversed) {
+            Trie node = this;
+            int length = name.length();
+            for (int i = 0; ; i++) {
+                if (node.terminal) {
+                    return true;
+                }
+                if (i == length) {
+                    return false;
+                }
+                char c = name.charAt(reversed ? length - 1 - i : i);
+                int index = Arrays.binarySearch(node.keys, c);
+                if (index < 0) {
+                    return false;
+                }
+                node = node.children[index];
+            }
+        }
+
+        static final class Builder {
+
+            private boolean terminal;
+            private final Map<Character, Builder> children = new TreeMap<>();
+
+            void add(String key) {
+                Builder node = this;
+                for (int i = 0; i < key.length(); i++) {
+                    node = node.children.computeIfAbsent(key.charAt(i), c -> new Builder());
+                }
+                node.terminal = true;
+            }
+
+            Trie build() {
+                if (!terminal && children.isEmpty()) {
+                    return EMPTY;
+                }
+                char[] keys = new char[children.size()];
+                Trie[] nodes = new Trie[children.size()];
+                int i = 0;
+                for (Map.Entry<Character, Builder> entry : children.entrySet()) {
+                    keys[i] = entry.getKey();
+                    nodes[i] = entry.getValue().build();
+                    i++;
+                }
+                return new Trie(terminal, keys, nodes);
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package hello.proxy.trace.id;
+
+/**
+ * 루트 begin() 마다 호출되므로 공유 자원(SecureRandom, AtomicLong 등)에 줄 세우지 않도록 구현해야 함
+ * id 는 long 으로만 만들고, 문자열 인코딩은 TraceId 가 로그를 실제로 찍는 시점에 함
+ */
+public interface TraceIdGenerator {
+
+    /**
+     * 하위 64bit id (0 은 사용하지 않음)
+     */
+    long nextId();
+
+    /**
+     * 128bit 모드일 때 상위 64bit id. 64bit 모드면 사용하지 않음
+     */
+    default long nextHighId() {
+        return 0L;
+    }
+
+    /**
+     * true 면 128bit(32자리 hex), false 면 64bit(16자리 hex)
+     */
+    default boolean isWide() {
+        return false;
+    }
+}
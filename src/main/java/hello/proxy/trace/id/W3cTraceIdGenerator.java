@@ -0,0 +1,25 @@
+package hello.proxy.trace.id;
+
+/**
+ * W3C Trace Context 의 trace-id 와 호환되는 128bit(32자리 소문자 hex) id 생성기
+ * 두 번의 xorshift 값을 상위/하위 64bit 로 사용. 하위 64bit 가 0 이 아니므로 전체가 0 인 id 는 나오지 않음
+ */
+public class W3cTraceIdGenerator implements TraceIdGenerator {
+
+    private final XorShiftTraceIdGenerator delegate = new XorShiftTraceIdGenerator();
+
+    @Override
+    public long nextId() {
+        return delegate.nextId();
+    }
+
+    @Override
+    public long nextHighId() {
+        return delegate.nextId();
+    }
+
+    @Override
+    public boolean isWide() {
+        return true;
+    }
+}
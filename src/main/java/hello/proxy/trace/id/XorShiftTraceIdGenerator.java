@@ -0,0 +1,51 @@
+package hello.proxy.trace.id;
+
+import hello.proxy.thread.VirtualThreads;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 스레드마다 독립된 xorshift64* 상태를 갖는 64bit id 생성기
+ * 스레드 간 공유 상태가 없어서 스레드 수가 늘어도 경합이 생기지 않음
+ * 시드는 스레드 최초 사용 시 한 번만 ThreadLocalRandom 에서 가져옴
+ *
+ * 가상 스레드는 보통 요청 하나에 id 하나라서 스레드별 상태를 만들면 ThreadLocal 항목만 늘어남. ThreadLocalRandom 을 바로 사용
+ */
+public class XorShiftTraceIdGenerator implements TraceIdGenerator {
+
+    private final ThreadLocal<State> state = ThreadLocal.withInitial(State::new);
+
+    @Override
+    public long nextId() {
+        if (VirtualThreads.isVirtual(Thread.currentThread())) {
+            long id;
+            do {
+                id = ThreadLocalRandom.current().nextLong();
+            } while (id == 0L);
+            return id;
+        }
+        return state.get().next();
+    }
+
+    static final class State {
+
+        private long seed;
+
+        State() {
+            long s;
+            do {
+                s = ThreadLocalRandom.current().nextLong();
+            } while (s == 0L);  // xorshift 는 0 상태에서 빠져나오지 못함
+            this.seed = s;
+        }
+
+        long next() {
+            long x = seed;
+            x ^= x >>> 12;
+            x ^= x << 25;
+            x ^= x >>> 27;
+            seed = x;
+            // 상태가 0 이 아니면 출력도 0 이 아님 (0x2545F4914F6CDD1D 는 홀수)
+            return x * 0x2545F4914F6CDD1DL;
+        }
+    }
+}
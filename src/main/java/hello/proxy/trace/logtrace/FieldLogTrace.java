@@ -2,25 +2,33 @@ package hello.proxy.trace.logtrace;
 
 import hello.proxy.trace.TraceId;
 import hello.proxy.trace.TraceStatus;
-import lombok.extern.slf4j.Slf4j;
+import hello.proxy.trace.clock.SystemTraceClock;
+import hello.proxy.trace.clock.TraceClock;
+import hello.proxy.trace.sink.Slf4jTraceSink;
+import hello.proxy.trace.sink.TraceSink;
 
-@Slf4j
 public class FieldLogTrace implements LogTrace {
 
-    private static final String START_PREFIX = "-->";
-    private static final String COMPLETE_PREFIX = "<--";
-    private static final String EX_PREFIX = "<X-";
-
     private TraceId traceIdHolder; //동시성 이슈 발생
+    private final TraceSink sink;
+    private TraceClock clock = new SystemTraceClock();
+
+    public FieldLogTrace() {
+        this(new Slf4jTraceSink());
+    }
+
+    public FieldLogTrace(TraceSink sink) {
+        this.sink = sink;
+    }
 
     @Override
     public TraceStatus begin(String message) {
         syncTraceId();
         TraceId traceId = traceIdHolder;
-        Long startTimeMs = System.currentTimeMillis();
-        log.info("[{}] {}{}", traceId.getId(), addSpace(START_PREFIX, traceId.getLevel()), message);
+        long startTimeNanos = clock.nanoTime();
+        sink.begin(traceId, message);
 
-        return new TraceStatus(traceId, startTimeMs, message);
+        return new TraceStatus(traceId, startTimeNanos, message);
     }
 
     @Override
@@ -34,14 +42,8 @@ public class FieldLogTrace implements LogTrace {
     }
 
     private void complete(TraceStatus status, Exception e) {
-        Long stopTimeMs = System.currentTimeMillis();
-        long resultTimeMs = stopTimeMs - status.getStartTimeMs();
-        TraceId traceId = status.getTraceId();
-        if (e == null) {
-            log.info("[{}] {}{} time={}ms", traceId.getId(), addSpace(COMPLETE_PREFIX, traceId.getLevel()), status.getMessage(), resultTimeMs);
-        } else {
-            log.info("[{}] {}{} time={}ms ex={}", traceId.getId(), addSpace(EX_PREFIX, traceId.getLevel()), status.getMessage(), resultTimeMs, e.toString());
-        }
+        long resultTimeNanos = clock.nanoTime() - status.getStartTimeNanos();
+        sink.complete(status.getTraceId(), status.getMessage(), resultTimeNanos, e);
 
         releaseTraceId();
     }
@@ -61,12 +63,4 @@ public class FieldLogTrace implements LogTrace {
             traceIdHolder = traceIdHolder.createPreviousId();
         }
     }
-
-    private static String addSpace(String prefix, int level) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < level; i++) {
-            sb.append( (i == level - 1) ? "|" + prefix : "|   ");
-        }
-        return sb.toString();
-    }
 }
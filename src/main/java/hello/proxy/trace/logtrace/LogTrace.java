@@ -1,10 +1,73 @@
 package hello.proxy.trace.logtrace;
 
+import hello.proxy.trace.TraceContext;
+import hello.proxy.trace.TraceId;
 import hello.proxy.trace.TraceStatus;
+import hello.proxy.trace.site.TraceSite;
 
 public interface LogTrace {
 
+    /**
+     * beginSpan 이 돌려주는 handle 이 없을 때 (begin 전에 예외가 났거나 기록하지 않은 span)
+     * handle 없이 만든 TraceStatus 의 getHandle() 도 이 값
+     */
+    int NO_SPAN = -1;
+
     TraceStatus begin(String message);
+
+    /**
+     * 미리 만들어둔 TraceSite 로 시작. 구현체가 site id 를 쓰지 않으면 메시지만 사용
+     */
+    default TraceStatus begin(TraceSite site) {
+        return begin(site.getMessage());
+    }
+
     void end(TraceStatus status);
     void exception(TraceStatus status, Exception e);
+
+    /**
+     * TraceStatus 대신 int handle 을 돌려주는 API. 같은 스레드에서 endSpan/exceptionSpan 으로 닫음
+     * 기본 구현은 TraceStatus 를 스레드별 배열에 보관하는 어댑터 (샘플링되지 않은 trace 에서 할당이 없는 구현은 SpanStackLogTrace)
+     */
+    default int beginSpan(TraceSite site) {
+        return TraceStatusHandles.push(begin(site));
+    }
+
+    default void endSpan(int handle) {
+        end(TraceStatusHandles.pop(handle));
+    }
+
+    default void exceptionSpan(int handle, Exception e) {
+        exception(TraceStatusHandles.pop(handle), e);
+    }
+
+    /**
+     * 현재 스레드의 trace 위치. 진행 중인 trace 가 없거나 구현체가 전파를 지원하지 않으면 null
+     */
+    default TraceContext capture() {
+        return null;
+    }
+
+    /**
+     * capture() 한 위치를 현재 스레드에 설정하고 원래 값을 반환. 작업이 끝나면 그 값으로 detach
+     */
+    default TraceId attach(TraceContext context) {
+        return null;
+    }
+
+    default void detach(TraceId previous) {
+    }
+
+    /**
+     * 이미 지나간 구간(예: executor 큐 대기)을 현재 위치의 하위 span 하나로 기록
+     */
+    default void record(String message, long startTimeNanos) {
+        record(message, startTimeNanos, null);
+    }
+
+    /**
+     * record 와 같지만 e 가 있으면 예외로 끝난 span 으로 기록
+     */
+    default void record(String message, long startTimeNanos, Exception e) {
+    }
 }
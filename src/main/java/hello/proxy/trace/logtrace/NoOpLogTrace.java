@@ -0,0 +1,47 @@
+package hello.proxy.trace.logtrace;
+
+import hello.proxy.trace.TraceStatus;
+import hello.proxy.trace.site.TraceSite;
+
+/**
+  * 아무것도 기록하지 않는 LogTrace
+  * 프록시 자체 비용 측정이나 프록시 클래스 미리 생성처럼 advice 모양만 필요한 곳에서 사용
+  * handle API 도 기본 어댑터를 타지 않도록 직접 구현
+  */
+public class NoOpLogTrace implements LogTrace {
+
+    public static final NoOpLogTrace INSTANCE = new NoOpLogTrace();
+
+    private static final TraceStatus STATUS = new TraceStatus(null, 0L, "noop");
+
+    @Override
+    public TraceStatus begin(String message) {
+        return STATUS;
+    }
+
+    @Override
+    public TraceStatus begin(TraceSite site) {
+        return STATUS;
+    }
+
+    @Override
+    public void end(TraceStatus status) {
+    }
+
+    @Override
+    public void exception(TraceStatus status, Exception e) {
+    }
+
+    @Override
+    public int beginSpan(TraceSite site) {
+        return NO_SPAN;
+    }
+
+    @Override
+    public void endSpan(int handle) {
+    }
+
+    @Override
+    public void exceptionSpan(int handle, Exception e) {
+    }
+}
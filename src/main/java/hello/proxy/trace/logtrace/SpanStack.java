@@ -0,0 +1,126 @@
+package hello.proxy.trace.logtrace;
+
+import hello.proxy.trace.TraceId;
+import hello.proxy.trace.site.TraceSite;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * SpanStackLogTrace 의 스레드별 상태. 레벨(깊이)마다 객체를 만들지 않고 미리 잡아둔 배열 칸을 재사용
+ * 소유 스레드만 읽고 쓰므로 동기화 없음 (owner 만 스레드 간 넘겨주기용으로 volatile)
+ */
+final class SpanStack {
+
+    private static final AtomicReferenceFieldUpdater<SpanStack, Thread> OWNER =
+            AtomicReferenceFieldUpdater.newUpdater(SpanStack.class, Thread.class, "owner");
+
+    final int index;
+    // 반납(release)된 스택은 null
+    volatile Thread owner;
+
+    // 현재 trace. 루트에서 한 번 정하고 하위 레벨은 그대로 사용
+    long highId;
+    long lowId;
+    boolean wide;
+    boolean sampled;
+    // attach 로 이어받은 부모 span. 이 스레드에서 시작한 trace 면 null
+    TraceId parent;
+
+    int depth;
+    long[] startNanos;
+    TraceSite[] sites;
+    String[] messages;
+
+    // sink 로 넘길 때만 만드는 레벨별 TraceId. 같은 trace 안의 형제 span 끼리 재사용
+    private TraceId[] ids;
+    private int idCount;
+
+    SpanStack(int index, Thread owner, int capacity) {
+        this.index = index;
+        this.owner = owner;
+        this.startNanos = new long[capacity];
+        this.sites = new TraceSite[capacity];
+        this.messages = new String[capacity];
+        this.ids = new TraceId[capacity];
+    }
+
+    int capacity() {
+        return startNanos.length;
+    }
+
+    void grow(int maxCapacity) {
+        int capacity = Math.min(capacity() << 1, maxCapacity);
+        startNanos = Arrays.copyOf(startNanos, capacity);
+        sites = Arrays.copyOf(sites, capacity);
+        messages = Arrays.copyOf(messages, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+    }
+
+    void startTrace(long highId, long lowId, boolean wide, boolean sampled) {
+        this.highId = highId;
+        this.lowId = lowId;
+        this.wide = wide;
+        this.sampled = sampled;
+        this.idCount = 0;
+    }
+
+    void attach(TraceId parent) {
+        this.parent = parent;
+        this.idCount = 0;
+        if (parent != null) {
+            startTrace(parent.getHighId(), parent.getLowId(), parent.isWide(), parent.isSampled());
+        }
+    }
+
+    /**
+     * 예외로 샘플링 전환. 이미 만들어둔 TraceId 는 샘플링 플래그가 달라서 버림
+     */
+    void forceSampled() {
+        sampled = true;
+        idCount = 0;
+    }
+
+    void reset(Thread owner) {
+        this.owner = owner;
+        this.depth = 0;
+        this.parent = null;
+        this.idCount = 0;
+    }
+
+    /**
+     * 소유 스레드가 종료됐으면 newOwner 로 넘김. 소유 스레드가 반납(release)하고 종료한 스택은 이미 반납 큐에 있으므로 가져오지 않음
+     */
+    boolean claimIfOwnerDead(Thread newOwner) {
+        Thread current = owner;
+        if (current == null || current.isAlive() || !OWNER.compareAndSet(this, current, newOwner)) {
+            return false;
+        }
+        reset(newOwner);
+        return true;
+    }
+
+    /**
+     * 소유 스레드가 trace 를 끝내고 스택을 내놓음. 이후 다른 스레드가 reset 해서 사용
+     */
+    void release() {
+        this.owner = null;
+    }
+
+    /**
+     * 깊이 d 의 span 에 해당하는 TraceId. 처음 필요할 때만 만듦
+     */
+    TraceId traceIdAt(int d) {
+        while (idCount <= d) {
+            TraceId traceId;
+            if (idCount > 0) {
+                traceId = ids[idCount - 1].createNextId();
+            } else if (parent != null) {
+                traceId = (sampled ? parent.forceSampled() : parent).createNextId();
+            } else {
+                traceId = new TraceId(highId, lowId, wide, sampled);
+            }
+            ids[idCount++] = traceId;
+        }
+        return ids[d];
+    }
+}
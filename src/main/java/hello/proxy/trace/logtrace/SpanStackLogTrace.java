@@ -0,0 +1,275 @@
+package hello.proxy.trace.logtrace;
+
+import hello.proxy.metrics.LatencyHistograms;
+import hello.proxy.thread.VirtualThreads;
+import hello.proxy.trace.TraceContext;
+import hello.proxy.trace.TraceId;
+import hello.proxy.trace.TraceStatus;
+import hello.proxy.trace.clock.SystemTraceClock;
+import hello.proxy.trace.clock.TraceClock;
+import hello.proxy.trace.id.TraceIdGenerator;
+import hello.proxy.trace.id.XorShiftTraceIdGenerator;
+import hello.proxy.trace.sampling.TraceSampler;
+import hello.proxy.trace.site.TraceSite;
+import hello.proxy.trace.sink.Slf4jTraceSink;
+import hello.proxy.trace.sink.TraceSink;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * ThreadLocalLogTrace 와 같은 동작이지만 span 마다 객체를 만들지 않음
+ * 스레드마다 시작 시각/site/메시지 배열을 하나씩 잡아두고, span 은 (스택 번호, 깊이) 를 담은 int handle 로 가리킴
+ * - begin: ThreadLocal 조회 한 번 + 배열 쓰기
+ * - end: handle 로 스택을 바로 찾음 (ThreadLocal 조회 없음)
+ * TraceId 객체는 sink 로 넘길 때(샘플링된 trace)만 레벨별로 한 번 만들어 재사용
+ * 할당이 없는 것은 샘플링되지 않은 trace 뿐. 샘플링된 trace 는 TraceId 와 sink 쪽(로그 문자열 등) 할당이 생김
+ *
+ * TraceStatus 를 받는 begin/end 는 호환용. handle 을 감싼 TraceStatus 를 하나 만듦
+ *
+ * 가상 스레드는 요청마다 새로 만들어지므로 스레드 종료를 기다리지 않고 trace 가 끝나면(루트 span 종료, detach) 스택을 바로 반납
+ * 반납한 스택은 다음 가상 스레드가 그대로 가져가서 동시에 실행 중인 trace 수만큼만 스택이 생김
+ * 플랫폼 스레드(풀)는 스레드가 계속 재사용하므로 반납하지 않음
+ */
+public class SpanStackLogTrace implements LogTrace {
+
+    private static final int DEPTH_BITS = 12;
+    private static final int DEPTH_MASK = (1 << DEPTH_BITS) - 1;
+    private static final int MAX_DEPTH = 1 << DEPTH_BITS;
+    private static final int MAX_STACKS = 1 << (31 - DEPTH_BITS);
+    private static final int INITIAL_DEPTH = 32;
+
+    private final TraceSink sink;
+    private final ThreadLocal<SpanStack> stackHolder = ThreadLocal.withInitial(this::register);
+    // handle 의 스택 번호 -> 스택. 새 스레드가 등록될 때만 복사해서 교체
+    private volatile SpanStack[] stacks = new SpanStack[0];
+    // 가상 스레드가 반납한 스택
+    private final Queue<SpanStack> released = new ConcurrentLinkedQueue<>();
+
+    private TraceIdGenerator idGenerator = new XorShiftTraceIdGenerator();
+    private TraceClock clock = new SystemTraceClock();
+    private LatencyHistograms latencyHistograms;
+    private TraceSampler sampler;
+    private boolean forceSampleOnError = true;
+
+    public SpanStackLogTrace() {
+        this(new Slf4jTraceSink());
+    }
+
+    public SpanStackLogTrace(TraceSink sink) {
+        this.sink = sink;
+    }
+
+    public void setIdGenerator(TraceIdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+
+    public void setClock(TraceClock clock) {
+        this.clock = clock;
+    }
+
+    public void setLatencyHistograms(LatencyHistograms latencyHistograms) {
+        this.latencyHistograms = latencyHistograms;
+    }
+
+    public void setSampler(TraceSampler sampler) {
+        this.sampler = sampler;
+    }
+
+    public void setForceSampleOnError(boolean forceSampleOnError) {
+        this.forceSampleOnError = forceSampleOnError;
+    }
+
+    @Override
+    public int beginSpan(TraceSite site) {
+        return push(site, site.getMessage());
+    }
+
+    @Override
+    public void endSpan(int handle) {
+        complete(handle, null);
+    }
+
+    @Override
+    public void exceptionSpan(int handle, Exception e) {
+        complete(handle, e);
+    }
+
+    @Override
+    public TraceStatus begin(String message) {
+        return toStatus(push(null, message), message, null);
+    }
+
+    @Override
+    public TraceStatus begin(TraceSite site) {
+        return toStatus(push(site, site.getMessage()), site.getMessage(), site);
+    }
+
+    @Override
+    public void end(TraceStatus status) {
+        complete(status.getHandle(), null);
+    }
+
+    @Override
+    public void exception(TraceStatus status, Exception e) {
+        complete(status.getHandle(), e);
+    }
+
+    @Override
+    public TraceContext capture() {
+        SpanStack stack = stackHolder.get();
+        TraceId traceId = stack.depth > 0 ? stack.traceIdAt(stack.depth - 1) : stack.parent;
+        if (traceId == null) {
+            releaseIfVirtual(stack);
+            return null;
+        }
+        return new TraceContext(traceId, clock.nanoTime());
+    }
+
+    /**
+     * 이미 span 이 열려 있는 스레드(예: CallerRunsPolicy 로 제출한 스레드에서 실행)에서는 지금 trace 를 그대로 이어감
+     */
+    @Override
+    public TraceId attach(TraceContext context) {
+        SpanStack stack = stackHolder.get();
+        if (stack.depth > 0) {
+            return stack.traceIdAt(stack.depth - 1);
+        }
+        TraceId previous = stack.parent;
+        stack.attach(context.getTraceId());
+        return previous;
+    }
+
+    @Override
+    public void detach(TraceId previous) {
+        SpanStack stack = stackHolder.get();
+        if (stack.depth == 0) {
+            stack.attach(previous);
+            if (previous == null) {
+                releaseIfVirtual(stack);
+            }
+        }
+    }
+
+    @Override
+    public void record(String message, long startTimeNanos, Exception e) {
+        int handle = push(null, message);
+        if (handle != NO_SPAN) {
+            stacks[handle >>> DEPTH_BITS].startNanos[handle & DEPTH_MASK] = startTimeNanos;
+            complete(handle, e);
+        }
+    }
+
+    /**
+     * MAX_DEPTH 보다 깊으면 기록하지 않고 NO_SPAN 반환
+     */
+    private int push(TraceSite site, String message) {
+        SpanStack stack = stackHolder.get();
+        int d = stack.depth;
+        if (d == stack.capacity()) {
+            if (d == MAX_DEPTH) {
+                return NO_SPAN;
+            }
+            stack.grow(MAX_DEPTH);
+        }
+        if (d == 0 && stack.parent == null) {
+            boolean wide = idGenerator.isWide();
+            long highId = wide ? idGenerator.nextHighId() : 0L;
+            long lowId = idGenerator.nextId();
+            stack.startTrace(highId, lowId, wide, sampler == null || sampler.isSampled(lowId));
+        }
+        stack.sites[d] = site;
+        stack.messages[d] = message;
+        stack.depth = d + 1;
+        if (stack.sampled) {
+            sink.begin(stack.traceIdAt(d), message);
+        }
+        stack.startNanos[d] = clock.nanoTime();
+        return (stack.index << DEPTH_BITS) | d;
+    }
+
+    private void complete(int handle, Exception e) {
+        if (handle == NO_SPAN) {
+            return;
+        }
+        long endNanos = clock.nanoTime();
+        SpanStack stack = stacks[handle >>> DEPTH_BITS];
+        int d = handle & DEPTH_MASK;
+        long resultTimeNanos = endNanos - stack.startNanos[d];
+        if (!stack.sampled && e != null && forceSampleOnError) {
+            stack.forceSampled(); // 남은 상위 레벨도 종료 로그를 남김
+        }
+        if (stack.sampled) {
+            sink.complete(stack.traceIdAt(d), stack.messages[d], resultTimeNanos, e);
+        }
+        if (latencyHistograms != null) {
+            TraceSite site = stack.sites[d];
+            if (site != null) {
+                latencyHistograms.record(site, resultTimeNanos);
+            } else {
+                latencyHistograms.record(stack.messages[d], resultTimeNanos);
+            }
+        }
+        stack.depth = d; // 안쪽에서 닫히지 않은 span 이 있으면 같이 정리
+        if (d == 0 && stack.parent == null) {
+            releaseIfVirtual(stack);
+        }
+    }
+
+    /**
+     * 소유 스레드에서만 호출. 열린 span 도 이어받은 trace 도 없을 때
+     */
+    private void releaseIfVirtual(SpanStack stack) {
+        if (VirtualThreads.isVirtual(Thread.currentThread())) {
+            stackHolder.remove();
+            stack.release();
+            released.offer(stack);
+        }
+    }
+
+    /**
+     * 지금까지 만든 스택 수 (동시에 trace 중이던 스레드 수의 최댓값 근처)
+     */
+    int stackCount() {
+        return stacks.length;
+    }
+
+    private TraceStatus toStatus(int handle, String message, TraceSite site) {
+        if (handle == NO_SPAN) {
+            return new TraceStatus(null, 0L, message, site, NO_SPAN);
+        }
+        SpanStack stack = stacks[handle >>> DEPTH_BITS];
+        int d = handle & DEPTH_MASK;
+        return new TraceStatus(stack.traceIdAt(d), stack.startNanos[d], message, site, handle);
+    }
+
+    /**
+     * 스레드가 처음 trace 를 시작할 때 한 번 (가상 스레드는 trace 마다). 반납됐거나 종료된 스레드의 스택이 있으면 재사용
+     */
+    private SpanStack register() {
+        Thread current = Thread.currentThread();
+        SpanStack stack = released.poll();
+        if (stack != null) {
+            stack.reset(current);
+            return stack;
+        }
+        return registerNew(current);
+    }
+
+    private synchronized SpanStack registerNew(Thread current) {
+        SpanStack[] table = stacks;
+        for (SpanStack stack : table) {
+            if (stack.claimIfOwnerDead(current)) {
+                return stack;
+            }
+        }
+        if (table.length == MAX_STACKS) {
+            throw new IllegalStateException("trace 스택 개수 초과: " + MAX_STACKS);
+        }
+        SpanStack stack = new SpanStack(table.length, current, INITIAL_DEPTH);
+        SpanStack[] copy = Arrays.copyOf(table, table.length + 1);
+        copy[table.length] = stack;
+        stacks = copy;
+        return stack;
+    }
+}
@@ -0,0 +1,194 @@
+package hello.proxy.trace.logtrace;
+
+import hello.proxy.trace.TraceId;
+import hello.proxy.trace.TraceStatus;
+import hello.proxy.trace.clock.SystemTraceClock;
+import hello.proxy.trace.clock.TraceClock;
+import hello.proxy.trace.id.TraceIdGenerator;
+import hello.proxy.trace.id.XorShiftTraceIdGenerator;
+import hello.proxy.trace.sink.TraceSink;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * tail 기반 샘플링
+ * trace 의 begin/end 이벤트를 루트가 끝날 때까지 스레드별 버퍼(SpanArena)에 원본 값으로만 쌓아두고
+ * 루트가 slowThreshold 이상 걸렸거나 어느 span 에서든 예외가 났으면 트리 전체를 sink 로 내보냄
+ * 나머지는 문자열 한 번 만들지 않고 버림
+ *
+ * 버퍼는 스레드마다 하나를 계속 재사용. 크기를 넘는 이벤트는 버리고 overflow 카운트만 증가
+ */
+@Slf4j
+public class TailSamplingLogTrace implements LogTrace {
+
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private final TraceSink sink;
+    private final long slowThresholdNanos;
+    private final int capacity;
+    private final ThreadLocal<SpanArena> arenaHolder;
+    private TraceIdGenerator idGenerator = new XorShiftTraceIdGenerator();
+    private TraceClock clock = new SystemTraceClock();
+
+    private final LongAdder emittedTraces = new LongAdder();
+    private final LongAdder discardedTraces = new LongAdder();
+    private final LongAdder overflowedTraces = new LongAdder();
+    private final LongAdder overflowedEvents = new LongAdder();
+
+    public TailSamplingLogTrace(TraceSink sink, long slowThreshold, TimeUnit unit) {
+        this(sink, slowThreshold, unit, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity 진행 중인 trace 하나가 버퍼링할 수 있는 최대 이벤트 수 (begin, end 각각 1개)
+     */
+    public TailSamplingLogTrace(TraceSink sink, long slowThreshold, TimeUnit unit, int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity 는 2 이상이어야 함: " + capacity);
+        }
+        this.sink = sink;
+        this.slowThresholdNanos = unit.toNanos(slowThreshold);
+        this.capacity = capacity;
+        this.arenaHolder = ThreadLocal.withInitial(() -> new SpanArena(this.capacity));
+    }
+
+    public void setIdGenerator(TraceIdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+
+    public void setClock(TraceClock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public TraceStatus begin(String message) {
+        SpanArena arena = arenaHolder.get();
+        TraceId traceId = arena.current == null ? new TraceId(idGenerator) : arena.current.createNextId();
+        arena.current = traceId;
+        long startTimeNanos = clock.nanoTime();
+        arena.add(traceId, message, 0L, null, false);
+
+        return new TraceStatus(traceId, startTimeNanos, message);
+    }
+
+    @Override
+    public void end(TraceStatus status) {
+        complete(status, null);
+    }
+
+    @Override
+    public void exception(TraceStatus status, Exception e) {
+        complete(status, e);
+    }
+
+    private void complete(TraceStatus status, Exception e) {
+        long resultTimeNanos = clock.nanoTime() - status.getStartTimeNanos();
+        SpanArena arena = arenaHolder.get();
+        TraceId traceId = status.getTraceId();
+        arena.add(traceId, status.getMessage(), resultTimeNanos, e, true);
+
+        if (!traceId.isFirstLevel()) {
+            arena.current = traceId.createPreviousId();
+            return;
+        }
+
+        // 루트 종료: 내보낼지 결정
+        if (arena.failed || resultTimeNanos >= slowThresholdNanos) {
+            emit(arena);
+            emittedTraces.increment();
+        } else {
+            discardedTraces.increment();
+        }
+        if (arena.overflowed > 0) {
+            overflowedTraces.increment();
+            overflowedEvents.add(arena.overflowed);
+        }
+        arena.reset();
+    }
+
+    private void emit(SpanArena arena) {
+        for (int i = 0; i < arena.size; i++) {
+            if (arena.completes[i]) {
+                sink.complete(arena.traceIds[i], arena.messages[i], arena.resultTimeNanos[i], arena.exceptions[i]);
+            } else {
+                sink.begin(arena.traceIds[i], arena.messages[i]);
+            }
+        }
+        if (arena.overflowed > 0) {
+            log.warn("[{}] trace 버퍼 초과로 이벤트 {}개 생략됨 (capacity={})",
+                    arena.traceIds[0].getId(), arena.overflowed, capacity);
+        }
+    }
+
+    public long getEmittedTraceCount() {
+        return emittedTraces.sum();
+    }
+
+    public long getDiscardedTraceCount() {
+        return discardedTraces.sum();
+    }
+
+    public long getOverflowedTraceCount() {
+        return overflowedTraces.sum();
+    }
+
+    public long getOverflowedEventCount() {
+        return overflowedEvents.sum();
+    }
+
+    /**
+     * 스레드 하나가 진행 중인 trace 의 이벤트 버퍼. 배열은 처음 한 번만 만들고 계속 재사용
+     */
+    private static final class SpanArena {
+
+        final TraceId[] traceIds;
+        final String[] messages;
+        final long[] resultTimeNanos;
+        final Exception[] exceptions;
+        final boolean[] completes;
+        int size;
+        int overflowed;
+        boolean failed;
+        TraceId current;
+
+        SpanArena(int capacity) {
+            traceIds = new TraceId[capacity];
+            messages = new String[capacity];
+            resultTimeNanos = new long[capacity];
+            exceptions = new Exception[capacity];
+            completes = new boolean[capacity];
+        }
+
+        void add(TraceId traceId, String message, long resultTime, Exception e, boolean complete) {
+            if (e != null) {
+                failed = true;
+            }
+            // 루트 종료 이벤트는 항상 남기도록 마지막 한 칸은 루트 종료용으로 비워둠
+            boolean rootComplete = complete && traceId.isFirstLevel();
+            if (size >= traceIds.length - 1 && !(rootComplete && size < traceIds.length)) {
+                overflowed++;
+                return;
+            }
+            traceIds[size] = traceId;
+            messages[size] = message;
+            resultTimeNanos[size] = resultTime;
+            exceptions[size] = e;
+            completes[size] = complete;
+            size++;
+        }
+
+        void reset() {
+            // 다음 trace 가 이전 객체를 붙잡고 있지 않도록 참조 정리
+            for (int i = 0; i < size; i++) {
+                traceIds[i] = null;
+                messages[i] = null;
+                exceptions[i] = null;
+            }
+            size = 0;
+            overflowed = 0;
+            failed = false;
+            current = null;
+        }
+    }
+}
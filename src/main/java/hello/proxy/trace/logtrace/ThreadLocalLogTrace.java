@@ -1,26 +1,86 @@
 package hello.proxy.trace.logtrace;
 
+import hello.proxy.metrics.LatencyHistograms;
+import hello.proxy.trace.TraceContext;
 import hello.proxy.trace.TraceId;
 import hello.proxy.trace.TraceStatus;
-import lombok.extern.slf4j.Slf4j;
+import hello.proxy.trace.clock.SystemTraceClock;
+import hello.proxy.trace.clock.TraceClock;
+import hello.proxy.trace.id.TraceIdGenerator;
+import hello.proxy.trace.id.XorShiftTraceIdGenerator;
+import hello.proxy.trace.sampling.TraceSampler;
+import hello.proxy.trace.site.TraceSite;
+import hello.proxy.trace.sink.Slf4jTraceSink;
+import hello.proxy.trace.sink.TraceSink;
 
-@Slf4j
 public class ThreadLocalLogTrace implements LogTrace {
 
-    private static final String START_PREFIX = "-->";
-    private static final String COMPLETE_PREFIX = "<--";
-    private static final String EX_PREFIX = "<X-";
-
     private ThreadLocal<TraceId> traceIdHolder = new ThreadLocal<>();
+    private TraceIdGenerator idGenerator = new XorShiftTraceIdGenerator();
+    private final TraceSink sink;
+    private TraceClock clock = new SystemTraceClock();
+    private LatencyHistograms latencyHistograms;
+    private TraceSampler sampler;
+    private boolean forceSampleOnError = true;
+
+    public ThreadLocalLogTrace() {
+        this(new Slf4jTraceSink());
+    }
+
+    public ThreadLocalLogTrace(TraceSink sink) {
+        this.sink = sink;
+    }
+
+    public void setIdGenerator(TraceIdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+
+    public void setClock(TraceClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * 설정하면 end/exception 시 span 이름별 히스토그램에도 소요 시간 기록
+     */
+    public void setLatencyHistograms(LatencyHistograms latencyHistograms) {
+        this.latencyHistograms = latencyHistograms;
+    }
+
+    /**
+     * 루트에서 샘플링 여부 결정. 샘플링되지 않은 trace 는 sink 로 아무것도 보내지 않음 (메시지 포맷팅도 없음)
+     * 설정하지 않으면 모두 기록
+     */
+    public void setSampler(TraceSampler sampler) {
+        this.sampler = sampler;
+    }
+
+    /**
+     * true(기본값)면 샘플링되지 않은 trace 라도 예외가 나면 그 지점부터 샘플링으로 전환
+     * begin 로그는 이미 지나갔으므로 예외 span 부터 루트까지의 종료 로그가 남음
+     */
+    public void setForceSampleOnError(boolean forceSampleOnError) {
+        this.forceSampleOnError = forceSampleOnError;
+    }
 
     @Override
     public TraceStatus begin(String message) {
+        TraceId traceId = beginTrace(message);
+        return new TraceStatus(traceId, clock.nanoTime(), message);
+    }
+
+    @Override
+    public TraceStatus begin(TraceSite site) {
+        TraceId traceId = beginTrace(site.getMessage());
+        return new TraceStatus(traceId, clock.nanoTime(), site);
+    }
+
+    private TraceId beginTrace(String message) {
         syncTraceId();
         TraceId traceId = traceIdHolder.get();
-        Long startTimeMs = System.currentTimeMillis();
-        log.info("[{}] {}{}", traceId.getId(), addSpace(START_PREFIX, traceId.getLevel()), message);
-
-        return new TraceStatus(traceId, startTimeMs, message);
+        if (traceId.isSampled()) {
+            sink.begin(traceId, message);
+        }
+        return traceId;
     }
 
     @Override
@@ -33,14 +93,53 @@ public class ThreadLocalLogTrace implements LogTrace {
         complete(status, e);
     }
 
+    @Override
+    public TraceContext capture() {
+        TraceId traceId = traceIdHolder.get();
+        return traceId == null ? null : new TraceContext(traceId, clock.nanoTime());
+    }
+
+    @Override
+    public TraceId attach(TraceContext context) {
+        TraceId previous = traceIdHolder.get();
+        traceIdHolder.set(context.getTraceId());
+        return previous;
+    }
+
+    @Override
+    public void detach(TraceId previous) {
+        if (previous == null) {
+            traceIdHolder.remove();
+        } else {
+            traceIdHolder.set(previous);
+        }
+    }
+
+    @Override
+    public void record(String message, long startTimeNanos, Exception e) {
+        TraceId traceId = beginTrace(message);
+        complete(new TraceStatus(traceId, startTimeNanos, message), e);
+    }
+
     private void complete(TraceStatus status, Exception e) {
-        Long stopTimeMs = System.currentTimeMillis();
-        long resultTimeMs = stopTimeMs - status.getStartTimeMs();
+        long resultTimeNanos = clock.nanoTime() - status.getStartTimeNanos();
         TraceId traceId = status.getTraceId();
-        if (e == null) {
-            log.info("[{}] {}{} time={}ms", traceId.getId(), addSpace(COMPLETE_PREFIX, traceId.getLevel()), status.getMessage(), resultTimeMs);
-        } else {
-            log.info("[{}] {}{} time={}ms ex={}", traceId.getId(), addSpace(EX_PREFIX, traceId.getLevel()), status.getMessage(), resultTimeMs, e.toString());
+        TraceId current = traceIdHolder.get(); // 하위 레벨에서 강제 샘플링됐으면 여기에 반영돼 있음
+        boolean sampled = traceId.isSampled() || current.isSampled();
+        if (!sampled && e != null && forceSampleOnError) {
+            traceIdHolder.set(current.forceSampled()); // 상위 레벨로 전파
+            sampled = true;
+        }
+        if (sampled) {
+            sink.complete(traceId, status.getMessage(), resultTimeNanos, e);
+        }
+        if (latencyHistograms != null) {
+            TraceSite site = status.getSite();
+            if (site != null) {
+                latencyHistograms.record(site, resultTimeNanos);
+            } else {
+                latencyHistograms.record(status.getMessage(), resultTimeNanos);
+            }
         }
 
         releaseTraceId();
@@ -49,7 +148,7 @@ public class ThreadLocalLogTrace implements LogTrace {
     private void syncTraceId() {
         TraceId traceId = traceIdHolder.get();
         if (traceId == null) {
-            traceIdHolder.set(new TraceId());
+            traceIdHolder.set(new TraceId(idGenerator, sampler));
         } else {
             traceIdHolder.set(traceId.createNextId());
         }
@@ -63,12 +162,4 @@ public class ThreadLocalLogTrace implements LogTrace {
             traceIdHolder.set(traceId.createPreviousId());
         }
     }
-
-    private static String addSpace(String prefix, int level) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < level; i++) {
-            sb.append( (i == level - 1) ? "|" + prefix : "|   ");
-        }
-        return sb.toString();
-    }
 }
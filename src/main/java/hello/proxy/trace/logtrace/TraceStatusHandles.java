@@ -0,0 +1,46 @@
+package hello.proxy.trace.logtrace;
+
+import hello.proxy.thread.VirtualThreads;
+import hello.proxy.trace.TraceStatus;
+import java.util.Arrays;
+
+/**
+ * LogTrace 의 handle API 기본 구현용. TraceStatus 를 스레드별 배열에 쌓고 인덱스를 handle 로 사용
+ * 가상 스레드는 비면 바로 ThreadLocal 에서 제거 (스레드가 요청마다 새로 생기므로 남겨둬도 재사용되지 않음)
+ */
+final class TraceStatusHandles {
+
+    private static final ThreadLocal<TraceStatusHandles> HOLDER = ThreadLocal.withInitial(TraceStatusHandles::new);
+
+    private TraceStatus[] statuses = new TraceStatus[16];
+    private int size;
+
+    private TraceStatusHandles() {
+    }
+
+    static int push(TraceStatus status) {
+        TraceStatusHandles handles = HOLDER.get();
+        if (handles.size == handles.statuses.length) {
+            handles.statuses = Arrays.copyOf(handles.statuses, handles.size << 1);
+        }
+        handles.statuses[handles.size] = status;
+        return handles.size++;
+    }
+
+    /**
+     * handle 위쪽에 닫히지 않은 항목이 남아 있으면 같이 정리
+     */
+    static TraceStatus pop(int handle) {
+        if (handle < 0) {
+            return null;
+        }
+        TraceStatusHandles handles = HOLDER.get();
+        TraceStatus status = handles.statuses[handle];
+        Arrays.fill(handles.statuses, handle, handles.size, null);
+        handles.size = handle;
+        if (handle == 0 && VirtualThreads.isVirtual(Thread.currentThread())) {
+            HOLDER.remove();
+        }
+        return status;
+    }
+}
@@ -0,0 +1,38 @@
+package hello.proxy.trace.sampling;
+
+/**
+ * trace id 값으로 비율만큼 샘플링. 같은 id 는 항상 같은 결과
+ * 비율은 실행 중에 바꿀 수 있음 (이미 시작된 trace 에는 영향 없음)
+ */
+public class RateTraceSampler implements TraceSampler {
+
+    private volatile double rate;
+
+    public RateTraceSampler(double rate) {
+        setRate(rate);
+    }
+
+    @Override
+    public boolean isSampled(long traceId) {
+        double r = rate;
+        if (r >= 1.0) {
+            return true;
+        }
+        // 상위 53bit 를 [0, 1) 실수로 변환
+        return (traceId >>> 11) * 0x1.0p-53 < r;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * @param rate 0.0(모두 버림) ~ 1.0(모두 기록)
+     */
+    public void setRate(double rate) {
+        if (!(rate >= 0.0 && rate <= 1.0)) {
+            throw new IllegalArgumentException("rate 는 0.0 ~ 1.0 이어야 함: " + rate);
+        }
+        this.rate = rate;
+    }
+}
@@ -0,0 +1,12 @@
+package hello.proxy.trace.sampling;
+
+/**
+ * 루트 span 에서 trace id 를 만들 때 한 번만 호출. 결과는 TraceId 에 담겨 하위 레벨까지 전달됨
+ */
+public interface TraceSampler {
+
+    /**
+     * @param traceId trace id 하위 64bit
+     */
+    boolean isSampled(long traceId);
+}
@@ -0,0 +1,31 @@
+package hello.proxy.trace.sampling;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 실행 중 샘플링 비율 조회/변경
+ * 컴포넌트 스캔 대상(hello.proxy.app)이 아니므로 @Bean 으로 직접 등록해야 함 (ProxyApplication 참고)
+ */
+@RestController
+public class TraceSamplingController {
+
+    private final RateTraceSampler sampler;
+
+    public TraceSamplingController(RateTraceSampler sampler) {
+        this.sampler = sampler;
+    }
+
+    @GetMapping("/trace/sampling")
+    public double rate() {
+        return sampler.getRate();
+    }
+
+    @PutMapping("/trace/sampling")
+    public double changeRate(@RequestParam("rate") double rate) {
+        sampler.setRate(rate);
+        return sampler.getRate();
+    }
+}
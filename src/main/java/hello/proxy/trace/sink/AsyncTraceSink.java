@@ -0,0 +1,355 @@
+package hello.proxy.trace.sink;
+
+import hello.proxy.trace.TraceId;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 요청 스레드는 링 버퍼에 원본 이벤트만 넣고, 백그라운드 writer 스레드 하나가 꺼내서 delegate 로 기록
+ *
+ * 링 버퍼
+ *  - 슬롯(Event) 은 미리 만들어두고 재사용. 발행 시 객체 생성 없음
+ *  - 여러 producer 는 tail 을 CAS 로 선점, 슬롯별 sequence 로 발행/소비 완료를 알림 (락 없음)
+ *  - consumer 는 writer 스레드 하나뿐이라 head 는 일반 필드
+ *
+ * close() 는 tail 에 CLOSED_BIT 를 세워서 선점과 같은 CAS 로 닫음. 닫힌 뒤의 이벤트는 버리고 droppedCount 에 셈
+ * 닫기 전에 선점된 이벤트는 writer 가 모두 기록한 뒤 종료 (스프링 빈이면 컨테이너 종료 시 자동 호출)
+ *
+ * SAMPLE 정책의 혼잡 판단은 루트 begin 에서만 하고, 버리기로 한 trace 는 루트 complete 까지 나머지 이벤트도 모두 버림
+ * (이벤트마다 판단하면 혼잡이 시작/해소되는 순간 trace 의 앞이나 뒤만 남은 트리가 기록됨)
+ * 루트가 끝난 뒤에 다른 스레드에서 끝나는 비동기 span 은 기록될 수 있음
+ */
+@Slf4j
+public class AsyncTraceSink implements TraceSink, AutoCloseable {
+
+    private static final int TYPE_BEGIN = 0;
+    private static final int TYPE_COMPLETE = 1;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long CLOSED_BIT = 1L << 62;
+    private static final int SAMPLED_OUT_SLOTS = 1024;
+
+    private final TraceSink delegate;
+    private final OverflowPolicy overflowPolicy;
+    private final int sampleEvery;
+    // SAMPLE 정책에서 버리는 중인 trace
+    private final TraceKeySet sampledOut = new TraceKeySet(SAMPLED_OUT_SLOTS);
+
+    private final Event[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    // 다음 선점 위치 | CLOSED_BIT
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    private final LongAdder publishedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder sampledOutCount = new LongAdder();
+
+    private final Thread writer;
+
+    public AsyncTraceSink(TraceSink delegate, int capacity, OverflowPolicy overflowPolicy) {
+        this(delegate, capacity, overflowPolicy, 8);
+    }
+
+    /**
+     * @param capacity    2의 제곱수
+     * @param sampleEvery SAMPLE 정책에서 혼잡할 때 N 개의 trace 중 1개만 남김
+     */
+    public AsyncTraceSink(TraceSink delegate, int capacity, OverflowPolicy overflowPolicy, int sampleEvery) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity 는 2의 제곱수여야 함: " + capacity);
+        }
+        if (sampleEvery < 1) {
+            throw new IllegalArgumentException("sampleEvery 는 1 이상이어야 함: " + sampleEvery);
+        }
+        this.delegate = delegate;
+        this.overflowPolicy = overflowPolicy;
+        this.sampleEvery = sampleEvery;
+        this.slots = new Event[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Event();
+            sequences.set(i, i);
+        }
+
+        this.writer = new Thread(this::drainLoop, "trace-sink-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void begin(TraceId traceId, String message) {
+        publish(TYPE_BEGIN, traceId, message, 0L, null);
+    }
+
+    @Override
+    public void complete(TraceId traceId, String message, long resultTimeNanos, Exception e) {
+        publish(TYPE_COMPLETE, traceId, message, resultTimeNanos, e);
+    }
+
+    private void publish(int type, TraceId traceId, String message, long resultTimeNanos, Exception e) {
+        if (overflowPolicy == OverflowPolicy.SAMPLE && isSampledOut(type, traceId)) {
+            sampledOutCount.increment();
+            return;
+        }
+
+        long pos = claim();
+        if (pos < 0) {
+            droppedCount.increment();
+            return;
+        }
+
+        int index = (int) (pos & mask);
+        Event event = slots[index];
+        event.type = type;
+        event.traceId = traceId;
+        event.message = message;
+        event.resultTimeNanos = resultTimeNanos;
+        event.exception = e;
+        sequences.lazySet(index, pos + 1); // 발행
+        publishedCount.increment();
+    }
+
+    /**
+     * @return 선점한 위치, 가득 차서 버려야 하거나 닫혔으면 -1
+     */
+    private long claim() {
+        long pos = tail.get();
+        while (true) {
+            if ((pos & CLOSED_BIT) != 0) {
+                return -1;
+            }
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    return pos;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                // 가득 참: writer 가 아직 이 슬롯을 비우지 못함
+                if (overflowPolicy != OverflowPolicy.BLOCK) {
+                    return -1;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                pos = tail.get();
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    private boolean isCongested() {
+        return (tail.get() & ~CLOSED_BIT) - head >= slots.length - (slots.length >> 2);
+    }
+
+    private boolean isSampled(TraceId traceId) {
+        return Long.remainderUnsigned(traceId.getLowId(), sampleEvery) == 0;
+    }
+
+    /**
+     * 루트 begin 이 혼잡할 때 들어오면 그 trace 전체를 버림. 기억할 자리가 없으면 버리지 않음 (반쪽 트리보다 나음)
+     */
+    private boolean isSampledOut(int type, TraceId traceId) {
+        if (isSampled(traceId)) {
+            return false;
+        }
+        long key = TraceKeySet.key(traceId);
+        if (!traceId.isFirstLevel()) {
+            return sampledOut.contains(key);
+        }
+        if (type == TYPE_BEGIN) {
+            return isCongested() && sampledOut.add(key);
+        }
+        return sampledOut.remove(key);
+    }
+
+    /**
+     * 닫힌 뒤에는 닫기 전에 선점된 위치까지 모두 기록하고 종료 (선점 후 아직 발행 중인 슬롯은 기다림)
+     */
+    private void drainLoop() {
+        while (true) {
+            if (drain() == 0) {
+                long last = tail.get();
+                if ((last & CLOSED_BIT) != 0 && head == (last & ~CLOSED_BIT)) {
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * writer 스레드 전용
+     */
+    private int drain() {
+        int drained = 0;
+        long pos = head;
+        while (true) {
+            int index = (int) (pos & mask);
+            if (sequences.get(index) != pos + 1) {
+                break;
+            }
+            Event event = slots[index];
+            try {
+                deliver(event.type, event.traceId, event.message, event.resultTimeNanos, event.exception);
+            } catch (RuntimeException ex) {
+                log.warn("trace sink delegate 실패", ex);
+            }
+            event.clear();
+            sequences.lazySet(index, pos + slots.length); // 슬롯 반납
+            pos++;
+            head = pos;
+            drained++;
+        }
+        return drained;
+    }
+
+    private void deliver(int type, TraceId traceId, String message, long resultTimeNanos, Exception e) {
+        if (type == TYPE_BEGIN) {
+            delegate.begin(traceId, message);
+        } else {
+            delegate.complete(traceId, message, resultTimeNanos, e);
+        }
+    }
+
+    /**
+     * 지금까지 발행된 이벤트가 모두 기록될 때까지 대기
+     */
+    public void flush() {
+        long target = tail.get() & ~CLOSED_BIT;
+        while (head < target && writer.isAlive()) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    @Override
+    public void close() {
+        long last = tail.getAndUpdate(pos -> pos | CLOSED_BIT);
+        if ((last & CLOSED_BIT) != 0) {
+            return;
+        }
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!writer.isAlive()) {
+            // writer 종료 후 한 번 더. 정상 종료였다면 남은 것은 없음
+            drain();
+        }
+        log.info("trace sink closed. published={}, dropped={}, sampledOut={}",
+                getPublishedCount(), getDroppedCount(), getSampledOutCount());
+    }
+
+    public long getPublishedCount() {
+        return publishedCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    public long getSampledOutCount() {
+        return sampledOutCount.sum();
+    }
+
+    /**
+     * trace id 키의 고정 크기 집합 (open addressing, 락 없음). 탐색은 MAX_PROBE 칸까지만
+     * 지운 칸은 TOMBSTONE 으로 남겨서 뒤쪽 키의 탐색이 끊기지 않게 하고, add 때 재사용
+     */
+    private static final class TraceKeySet {
+
+        private static final long EMPTY = 0L;
+        private static final long TOMBSTONE = Long.MIN_VALUE;
+        private static final int MAX_PROBE = 16;
+
+        private final AtomicLongArray keys;
+        private final int mask;
+        private final AtomicInteger size = new AtomicInteger();
+
+        TraceKeySet(int capacity) {
+            this.keys = new AtomicLongArray(capacity);
+            this.mask = capacity - 1;
+        }
+
+        static long key(TraceId traceId) {
+            return traceId.getLowId() ^ traceId.getHighId() * 0x9E3779B97F4A7C15L;
+        }
+
+        /**
+         * @return 넣었으면 true. 자리가 없거나 표현할 수 없는 키면 false
+         */
+        boolean add(long key) {
+            if (key == EMPTY || key == TOMBSTONE) {
+                return false;
+            }
+            int start = index(key);
+            for (int i = 0; i < MAX_PROBE; i++) {
+                int index = (start + i) & mask;
+                long current = keys.get(index);
+                if ((current == EMPTY || current == TOMBSTONE) && keys.compareAndSet(index, current, key)) {
+                    size.incrementAndGet();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean contains(long key) {
+            return size.get() != 0 && find(key) >= 0;
+        }
+
+        boolean remove(long key) {
+            if (size.get() == 0) {
+                return false;
+            }
+            int index = find(key);
+            if (index >= 0 && keys.compareAndSet(index, key, TOMBSTONE)) {
+                size.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        private int find(long key) {
+            int start = index(key);
+            for (int i = 0; i < MAX_PROBE; i++) {
+                int index = (start + i) & mask;
+                long current = keys.get(index);
+                if (current == key) {
+                    return index;
+                }
+                if (current == EMPTY) {
+                    return -1;
+                }
+            }
+            return -1;
+        }
+
+        private int index(long key) {
+            return (int) (key ^ (key >>> 32)) & mask;
+        }
+    }
+
+    private static final class Event {
+
+        int type;
+        TraceId traceId;
+        String message;
+        long resultTimeNanos;
+        Exception exception;
+
+        void clear() {
+            traceId = null;
+            message = null;
+            exception = null;
+        }
+    }
+}
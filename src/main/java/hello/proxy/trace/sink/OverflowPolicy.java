@@ -0,0 +1,24 @@
+package hello.proxy.trace.sink;
+
+/**
+ * AsyncTraceSink 의 링 버퍼가 가득 찼을 때 동작
+ */
+public enum OverflowPolicy {
+
+    /**
+     * 이벤트를 버리고 dropped 카운트 증가. 요청 스레드는 절대 기다리지 않음
+     */
+    DROP,
+
+    /**
+     * 루트 begin 때 버퍼가 3/4 이상 차 있으면 trace id 기준으로 일부 trace 만 남김
+     * 버리기로 한 trace 는 루트 complete 까지 모두 버리므로 트리가 중간에 끊기지 않음
+     * 그래도 가득 차면 DROP 과 동일
+     */
+    SAMPLE,
+
+    /**
+     * 빈 슬롯이 생길 때까지 요청 스레드가 대기. 이벤트 유실 없음
+     */
+    BLOCK
+}
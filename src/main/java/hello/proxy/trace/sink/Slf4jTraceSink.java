@@ -0,0 +1,39 @@
+package hello.proxy.trace.sink;
+
+import hello.proxy.trace.TraceId;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 호출 스레드에서 바로 SLF4J 로 기록하는 sink (기존 LogTrace 동작)
+ */
+@Slf4j
+public class Slf4jTraceSink implements TraceSink {
+
+    public static final String START_PREFIX = "-->";
+    public static final String COMPLETE_PREFIX = "<--";
+    public static final String EX_PREFIX = "<X-";
+
+    @Override
+    public void begin(TraceId traceId, String message) {
+        log.info("[{}] {}{}", traceId.getId(), addSpace(START_PREFIX, traceId.getLevel()), message);
+    }
+
+    @Override
+    public void complete(TraceId traceId, String message, long resultTimeNanos, Exception e) {
+        long resultTimeMs = TimeUnit.NANOSECONDS.toMillis(resultTimeNanos);
+        if (e == null) {
+            log.info("[{}] {}{} time={}ms", traceId.getId(), addSpace(COMPLETE_PREFIX, traceId.getLevel()), message, resultTimeMs);
+        } else {
+            log.info("[{}] {}{} time={}ms ex={}", traceId.getId(), addSpace(EX_PREFIX, traceId.getLevel()), message, resultTimeMs, e.toString());
+        }
+    }
+
+    public static String addSpace(String prefix, int level) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < level; i++) {
+            sb.append( (i == level - 1) ? "|" + prefix : "|   ");
+        }
+        return sb.toString();
+    }
+}
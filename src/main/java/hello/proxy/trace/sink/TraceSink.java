@@ -0,0 +1,18 @@
+package hello.proxy.trace.sink;
+
+import hello.proxy.trace.TraceId;
+
+/**
+ * LogTrace 가 만든 span 이벤트를 받아서 실제로 기록하는 곳
+ * LogTrace 는 문자열을 만들지 않고 원본 값만 넘김. 포맷팅은 sink 가 담당
+ */
+public interface TraceSink {
+
+    void begin(TraceId traceId, String message);
+
+    /**
+     * @param resultTimeNanos span 소요 시간 (나노초)
+     * @param e               정상 종료면 null
+     */
+    void complete(TraceId traceId, String message, long resultTimeNanos, Exception e);
+}
@@ -0,0 +1,65 @@
+package hello.proxy.trace.site;
+
+/**
+ * 메서드 하나에 대한 trace 정보. TraceSites 에서 메서드마다 한 번만 만들고 재사용
+ * 호출 경로에서 메시지 문자열을 다시 만들지 않기 위해 사용
+ */
+public final class TraceSite {
+
+    /**
+     * 반환 타입이 void
+     */
+    public static final int FLAG_VOID_RETURN = 1;
+
+    /**
+     * Object 에 선언된 메서드 (equals, hashCode, toString 등)
+     */
+    public static final int FLAG_OBJECT_METHOD = 1 << 1;
+
+    /**
+     * 반환 타입이 CompletionStage (CompletableFuture 등)
+     */
+    public static final int FLAG_ASYNC_RETURN = 1 << 2;
+
+    private final int id;
+    private final String message;
+    private final int flags;
+    private final String asyncMessage;
+
+    TraceSite(int id, String message, int flags) {
+        this.id = id;
+        this.message = message;
+        this.flags = flags;
+        this.asyncMessage = (flags & FLAG_ASYNC_RETURN) != 0 ? (message + ".async()").intern() : null;
+    }
+
+    /**
+     * 0 부터 시작하는 조밀한 번호. 배열 인덱스로 사용 가능
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * intern 된 span 메시지 (예: OrderService.orderItem())
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * 비동기 구간 span 메시지 (예: OrderServiceV4.orderItem().async()). FLAG_ASYNC_RETURN 이 아니면 null
+     */
+    public String getAsyncMessage() {
+        return asyncMessage;
+    }
+
+    public boolean hasFlag(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    @Override
+    public String toString() {
+        return message;
+    }
+}
@@ -0,0 +1,75 @@
+package hello.proxy.trace.site;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Method -> TraceSite 전역 저장소
+ * 모든 프록시 방식(JDK 동적 프록시, CGLIB, ProxyFactory advice, @Aspect)이 같은 저장소를 사용하므로
+ * 같은 메서드는 어느 경로로 들어와도 같은 id 를 가짐
+ *
+ * 메시지 형식이 두 가지라서 저장소도 두 개
+ *  - of(): "OrderService.orderItem()" (InvocationHandler, MethodInterceptor 들이 쓰던 형식)
+ *  - ofShortString(): "OrderServiceV3.orderItem(..)" (@Aspect 의 Signature.toShortString() 형식)
+ */
+public final class TraceSites {
+
+    private static final ConcurrentHashMap<Method, TraceSite> SITES = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Method, TraceSite> SHORT_STRING_SITES = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    private TraceSites() {
+    }
+
+    public static TraceSite of(Method method) {
+        TraceSite site = SITES.get(method);
+        if (site == null) {
+            site = SITES.computeIfAbsent(method,
+                    m -> create(m, m.getDeclaringClass().getSimpleName() + "." + m.getName() + "()"));
+        }
+        return site;
+    }
+
+    /**
+     * 컴파일 시점에 생성된 프록시(@TraceProxy)가 static 초기화에서 사용. 런타임 프록시와 같은 Method 를 찾아 같은 site 를 공유
+     */
+    public static TraceSite of(Class<?> type, String methodName, Class<?>... parameterTypes) {
+        try {
+            return of(type.getMethod(methodName, parameterTypes));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("trace 대상 메서드를 찾을 수 없음: " + type.getName() + "." + methodName, e);
+        }
+    }
+
+    public static TraceSite ofShortString(Method method) {
+        TraceSite site = SHORT_STRING_SITES.get(method);
+        if (site == null) {
+            site = SHORT_STRING_SITES.computeIfAbsent(method,
+                    m -> create(m, m.getDeclaringClass().getSimpleName() + "." + m.getName() + "(..)"));
+        }
+        return site;
+    }
+
+    /**
+     * 지금까지 발급된 id 개수 (id 는 0 ~ count-1)
+     */
+    public static int count() {
+        return NEXT_ID.get();
+    }
+
+    private static TraceSite create(Method method, String message) {
+        int flags = 0;
+        if (method.getReturnType() == void.class) {
+            flags |= TraceSite.FLAG_VOID_RETURN;
+        }
+        if (method.getDeclaringClass() == Object.class) {
+            flags |= TraceSite.FLAG_OBJECT_METHOD;
+        }
+        if (CompletionStage.class.isAssignableFrom(method.getReturnType())) {
+            flags |= TraceSite.FLAG_ASYNC_RETURN;
+        }
+        return new TraceSite(NEXT_ID.getAndIncrement(), message.intern(), flags);
+    }
+}
@@ -0,0 +1,74 @@
+package hello.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import hello.proxy.app.v4.OrderRepositoryV4;
+import hello.proxy.hedge.HedgingMetrics;
+import hello.proxy.limit.ConcurrencyLimitMetrics;
+import hello.proxy.timer.HashedTimerWheel;
+import hello.proxy.trace.logtrace.NoOpLogTrace;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+
+/**
+ * ProxyApplication 의 advisor 빈을 그대로 만들어서 자동 프록시 생성기처럼 order 순으로 적용
+ */
+public class ProxyApplicationAdvisorTest {
+
+  private final ProxyApplication application = new ProxyApplication();
+  private final HashedTimerWheel timerWheel = new HashedTimerWheel(10, TimeUnit.MILLISECONDS, 64);
+  // 저장소의 1초 지연이 3초 제한 시간 안에 끝나지 않도록 tick 이 긴 타이머
+  private final HashedTimerWheel slowTimerWheel = new HashedTimerWheel(1, TimeUnit.MINUTES, 8);
+  private final ConcurrencyLimitMetrics limitMetrics = new ConcurrencyLimitMetrics();
+
+  @AfterEach
+  void close() {
+    application.destroy();
+    timerWheel.close();
+    slowTimerWheel.close();
+  }
+
+  @Test
+  @DisplayName("@Timeout 초과는 동시 실행 제한에 과부하(dropped)로 계산되고 허가는 반납")
+  void timeoutIsDropped() {
+    OrderRepositoryV4 repository = proxy(new OrderRepositoryV4(slowTimerWheel));
+
+    // OrderRepositoryV4.save 는 @Timeout(3000)
+    CompletableFuture<Void> result = repository.save("itemA");
+
+    assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(TimeoutException.class);
+    assertThat(export())
+        .contains("concurrency_dropped_total{limiter=\"OrderRepository.save()\"} 1")
+        .contains("concurrency_in_flight{limiter=\"OrderRepository.save()\"} 0");
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T proxy(T target) {
+    List<Advisor> advisors = new ArrayList<>(List.of(
+        application.hedgingAdvisor(timerWheel, new NoOpLogTrace(), new HedgingMetrics()),
+        application.repositoryConcurrencyLimitAdvisor(limitMetrics)));
+    AnnotationAwareOrderComparator.sort(advisors);
+    ProxyFactory proxyFactory = new ProxyFactory(target);
+    advisors.forEach(proxyFactory::addAdvisor);
+    return (T) proxyFactory.getProxy();
+  }
+
+  private String export() {
+    StringBuilder out = new StringBuilder();
+    limitMetrics.export(out);
+    return out.toString();
+  }
+}
@@ -0,0 +1,327 @@
+package hello.proxy.batch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import hello.proxy.trace.TraceId;
+import hello.proxy.trace.TraceStatus;
+import hello.proxy.trace.logtrace.ThreadLocalLogTrace;
+import hello.proxy.trace.sink.TraceSink;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.ProxyMethodInvocation;
+
+public class BatchingAdviceTest {
+
+  private final BatchMetrics batchMetrics = new BatchMetrics();
+  private final BatchingAdvice advice = new BatchingAdvice(batchMetrics);
+  private final ItemRepository repository = new ItemRepository();
+  private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("linger 안에 들어온 동시 호출은 배치 메서드 한 번으로 실행하고 각자 자기 결과를 받음")
+  void batch() throws Exception {
+    List<Future<Object>> results = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      String itemId = "item" + i;
+      results.add(executor.submit(() -> call("save", itemId)));
+    }
+
+    for (int i = 0; i < 4; i++) {
+      assertThat(results.get(i).get(1, TimeUnit.SECONDS)).isEqualTo("saved:item" + i);
+    }
+    assertThat(repository.batches).hasSize(1);
+    assertThat(repository.batches.get(0)).containsExactlyInAnyOrder("item0", "item1", "item2", "item3");
+  }
+
+  @Test
+  @DisplayName("프록시로 들어온 호출의 배치 메서드는 대상이 아니라 프록시로 호출해서 같은 advice 를 거침")
+  void batchThroughProxy() throws Exception {
+    List<List<String>> proxiedBatches = new CopyOnWriteArrayList<>();
+    // advice 가 적용된 프록시 역할. 배치 메서드 호출을 기록하고 대상에 위임
+    ItemRepository proxy = new ItemRepository() {
+      @Override
+      public BatchResult<String> saveAll(List<String> itemIds) {
+        proxiedBatches.add(new ArrayList<>(itemIds));
+        return repository.saveAll(itemIds);
+      }
+    };
+
+    List<Future<Object>> results = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      String itemId = "item" + i;
+      results.add(executor.submit(() -> call("save", itemId, proxy)));
+    }
+    for (int i = 0; i < 3; i++) {
+      assertThat(results.get(i).get(1, TimeUnit.SECONDS)).isEqualTo("saved:item" + i);
+    }
+    assertThat(proxiedBatches).hasSize(1);
+    assertThat(proxiedBatches.get(0)).containsExactlyInAnyOrder("item0", "item1", "item2");
+    assertThat(repository.batches).isEqualTo(proxiedBatches);
+  }
+
+  @Test
+  @DisplayName("배치 안에서 실패한 항목의 호출자만 예외를 받음")
+  void partialFailure() throws Exception {
+    Future<Object> ok = executor.submit(() -> call("save", "itemA"));
+    Future<Object> failed = executor.submit(() -> call("save", "ex"));
+
+    assertThat(ok.get(1, TimeUnit.SECONDS)).isEqualTo("saved:itemA");
+    assertThatThrownBy(() -> failed.get(1, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  @DisplayName("maxBatchSize 가 차면 linger 를 기다리지 않고 바로 실행")
+  void flushWhenFull() throws Exception {
+    List<Future<Object>> results = new ArrayList<>();
+    long start = System.nanoTime();
+    for (int i = 0; i < 6; i++) {
+      String itemId = "item" + i;
+      results.add(executor.submit(() -> call("saveSmallBatch", itemId)));
+    }
+    for (Future<Object> result : results) {
+      result.get(1, TimeUnit.SECONDS);
+    }
+
+    // linger 는 10초라서 크기로만 닫혀야 끝남
+    assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(5));
+    assertThat(repository.batches).hasSize(2);
+    for (List<String> batch : repository.batches) {
+      assertThat(batch).hasSize(3);
+    }
+  }
+
+  @Test
+  @DisplayName("혼자 들어온 호출은 원래 메서드를 실행하고 배치 크기 분포를 내보냄")
+  void single() throws Throwable {
+    assertThat(call("save", "itemA")).isEqualTo("single:itemA");
+    assertThat(repository.batches).isEmpty();
+
+    StringBuilder out = new StringBuilder();
+    batchMetrics.export(out);
+    assertThat(out.toString())
+        .contains("batch_size_count{method=\"ItemRepository.save()\"} 1")
+        .contains("batch_size_max{method=\"ItemRepository.save()\"} 1");
+  }
+
+  @Test
+  @DisplayName("follower 의 trace 에는 배치 대기 구간을 span 으로 기록하고, 배치 메서드를 실행한 leader 에는 남기지 않음")
+  void followerSpans() throws Exception {
+    RecordingSink sink = new RecordingSink();
+    ThreadLocalLogTrace trace = new ThreadLocalLogTrace(sink);
+    BatchingAdvice tracedAdvice = new BatchingAdvice(batchMetrics, trace);
+    Method method = ItemRepository.class.getMethod("save", String.class);
+
+    List<Future<String>> traceIds = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      Object[] args = {"item" + i};
+      traceIds.add(executor.submit(() -> {
+        TraceStatus root = trace.begin("request");
+        try {
+          tracedAdvice.invoke(new Invocation(repository, method, args));
+        } catch (Throwable e) {
+          throw new IllegalStateException(e);
+        }
+        trace.end(root);
+        return root.getTraceId().getId();
+      }));
+    }
+    List<String> ids = new ArrayList<>();
+    for (Future<String> traceId : traceIds) {
+      ids.add(traceId.get(1, TimeUnit.SECONDS));
+    }
+
+    assertThat(repository.batches).hasSize(1);
+    List<String> batchSpans = new ArrayList<>();
+    for (String line : sink.lines) {
+      if (line.startsWith("<--ItemRepository.save().batch() 1 ")) {
+        batchSpans.add(line.substring(line.lastIndexOf(' ') + 1));
+      }
+    }
+    // leader 를 뺀 두 요청의 trace 에 하나씩
+    assertThat(batchSpans).hasSize(2).doesNotHaveDuplicates();
+    assertThat(ids).containsAll(batchSpans);
+  }
+
+  @Test
+  @DisplayName("@Batched 가 없는 메서드는 그대로 실행")
+  void notBatched() throws Throwable {
+    assertThat(call("find", "itemA")).isEqualTo("found:itemA");
+    assertThat(repository.finds.get()).isEqualTo(1);
+  }
+
+  private Object call(String methodName, String itemId) throws Exception {
+    return call(methodName, itemId, null);
+  }
+
+  /**
+   * proxy 가 있으면 스프링 프록시처럼 ProxyMethodInvocation 으로 호출
+   */
+  private Object call(String methodName, String itemId, Object proxy) throws Exception {
+    Method method = ItemRepository.class.getMethod(methodName, String.class);
+    Object[] args = {itemId};
+    Invocation invocation = proxy == null ? new Invocation(repository, method, args)
+        : new ProxyInvocation(repository, method, args, proxy);
+    try {
+      return advice.invoke(invocation);
+    } catch (Exception e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  static class Invocation implements MethodInvocation {
+
+    private final Object target;
+    private final Method method;
+    private final Object[] args;
+
+    Invocation(Object target, Method method, Object[] args) {
+      this.target = target;
+      this.method = method;
+      this.args = args;
+    }
+
+    @Override
+    public Method getMethod() {
+      return method;
+    }
+
+    @Override
+    public Object[] getArguments() {
+      return args;
+    }
+
+    @Override
+    public Object proceed() throws Throwable {
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+
+    @Override
+    public Object getThis() {
+      return target;
+    }
+
+    @Override
+    public AccessibleObject getStaticPart() {
+      return method;
+    }
+  }
+
+  static class ProxyInvocation extends Invocation implements ProxyMethodInvocation {
+
+    private final Object proxy;
+
+    ProxyInvocation(Object target, Method method, Object[] args, Object proxy) {
+      super(target, method, args);
+      this.proxy = proxy;
+    }
+
+    @Override
+    public Object getProxy() {
+      return proxy;
+    }
+
+    @Override
+    public MethodInvocation invocableClone() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public MethodInvocation invocableClone(Object... arguments) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setArguments(Object... arguments) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setUserAttribute(String key, Object value) {
+    }
+
+    @Override
+    public Object getUserAttribute(String key) {
+      return null;
+    }
+  }
+
+  static class RecordingSink implements TraceSink {
+
+    final List<String> lines = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void begin(TraceId traceId, String message) {
+      lines.add("-->" + message + " " + traceId.getLevel() + " " + traceId.getId());
+    }
+
+    @Override
+    public void complete(TraceId traceId, String message, long resultTimeNanos, Exception e) {
+      lines.add((e == null ? "<--" : "<X-") + message + " " + traceId.getLevel() + " " + traceId.getId());
+    }
+  }
+
+  public static class ItemRepository {
+
+    final List<List<String>> batches = new CopyOnWriteArrayList<>();
+    final AtomicInteger finds = new AtomicInteger();
+
+    @Batched(method = "saveAll", lingerMillis = 200)
+    public String save(String itemId) {
+      if (itemId.equals("ex")) {
+        throw new IllegalStateException("예외 발생!");
+      }
+      return "single:" + itemId;
+    }
+
+    @Batched(method = "saveAll", maxBatchSize = 3, lingerMillis = 10_000)
+    public String saveSmallBatch(String itemId) {
+      return "single:" + itemId;
+    }
+
+    public BatchResult<String> saveAll(List<String> itemIds) {
+      batches.add(new ArrayList<>(itemIds));
+      BatchResult<String> result = new BatchResult<>(itemIds.size());
+      for (int i = 0; i < itemIds.size(); i++) {
+        if (itemIds.get(i).equals("ex")) {
+          result.failure(i, new IllegalStateException("예외 발생!"));
+        } else {
+          result.success(i, "saved:" + itemIds.get(i));
+        }
+      }
+      return result;
+    }
+
+    public String find(String itemId) {
+      finds.incrementAndGet();
+      return "found:" + itemId;
+    }
+  }
+}
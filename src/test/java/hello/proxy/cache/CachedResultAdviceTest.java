@@ -0,0 +1,149 @@
+package hello.proxy.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class CachedResultAdviceTest {
+
+  private final CacheMetrics cacheMetrics = new CacheMetrics();
+  private final CachedResultAdvice advice = new CachedResultAdvice(cacheMetrics);
+  private final PriceServiceImpl target = new PriceServiceImpl();
+
+  @Test
+  @DisplayName("인자가 같으면 캐시된 결과, 다르면 새로 실행")
+  void cacheByArguments() throws Throwable {
+    assertThat(call("price", "itemA", 1)).isEqualTo("itemA:1");
+    assertThat(call("price", "itemA", 1)).isEqualTo("itemA:1");
+    assertThat(call("price", "itemA", 2)).isEqualTo("itemA:2");
+
+    assertThat(target.calls.get()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("구현 클래스 메서드에 붙은 @CachedResult 도 인식, 기본형 인자도 값으로 비교")
+  void annotationOnImplementation() throws Throwable {
+    assertThat(call("discount", 10L, 0.5)).isEqualTo(5.0);
+    assertThat(call("discount", 10L, 0.5)).isEqualTo(5.0);
+
+    assertThat(target.calls.get()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("@CachedResult 가 없는 메서드는 매번 실행")
+  void notCached() throws Throwable {
+    call("stock", "itemA");
+    call("stock", "itemA");
+
+    assertThat(target.calls.get()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("hit/miss 를 캐시 이름으로 내보냄")
+  void export() throws Throwable {
+    call("price", "itemA", 1);
+    call("price", "itemA", 1);
+
+    StringBuilder out = new StringBuilder();
+    cacheMetrics.export(out);
+    assertThat(out.toString())
+        .contains("cache_requests_total{cache=\"prices\",result=\"hit\"} 1")
+        .contains("cache_requests_total{cache=\"prices\",result=\"miss\"} 1")
+        .contains("cache_size{cache=\"prices\"} 1");
+  }
+
+  @Test
+  @DisplayName("기본형만 있는 인자, 배열 인자는 내용으로 비교하는 키")
+  void argumentKeys() {
+    ArgumentKeys primitives = ArgumentKeys.forParameterTypes(new Class<?>[]{long.class, double.class});
+    assertThat(primitives.keyOf(new Object[]{10L, 0.5})).isEqualTo(primitives.keyOf(new Object[]{10L, 0.5}));
+    assertThat(primitives.keyOf(new Object[]{10L, 0.5})).isNotEqualTo(primitives.keyOf(new Object[]{10L, -0.5}));
+
+    ArgumentKeys single = ArgumentKeys.forParameterTypes(new Class<?>[]{String.class});
+    assertThat(single.keyOf(new Object[]{"itemA"})).isSameAs("itemA");
+
+    ArgumentKeys array = ArgumentKeys.forParameterTypes(new Class<?>[]{String[].class});
+    assertThat(array.keyOf(new Object[]{new String[]{"a", "b"}}))
+        .isEqualTo(array.keyOf(new Object[]{new String[]{"a", "b"}}));
+  }
+
+  private Object call(String methodName, Object... args) throws Throwable {
+    Method method = findMethod(methodName);
+    return advice.invoke(new MethodInvocation() {
+      @Override
+      public Method getMethod() {
+        return method;
+      }
+
+      @Override
+      public Object[] getArguments() {
+        return args;
+      }
+
+      @Override
+      public Object proceed() throws Throwable {
+        return method.invoke(target, args);
+      }
+
+      @Override
+      public Object getThis() {
+        return target;
+      }
+
+      @Override
+      public AccessibleObject getStaticPart() {
+        return method;
+      }
+    });
+  }
+
+  // JDK 동적 프록시처럼 인터페이스의 Method 를 넘김
+  private static Method findMethod(String name) {
+    for (Method method : PriceService.class.getMethods()) {
+      if (method.getName().equals(name)) {
+        return method;
+      }
+    }
+    throw new IllegalArgumentException(name);
+  }
+
+  public interface PriceService {
+
+    @CachedResult(name = "prices", maximumSize = 100)
+    String price(String itemId, int quantity);
+
+    double discount(long price, double rate);
+
+    int stock(String itemId);
+  }
+
+  public static class PriceServiceImpl implements PriceService {
+
+    final AtomicInteger calls = new AtomicInteger();
+
+    @Override
+    public String price(String itemId, int quantity) {
+      calls.incrementAndGet();
+      return itemId + ":" + quantity;
+    }
+
+    @Override
+    @CachedResult(ttl = 10, unit = TimeUnit.MINUTES)
+    public double discount(long price, double rate) {
+      calls.incrementAndGet();
+      return price * rate;
+    }
+
+    @Override
+    public int stock(String itemId) {
+      calls.incrementAndGet();
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package hello.proxy.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TinyLfuCacheTest {
+
+  @Test
+  @DisplayName("처음은 loader 로 적재하고 이후에는 캐시에서 반환")
+  void hitAndMiss() throws Throwable {
+    TinyLfuCache<String, String> cache = new TinyLfuCache<>("test", 100, 0);
+    AtomicInteger loads = new AtomicInteger();
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(cache.get("itemA", () -> "value-" + loads.incrementAndGet())).isEqualTo("value-1");
+    }
+
+    assertThat(loads.get()).isEqualTo(1);
+    assertThat(cache.missCount()).isEqualTo(1);
+    assertThat(cache.hitCount()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("같은 키로 동시에 미스가 나도 loader 는 한 번만 실행")
+  void loadOnce() throws Exception {
+    TinyLfuCache<String, String> cache = new TinyLfuCache<>("test", 100, 0);
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    List<Future<String>> results = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      results.add(executor.submit(() -> {
+        try {
+          return cache.get("itemA", () -> {
+            loads.incrementAndGet();
+            release.await();
+            return "value";
+          });
+        } catch (Throwable e) {
+          throw new IllegalStateException(e);
+        }
+      }));
+    }
+    Thread.sleep(100);
+    release.countDown();
+
+    for (Future<String> result : results) {
+      assertThat(result.get(1, TimeUnit.SECONDS)).isEqualTo("value");
+    }
+    executor.shutdown();
+    assertThat(loads.get()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("loader 예외는 그대로 전달되고 캐싱하지 않음")
+  void exceptionNotCached() throws Throwable {
+    TinyLfuCache<String, String> cache = new TinyLfuCache<>("test", 100, 0);
+
+    assertThatThrownBy(() -> cache.get("ex", () -> {
+      throw new IllegalStateException("예외 발생!");
+    })).isInstanceOf(IllegalStateException.class);
+
+    assertThat(cache.get("ex", () -> "ok")).isEqualTo("ok");
+  }
+
+  @Test
+  @DisplayName("TTL 이 지나면 다시 적재")
+  void expire() throws Throwable {
+    TinyLfuCache<String, String> cache = new TinyLfuCache<>("test", 100, TimeUnit.SECONDS.toNanos(10));
+    long[] now = {0};
+    cache.setClock(() -> now[0]);
+    cache.put("itemA", "old");
+
+    now[0] = TimeUnit.SECONDS.toNanos(9);
+    assertThat(cache.get("itemA", () -> "new")).isEqualTo("old");
+
+    now[0] = TimeUnit.SECONDS.toNanos(10);
+    assertThat(cache.get("itemA", () -> "new")).isEqualTo("new");
+    assertThat(cache.expirationCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("최대 크기를 넘지 않고, 자주 쓰인 키는 한 번 쓰인 키들에게 밀려나지 않음")
+  void admission() throws Throwable {
+    TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>("test", 100, 0);
+    for (int key = 0; key < 100; key++) {
+      cache.put(key, key);
+    }
+    // 0 ~ 49 는 자주 읽힘
+    for (int round = 0; round < 10; round++) {
+      for (int key = 0; key < 50; key++) {
+        cache.get(key, () -> -1);
+      }
+    }
+
+    // 한 번씩만 쓰이는 키가 대량으로 들어옴
+    for (int key = 1000; key < 11_000; key++) {
+      cache.put(key, key);
+    }
+
+    assertThat(cache.estimatedSize()).isLessThanOrEqualTo(100);
+    for (int key = 0; key < 50; key++) {
+      assertThat(cache.getIfPresent(key)).isEqualTo(key);
+    }
+    assertThat(cache.evictionCount()).isGreaterThanOrEqualTo(10_000);
+  }
+}
@@ -0,0 +1,106 @@
+package hello.proxy.config.v2_dynamicproxy.handler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import hello.proxy.trace.TraceId;
+import hello.proxy.trace.logtrace.SpanStackLogTrace;
+import hello.proxy.trace.sink.TraceSink;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class LogTraceHandlerTest {
+
+  private final List<String> lines = new ArrayList<>();
+  private final SpanStackLogTrace logTrace = new SpanStackLogTrace(new TraceSink() {
+    @Override
+    public void begin(TraceId traceId, String message) {
+      lines.add("-->" + message + " " + traceId.getLevel());
+    }
+
+    @Override
+    public void complete(TraceId traceId, String message, long resultTimeNanos, Exception e) {
+      lines.add((e == null ? "<--" : "<X-") + message + " " + traceId.getLevel() + (e == null ? "" : " " + e));
+    }
+  });
+
+  @Test
+  @DisplayName("target 의 예외는 InvocationTargetException 없이 그대로 기록하고 던짐")
+  void unwrapException() {
+    Target proxy = proxy(new LogTraceBasicHandler(new TargetImpl(), logTrace));
+
+    assertThatThrownBy(proxy::fail).isInstanceOf(IllegalStateException.class).hasMessage("예외 발생!");
+    assertThatThrownBy(proxy::io).isInstanceOf(IOException.class);
+    assertThat(lines).containsExactly(
+        "-->Target.fail() 0",
+        "<X-Target.fail() 0 java.lang.IllegalStateException: 예외 발생!",
+        "-->Target.io() 0",
+        "<X-Target.io() 0 java.io.IOException");
+  }
+
+  @Test
+  @DisplayName("Error 가 나도 span 을 닫아서 다음 호출은 다시 레벨 0 에서 시작")
+  void closeSpanOnError() {
+    Target proxy = proxy(new LogTraceFilterHandler(new TargetImpl(), logTrace, new String[]{"*"}));
+
+    assertThatThrownBy(proxy::error).isInstanceOf(AssertionError.class);
+    assertThat(proxy.hello()).isEqualTo("hello");
+    assertThat(lines).containsExactly(
+        "-->Target.error() 0",
+        "<X-Target.error() 0 java.lang.RuntimeException: java.lang.AssertionError: 오류",
+        "-->Target.hello() 0",
+        "<--Target.hello() 0");
+  }
+
+  @Test
+  @DisplayName("패턴에 맞지 않는 메서드도 예외를 감싸지 않음")
+  void notMatchedUnwrap() {
+    Target proxy = proxy(new LogTraceFilterHandler(new TargetImpl(), logTrace, new String[]{"hello"}));
+
+    assertThatThrownBy(proxy::fail).isInstanceOf(IllegalStateException.class);
+    assertThat(lines).isEmpty();
+  }
+
+  private static Target proxy(InvocationHandler handler) {
+    return (Target) Proxy.newProxyInstance(Target.class.getClassLoader(), new Class[]{Target.class}, handler);
+  }
+
+  public interface Target {
+
+    String hello();
+
+    void fail();
+
+    void io() throws IOException;
+
+    void error();
+  }
+
+  static class TargetImpl implements Target {
+
+    @Override
+    public String hello() {
+      return "hello";
+    }
+
+    @Override
+    public void fail() {
+      throw new IllegalStateException("예외 발생!");
+    }
+
+    @Override
+    public void io() throws IOException {
+      throw new IOException();
+    }
+
+    @Override
+    public void error() {
+      throw new AssertionError("오류");
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package hello.proxy.config.v2_dynamicproxy.handler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TargetInvokerTest {
+
+  private final TargetInvoker invoker = new TargetInvoker(new TargetImpl());
+
+  @Test
+  @DisplayName("인자 없음(null), void, 기본형 반환 모두 method.invoke 와 같은 결과")
+  void invoke() throws Throwable {
+    assertThat(invoker.invoke(Target.class.getMethod("hello"), null)).isEqualTo("hello");
+    assertThat(invoker.invoke(Target.class.getMethod("add", int.class, int.class), new Object[]{1, 2})).isEqualTo(3);
+    assertThat(invoker.invoke(Target.class.getMethod("run"), new Object[0])).isNull();
+  }
+
+  @Test
+  @DisplayName("인자 2개 이하는 람다 클래스, 그보다 많거나 public 이 아닌 인터페이스는 MethodHandle 로 호출")
+  void lambdaOrHandle() throws Throwable {
+    Method hello = Target.class.getMethod("hello");
+    Method add = Target.class.getMethod("add", int.class, int.class);
+    Method sum = Target.class.getMethod("sum", int.class, int.class, int.class);
+    invoker.invoke(hello, null);
+    invoker.invoke(add, new Object[]{1, 2});
+    assertThat(invoker.invoke(sum, new Object[]{1, 2, 3})).isEqualTo(6);
+
+    assertThat(invoker.isLambda(hello)).isTrue();
+    assertThat(invoker.isLambda(add)).isTrue();
+    assertThat(invoker.isLambda(sum)).isFalse();
+
+    TargetInvoker hiddenInvoker = new TargetInvoker((Hidden) () -> "hidden");
+    Method hidden = Hidden.class.getMethod("hidden");
+    assertThat(hiddenInvoker.invoke(hidden, null)).isEqualTo("hidden");
+  }
+
+  @Test
+  @DisplayName("Method 마다 호출기는 한 번만 생성")
+  void cached() throws Throwable {
+    Method hello = Target.class.getMethod("hello");
+    invoker.invoke(hello, null);
+    invoker.invoke(hello, null);
+
+    assertThat(invoker.size()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("target 의 예외는 InvocationTargetException 으로 감싸지지 않음")
+  void unwrapException() throws Exception {
+    assertThatThrownBy(() -> invoker.invoke(Target.class.getMethod("fail"), null))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("fail");
+    assertThatThrownBy(() -> invoker.invoke(Target.class.getMethod("io"), null))
+        .isInstanceOf(IOException.class);
+  }
+
+  @Test
+  @DisplayName("JDK 동적 프록시 밖으로도 원래 예외가 그대로 나감")
+  void throughProxy() {
+    Target proxy = (Target) Proxy.newProxyInstance(Target.class.getClassLoader(), new Class[]{Target.class},
+        (p, method, args) -> invoker.invoke(method, args));
+
+    assertThat(proxy.add(2, 3)).isEqualTo(5);
+    assertThatThrownBy(proxy::fail).isInstanceOf(IllegalStateException.class);
+  }
+
+  public interface Target {
+
+    String hello();
+
+    int add(int a, int b);
+
+    int sum(int a, int b, int c);
+
+    void run();
+
+    void fail();
+
+    void io() throws IOException;
+  }
+
+  static class TargetImpl implements Target {
+
+    @Override
+    public String hello() {
+      return "hello";
+    }
+
+    @Override
+    public int add(int a, int b) {
+      return a + b;
+    }
+
+    @Override
+    public int sum(int a, int b, int c) {
+      return a + b + c;
+    }
+
+    @Override
+    public void run() {
+    }
+
+    @Override
+    public void fail() {
+      throw new IllegalStateException("fail");
+    }
+
+    @Override
+    public void io() throws IOException {
+      throw new IOException();
+    }
+  }
+
+  private interface Hidden {
+
+    String hidden();
+  }
+}
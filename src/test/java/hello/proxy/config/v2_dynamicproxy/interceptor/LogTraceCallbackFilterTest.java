@@ -0,0 +1,120 @@
+package hello.proxy.config.v2_dynamicproxy.interceptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import hello.proxy.app.v2.OrderControllerV2;
+import hello.proxy.trace.TraceId;
+import hello.proxy.trace.logtrace.SpanStackLogTrace;
+import hello.proxy.trace.sink.TraceSink;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cglib.proxy.Factory;
+
+public class LogTraceCallbackFilterTest {
+
+  private final LogTraceCallbackFilter filter = new LogTraceCallbackFilter("request*", "order*", "save*");
+
+  @Test
+  @DisplayName("패턴에 맞는 메서드만 TRACE, 나머지는 DISPATCH")
+  void accept() throws Exception {
+    assertThat(filter.accept(OrderControllerV2.class.getMethod("request", String.class)))
+        .isEqualTo(LogTraceCallbackFilter.TRACE);
+    assertThat(filter.accept(OrderControllerV2.class.getMethod("noLog")))
+        .isEqualTo(LogTraceCallbackFilter.DISPATCH);
+    assertThat(filter.accept(Object.class.getMethod("toString")))
+        .isEqualTo(LogTraceCallbackFilter.DISPATCH);
+  }
+
+  @Test
+  @DisplayName("패턴 집합이 같으면 순서와 관계없이 같은 filter (CGLIB 클래스 캐시 키)")
+  void equality() {
+    LogTraceCallbackFilter other = new LogTraceCallbackFilter("save*", "request*", "order*", "save*");
+
+    assertThat(other).isEqualTo(filter);
+    assertThat(other.hashCode()).isEqualTo(filter.hashCode());
+    assertThat(new LogTraceCallbackFilter("request*")).isNotEqualTo(filter);
+  }
+
+  @Test
+  @DisplayName("생성된 CGLIB 프록시에서 request 는 LogTraceInterceptor, noLog 는 TargetDispatcher 로 target 을 바로 호출")
+  void enhancerProxy() {
+    List<String> lines = new ArrayList<>();
+    SpanStackLogTrace logTrace = new SpanStackLogTrace(new TraceSink() {
+      @Override
+      public void begin(TraceId traceId, String message) {
+        lines.add("-->" + message);
+      }
+
+      @Override
+      public void complete(TraceId traceId, String message, long resultTimeNanos, Exception e) {
+        lines.add("<--" + message);
+      }
+    });
+    Controller target = new Controller("target");
+    Controller proxy = new CglibTraceProxyBuilder(logTrace, "request*", "order*", "save*")
+        .create(Controller.class, target, new Class[]{String.class}, new Object[]{"proxy"});
+
+    Factory factory = (Factory) proxy;
+    assertThat(factory.getCallback(LogTraceCallbackFilter.TRACE)).isInstanceOf(LogTraceInterceptor.class);
+    assertThat(factory.getCallback(LogTraceCallbackFilter.DISPATCH)).isInstanceOf(TargetDispatcher.class);
+
+    assertThat(proxy.request("itemA")).isEqualTo("target:itemA");
+    assertThat(lines).containsExactly("-->Controller.request()", "<--Controller.request()");
+
+    // 프록시 자신(name=proxy)이 아니라 target 의 구현이 실행되고 로그는 남지 않음
+    assertThat(proxy.noLog()).isEqualTo("target");
+    assertThat(lines).hasSize(2);
+  }
+
+  @Test
+  @DisplayName("Error 가 나도 span 을 닫고 Error 는 그대로 던짐")
+  void closeSpanOnError() {
+    List<String> lines = new ArrayList<>();
+    SpanStackLogTrace logTrace = new SpanStackLogTrace(new TraceSink() {
+      @Override
+      public void begin(TraceId traceId, String message) {
+        lines.add("-->" + message + " " + traceId.getLevel());
+      }
+
+      @Override
+      public void complete(TraceId traceId, String message, long resultTimeNanos, Exception e) {
+        lines.add((e == null ? "<--" : "<X-") + message + " " + traceId.getLevel() + (e == null ? "" : " " + e));
+      }
+    });
+    Controller target = new Controller("target");
+    Controller proxy = new CglibTraceProxyBuilder(logTrace, "request*", "error*")
+        .create(Controller.class, target, new Class[]{String.class}, new Object[]{"proxy"});
+
+    assertThatThrownBy(proxy::error).isInstanceOf(AssertionError.class);
+    assertThat(proxy.request("itemA")).isEqualTo("target:itemA");
+    assertThat(lines).containsExactly(
+        "-->Controller.error() 0",
+        "<X-Controller.error() 0 java.lang.RuntimeException: java.lang.AssertionError: 오류",
+        "-->Controller.request() 0",
+        "<--Controller.request() 0");
+  }
+
+  public static class Controller {
+
+    private final String name;
+
+    public Controller(String name) {
+      this.name = name;
+    }
+
+    public String request(String itemId) {
+      return name + ":" + itemId;
+    }
+
+    public String noLog() {
+      return name;
+    }
+
+    public String error() {
+      throw new AssertionError("오류");
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package hello.proxy.config.v4_postprocessor.postprocessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hello.proxy.app.v1.OrderRepositoryV1;
+import hello.proxy.app.v1.OrderRepositoryV1Impl;
+import hello.proxy.app.v1.OrderServiceV1Impl;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.NameMatchMethodPointcut;
+
+public class PackageLogTracePostProcessorTest {
+
+  private final AtomicInteger classFilterCalls = new AtomicInteger();
+  private final PackageLogTracePostProcessor postProcessor = new PackageLogTracePostProcessor("hello.proxy", advisor());
+
+  @Test
+  @DisplayName("패키지와 메서드가 모두 맞으면 프록시")
+  void proxied() {
+    Object bean = postProcessor.postProcessAfterInitialization(new OrderRepositoryV1Impl(), "orderRepositoryV1");
+
+    assertThat(AopUtils.isAopProxy(bean)).isTrue();
+    assertThat(bean).isInstanceOf(OrderRepositoryV1.class);
+  }
+
+  @Test
+  @DisplayName("패키지가 맞아도 advisor 에 걸리는 메서드가 없으면 원본 그대로")
+  void noMatchingMethod() {
+    NoMatch bean = new NoMatch();
+
+    assertThat(postProcessor.postProcessAfterInitialization(bean, "noMatch")).isSameAs(bean);
+  }
+
+  @Test
+  @DisplayName("패키지가 다르면 원본 그대로")
+  void otherPackage() {
+    StringBuilder bean = new StringBuilder();
+
+    assertThat(postProcessor.postProcessAfterInitialization(bean, "other")).isSameAs(bean);
+  }
+
+  @Test
+  @DisplayName("같은 클래스의 빈은 적용 대상 판단을 한 번만")
+  void decisionCachedPerClass() {
+    postProcessor.postProcessAfterInitialization(new OrderServiceV1Impl(null), "orderService1");
+    postProcessor.postProcessAfterInitialization(new OrderServiceV1Impl(null), "orderService2");
+    postProcessor.postProcessAfterInitialization(new NoMatch(), "noMatch1");
+    postProcessor.postProcessAfterInitialization(new NoMatch(), "noMatch2");
+
+    assertThat(classFilterCalls.get()).isEqualTo(2);
+  }
+
+  private DefaultPointcutAdvisor advisor() {
+    NameMatchMethodPointcut pointcut = new NameMatchMethodPointcut();
+    pointcut.setMappedNames("request*", "order*", "save*");
+    pointcut.setClassFilter(clazz -> {
+      classFilterCalls.incrementAndGet();
+      return true;
+    });
+    MethodInterceptor advice = invocation -> invocation.proceed();
+    return new DefaultPointcutAdvisor(pointcut, advice);
+  }
+
+  static class NoMatch {
+
+    public String noLog() {
+      return "ok";
+    }
+  }
+}
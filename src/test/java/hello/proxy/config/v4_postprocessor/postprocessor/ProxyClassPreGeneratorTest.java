@@ -0,0 +1,102 @@
+package hello.proxy.config.v4_postprocessor.postprocessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hello.proxy.app.v1.OrderControllerV1;
+import hello.proxy.app.v1.OrderServiceV1Impl;
+import hello.proxy.app.v1.OrderServiceV1;
+import hello.proxy.app.v2.OrderServiceV2;
+import hello.proxy.trace.logtrace.LogTrace;
+import hello.proxy.trace.logtrace.NoOpLogTrace;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+public class ProxyClassPreGeneratorTest {
+
+  private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+  private final ProxyClassPreGenerator preGenerator =
+      new ProxyClassPreGenerator("hello.proxy", BeanPostProcessorConfig.getAdvisor(NoOpLogTrace.INSTANCE));
+
+  @Test
+  @DisplayName("빈 정의 타입 중 advisor 가 적용되는 클래스만 프록시 클래스를 미리 생성")
+  void generateCandidates() {
+    register("orderServiceV1", OrderServiceV1Impl.class);
+    register("orderControllerV1", OrderControllerV1.class);
+    register("orderServiceV2", OrderServiceV2.class);
+    register("noMatch", NoMatch.class);
+    register("object", Object.class);
+
+    preGenerator.postProcessBeanFactory(beanFactory);
+    preGenerator.awaitCompletion();
+
+    assertThat(preGenerator.getGeneratedCount()).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("같은 클래스의 빈이 여러 개여도 한 번만 생성")
+  void sameClassOnce() {
+    register("orderServiceV2a", OrderServiceV2.class);
+    register("orderServiceV2b", OrderServiceV2.class);
+
+    preGenerator.postProcessBeanFactory(beanFactory);
+    preGenerator.awaitCompletion();
+
+    assertThat(preGenerator.getGeneratedCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("proxyTargetClass 면 구현 클래스를 알 수 없는 인터페이스 타입은 건너뜀")
+  void proxyTargetClassSkipsInterface() {
+    register("orderControllerV1", OrderControllerV1.class);
+    preGenerator.setProxyTargetClass(true);
+
+    preGenerator.postProcessBeanFactory(beanFactory);
+    preGenerator.awaitCompletion();
+
+    assertThat(preGenerator.getGeneratedCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("컨텍스트의 빈 후처리기가 만든 프록시는 미리 생성한 프록시 클래스를 그대로 사용")
+  void beanUsesPreGeneratedClass() {
+    try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(TestConfig.class)) {
+      ProxyClassPreGenerator contextPreGenerator = context.getBean(ProxyClassPreGenerator.class);
+      contextPreGenerator.awaitCompletion();
+
+      // JDK 동적 프록시 (인터페이스 반환 타입), CGLIB (구체 클래스) 모두 캐시 키가 같아야 같은 클래스
+      Class<?> jdkProxyClass = contextPreGenerator.getProxyClass(OrderServiceV1.class);
+      Class<?> cglibProxyClass = contextPreGenerator.getProxyClass(OrderServiceV2.class);
+      assertThat(jdkProxyClass).isNotNull();
+      assertThat(cglibProxyClass).isNotNull();
+      assertThat(context.getBean("orderServiceV1").getClass()).isSameAs(jdkProxyClass);
+      assertThat(context.getBean("orderServiceV2").getClass()).isSameAs(cglibProxyClass);
+    }
+  }
+
+  private void register(String beanName, Class<?> type) {
+    beanFactory.registerBeanDefinition(beanName, new RootBeanDefinition(type));
+  }
+
+  static class NoMatch {
+
+    public String find() {
+      return "ok";
+    }
+  }
+
+  @Configuration
+  @Import(PreGeneratedBeanPostProcessorConfig.class)
+  static class TestConfig {
+
+    @Bean
+    public LogTrace logTrace() {
+      return new NoOpLogTrace();
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package hello.proxy.config.v7_staticproxy.postprocessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import hello.proxy.app.v1.OrderControllerV1;
+import hello.proxy.app.v1.OrderControllerV1Impl;
+import hello.proxy.app.v1.OrderRepositoryV1;
+import hello.proxy.app.v1.OrderServiceV1;
+import hello.proxy.app.v1.OrderServiceV1Impl;
+import hello.proxy.app.v2.OrderRepositoryV2;
+import hello.proxy.app.v2.OrderServiceV2;
+import hello.proxy.app.v4.OrderRepositoryV4;
+import hello.proxy.trace.TraceId;
+import hello.proxy.trace.logtrace.SpanStackLogTrace;
+import hello.proxy.trace.sink.TraceSink;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class StaticTraceProxyPostProcessorTest {
+
+  private final RecordingSink sink = new RecordingSink();
+  private final StaticTraceProxyPostProcessor postProcessor =
+      new StaticTraceProxyPostProcessor(new SpanStackLogTrace(sink));
+
+  @Test
+  @DisplayName("인터페이스에 @TraceProxy 가 있으면 생성된 인터페이스 프록시로 교체")
+  void interfaceProxy() {
+    OrderRepositoryV1 repository = process(itemId -> {
+    });
+    OrderServiceV1 service = process(new OrderServiceV1Impl(repository));
+    OrderControllerV1 controller = process(new OrderControllerV1Impl(service));
+
+    assertThat(controller).isNotInstanceOf(OrderControllerV1Impl.class);
+    assertThat(controller.getClass().getName()).isEqualTo("hello.proxy.app.v1.OrderControllerV1TraceProxy");
+
+    controller.request("itemA");
+    assertThat(sink.lines).containsExactly(
+        "-->OrderControllerV1.request() 0",
+        "-->OrderServiceV1.orderItem() 1",
+        "-->OrderRepositoryV1.save() 2",
+        "<--OrderRepositoryV1.save() 2",
+        "<--OrderServiceV1.orderItem() 1",
+        "<--OrderControllerV1.request() 0");
+  }
+
+  @Test
+  @DisplayName("패턴에 맞지 않는 메서드는 로그 없이 위임")
+  void notMatched() {
+    OrderControllerV1 controller = process(new OrderControllerV1Impl(null));
+
+    assertThat(controller.noLog()).isEqualTo("ok");
+    assertThat(sink.lines).isEmpty();
+  }
+
+  @Test
+  @DisplayName("클래스에 @TraceProxy 가 있으면 하위 클래스 빈도 생성된 클래스 프록시로 교체")
+  void classProxy() {
+    OrderRepositoryV2 repository = process(new OrderRepositoryV2() {
+      @Override
+      public void save(String itemId) {
+        if (itemId.equals("ex")) {
+          throw new IllegalStateException("예외 발생!");
+        }
+      }
+    });
+    OrderServiceV2 service = process(new OrderServiceV2(repository));
+
+    assertThat(repository.getClass().getName()).isEqualTo("hello.proxy.app.v2.OrderRepositoryV2TraceProxy");
+    assertThatThrownBy(() -> service.orderItem("ex")).isInstanceOf(IllegalStateException.class);
+    assertThat(sink.lines).containsExactly(
+        "-->OrderServiceV2.orderItem() 0",
+        "-->OrderRepositoryV2.save() 1",
+        "<X-OrderRepositoryV2.save() 1",
+        "<X-OrderServiceV2.orderItem() 0");
+  }
+
+  @Test
+  @DisplayName("생성된 프록시는 Error 가 나도 span 을 닫고 Error 는 그대로 던짐")
+  void errorClosesSpan() {
+    OrderRepositoryV2 repository = process(new OrderRepositoryV2() {
+      @Override
+      public void save(String itemId) {
+        if (itemId.equals("error")) {
+          throw new AssertionError("오류");
+        }
+      }
+    });
+
+    assertThatThrownBy(() -> repository.save("error")).isInstanceOf(AssertionError.class);
+    repository.save("itemA");
+    assertThat(sink.lines).containsExactly(
+        "-->OrderRepositoryV2.save() 0",
+        "<X-OrderRepositoryV2.save() 0",
+        "-->OrderRepositoryV2.save() 0",
+        "<--OrderRepositoryV2.save() 0");
+  }
+
+  @Test
+  @DisplayName("CompletionStage 를 반환하는 메서드는 런타임 프록시처럼 완료 시점에 async span 도 남김")
+  void asyncClassProxy() {
+    CompletableFuture<Void> saved = new CompletableFuture<>();
+    OrderRepositoryV4 repository = process(new OrderRepositoryV4(null) {
+      @Override
+      public CompletableFuture<Void> save(String itemId) {
+        return saved;
+      }
+    });
+
+    repository.save("ex");
+    saved.completeExceptionally(new IllegalStateException("예외 발생!"));
+
+    assertThat(sink.lines).containsExactly(
+        "-->OrderRepositoryV4.save() 0",
+        "<--OrderRepositoryV4.save() 0",
+        "-->OrderRepositoryV4.save().async() 1",
+        "<X-OrderRepositoryV4.save().async() 1");
+  }
+
+  @Test
+  @DisplayName("대상이 아닌 빈은 그대로 반환")
+  void notTarget() {
+    Object bean = new Object();
+
+    assertThat(postProcessor.postProcessAfterInitialization(bean, "bean")).isSameAs(bean);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T process(T bean) {
+    return (T) postProcessor.postProcessAfterInitialization(bean, "bean");
+  }
+
+  static class RecordingSink implements TraceSink {
+
+    final List<String> lines = new ArrayList<>();
+
+    @Override
+    public void begin(TraceId traceId, String message) {
+      lines.add("-->" + message + " " + traceId.getLevel());
+    }
+
+    @Override
+    public void complete(TraceId traceId, String message, long resultTimeNanos, Exception e) {
+      lines.add((e == null ? "<--" : "<X-") + message + " " + traceId.getLevel());
+    }
+  }
+}
@@ -0,0 +1,397 @@
+package hello.proxy.hedge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import hello.proxy.timer.HashedTimerWheel;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.ProxyMethodInvocation;
+
+public class HedgingAdviceTest {
+
+  private final HashedTimerWheel timerWheel = new HashedTimerWheel(5, TimeUnit.MILLISECONDS, 64);
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final HedgingMetrics hedgingMetrics = new HedgingMetrics();
+  private final HedgingAdvice advice = new HedgingAdvice(timerWheel, executor, hedgingMetrics);
+  private final ItemRepository repository = new ItemRepository();
+
+  @BeforeEach
+  void setUp() {
+    advice.setRefreshInterval(0, TimeUnit.MILLISECONDS);
+  }
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+    timerWheel.close();
+  }
+
+  @Test
+  @DisplayName("샘플이 모인 뒤 느린 첫 호출은 추가 호출이 이기고 첫 호출은 인터럽트")
+  void hedgeWins() throws Throwable {
+    warmUp("find");
+    // warm-up 중 느린 호출(JIT, GC)이 추가 호출될 수 있으므로 이후 증가분만 확인
+    long attempts = counter("hedge_attempts_total");
+    long wins = counter("hedge_wins_total");
+
+    // 첫 호출만 느리게 (스레드 하나에서는 추가 호출이 먼저 find 에 들어갈 수 있으므로 순서로 정하지 않음)
+    repository.slowPrimary.set(true);
+    long start = System.nanoTime();
+    assertThat(call("find", "itemA")).isEqualTo("found:itemA");
+
+    assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+    // 첫 호출이 스레드를 얻기 전에 추가 호출이 이기면 첫 호출은 실행되지 않고 취소만 됨
+    if (!repository.slowPrimary.get()) {
+      assertThat(repository.interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+    assertThat(counter("hedge_attempts_total") - attempts).isEqualTo(1);
+    assertThat(counter("hedge_wins_total") - wins).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("minSamples 전에는 추가 호출을 보내지 않음")
+  void noHedgeBeforeMinSamples() throws Throwable {
+    repository.slowNext.set(true);
+    repository.slowMillis = 200;
+
+    assertThat(call("find", "itemA")).isEqualTo("found:itemA");
+
+    assertThat(repository.finds.get()).isEqualTo(1);
+    assertThat(export()).contains("hedge_attempts_total{method=\"ItemRepository.find()\"} 0");
+  }
+
+  @Test
+  @DisplayName("모든 시도가 실패하면 첫 실패를 그대로 던짐")
+  void failure() throws Throwable {
+    warmUp("find");
+
+    assertThatThrownBy(() -> call("find", "ex"))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("예외 발생!");
+  }
+
+  @Test
+  @DisplayName("@Timeout 을 넘긴 동기 호출은 CallTimeoutException 을 던지고 실행 중인 호출은 인터럽트")
+  void timeout() throws InterruptedException {
+    long start = System.nanoTime();
+    assertThatThrownBy(() -> call("slow", "itemA"))
+        .isInstanceOf(CallTimeoutException.class)
+        .hasCauseInstanceOf(TimeoutException.class);
+
+    assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+    assertThat(repository.interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+    assertThat(export()).contains("call_timeouts_total{method=\"ItemRepository.slow()\"} 1");
+  }
+
+  @Test
+  @DisplayName("CompletionStage 메서드는 먼저 끝난 시도의 결과로 완료되고 진 쪽 future 는 취소")
+  void async() throws Throwable {
+    warmUp("findAsync");
+
+    repository.slowNext.set(true);
+    CompletableFuture<?> result = (CompletableFuture<?>) call("findAsync", "itemA");
+
+    assertThat(result.get(1, TimeUnit.SECONDS)).isEqualTo("found:itemA");
+    // 취소는 결과 완료 직후 이긴 쪽 스레드에서
+    assertThatThrownBy(() -> repository.neverCompleted.get(1, TimeUnit.SECONDS))
+        .isInstanceOf(CancellationException.class);
+  }
+
+  @Test
+  @DisplayName("CompletionStage 메서드의 @Timeout 초과는 TimeoutException 으로 완료")
+  void asyncTimeout() throws Throwable {
+    CompletableFuture<?> result = (CompletableFuture<?>) call("never", "itemA");
+
+    assertThatThrownBy(() -> result.get(1, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(TimeoutException.class);
+  }
+
+  @Test
+  @DisplayName("@Hedged, @Timeout 이 없는 메서드는 그대로 실행")
+  void notApplied() throws Throwable {
+    assertThat(call("plain", "itemA")).isEqualTo("plain:itemA");
+    assertThat(export()).doesNotContain("ItemRepository.plain()");
+  }
+
+  @Test
+  @DisplayName("executor 가 가득 차면 @Timeout 첫 호출은 호출 스레드에서 실행하지 않고 RejectedExecutionException")
+  void saturatedPrimaryRejected() throws Throwable {
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(0, 1, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+        new ThreadPoolExecutor.AbortPolicy());
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      pool.execute(() -> awaitQuietly(release));
+      HedgingAdvice saturated = new HedgingAdvice(timerWheel, pool, hedgingMetrics);
+      Method method = ItemRepository.class.getMethod("slow", String.class);
+
+      assertThatThrownBy(() -> saturated.invoke(new ReflectiveInvocation(repository, method, new Object[]{"itemA"})))
+          .isInstanceOf(RejectedExecutionException.class);
+      assertThat(repository.slowCalls.get()).isZero();
+    } finally {
+      release.countDown();
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  @DisplayName("executor 가 가득 차면 추가 호출은 건너뛰고 첫 호출 결과를 그대로 사용")
+  void saturatedHedgeSkipped() throws Throwable {
+    LimitedExecutor limited = new LimitedExecutor(executor);
+    HedgingAdvice saturated = new HedgingAdvice(timerWheel, limited, hedgingMetrics);
+    saturated.setRefreshInterval(0, TimeUnit.MILLISECONDS);
+    Method method = ItemRepository.class.getMethod("find", String.class);
+    for (int i = 0; i < 5; i++) {
+      saturated.invoke(new ReflectiveInvocation(repository, method, new Object[]{"warmUp"}));
+    }
+    repository.finds.set(0);
+    long attempts = counter("hedge_attempts_total");
+
+    // 첫 호출이 스레드 하나를 차지하고 있는 동안 추가 호출은 거절됨
+    limited.max = 1;
+    repository.slowMillis = 200;
+    repository.slowNext.set(true);
+    Object result = saturated.invoke(new ReflectiveInvocation(repository, method, new Object[]{"itemA"}));
+
+    assertThat(result).isEqualTo("found:itemA");
+    assertThat(limited.rejected.get()).isPositive();
+    assertThat(repository.finds.get()).isEqualTo(1);
+    assertThat(counter("hedge_attempts_total") - attempts).isZero();
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void warmUp(String methodName) throws Throwable {
+    for (int i = 0; i < 5; i++) {
+      Object result = call(methodName, "warmUp");
+      if (result instanceof CompletableFuture) {
+        ((CompletableFuture<?>) result).get(1, TimeUnit.SECONDS);
+      }
+    }
+    repository.finds.set(0);
+  }
+
+  private String export() {
+    StringBuilder out = new StringBuilder();
+    hedgingMetrics.export(out);
+    return out.toString();
+  }
+
+  private long counter(String name) {
+    String prefix = name + "{method=\"ItemRepository.find()\"} ";
+    for (String line : export().split("\n")) {
+      if (line.startsWith(prefix)) {
+        return Long.parseLong(line.substring(prefix.length()).trim());
+      }
+    }
+    throw new IllegalStateException("메트릭 없음: " + name);
+  }
+
+  private Object call(String methodName, String itemId) throws Throwable {
+    Method method = ItemRepository.class.getMethod(methodName, String.class);
+    return advice.invoke(new ReflectiveInvocation(repository, method, new Object[]{itemId}));
+  }
+
+  /**
+   * invocableClone 을 지원하는 MethodInvocation (ProxyFactory 없이 advice 만 테스트)
+   */
+  private static final class ReflectiveInvocation implements ProxyMethodInvocation {
+
+    private final Object target;
+    private final Method method;
+    private final boolean primary;
+    private Object[] arguments;
+
+    ReflectiveInvocation(Object target, Method method, Object[] arguments) {
+      this(target, method, arguments, true);
+    }
+
+    private ReflectiveInvocation(Object target, Method method, Object[] arguments, boolean primary) {
+      this.target = target;
+      this.method = method;
+      this.arguments = arguments;
+      this.primary = primary;
+    }
+
+    @Override
+    public Object proceed() throws Throwable {
+      if (primary && target instanceof ItemRepository) {
+        ((ItemRepository) target).delayPrimary();
+      }
+      try {
+        return method.invoke(target, arguments);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+
+    @Override
+    public MethodInvocation invocableClone() {
+      return new ReflectiveInvocation(target, method, arguments.clone(), false);
+    }
+
+    @Override
+    public MethodInvocation invocableClone(Object... arguments) {
+      return new ReflectiveInvocation(target, method, arguments, false);
+    }
+
+    @Override
+    public void setArguments(Object... arguments) {
+      this.arguments = arguments;
+    }
+
+    @Override
+    public Method getMethod() {
+      return method;
+    }
+
+    @Override
+    public Object[] getArguments() {
+      return arguments;
+    }
+
+    @Override
+    public Object getThis() {
+      return target;
+    }
+
+    @Override
+    public Object getProxy() {
+      return target;
+    }
+
+    @Override
+    public AccessibleObject getStaticPart() {
+      return method;
+    }
+
+    @Override
+    public void setUserAttribute(String key, Object value) {
+    }
+
+    @Override
+    public Object getUserAttribute(String key) {
+      return null;
+    }
+  }
+
+  /**
+   * 동시에 실행 중인 작업이 max 개면 거절 (AbortPolicy 와 같음)
+   */
+  private static final class LimitedExecutor implements Executor {
+
+    private final Executor delegate;
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger rejected = new AtomicInteger();
+    volatile int max = Integer.MAX_VALUE;
+
+    LimitedExecutor(Executor delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+      if (running.incrementAndGet() > max) {
+        running.decrementAndGet();
+        rejected.incrementAndGet();
+        throw new RejectedExecutionException("가득 참");
+      }
+      delegate.execute(() -> {
+        try {
+          task.run();
+        } finally {
+          running.decrementAndGet();
+        }
+      });
+    }
+  }
+
+  public static class ItemRepository {
+
+    final AtomicBoolean slowNext = new AtomicBoolean();
+    final AtomicBoolean slowPrimary = new AtomicBoolean();
+    final AtomicInteger finds = new AtomicInteger();
+    final AtomicInteger slowCalls = new AtomicInteger();
+    final CountDownLatch interrupted = new CountDownLatch(1);
+    final CompletableFuture<String> neverCompleted = new CompletableFuture<>();
+    volatile long slowMillis = 5000;
+
+    @Hedged(percentile = 50, minSamples = 5)
+    public String find(String itemId) {
+      finds.incrementAndGet();
+      if (itemId.equals("ex")) {
+        throw new IllegalStateException("예외 발생!");
+      }
+      if (slowNext.getAndSet(false)) {
+        sleep(slowMillis);
+      }
+      return "found:" + itemId;
+    }
+
+    @Hedged(percentile = 50, minSamples = 5)
+    public CompletableFuture<String> findAsync(String itemId) {
+      if (slowNext.getAndSet(false)) {
+        return neverCompleted;
+      }
+      return CompletableFuture.completedFuture("found:" + itemId);
+    }
+
+    @Timeout(100)
+    public String slow(String itemId) {
+      slowCalls.incrementAndGet();
+      sleep(5000);
+      return "slow:" + itemId;
+    }
+
+    @Timeout(100)
+    public CompletableFuture<String> never(String itemId) {
+      return new CompletableFuture<>();
+    }
+
+    public String plain(String itemId) {
+      return "plain:" + itemId;
+    }
+
+    void delayPrimary() {
+      if (slowPrimary.getAndSet(false)) {
+        sleep(slowMillis);
+      }
+    }
+
+    private void sleep(long millis) {
+      try {
+        Thread.sleep(millis);
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
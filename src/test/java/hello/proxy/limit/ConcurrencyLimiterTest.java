@@ -0,0 +1,202 @@
+package hello.proxy.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ConcurrencyLimiterTest {
+
+  private final AtomicLong now = new AtomicLong();
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("한도까지만 허용하고 넘치면 바로 거절, 반납하면 다시 허용")
+  void rejectOverLimit() {
+    ConcurrencyLimiter limiter = limiter(new FixedLimit(2));
+
+    limiter.acquire();
+    int second = limiter.acquire();
+
+    assertThat(second).isEqualTo(2);
+    assertThatThrownBy(limiter::acquire).isInstanceOf(ConcurrencyLimitExceededException.class);
+    assertThat(limiter.inFlightCount()).isEqualTo(2);
+
+    limiter.onIgnored();
+    limiter.acquire();
+    assertThat(limiter.acceptedCount()).isEqualTo(3);
+    assertThat(limiter.rejectedCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("maxWait 안에 반납되면 기다리던 호출이 허가를 받음")
+  void waitForRelease() throws Exception {
+    ConcurrencyLimiter limiter = limiter(new FixedLimit(1));
+    limiter.setMaxWait(5, TimeUnit.SECONDS);
+    limiter.acquire();
+
+    Future<Integer> waiting = executor.submit(limiter::acquire);
+    Thread.sleep(100);
+    assertThat(waiting.isDone()).isFalse();
+
+    limiter.onIgnored();
+    assertThat(waiting.get(1, TimeUnit.SECONDS)).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("완료 시 지연 시간과 시작 시점 진행 중 수를 알고리즘에 넘겨 한도를 바꿈")
+  void updateLimit() {
+    RecordingLimit algorithm = new RecordingLimit();
+    ConcurrencyLimiter limiter = limiter(algorithm);
+
+    int inFlight = limiter.acquire();
+    long start = limiter.nanoTime();
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(30));
+    limiter.onSuccess(start, inFlight);
+
+    assertThat(algorithm.rttNanos).isEqualTo(TimeUnit.MILLISECONDS.toNanos(30));
+    assertThat(algorithm.inFlight).isEqualTo(1);
+    assertThat(limiter.limit()).isEqualTo(11);
+    assertThat(limiter.inFlightCount()).isEqualTo(0);
+
+    limiter.acquire();
+    limiter.onDropped();
+    assertThat(algorithm.dropped).isTrue();
+    assertThat(limiter.droppedCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("CompletionStage 를 반환하면 완료될 때 반납하고, 타임아웃은 과부하로 처리")
+  void asyncResult() throws Throwable {
+    ConcurrencyLimiter limiter = limiter(new FixedLimit(1));
+    ConcurrencyLimitAdvice advice = new ConcurrencyLimitAdvice(limiter);
+    CompletableFuture<String> result = new CompletableFuture<>();
+
+    Object returned = advice.invoke(new FixedResultInvocation(result));
+    assertThat(returned).isSameAs(result);
+    assertThat(limiter.inFlightCount()).isEqualTo(1);
+
+    result.completeExceptionally(new TimeoutException());
+    assertThat(limiter.inFlightCount()).isEqualTo(0);
+    assertThat(limiter.droppedCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("limit, in-flight, 허용/거절 수를 내보냄")
+  void metrics() {
+    ConcurrencyLimiter limiter = limiter(new FixedLimit(1));
+    limiter.acquire();
+    assertThatThrownBy(limiter::acquire).isInstanceOf(ConcurrencyLimitExceededException.class);
+    ConcurrencyLimitMetrics metrics = new ConcurrencyLimitMetrics();
+    metrics.register(limiter);
+
+    StringBuilder out = new StringBuilder();
+    metrics.export(out);
+
+    assertThat(out.toString())
+        .contains("concurrency_limit{limiter=\"OrderRepository.save()\"} 1")
+        .contains("concurrency_in_flight{limiter=\"OrderRepository.save()\"} 1")
+        .contains("concurrency_calls_total{limiter=\"OrderRepository.save()\",result=\"accepted\"} 1")
+        .contains("concurrency_calls_total{limiter=\"OrderRepository.save()\",result=\"rejected\"} 1");
+  }
+
+  private ConcurrencyLimiter limiter(LimitAlgorithm algorithm) {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter("OrderRepository.save()", algorithm);
+    limiter.setClock(now::get);
+    return limiter;
+  }
+
+  static class FixedResultInvocation implements MethodInvocation {
+
+    private final Object result;
+
+    FixedResultInvocation(Object result) {
+      this.result = result;
+    }
+
+    @Override
+    public Method getMethod() {
+      try {
+        return Object.class.getMethod("toString");
+      } catch (NoSuchMethodException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    @Override
+    public Object[] getArguments() {
+      return new Object[0];
+    }
+
+    @Override
+    public Object proceed() {
+      return result;
+    }
+
+    @Override
+    public Object getThis() {
+      return this;
+    }
+
+    @Override
+    public AccessibleObject getStaticPart() {
+      return getMethod();
+    }
+  }
+
+  static class FixedLimit implements LimitAlgorithm {
+
+    private final int limit;
+
+    FixedLimit(int limit) {
+      this.limit = limit;
+    }
+
+    @Override
+    public int initialLimit() {
+      return limit;
+    }
+
+    @Override
+    public int update(int limit, long rttNanos, int inFlight, boolean dropped) {
+      return limit;
+    }
+  }
+
+  static class RecordingLimit implements LimitAlgorithm {
+
+    long rttNanos;
+    int inFlight;
+    boolean dropped;
+
+    @Override
+    public int initialLimit() {
+      return 10;
+    }
+
+    @Override
+    public int update(int limit, long rttNanos, int inFlight, boolean dropped) {
+      this.rttNanos = rttNanos;
+      this.inFlight = inFlight;
+      this.dropped = dropped;
+      return limit + 1;
+    }
+  }
+}
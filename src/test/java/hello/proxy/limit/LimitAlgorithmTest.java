@@ -0,0 +1,73 @@
+package hello.proxy.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class LimitAlgorithmTest {
+
+  private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  @Test
+  @DisplayName("AIMD: 한도의 절반 이상 쓰면 +1, 타임아웃이나 지연 초과면 곱해서 줄임")
+  void aimd() {
+    AimdLimit aimd = new AimdLimit(10, 2, 12, 0.5, 100, TimeUnit.MILLISECONDS);
+
+    assertThat(aimd.update(10, 10 * MS, 5, false)).isEqualTo(11);
+    assertThat(aimd.update(10, 10 * MS, 4, false)).isEqualTo(10);
+    assertThat(aimd.update(12, 10 * MS, 12, false)).isEqualTo(12);
+    assertThat(aimd.update(10, 200 * MS, 10, false)).isEqualTo(5);
+    assertThat(aimd.update(10, 0, 10, true)).isEqualTo(5);
+    assertThat(aimd.update(3, 0, 3, true)).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Gradient: 지연이 그대로면 한도를 늘리고, 지연이 늘면 줄임")
+  void gradient() {
+    GradientLimit gradient = new GradientLimit(20, 1, 200);
+    int limit = gradient.initialLimit();
+
+    for (int i = 0; i < 100; i++) {
+      limit = gradient.update(limit, 10 * MS, limit, false);
+    }
+    int grown = limit;
+    assertThat(grown).isGreaterThan(20);
+
+    for (int i = 0; i < 50; i++) {
+      limit = gradient.update(limit, 100 * MS, limit, false);
+    }
+    assertThat(limit).isLessThan(grown / 2);
+  }
+
+  @Test
+  @DisplayName("Gradient: 한도의 절반도 쓰지 않으면 늘리지 않음")
+  void gradientAppLimited() {
+    GradientLimit gradient = new GradientLimit(20, 1, 200);
+    int limit = gradient.initialLimit();
+
+    for (int i = 0; i < 100; i++) {
+      limit = gradient.update(limit, 10 * MS, 3, false);
+    }
+
+    assertThat(limit).isEqualTo(20);
+  }
+
+  @Test
+  @DisplayName("Gradient: 한도는 min 과 max 사이")
+  void gradientBounds() {
+    GradientLimit gradient = new GradientLimit(20, 5, 30);
+    int limit = gradient.initialLimit();
+
+    for (int i = 0; i < 200; i++) {
+      limit = gradient.update(limit, 10 * MS, limit, false);
+    }
+    assertThat(limit).isEqualTo(30);
+
+    for (int i = 0; i < 200; i++) {
+      limit = gradient.update(limit, 0, limit, true);
+    }
+    assertThat(limit).isEqualTo(5);
+  }
+}
@@ -0,0 +1,53 @@
+package hello.proxy.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class LogLinearHistogramTest {
+
+  @Test
+  @DisplayName("값은 자기 버킷의 하한 ~ 상한 사이에 들어감")
+  void bucketBounds() {
+    long[] values = {0, 1, 15, 16, 17, 31, 32, 1_000, 999_999, 1_000_000_000L, Long.MAX_VALUE};
+    for (long value : values) {
+      int index = LogLinearHistogram.bucketIndex(value);
+      assertThat(index).isLessThan(LogLinearHistogram.BUCKET_COUNT);
+      assertThat(LogLinearHistogram.bucketLowerBound(index)).isLessThanOrEqualTo(value);
+      assertThat(LogLinearHistogram.bucketUpperBound(index)).isGreaterThanOrEqualTo(value);
+    }
+  }
+
+  @Test
+  @DisplayName("백분위 오차는 약 6% 이내")
+  void percentile() {
+    LogLinearHistogram histogram = new LogLinearHistogram();
+    for (long i = 1; i <= 10_000; i++) {
+      histogram.record(i * 1_000);
+    }
+
+    HistogramSnapshot snapshot = histogram.snapshot();
+    assertThat(snapshot.getCount()).isEqualTo(10_000);
+    assertThat(snapshot.getMax()).isEqualTo(10_000_000);
+    assertThat((double) snapshot.valueAtPercentile(50)).isCloseTo(5_000_000, within(5_000_000 * 0.0625));
+    assertThat((double) snapshot.valueAtPercentile(99)).isCloseTo(9_900_000, within(9_900_000 * 0.0625));
+  }
+
+  @Test
+  @DisplayName("interval 스냅샷은 직전 호출 이후 값만 포함")
+  void interval() {
+    LatencyHistograms histograms = new LatencyHistograms();
+    histograms.record("OrderService.orderItem()", 1_000);
+    histograms.intervalSnapshot();
+
+    histograms.record("OrderService.orderItem()", 2_000);
+    histograms.record("OrderService.orderItem()", 3_000);
+    Map<String, HistogramSnapshot> interval = histograms.intervalSnapshot();
+
+    assertThat(interval.get("OrderService.orderItem()").getCount()).isEqualTo(2);
+    assertThat(histograms.snapshot().get("OrderService.orderItem()").getCount()).isEqualTo(3);
+  }
+}
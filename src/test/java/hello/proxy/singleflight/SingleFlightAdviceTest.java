@@ -0,0 +1,199 @@
+package hello.proxy.singleflight;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightAdviceTest {
+
+  private final SingleFlightMetrics singleFlightMetrics = new SingleFlightMetrics();
+  private final SingleFlightAdvice advice = new SingleFlightAdvice(singleFlightMetrics);
+  private final QuoteServiceImpl target = new QuoteServiceImpl();
+  private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+  @AfterEach
+  void shutdown() {
+    target.release.countDown();
+    executor.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("구현 클래스 메서드에 붙은 @SingleFlight 도 인식해서 같은 인자 동시 호출을 합침")
+  void annotationOnImplementation() throws Exception {
+    Future<Object> first = submit("quote", "itemA");
+    awaitCalls(1);
+    Future<Object> second = submit("quote", "itemA");
+    awaitExport("singleflight_calls_total{method=\"QuoteService.quote()\",result=\"collapsed\"} 1");
+    target.release.countDown();
+
+    assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo("quote:itemA");
+    assertThat(second.get(1, TimeUnit.SECONDS)).isEqualTo("quote:itemA");
+    assertThat(target.calls.get()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("@SingleFlight 가 없는 메서드는 합치지 않고 매번 실행")
+  void notCollapsed() throws Exception {
+    Future<Object> first = submit("stock", "itemA");
+    Future<Object> second = submit("stock", "itemA");
+    // 둘 다 대상 메서드 안에서 기다리는 중이어야 통과
+    awaitCalls(2);
+    target.release.countDown();
+
+    assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo(0);
+    assertThat(second.get(1, TimeUnit.SECONDS)).isEqualTo(0);
+    assertThat(export()).doesNotContain("QuoteService.stock()");
+  }
+
+  @Test
+  @DisplayName("@CachedResult 와 같은 ArgumentKeys: 기본형, 배열 인자는 값으로 비교해서 합침")
+  void argumentKeys() throws Exception {
+    Future<Object> first = submit("total", 10L, new int[]{1, 2});
+    awaitCalls(1);
+    // 다른 배열 객체지만 내용이 같으므로 같은 키
+    Future<Object> second = submit("total", 10L, new int[]{1, 2});
+    awaitExport("singleflight_calls_total{method=\"totals\",result=\"collapsed\"} 1");
+    // 내용이 다르면 다른 키
+    Future<Object> other = submit("total", 10L, new int[]{1, 3});
+    awaitCalls(2);
+    target.release.countDown();
+
+    assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo(40L);
+    assertThat(second.get(1, TimeUnit.SECONDS)).isEqualTo(40L);
+    assertThat(other.get(1, TimeUnit.SECONDS)).isEqualTo(50L);
+    assertThat(export()).contains("singleflight_calls_total{method=\"totals\",result=\"executed\"} 2");
+  }
+
+  private Future<Object> submit(String methodName, Object... args) {
+    return executor.submit(() -> {
+      try {
+        return call(methodName, args);
+      } catch (Exception | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new IllegalStateException(e);
+      }
+    });
+  }
+
+  private void awaitCalls(int calls) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+    while (target.calls.get() < calls && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertThat(target.calls.get()).isEqualTo(calls);
+  }
+
+  private void awaitExport(String line) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+    while (!export().contains(line) && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertThat(export()).contains(line);
+  }
+
+  private String export() {
+    StringBuilder out = new StringBuilder();
+    singleFlightMetrics.export(out);
+    return out.toString();
+  }
+
+  private Object call(String methodName, Object... args) throws Throwable {
+    Method method = findMethod(methodName);
+    return advice.invoke(new MethodInvocation() {
+      @Override
+      public Method getMethod() {
+        return method;
+      }
+
+      @Override
+      public Object[] getArguments() {
+        return args;
+      }
+
+      @Override
+      public Object proceed() throws Throwable {
+        return method.invoke(target, args);
+      }
+
+      @Override
+      public Object getThis() {
+        return target;
+      }
+
+      @Override
+      public AccessibleObject getStaticPart() {
+        return method;
+      }
+    });
+  }
+
+  // JDK 동적 프록시처럼 인터페이스의 Method 를 넘김
+  private static Method findMethod(String name) {
+    for (Method method : QuoteService.class.getMethods()) {
+      if (method.getName().equals(name)) {
+        return method;
+      }
+    }
+    throw new IllegalArgumentException(name);
+  }
+
+  public interface QuoteService {
+
+    String quote(String itemId);
+
+    @SingleFlight(name = "totals")
+    long total(long base, int[] quantities);
+
+    int stock(String itemId);
+  }
+
+  public static class QuoteServiceImpl implements QuoteService {
+
+    final AtomicInteger calls = new AtomicInteger();
+    final CountDownLatch release = new CountDownLatch(1);
+
+    @Override
+    @SingleFlight
+    public String quote(String itemId) {
+      await();
+      return "quote:" + itemId;
+    }
+
+    @Override
+    public long total(long base, int[] quantities) {
+      await();
+      long total = base;
+      for (int quantity : quantities) {
+        total += base * quantity;
+      }
+      return total;
+    }
+
+    @Override
+    public int stock(String itemId) {
+      await();
+      return 0;
+    }
+
+    private void await() {
+      calls.incrementAndGet();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
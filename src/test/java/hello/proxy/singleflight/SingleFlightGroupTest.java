@@ -0,0 +1,121 @@
+package hello.proxy.singleflight;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightGroupTest {
+
+  private final SingleFlightGroup<String> group = new SingleFlightGroup<>("OrderServiceV3.orderItem()");
+  private final ExecutorService executor = Executors.newFixedThreadPool(8);
+  private final AtomicInteger executions = new AtomicInteger();
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("같은 키로 동시에 들어온 호출은 한 번만 실행하고 모두 같은 결과를 받음")
+  void collapse() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+
+    List<Future<Object>> results = submit(8, "itemA", () -> {
+      executions.incrementAndGet();
+      release.await();
+      return "ok";
+    });
+    awaitInFlight();
+    release.countDown();
+
+    for (Future<Object> result : results) {
+      assertThat(result.get(1, TimeUnit.SECONDS)).isEqualTo("ok");
+    }
+    assertThat(executions.get()).isEqualTo(1);
+    assertThat(group.executionCount()).isEqualTo(1);
+    assertThat(group.collapsedCount()).isEqualTo(7);
+    assertThat(group.inFlightCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("예외도 기다리던 호출 모두에게 전달")
+  void shareException() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+
+    List<Future<Object>> results = submit(4, "ex", () -> {
+      executions.incrementAndGet();
+      release.await();
+      throw new IllegalStateException("예외 발생!");
+    });
+    awaitInFlight();
+    release.countDown();
+
+    for (Future<Object> result : results) {
+      assertThatThrownBy(() -> result.get(1, TimeUnit.SECONDS))
+          .isInstanceOf(ExecutionException.class)
+          .hasCauseInstanceOf(IllegalStateException.class);
+    }
+    assertThat(executions.get()).isEqualTo(1);
+    assertThat(group.inFlightCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("실행이 끝난 뒤 들어온 호출은 새로 실행")
+  void notCachedAfterCompletion() throws Throwable {
+    group.execute("itemA", executions::incrementAndGet);
+    group.execute("itemA", executions::incrementAndGet);
+
+    assertThat(executions.get()).isEqualTo(2);
+    assertThat(group.collapsedCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("키가 다르면 합치지 않음")
+  void differentKeys() throws Throwable {
+    group.execute("itemA", executions::incrementAndGet);
+    group.execute("itemB", executions::incrementAndGet);
+
+    assertThat(executions.get()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("실행 중에 같은 키로 재귀 호출해도 교착 없이 실행")
+  void reentrant() throws Throwable {
+    Object result = group.execute("itemA", () -> group.execute("itemA", () -> "inner"));
+
+    assertThat(result).isEqualTo("inner");
+  }
+
+  private List<Future<Object>> submit(int count, String key, SingleFlightGroup.Call call) {
+    List<Future<Object>> results = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      results.add(executor.submit(() -> {
+        try {
+          return group.execute(key, call);
+        } catch (Exception e) {
+          throw e;
+        } catch (Throwable e) {
+          throw new IllegalStateException(e);
+        }
+      }));
+    }
+    return results;
+  }
+
+  // 모든 호출이 실행 또는 대기 상태에 들어갈 때까지
+  private void awaitInFlight() throws InterruptedException {
+    Thread.sleep(100);
+  }
+}
@@ -0,0 +1,45 @@
+package hello.proxy.thread;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class VirtualThreadsTest {
+
+  @Test
+  @DisplayName("플랫폼 스레드는 가상 스레드가 아님")
+  void platformThread() {
+    assertThat(VirtualThreads.isVirtual(Thread.currentThread())).isFalse();
+  }
+
+  @Test
+  @DisplayName("Java 21 이상이면 작업마다 이름 붙은 가상 스레드에서 실행")
+  void newThreadPerTaskExecutor() throws Exception {
+    assumeTrue(VirtualThreads.isSupported());
+
+    ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-virtual-");
+    try {
+      Thread thread = executor.submit(Thread::currentThread).get(1, TimeUnit.SECONDS);
+
+      assertThat(VirtualThreads.isVirtual(thread)).isTrue();
+      assertThat(thread.getName()).startsWith("test-virtual-");
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  @DisplayName("Java 21 미만이면 executor 를 만들지 않고 예외")
+  void unsupported() {
+    assumeFalse(VirtualThreads.isSupported());
+
+    assertThatThrownBy(() -> VirtualThreads.newThreadPerTaskExecutor("test-virtual-"))
+        .isInstanceOf(UnsupportedOperationException.class);
+  }
+}
@@ -0,0 +1,151 @@
+package hello.proxy.timer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class HashedTimerWheelTest {
+
+  // 바퀴 한 바퀴 = 80ms. 그보다 긴 지연은 rounds 로 처리됨
+  private final HashedTimerWheel timerWheel = new HashedTimerWheel(10, TimeUnit.MILLISECONDS, 8);
+
+  @AfterEach
+  void close() {
+    timerWheel.close();
+  }
+
+  @Test
+  @DisplayName("지연 시간이 지난 뒤에 실행하고 일찍 실행하지 않음")
+  void expire() throws InterruptedException {
+    CountDownLatch done = new CountDownLatch(3);
+    AtomicInteger early = new AtomicInteger();
+    for (long delay : new long[]{0, 30, 200}) {
+      long start = System.nanoTime();
+      timerWheel.newTimeout(() -> {
+        if (System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(delay)) {
+          early.incrementAndGet();
+        }
+        done.countDown();
+      }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    assertThat(done.await(2, TimeUnit.SECONDS)).isTrue();
+    assertThat(early.get()).isEqualTo(0);
+    assertThat(timerWheel.pendingTimeouts()).isEqualTo(0);
+  }
+
+  @Test
+  @DisplayName("취소한 작업은 실행하지 않음")
+  void cancel() throws InterruptedException {
+    AtomicInteger runs = new AtomicInteger();
+    HashedTimerWheel.Timeout timeout = timerWheel.newTimeout(runs::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+
+    assertThat(timeout.cancel()).isTrue();
+    assertThat(timeout.cancel()).isFalse();
+    Thread.sleep(150);
+
+    assertThat(runs.get()).isEqualTo(0);
+    assertThat(timeout.isCancelled()).isTrue();
+    assertThat(timeout.isExpired()).isFalse();
+    assertThat(timerWheel.pendingTimeouts()).isEqualTo(0);
+  }
+
+  @Test
+  @DisplayName("실행된 작업은 취소할 수 없음")
+  void cancelAfterExpire() throws InterruptedException {
+    CountDownLatch done = new CountDownLatch(1);
+    HashedTimerWheel.Timeout timeout = timerWheel.newTimeout(done::countDown, 10, TimeUnit.MILLISECONDS);
+
+    assertThat(done.await(1, TimeUnit.SECONDS)).isTrue();
+    Thread.sleep(20);
+    assertThat(timeout.cancel()).isFalse();
+    assertThat(timeout.isExpired()).isTrue();
+  }
+
+  @Test
+  @DisplayName("decorator 는 등록한 스레드에서 적용")
+  void taskDecorator() throws InterruptedException {
+    AtomicLong decoratedOn = new AtomicLong();
+    timerWheel.setTaskDecorator(task -> {
+      decoratedOn.set(Thread.currentThread().getId());
+      return task;
+    });
+    CountDownLatch done = new CountDownLatch(1);
+    timerWheel.newTimeout(done::countDown, 10, TimeUnit.MILLISECONDS);
+
+    assertThat(done.await(1, TimeUnit.SECONDS)).isTrue();
+    assertThat(decoratedOn.get()).isEqualTo(Thread.currentThread().getId());
+  }
+
+  @Test
+  @DisplayName("작업이 예외를 던져도 다음 작업은 계속 실행")
+  void failingTask() throws InterruptedException {
+    CountDownLatch done = new CountDownLatch(1);
+    timerWheel.newTimeout(() -> {
+      throw new IllegalStateException("예외 발생!");
+    }, 10, TimeUnit.MILLISECONDS);
+    timerWheel.newTimeout(done::countDown, 20, TimeUnit.MILLISECONDS);
+
+    assertThat(done.await(1, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  @DisplayName("종료하면 만료되지 않은 작업은 실행하지 않고 onClose 를 실행, delay future 는 예외로 완료")
+  void closeAbandonsPending() {
+    AtomicInteger runs = new AtomicInteger();
+    AtomicInteger closes = new AtomicInteger();
+    // 한 바퀴(80ms)보다 멀어서 rounds 로 대기하는 작업, 아직 바퀴로 옮겨지지 않았을 수 있는 작업
+    timerWheel.newTimeout(runs::incrementAndGet, closes::incrementAndGet, 10, TimeUnit.SECONDS);
+    timerWheel.newTimeout(runs::incrementAndGet, closes::incrementAndGet, 20, TimeUnit.MILLISECONDS);
+    CompletableFuture<Void> delayed = timerWheel.delay(10, TimeUnit.SECONDS);
+
+    timerWheel.close();
+
+    assertThat(runs.get() + closes.get()).isEqualTo(2);
+    assertThat(closes.get()).isGreaterThanOrEqualTo(1);
+    assertThat(delayed.isCompletedExceptionally()).isTrue();
+    assertThatThrownBy(delayed::join).hasCauseInstanceOf(IllegalStateException.class);
+    assertThat(timerWheel.pendingTimeouts()).isEqualTo(0);
+  }
+
+  @Test
+  @DisplayName("종료 후 등록은 거부하고 delay 는 바로 실패한 future")
+  void registerAfterClose() {
+    timerWheel.close();
+
+    assertThatThrownBy(() -> timerWheel.newTimeout(() -> { }, 10, TimeUnit.MILLISECONDS))
+        .isInstanceOf(IllegalStateException.class);
+    assertThat(timerWheel.delay(10, TimeUnit.MILLISECONDS).isCompletedExceptionally()).isTrue();
+  }
+
+  @Test
+  @DisplayName("만료된 작업은 taskExecutor 에서 실행")
+  void taskExecutor() throws InterruptedException {
+    ExecutorService executor = Executors.newSingleThreadExecutor(task -> new Thread(task, "timer-task"));
+    try {
+      timerWheel.setTaskExecutor(executor);
+      AtomicReference<String> ranOn = new AtomicReference<>();
+      CountDownLatch done = new CountDownLatch(1);
+      timerWheel.delay(10, TimeUnit.MILLISECONDS).thenRun(() -> {
+        ranOn.set(Thread.currentThread().getName());
+        done.countDown();
+      });
+
+      assertThat(done.await(1, TimeUnit.SECONDS)).isTrue();
+      assertThat(ranOn.get()).isEqualTo("timer-task");
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
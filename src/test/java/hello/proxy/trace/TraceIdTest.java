@@ -0,0 +1,44 @@
+package hello.proxy.trace;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hello.proxy.trace.id.W3cTraceIdGenerator;
+import hello.proxy.trace.id.XorShiftTraceIdGenerator;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TraceIdTest {
+
+  @Test
+  @DisplayName("64bit 모드는 16자리 hex, 하위 레벨도 같은 id 유지")
+  void xorShiftId() {
+    TraceId traceId = new TraceId(new XorShiftTraceIdGenerator());
+    TraceId nextId = traceId.createNextId();
+
+    assertThat(traceId.getId()).hasSize(16).matches("[0-9a-f]{16}");
+    assertThat(nextId.getId()).isEqualTo(traceId.getId());
+    assertThat(nextId.getLevel()).isEqualTo(1);
+    assertThat(nextId.createPreviousId().isFirstLevel()).isTrue();
+  }
+
+  @Test
+  @DisplayName("W3C 모드는 32자리 소문자 hex")
+  void w3cId() {
+    TraceId traceId = new TraceId(new W3cTraceIdGenerator());
+
+    assertThat(traceId.getId()).matches("[0-9a-f]{32}");
+    assertThat(traceId.getId()).isNotEqualTo("00000000000000000000000000000000");
+  }
+
+  @Test
+  @DisplayName("같은 스레드에서 연속으로 생성해도 중복 없음")
+  void unique() {
+    XorShiftTraceIdGenerator generator = new XorShiftTraceIdGenerator();
+    Set<Long> ids = new HashSet<>();
+    for (int i = 0; i < 100_000; i++) {
+      assertThat(ids.add(generator.nextId())).isTrue();
+    }
+  }
+}
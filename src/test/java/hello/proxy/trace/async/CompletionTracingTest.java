@@ -0,0 +1,85 @@
+package hello.proxy.trace.async;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hello.proxy.trace.TraceContext;
+import hello.proxy.trace.TraceStatus;
+import hello.proxy.trace.async.TracingExecutorTest.RecordingSink;
+import hello.proxy.trace.logtrace.ThreadLocalLogTrace;
+import hello.proxy.trace.site.TraceSite;
+import hello.proxy.trace.site.TraceSites;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class CompletionTracingTest {
+
+  private final RecordingSink sink = new RecordingSink();
+  private final ThreadLocalLogTrace trace = new ThreadLocalLogTrace(sink);
+
+  @Test
+  @DisplayName("완료한 스레드에서 같은 trace 의 하위 레벨로 async span 을 남김")
+  void traceCompletion() throws Exception {
+    TraceSite site = TraceSites.of(AsyncService.class, "orderItem", String.class);
+    CompletableFuture<String> future = new CompletableFuture<>();
+
+    TraceStatus status = trace.begin(site);
+    TraceContext context = CompletionTracing.captureIfAsync(trace, site);
+    trace.end(status);
+    CompletionTracing.traceCompletion(trace, context, future, site);
+
+    CompletableFuture.runAsync(() -> future.complete("ok")).get(1, TimeUnit.SECONDS);
+
+    String id = status.getTraceId().getId();
+    assertThat(sink.lines).containsExactly(
+        "-->AsyncService.orderItem() 0 " + id,
+        "<--AsyncService.orderItem() 0 " + id,
+        "-->AsyncService.orderItem().async() 1 " + id,
+        "<--AsyncService.orderItem().async() 1 " + id);
+  }
+
+  @Test
+  @DisplayName("예외로 완료되면 async span 도 예외로 기록")
+  void traceExceptionalCompletion() throws Exception {
+    TraceSite site = TraceSites.of(AsyncService.class, "orderItem", String.class);
+    CompletableFuture<String> future = new CompletableFuture<>();
+
+    TraceStatus status = trace.begin(site);
+    TraceContext context = CompletionTracing.captureIfAsync(trace, site);
+    trace.end(status);
+    CompletionTracing.traceCompletion(trace, context, future.thenApply(value -> value), site);
+
+    CompletableFuture.runAsync(() -> future.completeExceptionally(new IllegalStateException("예외 발생!")))
+        .get(1, TimeUnit.SECONDS);
+
+    String id = status.getTraceId().getId();
+    assertThat(sink.lines).containsExactly(
+        "-->AsyncService.orderItem() 0 " + id,
+        "<--AsyncService.orderItem() 0 " + id,
+        "-->AsyncService.orderItem().async() 1 " + id,
+        "<X-AsyncService.orderItem().async() 1 " + id);
+  }
+
+  @Test
+  @DisplayName("CompletionStage 를 반환하지 않는 메서드는 capture 하지 않음")
+  void notAsync() {
+    TraceSite site = TraceSites.of(AsyncService.class, "orderItemSync", String.class);
+    TraceStatus status = trace.begin(site);
+    TraceContext context = CompletionTracing.captureIfAsync(trace, site);
+    trace.end(status);
+
+    assertThat(context).isNull();
+    assertThat(site.getAsyncMessage()).isNull();
+  }
+
+  public static class AsyncService {
+
+    public CompletableFuture<String> orderItem(String itemId) {
+      return CompletableFuture.completedFuture(itemId);
+    }
+
+    public void orderItemSync(String itemId) {
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package hello.proxy.trace.async;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hello.proxy.trace.TraceId;
+import hello.proxy.trace.TraceStatus;
+import hello.proxy.trace.logtrace.ThreadLocalLogTrace;
+import hello.proxy.trace.sink.TraceSink;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TracingExecutorTest {
+
+  private final RecordingSink sink = new RecordingSink();
+  private final ThreadLocalLogTrace trace = new ThreadLocalLogTrace(sink);
+  private final ExecutorService pool = Executors.newSingleThreadExecutor();
+  private final TracingExecutorService executor = new TracingExecutorService(pool, trace, "pool");
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("다른 스레드의 span 도 같은 trace id, 제출 시점의 하위 레벨로 기록")
+  void propagate() throws Exception {
+    TraceStatus root = trace.begin("root");
+    executor.submit(() -> {
+      TraceStatus child = trace.begin("child");
+      trace.end(child);
+    }).get();
+    trace.end(root);
+
+    String id = root.getTraceId().getId();
+    assertThat(sink.lines).containsExactly(
+        "-->root 0 " + id,
+        "-->pool.queue() 1 " + id,
+        "<--pool.queue() 1 " + id,
+        "-->child 1 " + id,
+        "<--child 1 " + id,
+        "<--root 0 " + id);
+  }
+
+  @Test
+  @DisplayName("CompletableFuture 도 executor 를 넘기면 전파되고, 작업이 끝나면 실행 스레드는 원래 상태로 돌아감")
+  void completableFuture() throws Exception {
+    TraceStatus root = trace.begin("root");
+    String childId = CompletableFuture.supplyAsync(() -> {
+      TraceStatus child = trace.begin("child");
+      trace.end(child);
+      return child.getTraceId().getId();
+    }, executor).get();
+    trace.end(root);
+
+    assertThat(childId).isEqualTo(root.getTraceId().getId());
+    // 실행 스레드에 trace 가 남아있지 않아야 새 trace 가 0 레벨에서 시작
+    Integer level = pool.submit(() -> {
+      TraceStatus status = trace.begin("next");
+      trace.end(status);
+      return status.getTraceId().getLevel();
+    }).get();
+    assertThat(level).isEqualTo(0);
+  }
+
+  @Test
+  @DisplayName("진행 중인 trace 가 없으면 작업을 감싸지 않음")
+  void noTrace() {
+    Runnable task = () -> {
+    };
+
+    assertThat(executor.wrap(task)).isSameAs(task);
+  }
+
+  static class RecordingSink implements TraceSink {
+
+    final List<String> lines = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void begin(TraceId traceId, String message) {
+      lines.add("-->" + message + " " + traceId.getLevel() + " " + traceId.getId());
+    }
+
+    @Override
+    public void complete(TraceId traceId, String message, long resultTimeNanos, Exception e) {
+      lines.add((e == null ? "<--" : "<X-") + message + " " + traceId.getLevel() + " " + traceId.getId());
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package hello.proxy.trace.binary;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hello.proxy.trace.TraceStatus;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BinaryLogTraceTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  @DisplayName("바이너리로 기록한 trace 를 디코더가 ThreadLocalLogTrace 와 같은 트리 형식으로 출력")
+  void writeAndDecode() throws IOException {
+    // segment 당 레코드 2개 -> segment 넘김도 함께 확인
+    BinaryTraceWriter writer = new BinaryTraceWriter(directory, 2);
+    BinaryLogTrace trace = new BinaryLogTrace(writer);
+
+    TraceStatus controller = trace.begin("OrderController.request()");
+    TraceStatus service = trace.begin("OrderService.orderItem()");
+    TraceStatus repository = trace.begin("OrderRepository.save()");
+    trace.exception(repository, new IllegalStateException("예외 발생!"));
+    trace.exception(service, new IllegalStateException("예외 발생!"));
+    trace.end(controller);
+    writer.close();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryTraceDecoder.decode(directory, new PrintStream(out, true, StandardCharsets.UTF_8));
+
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\\R");
+    assertThat(lines).hasSize(6);
+    assertThat(lines[0]).matches("\\[[0-9a-f]{16}] OrderController.request\\(\\)");
+    assertThat(lines[1]).endsWith("] |-->OrderService.orderItem()");
+    assertThat(lines[2]).endsWith("] |   |-->OrderRepository.save()");
+    assertThat(lines[3]).contains("] |   |<X-OrderRepository.save() time=").endsWith("ex=java.lang.IllegalStateException: 예외 발생!");
+    assertThat(lines[4]).contains("] |<X-OrderService.orderItem() time=");
+    assertThat(lines[5]).contains("] OrderController.request() time=");
+  }
+
+  @Test
+  @DisplayName("같은 디렉토리로 다시 열면 이전 실행의 segment 를 지움")
+  void reopenDeletesStaleSegments() throws IOException {
+    BinaryTraceWriter first = new BinaryTraceWriter(directory, 1);
+    BinaryLogTrace trace = new BinaryLogTrace(first);
+    trace.end(trace.begin("Old.first()"));
+    trace.end(trace.begin("Old.second()"));
+    trace.end(trace.begin("Old.third()"));
+    first.close();
+    assertThat(segments()).hasSize(3);
+
+    BinaryTraceWriter second = new BinaryTraceWriter(directory, 1);
+    trace = new BinaryLogTrace(second);
+    trace.end(trace.begin("New.only()"));
+    second.close();
+
+    assertThat(segments()).containsExactly("trace-00000.seg");
+    String[] lines = decode();
+    assertThat(lines).hasSize(2);
+    assertThat(lines[0]).endsWith("] New.only()");
+  }
+
+  @Test
+  @DisplayName("디스크에는 최근 maxSegments 개의 segment 만 남김")
+  void retention() throws IOException {
+    BinaryTraceWriter writer = new BinaryTraceWriter(directory, 1, 2);
+    BinaryLogTrace trace = new BinaryLogTrace(writer);
+    for (int i = 0; i < 5; i++) {
+      trace.end(trace.begin("Call.number" + i + "()"));
+    }
+    writer.close();
+
+    assertThat(segments()).containsExactly("trace-00003.seg", "trace-00004.seg");
+    String[] lines = decode();
+    assertThat(lines).hasSize(4);
+    assertThat(lines[0]).endsWith("] Call.number3()");
+    assertThat(lines[2]).endsWith("] Call.number4()");
+  }
+
+  @Test
+  @DisplayName("id 값이 같아도 64bit, 128bit trace 는 서로 다른 trace 로 조립")
+  void wideAndNarrowAreDifferentTraces() throws IOException {
+    BinaryTraceWriter writer = new BinaryTraceWriter(directory, 8);
+    TraceDictionary dictionary = writer.getDictionary();
+    writer.append(0, 7, false, 1, dictionary.methodId("Narrow.child()"), 0, 0, 1);
+    writer.append(0, 7, true, 0, dictionary.methodId("Wide.root()"), 0, 0, 1);
+    writer.append(0, 7, false, 0, dictionary.methodId("Narrow.root()"), 0, 0, 1);
+    writer.close();
+
+    String[] lines = decode();
+    assertThat(lines).hasSize(6);
+    assertThat(lines[0]).isEqualTo("[00000000000000000000000000000007] Wide.root()");
+    assertThat(lines[2]).isEqualTo("[0000000000000007] Narrow.root()");
+    assertThat(lines[3]).isEqualTo("[0000000000000007] |-->Narrow.child()");
+  }
+
+  private List<String> segments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.map(p -> p.getFileName().toString())
+          .filter(name -> name.startsWith(BinaryTraceWriter.SEGMENT_PREFIX))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  private String[] decode() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryTraceDecoder.decode(directory, new PrintStream(out, true, StandardCharsets.UTF_8));
+    return out.toString(StandardCharsets.UTF_8).split("\\R");
+  }
+}
@@ -0,0 +1,86 @@
+package hello.proxy.trace.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hello.proxy.trace.site.TraceSites;
+import java.lang.reflect.Method;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.PatternMatchUtils;
+
+public class MethodNameMatcherTest {
+
+  private static final String[] PATTERNS = {"request*", "order*", "save*"};
+
+  @Test
+  void patterns() {
+    MethodNameMatcher matcher = MethodNameMatcher.compile(PATTERNS);
+
+    assertThat(matcher.matches("request")).isTrue();
+    assertThat(matcher.matches("orderItem")).isTrue();
+    assertThat(matcher.matches("save")).isTrue();
+    assertThat(matcher.matches("noLog")).isFalse();
+    assertThat(matcher.matches("reque")).isFalse();
+  }
+
+  @Test
+  @DisplayName("exact, prefix, suffix, 그 외 패턴 모두 PatternMatchUtils.simpleMatch 와 같은 결과")
+  void sameAsSimpleMatch() {
+    String[] patterns = {"find", "get*", "*Item", "*rder*", "up*date", "a*b*c", "", "x**"};
+    MethodNameMatcher matcher = MethodNameMatcher.compile(patterns);
+
+    Random random = new Random(42);
+    String alphabet = "abcdefgIrtmxu";
+    for (int i = 0; i < 20_000; i++) {
+      StringBuilder name = new StringBuilder();
+      int length = random.nextInt(8);
+      for (int j = 0; j < length; j++) {
+        name.append(alphabet.charAt(random.nextInt(alphabet.length())));
+      }
+      String candidate = random.nextInt(4) == 0 ? "get" + name : name.toString();
+      assertThat(matcher.matches(candidate)).isEqualTo(PatternMatchUtils.simpleMatch(patterns, candidate));
+    }
+    for (String name : new String[]{"find", "finder", "getX", "orderItem", "order", "update", "upXdate", "abc", "x", ""}) {
+      assertThat(matcher.matches(name)).isEqualTo(PatternMatchUtils.simpleMatch(patterns, name));
+    }
+  }
+
+  @Test
+  @DisplayName("패턴이 수천 개여도 prefix/suffix 는 trie 한 번 탐색")
+  void manyPatterns() {
+    String[] patterns = new String[3000];
+    for (int i = 0; i < 1000; i++) {
+      patterns[i] = "method" + i;
+      patterns[1000 + i] = "prefix" + i + "*";
+      patterns[2000 + i] = "*Suffix" + i;
+    }
+    MethodNameMatcher matcher = MethodNameMatcher.compile(patterns);
+
+    assertThat(matcher.matches("method999")).isTrue();
+    assertThat(matcher.matches("prefix12Anything")).isTrue();
+    assertThat(matcher.matches("anythingSuffix7")).isTrue();
+    assertThat(matcher.matches("noLog")).isFalse();
+  }
+
+  @Test
+  @DisplayName("MethodFilter 는 로그 대상이면 TraceSites 와 같은 site, 아니면 null")
+  void methodFilter() throws Exception {
+    MethodFilter filter = new MethodFilter(PATTERNS);
+    Method orderItem = Target.class.getMethod("orderItem");
+    Method noLog = Target.class.getMethod("noLog");
+
+    assertThat(filter.siteOf(orderItem)).isSameAs(TraceSites.of(orderItem));
+    assertThat(filter.siteOf(noLog)).isNull();
+    assertThat(filter.matches(noLog)).isFalse();
+  }
+
+  static class Target {
+
+    public void orderItem() {
+    }
+
+    public void noLog() {
+    }
+  }
+}
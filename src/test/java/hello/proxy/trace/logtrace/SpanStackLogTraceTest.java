@@ -0,0 +1,150 @@
+package hello.proxy.trace.logtrace;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import hello.proxy.metrics.LatencyHistograms;
+import hello.proxy.thread.VirtualThreads;
+import hello.proxy.trace.TraceStatus;
+import hello.proxy.trace.logtrace.ThreadLocalLogTraceTest.RecordingSink;
+import hello.proxy.trace.sampling.RateTraceSampler;
+import hello.proxy.trace.site.TraceSite;
+import hello.proxy.trace.site.TraceSites;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SpanStackLogTraceTest {
+
+  private final RecordingSink sink = new RecordingSink();
+  private final SpanStackLogTrace trace = new SpanStackLogTrace(sink);
+
+  @Test
+  @DisplayName("handle API 도 ThreadLocalLogTrace 와 같은 레벨로 기록")
+  void beginEndLevel2() throws Exception {
+    TraceSite outer = TraceSites.of(Target.class.getMethod("outer"));
+    TraceSite inner = TraceSites.of(Target.class.getMethod("inner"));
+
+    int span1 = trace.beginSpan(outer);
+    int span2 = trace.beginSpan(inner);
+    trace.endSpan(span2);
+    trace.endSpan(span1);
+
+    assertThat(sink.lines).containsExactly(
+        "-->Target.outer() 0", "-->Target.inner() 1", "<--Target.inner() 1", "<--Target.outer() 0");
+  }
+
+  @Test
+  @DisplayName("TraceStatus 호환 API 와 handle API 를 섞어 써도 같은 trace")
+  void compatibility() throws Exception {
+    TraceStatus status = trace.begin("hello1");
+    int span = trace.beginSpan(TraceSites.of(Target.class.getMethod("inner")));
+    trace.endSpan(span);
+    trace.end(status);
+
+    assertThat(status.getHandle()).isNotEqualTo(LogTrace.NO_SPAN);
+    assertThat(sink.lines).containsExactly(
+        "-->hello1 0", "-->Target.inner() 1", "<--Target.inner() 1", "<--hello1 0");
+  }
+
+  @Test
+  @DisplayName("샘플링되지 않은 trace 라도 예외가 나면 예외 지점부터 루트까지 종료 로그를 남김")
+  void forceSampleOnError() {
+    trace.setSampler(new RateTraceSampler(0.0));
+
+    TraceStatus status1 = trace.begin("hello1");
+    TraceStatus status2 = trace.begin("hello2");
+    trace.exception(status2, new IllegalStateException());
+    trace.end(status1);
+
+    assertThat(sink.lines).containsExactly("<X-hello2 1", "<--hello1 0");
+
+    trace.end(trace.begin("hello3"));
+    assertThat(sink.lines).hasSize(2);
+  }
+
+  @Test
+  @DisplayName("안쪽 span 을 닫지 않고 바깥 span 을 닫으면 같이 정리되어 다음 trace 는 0 레벨에서 시작")
+  void unbalanced() {
+    TraceStatus status1 = trace.begin("hello1");
+    trace.begin("hello2");
+    trace.end(status1);
+
+    TraceStatus next = trace.begin("hello3");
+    trace.end(next);
+
+    assertThat(next.getTraceId().getLevel()).isEqualTo(0);
+    assertThat(next.getTraceId().getId()).isNotEqualTo(status1.getTraceId().getId());
+  }
+
+  @Test
+  @DisplayName("site 로 시작한 span 은 site 별 히스토그램에 기록")
+  void histogram() throws Exception {
+    LatencyHistograms histograms = new LatencyHistograms();
+    trace.setLatencyHistograms(histograms);
+    trace.setSampler(new RateTraceSampler(0.0));
+
+    for (int i = 0; i < 3; i++) {
+      trace.endSpan(trace.beginSpan(TraceSites.of(Target.class.getMethod("outer"))));
+    }
+
+    assertThat(histograms.snapshot().get("Target.outer()").getCount()).isEqualTo(3);
+    assertThat(sink.lines).isEmpty();
+  }
+
+  @Test
+  @DisplayName("플랫폼 스레드는 trace 가 끝나도 스택을 계속 사용")
+  void platformThreadKeepsStack() {
+    for (int i = 0; i < 10; i++) {
+      trace.end(trace.begin("hello" + i));
+    }
+
+    assertThat(trace.stackCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("가상 스레드는 trace 가 끝나면 스택을 반납해서 동시에 trace 중인 스레드 수만큼만 스택이 생김")
+  void virtualThreadsReleaseStack() throws Exception {
+    assumeTrue(VirtualThreads.isSupported());
+    trace.setSampler(new RateTraceSampler(0.0)); // RecordingSink 는 단일 스레드용
+    Semaphore concurrency = new Semaphore(100);
+    AtomicInteger failures = new AtomicInteger();
+
+    ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("trace-virtual-");
+    for (int i = 0; i < 10_000; i++) {
+      executor.execute(() -> {
+        concurrency.acquireUninterruptibly();
+        try {
+          TraceStatus status1 = trace.begin("hello1");
+          Thread.yield();
+          TraceStatus status2 = trace.begin("hello2");
+          if (status2.getTraceId().getLevel() != 1
+              || !status2.getTraceId().getId().equals(status1.getTraceId().getId())) {
+            failures.incrementAndGet();
+          }
+          trace.end(status2);
+          trace.end(status1);
+        } finally {
+          concurrency.release();
+        }
+      });
+    }
+    executor.shutdown();
+
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(failures.get()).isEqualTo(0);
+    assertThat(trace.stackCount()).isLessThanOrEqualTo(100);
+  }
+
+  public static class Target {
+
+    public void outer() {
+    }
+
+    public void inner() {
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package hello.proxy.trace.logtrace;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hello.proxy.trace.TraceStatus;
+import hello.proxy.trace.logtrace.ThreadLocalLogTraceTest.RecordingSink;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TailSamplingLogTraceTest {
+
+  private final RecordingSink sink = new RecordingSink();
+
+  @Test
+  @DisplayName("빠르고 정상 종료된 trace 는 버림")
+  void discardFastTrace() {
+    TailSamplingLogTrace trace = new TailSamplingLogTrace(sink, 1, TimeUnit.SECONDS);
+
+    TraceStatus status1 = trace.begin("hello1");
+    TraceStatus status2 = trace.begin("hello2");
+    trace.end(status2);
+    trace.end(status1);
+
+    assertThat(sink.lines).isEmpty();
+    assertThat(trace.getDiscardedTraceCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("예외가 난 trace 는 트리 전체를 순서대로 내보냄")
+  void emitFailedTrace() {
+    TailSamplingLogTrace trace = new TailSamplingLogTrace(sink, 1, TimeUnit.SECONDS);
+
+    TraceStatus status1 = trace.begin("hello1");
+    TraceStatus status2 = trace.begin("hello2");
+    trace.exception(status2, new IllegalStateException());
+    trace.end(status1);
+
+    assertThat(sink.lines).containsExactly("-->hello1 0", "-->hello2 1", "<X-hello2 1", "<--hello1 0");
+    assertThat(trace.getEmittedTraceCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("느린 trace 는 내보냄")
+  void emitSlowTrace() {
+    TailSamplingLogTrace trace = new TailSamplingLogTrace(sink, 0, TimeUnit.NANOSECONDS);
+
+    trace.end(trace.begin("hello1"));
+
+    assertThat(sink.lines).containsExactly("-->hello1 0", "<--hello1 0");
+  }
+
+  @Test
+  @DisplayName("버퍼를 넘는 이벤트는 버리고 카운트. 루트 종료 이벤트는 항상 남음")
+  void overflow() {
+    TailSamplingLogTrace trace = new TailSamplingLogTrace(sink, 0, TimeUnit.NANOSECONDS, 4);
+
+    TraceStatus root = trace.begin("root");
+    for (int i = 0; i < 3; i++) {
+      trace.end(trace.begin("child" + i));
+    }
+    trace.end(root);
+
+    assertThat(sink.lines).containsExactly("-->root 0", "-->child0 1", "<--child0 1", "<--root 0");
+    assertThat(trace.getOverflowedTraceCount()).isEqualTo(1);
+    assertThat(trace.getOverflowedEventCount()).isEqualTo(4);
+  }
+}
@@ -0,0 +1,106 @@
+package hello.proxy.trace.logtrace;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import hello.proxy.thread.VirtualThreads;
+import hello.proxy.trace.TraceId;
+import hello.proxy.trace.TraceStatus;
+import hello.proxy.trace.sampling.RateTraceSampler;
+import hello.proxy.trace.sink.TraceSink;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ThreadLocalLogTraceTest {
+
+  private final RecordingSink sink = new RecordingSink();
+  private final ThreadLocalLogTrace trace = new ThreadLocalLogTrace(sink);
+
+  @Test
+  void beginEndLevel2() {
+    TraceStatus status1 = trace.begin("hello1");
+    TraceStatus status2 = trace.begin("hello2");
+    trace.end(status2);
+    trace.end(status1);
+
+    assertThat(sink.lines).containsExactly("-->hello1 0", "-->hello2 1", "<--hello2 1", "<--hello1 0");
+  }
+
+  @Test
+  @DisplayName("샘플링되지 않은 trace 는 sink 로 아무것도 보내지 않음")
+  void notSampled() {
+    trace.setSampler(new RateTraceSampler(0.0));
+
+    TraceStatus status1 = trace.begin("hello1");
+    TraceStatus status2 = trace.begin("hello2");
+    trace.end(status2);
+    trace.end(status1);
+
+    assertThat(sink.lines).isEmpty();
+  }
+
+  @Test
+  @DisplayName("샘플링되지 않은 trace 라도 예외가 나면 예외 지점부터 루트까지 종료 로그를 남김")
+  void forceSampleOnError() {
+    trace.setSampler(new RateTraceSampler(0.0));
+
+    TraceStatus status1 = trace.begin("hello1");
+    TraceStatus status2 = trace.begin("hello2");
+    trace.exception(status2, new IllegalStateException());
+    trace.end(status1);
+
+    assertThat(sink.lines).containsExactly("<X-hello2 1", "<--hello1 0");
+
+    // 다음 trace 는 다시 샘플링 대상 아님
+    trace.end(trace.begin("hello3"));
+    assertThat(sink.lines).hasSize(2);
+  }
+
+  @Test
+  @DisplayName("가상 스레드마다 따로 trace 를 유지하고, 끝나면 스레드에 남기지 않음")
+  void virtualThreads() throws Exception {
+    assumeTrue(VirtualThreads.isSupported());
+    trace.setSampler(new RateTraceSampler(0.0)); // RecordingSink 는 단일 스레드용
+    AtomicInteger failures = new AtomicInteger();
+
+    ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("trace-virtual-");
+    for (int i = 0; i < 1000; i++) {
+      executor.execute(() -> {
+        TraceStatus status1 = trace.begin("hello1");
+        Thread.yield();
+        TraceStatus status2 = trace.begin("hello2");
+        boolean sameTrace = status2.getTraceId().getId().equals(status1.getTraceId().getId())
+            && status2.getTraceId().getLevel() == 1;
+        trace.end(status2);
+        trace.end(status1);
+        if (!sameTrace || trace.capture() != null) {
+          failures.incrementAndGet();
+        }
+      });
+    }
+    executor.shutdown();
+
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(failures.get()).isEqualTo(0);
+  }
+
+  static class RecordingSink implements TraceSink {
+
+    final List<String> lines = new ArrayList<>();
+
+    @Override
+    public void begin(TraceId traceId, String message) {
+      lines.add("-->" + message + " " + traceId.getLevel());
+    }
+
+    @Override
+    public void complete(TraceId traceId, String message, long resultTimeNanos, Exception e) {
+      lines.add((e == null ? "<--" : "<X-") + message + " " + traceId.getLevel());
+    }
+  }
+}
@@ -0,0 +1,168 @@
+package hello.proxy.trace.sink;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hello.proxy.trace.TraceId;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class AsyncTraceSinkTest {
+
+  @Test
+  @DisplayName("여러 스레드에서 발행한 이벤트가 writer 스레드에서 모두 기록됨")
+  void publishFromManyThreads() throws InterruptedException {
+    CollectingSink collector = new CollectingSink();
+    AsyncTraceSink sink = new AsyncTraceSink(collector, 1024, OverflowPolicy.BLOCK);
+
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        for (int i = 0; i < 10_000; i++) {
+          TraceId traceId = new TraceId();
+          sink.begin(traceId, "OrderService.orderItem()");
+          sink.complete(traceId, "OrderService.orderItem()", 0, null);
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    sink.close();
+
+    assertThat(collector.events).hasSize(80_000);
+    assertThat(sink.getDroppedCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("DROP 정책은 가득 차면 버리고 카운트")
+  void dropWhenFull() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    CollectingSink collector = new CollectingSink(release);
+    AsyncTraceSink sink = new AsyncTraceSink(collector, 4, OverflowPolicy.DROP);
+
+    for (int i = 0; i < 100; i++) {
+      sink.begin(new TraceId(), "OrderRepository.save()");
+    }
+    release.countDown();
+    sink.close();
+
+    assertThat(sink.getDroppedCount()).isGreaterThan(0);
+    assertThat(collector.events.size() + sink.getDroppedCount()).isEqualTo(100);
+  }
+
+  @Test
+  @DisplayName("close 시 남은 이벤트를 모두 기록")
+  void flushOnClose() {
+    CollectingSink collector = new CollectingSink();
+    AsyncTraceSink sink = new AsyncTraceSink(collector, 64, OverflowPolicy.BLOCK);
+    for (int i = 0; i < 50; i++) {
+      sink.begin(new TraceId(), "OrderController.request()");
+    }
+    sink.close();
+
+    assertThat(collector.events).hasSize(50);
+  }
+
+  @Test
+  @DisplayName("close 와 동시에 발행된 이벤트는 기록되거나 버린 수로 세어지고, 닫힌 뒤의 이벤트는 호출 스레드에서 기록하지 않음")
+  void publishWhileClosing() throws InterruptedException {
+    CollectingSink collector = new CollectingSink();
+    AsyncTraceSink sink = new AsyncTraceSink(collector, 1024, OverflowPolicy.BLOCK);
+
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        for (int i = 0; i < 10_000; i++) {
+          sink.begin(new TraceId(), "OrderService.orderItem()");
+        }
+      });
+      threads[t].start();
+    }
+    sink.close();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    int recorded = collector.events.size();
+
+    assertThat(recorded + sink.getDroppedCount()).isEqualTo(40_000);
+    sink.begin(new TraceId(), "OrderService.orderItem()");
+    assertThat(collector.events).hasSize(recorded);
+  }
+
+  @Test
+  @DisplayName("SAMPLE 정책은 루트 begin 때 혼잡하면 그 trace 를 혼잡이 풀린 뒤까지 통째로 버리고, 혼잡 전에 시작한 trace 는 끝까지 기록")
+  void sampleWholeTraces() {
+    CountDownLatch release = new CountDownLatch(1);
+    CollectingSink collector = new CollectingSink(release);
+    AsyncTraceSink sink = new AsyncTraceSink(collector, 8, OverflowPolicy.SAMPLE, 8);
+
+    // lowId 가 8 의 배수가 아니면 혼잡할 때 버릴 수 있는 trace
+    TraceId kept = new TraceId(0L, 1L, false, true);
+    TraceId sampledOut = new TraceId(0L, 2L, false, true);
+    sink.begin(kept, "kept");
+    // writer 가 첫 이벤트에서 멈춰 있는 동안 lowId 8 의 배수인 trace 로 3/4 까지 채움
+    for (int i = 1; i <= 5; i++) {
+      sink.begin(new TraceId(0L, 8L * i, false, true), "filler");
+    }
+    sink.begin(sampledOut, "sampledOut");
+    TraceId keptChild = kept.createNextId();
+    sink.begin(keptChild, "kept.child");
+
+    release.countDown();
+    sink.flush();
+    TraceId sampledOutChild = sampledOut.createNextId();
+    sink.begin(sampledOutChild, "sampledOut.child");
+    sink.complete(sampledOutChild, "sampledOut.child", 0, null);
+    sink.complete(sampledOut, "sampledOut", 0, null);
+    sink.complete(keptChild, "kept.child", 0, null);
+    sink.complete(kept, "kept", 0, null);
+    sink.close();
+
+    assertThat(collector.events).filteredOn(event -> event.startsWith(kept.getId())).containsExactly(
+        kept.getId() + " kept",
+        kept.getId() + " kept.child",
+        kept.getId() + " kept.child",
+        kept.getId() + " kept");
+    assertThat(collector.events).noneMatch(event -> event.startsWith(sampledOut.getId()));
+    assertThat(sink.getSampledOutCount()).isEqualTo(4);
+    assertThat(sink.getDroppedCount()).isZero();
+  }
+
+  static class CollectingSink implements TraceSink {
+
+    final List<String> events = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release;
+
+    CollectingSink() {
+      this(new CountDownLatch(0));
+    }
+
+    CollectingSink(CountDownLatch release) {
+      this.release = release;
+    }
+
+    @Override
+    public void begin(TraceId traceId, String message) {
+      await();
+      events.add(traceId.getId() + " " + message);
+    }
+
+    @Override
+    public void complete(TraceId traceId, String message, long resultTimeNanos, Exception e) {
+      await();
+      events.add(traceId.getId() + " " + message);
+    }
+
+    private void await() {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package hello.proxy.trace.site;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hello.proxy.metrics.LatencyHistograms;
+import java.lang.reflect.Method;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TraceSitesTest {
+
+  @Test
+  @DisplayName("같은 메서드는 항상 같은 site, 메시지는 기존 형식 그대로")
+  void sameSite() throws Exception {
+    Method method = Target.class.getMethod("save", String.class);
+
+    TraceSite site = TraceSites.of(method);
+
+    assertThat(TraceSites.of(method)).isSameAs(site);
+    assertThat(site.getMessage()).isEqualTo("Target.save()");
+    assertThat(TraceSites.ofShortString(method).getMessage()).isEqualTo("Target.save(..)");
+    assertThat(TraceSites.ofShortString(method).getId()).isNotEqualTo(site.getId());
+    assertThat(site.hasFlag(TraceSite.FLAG_VOID_RETURN)).isTrue();
+  }
+
+  @Test
+  @DisplayName("Object 메서드 플래그")
+  void objectMethod() throws Exception {
+    TraceSite site = TraceSites.of(Object.class.getMethod("toString"));
+
+    assertThat(site.hasFlag(TraceSite.FLAG_OBJECT_METHOD)).isTrue();
+    assertThat(site.hasFlag(TraceSite.FLAG_VOID_RETURN)).isFalse();
+  }
+
+  @Test
+  @DisplayName("site 로 기록한 값과 메시지로 기록한 값은 같은 히스토그램에 합쳐짐")
+  void histogramBySite() throws Exception {
+    LatencyHistograms histograms = new LatencyHistograms();
+    TraceSite site = TraceSites.of(Target.class.getMethod("find"));
+
+    histograms.record(site, 1_000);
+    histograms.record("Target.find()", 2_000);
+
+    assertThat(histograms.snapshot().get("Target.find()").getCount()).isEqualTo(2);
+  }
+
+  public static class Target {
+
+    public void save(String itemId) {
+    }
+
+    public String find() {
+      return "ok";
+    }
+  }
+}
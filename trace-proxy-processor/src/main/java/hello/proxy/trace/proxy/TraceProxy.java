@@ -0,0 +1,29 @@
+package hello.proxy.trace.proxy;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 컴파일 시점에 로그 추적 프록시 소스를 생성할 인터페이스/클래스에 붙임
+ *
+ * 같은 패키지에 {이름}TraceProxy 클래스가 생성됨
+ *  - 인터페이스: 인터페이스를 구현하고 target 에 위임 (JDK 동적 프록시 대체)
+ *  - 클래스: 클래스를 상속하고 target 에 위임 (CGLIB 프록시 대체)
+ * 생성된 클래스는 (target, LogTrace) 생성자를 가지며 StaticTraceProxyPostProcessor 가 빈을 교체함
+ *
+ * 런타임에는 필요 없으므로 CLASS 보존 (리플렉션으로 읽지 않고 META-INF/trace-proxies 인덱스를 사용)
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface TraceProxy {
+
+    /**
+     * 로그를 남길 메서드 이름 패턴. PatternMatchUtils.simpleMatch 와 같은 규칙 ("xxx*", "*xxx", "*xxx*", "xxx*yyy")
+     * 패턴에 맞지 않는 메서드는 로그 없이 위임만 함. 매칭은 컴파일 시점에 끝나므로 런타임 비용 없음
+     */
+    String[] patterns() default {"*"};
+}
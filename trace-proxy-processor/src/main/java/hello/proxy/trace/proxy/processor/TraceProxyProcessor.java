@@ -0,0 +1,546 @@
+package hello.proxy.trace.proxy.processor;
+
+import hello.proxy.trace.proxy.TraceProxy;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+
+/**
+ * @TraceProxy 가 붙은 타입마다 로그 추적 프록시 소스를 생성
+ *
+ * 런타임 프록시(JDK 동적 프록시, CGLIB)와 같은 동작을 평범한 자바 코드로 만들어 둠
+ *  - 시작 시 바이트코드 생성/클래스 정의 없음
+ *  - 호출 경로에 Method 조회, 패턴 매칭, 리플렉션 호출 없음 (target 직접 호출 + static final TraceSite)
+ *
+ * 생성된 클래스 목록은 META-INF/trace-proxies 에 "대상 타입=프록시 타입" 형식으로 남김
+ * 여러 라운드에 걸쳐 모은 뒤 마지막 라운드에서 한 번에 기록 (gradle 에는 aggregating 으로 등록)
+ */
+@SupportedAnnotationTypes("hello.proxy.trace.proxy.TraceProxy")
+public class TraceProxyProcessor extends AbstractProcessor {
+
+    static final String SUFFIX = "TraceProxy";
+    static final String INDEX = "META-INF/trace-proxies";
+
+    private static final String LOG_TRACE = "hello.proxy.trace.logtrace.LogTrace";
+    private static final String TRACE_SITE = "hello.proxy.trace.site.TraceSite";
+    private static final String TRACE_SITES = "hello.proxy.trace.site.TraceSites";
+    private static final String TRACE_CONTEXT = "hello.proxy.trace.TraceContext";
+    private static final String COMPLETION_TRACING = "hello.proxy.trace.async.CompletionTracing";
+    private static final String INDENT = "    ";
+    private static final Set<String> OBJECT_METHODS = Set.of("equals(java.lang.Object)", "hashCode()", "toString()");
+
+    private final Map<String, String> index = new TreeMap<>();
+    private final List<Element> originatingElements = new ArrayList<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(TraceProxy.class)) {
+            TypeElement type = (TypeElement) element;
+            if (!validate(type)) {
+                continue;
+            }
+            try {
+                generate(type);
+            } catch (IOException e) {
+                error(type, "프록시 소스 생성 실패: " + e.getMessage());
+            }
+        }
+        if (roundEnv.processingOver() && !index.isEmpty()) {
+            writeIndex();
+        }
+        return true;
+    }
+
+    private boolean validate(TypeElement type) {
+        ElementKind kind = type.getKind();
+        if (kind != ElementKind.INTERFACE && kind != ElementKind.CLASS) {
+            error(type, "@TraceProxy 는 인터페이스나 클래스에만 붙일 수 있음");
+            return false;
+        }
+        Set<Modifier> modifiers = type.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            error(type, "private 타입은 프록시를 만들 수 없음");
+            return false;
+        }
+        if (type.getNestingKind() == NestingKind.MEMBER && kind == ElementKind.CLASS
+                && !modifiers.contains(Modifier.STATIC)) {
+            error(type, "내부 클래스는 static 이어야 함");
+            return false;
+        }
+        if (type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS) {
+            error(type, "지역/익명 클래스는 프록시를 만들 수 없음");
+            return false;
+        }
+        if (kind == ElementKind.CLASS) {
+            if (modifiers.contains(Modifier.FINAL)) {
+                error(type, "final 클래스는 상속할 수 없으므로 프록시를 만들 수 없음");
+                return false;
+            }
+            if (superConstructor(type) == null) {
+                error(type, "private 이 아닌 생성자가 필요함");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement type) throws IOException {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String proxyName = proxySimpleName(type);
+        String proxyQualifiedName = packageName.isEmpty() ? proxyName : packageName + "." + proxyName;
+
+        String source = new SourceWriter(type, packageName, proxyName).write();
+        try (Writer writer = processingEnv.getFiler().createSourceFile(proxyQualifiedName, type).openWriter()) {
+            writer.write(source);
+        }
+
+        index.put(processingEnv.getElementUtils().getBinaryName(type).toString(), proxyQualifiedName);
+        originatingElements.add(type);
+    }
+
+    private void writeIndex() {
+        try (PrintWriter writer = new PrintWriter(processingEnv.getFiler()
+                .createResource(StandardLocation.CLASS_OUTPUT, "", INDEX,
+                        originatingElements.toArray(new Element[0]))
+                .openWriter())) {
+            for (Map.Entry<String, String> entry : index.entrySet()) {
+                writer.println(entry.getKey() + "=" + entry.getValue());
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, INDEX + " 기록 실패: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 중첩 타입은 바깥 타입 이름을 '_' 로 이어 붙임 (Outer.Inner -> Outer_InnerTraceProxy)
+     */
+    static String proxySimpleName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        Element enclosing = type.getEnclosingElement();
+        while (enclosing instanceof TypeElement) {
+            name.insert(0, enclosing.getSimpleName() + "_");
+            enclosing = enclosing.getEnclosingElement();
+        }
+        return name.append(SUFFIX).toString();
+    }
+
+    /**
+     * 클래스 프록시의 super(...) 호출 대상. 기본 생성자 우선, 없으면 인자가 가장 적은 생성자
+     */
+    private static ExecutableElement superConstructor(TypeElement type) {
+        ExecutableElement selected = null;
+        for (Element member : type.getEnclosedElements()) {
+            if (member.getKind() != ElementKind.CONSTRUCTOR || member.getModifiers().contains(Modifier.PRIVATE)) {
+                continue;
+            }
+            ExecutableElement constructor = (ExecutableElement) member;
+            if (selected == null || constructor.getParameters().size() < selected.getParameters().size()) {
+                selected = constructor;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * org.springframework.util.PatternMatchUtils.simpleMatch 와 같은 규칙
+     * (프로세서는 스프링 없이 돌아야 해서 직접 구현)
+     */
+    static boolean simpleMatch(String pattern, String str) {
+        int firstIndex = pattern.indexOf('*');
+        if (firstIndex == -1) {
+            return pattern.equals(str);
+        }
+        if (firstIndex == 0) {
+            if (pattern.length() == 1) {
+                return true;
+            }
+            int nextIndex = pattern.indexOf('*', 1);
+            if (nextIndex == -1) {
+                return str.endsWith(pattern.substring(1));
+            }
+            String part = pattern.substring(1, nextIndex);
+            if (part.isEmpty()) {
+                return simpleMatch(pattern.substring(nextIndex), str);
+            }
+            int partIndex = str.indexOf(part);
+            while (partIndex != -1) {
+                if (simpleMatch(pattern.substring(nextIndex), str.substring(partIndex + part.length()))) {
+                    return true;
+                }
+                partIndex = str.indexOf(part, partIndex + 1);
+            }
+            return false;
+        }
+        return str.length() >= firstIndex
+                && pattern.substring(0, firstIndex).equals(str.substring(0, firstIndex))
+                && simpleMatch(pattern.substring(firstIndex), str.substring(firstIndex));
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private void warning(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message, element);
+    }
+
+    /**
+     * 프록시 한 개의 소스 생성
+     * 이름 충돌을 피하려고 LogTrace 등은 모두 전체 이름으로 씀
+     */
+    private class SourceWriter {
+
+        private final TypeElement type;
+        private final String packageName;
+        private final String proxyName;
+        private final boolean isInterface;
+        private final String[] patterns;
+        private final StringBuilder out = new StringBuilder();
+        private final StringBuilder sites = new StringBuilder();
+        private int siteCount;
+
+        SourceWriter(TypeElement type, String packageName, String proxyName) {
+            this.type = type;
+            this.packageName = packageName;
+            this.proxyName = proxyName;
+            this.isInterface = type.getKind() == ElementKind.INTERFACE;
+            this.patterns = type.getAnnotation(TraceProxy.class).patterns();
+        }
+
+        String write() {
+            String targetType = type.getQualifiedName() + typeArguments(type.getTypeParameters());
+
+            StringBuilder body = new StringBuilder();
+            writeConstructor(body, targetType);
+            for (ExecutableElement method : proxiedMethods()) {
+                writeMethod(body, method);
+            }
+            writeObjectMethods(body);
+
+            if (!packageName.isEmpty()) {
+                out.append("package ").append(packageName).append(";\n\n");
+            }
+            out.append("@javax.annotation.processing.Generated(\"").append(TraceProxyProcessor.class.getName())
+                    .append("\")\n");
+            out.append("public class ").append(proxyName).append(typeParameters(type.getTypeParameters()))
+                    .append(isInterface ? " implements " : " extends ").append(targetType).append(" {\n\n");
+            if (siteCount > 0) {
+                out.append(sites).append('\n');
+            }
+            out.append(INDENT).append("private final ").append(targetType).append(" target;\n");
+            out.append(INDENT).append("private final ").append(LOG_TRACE).append(" logTrace;\n\n");
+            out.append(body);
+            out.append("}\n");
+            return out.toString();
+        }
+
+        private void writeConstructor(StringBuilder body, String targetType) {
+            body.append(INDENT).append("public ").append(proxyName).append('(').append(targetType)
+                    .append(" target, ").append(LOG_TRACE).append(" logTrace)");
+            ExecutableElement constructor = isInterface ? null : superConstructor(type);
+            if (constructor != null) {
+                body.append(throwsClause(constructor.getThrownTypes()));
+            }
+            body.append(" {\n");
+            if (constructor != null) {
+                // 프록시는 상태를 쓰지 않으므로 생성자 인자는 모두 기본값 (concrete_proxy 의 super(null) 과 같음)
+                StringJoiner args = new StringJoiner(", ");
+                for (VariableElement parameter : constructor.getParameters()) {
+                    args.add(defaultValue(parameter.asType()));
+                }
+                body.append(INDENT).append(INDENT).append("super(").append(args).append(");\n");
+            }
+            body.append(INDENT).append(INDENT).append("this.target = target;\n");
+            body.append(INDENT).append(INDENT).append("this.logTrace = logTrace;\n");
+            body.append(INDENT).append("}\n");
+        }
+
+        /**
+         * 상속받은 것까지 포함한 public 인스턴스 메서드
+         * equals/hashCode/toString 은 다시 선언돼 있어도 writeObjectMethods 에서 따로 처리
+         */
+        private List<ExecutableElement> proxiedMethods() {
+            List<ExecutableElement> methods = new ArrayList<>();
+            Set<String> seen = new HashSet<>(OBJECT_METHODS);
+            for (Element member : processingEnv.getElementUtils().getAllMembers(type)) {
+                if (member.getKind() != ElementKind.METHOD) {
+                    continue;
+                }
+                ExecutableElement method = (ExecutableElement) member;
+                Set<Modifier> modifiers = method.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || !modifiers.contains(Modifier.PUBLIC)) {
+                    continue;
+                }
+                // getClass, wait, notify 등 (final 이라 어차피 가로챌 수 없음)
+                if (((TypeElement) method.getEnclosingElement()).getQualifiedName().contentEquals("java.lang.Object")) {
+                    continue;
+                }
+                String signature = signature(method);
+                if (!seen.add(signature)) {
+                    continue;
+                }
+                if (modifiers.contains(Modifier.FINAL)) {
+                    warning(method, "final 메서드는 프록시에서 가로챌 수 없음: " + method.getSimpleName());
+                    continue;
+                }
+                methods.add(method);
+            }
+            return methods;
+        }
+
+        private void writeMethod(StringBuilder body, ExecutableElement method) {
+            ExecutableType methodType = (ExecutableType) processingEnv.getTypeUtils()
+                    .asMemberOf((DeclaredType) type.asType(), method);
+            String name = method.getSimpleName().toString();
+            boolean isVoid = methodType.getReturnType().getKind() == TypeKind.VOID;
+
+            Set<String> parameterNames = new HashSet<>();
+            StringJoiner parameters = new StringJoiner(", ");
+            StringJoiner arguments = new StringJoiner(", ");
+            List<? extends VariableElement> parameterElements = method.getParameters();
+            List<? extends TypeMirror> parameterTypes = methodType.getParameterTypes();
+            for (int i = 0; i < parameterElements.size(); i++) {
+                String parameterName = parameterElements.get(i).getSimpleName().toString();
+                TypeMirror parameterType = parameterTypes.get(i);
+                String typeName = method.isVarArgs() && i == parameterElements.size() - 1
+                        ? ((ArrayType) parameterType).getComponentType() + "..."
+                        : parameterType.toString();
+                parameters.add(typeName + " " + parameterName);
+                arguments.add(parameterName);
+                parameterNames.add(parameterName);
+            }
+
+            body.append('\n');
+            body.append(INDENT).append("@Override\n");
+            body.append(INDENT).append("public ");
+            String methodTypeParameters = typeParameters(method.getTypeParameters());
+            if (!methodTypeParameters.isEmpty()) {
+                body.append(methodTypeParameters).append(' ');
+            }
+            body.append(methodType.getReturnType()).append(' ').append(name).append('(').append(parameters)
+                    .append(')').append(throwsClause(methodType.getThrownTypes())).append(" {\n");
+
+            String call = "this.target." + name + "(" + arguments + ")";
+            if (!traced(name)) {
+                line(body, 2, (isVoid ? "" : "return ") + call + ";");
+                body.append(INDENT).append("}\n");
+                return;
+            }
+
+            String site = addSite(method);
+            String span = freshName("span", parameterNames);
+            String result = freshName("result", parameterNames);
+            String e = freshName("e", parameterNames);
+            String context = freshName("context", parameterNames);
+            boolean async = !isVoid && isCompletionStage(methodType.getReturnType());
+            line(body, 2, "int " + span + " = " + LOG_TRACE + ".NO_SPAN;");
+            line(body, 2, "try {");
+            line(body, 3, span + " = this.logTrace.beginSpan(" + site + ");");
+            if (async) {
+                // 런타임 프록시(LogTraceAdvice, LogTraceAspect)와 같이 완료 시점까지 "{message}.async()" span 으로 기록
+                line(body, 3, TRACE_CONTEXT + " " + context + " = " + COMPLETION_TRACING
+                        + ".captureIfAsync(this.logTrace, " + site + ");");
+            }
+            if (isVoid) {
+                line(body, 3, call + ";");
+                line(body, 3, "this.logTrace.endSpan(" + span + ");");
+            } else {
+                line(body, 3, methodType.getReturnType() + " " + result + " = " + call + ";");
+                line(body, 3, "this.logTrace.endSpan(" + span + ");");
+                if (async) {
+                    line(body, 3, COMPLETION_TRACING + ".traceCompletion(this.logTrace, " + context + ", "
+                            + result + ", " + site + ");");
+                }
+                line(body, 3, "return " + result + ";");
+            }
+            // Error 도 span 을 닫음. catch 변수를 다시 던지므로(precise rethrow) throws 절은 원래 메서드 그대로
+            line(body, 2, "} catch (java.lang.Throwable " + e + ") {");
+            line(body, 3, "this.logTrace.exceptionSpan(" + span + ", " + e + " instanceof java.lang.Exception ? (java.lang.Exception) "
+                    + e + " : new java.lang.RuntimeException(" + e + "));");
+            line(body, 3, "throw " + e + ";");
+            line(body, 2, "}");
+            body.append(INDENT).append("}\n");
+        }
+
+        /**
+         * JDK 동적 프록시처럼 equals/hashCode/toString 은 로그 없이 target 에 위임
+         * 클래스가 final 로 막아 둔 메서드는 건너뜀
+         */
+        private void writeObjectMethods(StringBuilder body) {
+            Set<String> finalSignatures = new HashSet<>();
+            for (Element member : processingEnv.getElementUtils().getAllMembers(type)) {
+                if (member.getKind() == ElementKind.METHOD && member.getModifiers().contains(Modifier.FINAL)) {
+                    finalSignatures.add(signature((ExecutableElement) member));
+                }
+            }
+            if (!finalSignatures.contains("equals(java.lang.Object)")) {
+                body.append('\n').append(INDENT).append("@Override\n");
+                line(body, 1, "public boolean equals(java.lang.Object obj) {");
+                line(body, 2, "return this.target.equals(obj);");
+                line(body, 1, "}");
+            }
+            if (!finalSignatures.contains("hashCode()")) {
+                body.append('\n').append(INDENT).append("@Override\n");
+                line(body, 1, "public int hashCode() {");
+                line(body, 2, "return this.target.hashCode();");
+                line(body, 1, "}");
+            }
+            if (!finalSignatures.contains("toString()")) {
+                body.append('\n').append(INDENT).append("@Override\n");
+                line(body, 1, "public java.lang.String toString() {");
+                line(body, 2, "return this.target.toString();");
+                line(body, 1, "}");
+            }
+        }
+
+        /**
+         * 메서드마다 static final TraceSite. 클래스 초기화 때 한 번만 Method 를 찾음
+         * 런타임 프록시와 같은 TraceSites 저장소를 쓰므로 메시지와 id 가 같음
+         */
+        private String addSite(ExecutableElement method) {
+            String field = "SITE_" + siteCount++;
+            StringBuilder lookup = new StringBuilder();
+            lookup.append(TRACE_SITES).append(".of(")
+                    .append(processingEnv.getTypeUtils().erasure(type.asType())).append(".class, \"")
+                    .append(method.getSimpleName()).append('"');
+            for (VariableElement parameter : method.getParameters()) {
+                lookup.append(", ").append(processingEnv.getTypeUtils().erasure(parameter.asType())).append(".class");
+            }
+            lookup.append(')');
+            sites.append(INDENT).append("private static final ").append(TRACE_SITE).append(' ').append(field)
+                    .append(" =\n").append(INDENT).append(INDENT).append(INDENT).append(lookup).append(";\n");
+            return field;
+        }
+
+        private boolean isCompletionStage(TypeMirror returnType) {
+            TypeElement completionStage = processingEnv.getElementUtils()
+                    .getTypeElement("java.util.concurrent.CompletionStage");
+            return returnType.getKind() == TypeKind.DECLARED && completionStage != null
+                    && processingEnv.getTypeUtils().isAssignable(
+                            processingEnv.getTypeUtils().erasure(returnType),
+                            processingEnv.getTypeUtils().erasure(completionStage.asType()));
+        }
+
+        private boolean traced(String methodName) {
+            for (String pattern : patterns) {
+                if (simpleMatch(pattern, methodName)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private String signature(ExecutableElement method) {
+            StringJoiner joiner = new StringJoiner(",", method.getSimpleName() + "(", ")");
+            for (VariableElement parameter : method.getParameters()) {
+                joiner.add(processingEnv.getTypeUtils().erasure(parameter.asType()).toString());
+            }
+            return joiner.toString();
+        }
+
+        private String defaultValue(TypeMirror type) {
+            switch (type.getKind()) {
+                case BOOLEAN:
+                    return "false";
+                case BYTE:
+                case SHORT:
+                case CHAR:
+                case INT:
+                case LONG:
+                case FLOAT:
+                case DOUBLE:
+                    return "(" + type + ") 0";
+                default:
+                    // 생성자 오버로딩이 있어도 모호하지 않도록 캐스팅
+                    return "(" + processingEnv.getTypeUtils().erasure(type) + ") null";
+            }
+        }
+    }
+
+    private static String typeArguments(List<? extends TypeParameterElement> typeParameters) {
+        if (typeParameters.isEmpty()) {
+            return "";
+        }
+        StringJoiner joiner = new StringJoiner(", ", "<", ">");
+        for (TypeParameterElement typeParameter : typeParameters) {
+            joiner.add(typeParameter.getSimpleName());
+        }
+        return joiner.toString();
+    }
+
+    private static String typeParameters(List<? extends TypeParameterElement> typeParameters) {
+        if (typeParameters.isEmpty()) {
+            return "";
+        }
+        StringJoiner joiner = new StringJoiner(", ", "<", ">");
+        for (TypeParameterElement typeParameter : typeParameters) {
+            StringJoiner bounds = new StringJoiner(" & ");
+            for (TypeMirror bound : typeParameter.getBounds()) {
+                if (!bound.toString().equals("java.lang.Object")) {
+                    bounds.add(bound.toString());
+                }
+            }
+            joiner.add(bounds.length() == 0
+                    ? typeParameter.getSimpleName()
+                    : typeParameter.getSimpleName() + " extends " + bounds);
+        }
+        return joiner.toString();
+    }
+
+    private static String throwsClause(List<? extends TypeMirror> thrownTypes) {
+        if (thrownTypes.isEmpty()) {
+            return "";
+        }
+        StringJoiner joiner = new StringJoiner(", ", " throws ", "");
+        for (TypeMirror thrownType : thrownTypes) {
+            joiner.add(thrownType.toString());
+        }
+        return joiner.toString();
+    }
+
+    private static String freshName(String base, Set<String> taken) {
+        String name = base;
+        while (taken.contains(name)) {
+            name = name + "_";
+        }
+        return name;
+    }
+
+    private static void line(StringBuilder body, int depth, String code) {
+        for (int i = 0; i < depth; i++) {
+            body.append(INDENT);
+        }
+        body.append(code).append('\n');
+    }
+}